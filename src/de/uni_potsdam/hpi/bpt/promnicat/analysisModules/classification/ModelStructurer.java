@@ -0,0 +1,395 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.classification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import org.jbpt.algo.tree.rpst.RPST;
+import org.jbpt.algo.tree.rpst.RPSTNode;
+import org.jbpt.algo.tree.tctree.TCType;
+import org.jbpt.graph.abs.IDirectedEdge;
+import org.jbpt.pm.ControlFlow;
+import org.jbpt.pm.FlowNode;
+import org.jbpt.pm.Gateway;
+import org.jbpt.pm.ProcessModel;
+import org.jbpt.pm.XorGateway;
+
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.classification.StructuringResult.Outcome;
+import de.uni_potsdam.hpi.bpt.promnicat.util.ModelAnalysisContext;
+
+/**
+ * Transforms unstructured {@link ProcessModel}s into structured ones having the same behavior.
+ * <br/><br/>
+ * Each acyclic rigid fragment of the {@link RPST} is structured by node duplication. Exclusive joins merging
+ * edges of different child fragments of the rigid are unfolded one at a time starting with the one closest to
+ * the fragment's exit, i.e., the part of the fragment following the join is copied for each of these child
+ * fragments. Joins of well-structured child fragments are never unfolded and the {@link RPST} is rebuilt
+ * after each unfolding, so that no more nodes are copied once the fragment is not rigid anymore.
+ * A part is only copied, if each of
+ * its nodes except the join is only reached from within the part. Hence, concurrent branches are always copied
+ * together with their split and their join. Cyclic rigid fragments and rigid fragments requiring to split
+ * concurrent branches are not structured.
+ * <br/><br/>
+ * Node duplication may increase the size of a model exponentially. Therefore, the restructuring stops if the
+ * restructured model exceeds the node budget or the time budget is exceeded. The time budget is checked after
+ * each construction of an {@link RPST}. Instances are thread safe.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+public class ModelStructurer {
+
+	/**
+	 * Default maximum number of nodes of a restructured model.
+	 */
+	public static final int DEFAULT_MAX_NODES = 5000;
+
+	/**
+	 * Default maximum time in milliseconds used to restructure a model.
+	 */
+	public static final long DEFAULT_TIMEOUT = 1000;
+
+	private static final Logger logger = Logger.getLogger(ModelStructurer.class.getName());
+
+	private final int maxNodes;
+	private final long timeout;
+
+	/**
+	 * Creates a new structurer with a budget of {@value #DEFAULT_MAX_NODES} nodes
+	 * and {@value #DEFAULT_TIMEOUT} milliseconds per model.
+	 */
+	public ModelStructurer() {
+		this(DEFAULT_MAX_NODES, DEFAULT_TIMEOUT);
+	}
+
+	/**
+	 * @param maxNodes the maximum number of nodes of a restructured model, must be at least 1
+	 * @param timeout the maximum time in milliseconds used to restructure a model, must be at least 1
+	 */
+	public ModelStructurer(int maxNodes, long timeout) {
+		if (maxNodes < 1) {
+			throw new IllegalArgumentException("The node budget must be at least 1, but was " + maxNodes + ".");
+		}
+		if (timeout < 1) {
+			throw new IllegalArgumentException("The timeout must be at least 1, but was " + timeout + ".");
+		}
+		this.maxNodes = maxNodes;
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Restructures the {@link ProcessModel} of the given context. The {@link ProcessModel} is not modified.
+	 * @param context the {@link ModelAnalysisContext} of the {@link ProcessModel} to restructure
+	 * @return the result of the restructuring
+	 */
+	public StructuringResult structure(ModelAnalysisContext context) {
+		ProcessModel original = context.getProcessModel();
+		int originalSize = Math.max(1, original.getFlowNodes().size());
+		long deadline = System.currentTimeMillis() + this.timeout;
+		if (StructuralModelChecker.isStructured(context)) {
+			return new StructuringResult(Outcome.ALREADY_STRUCTURED, original, 1.0);
+		}
+		ProcessModel model = null;
+		try {
+			checkBudget(original, 0, deadline);
+			//nodes added for normalization must be removed after restructuring
+			ProcessModel normalizedModel = context.getNormalizedModel();
+			Set<String> addedIds = new HashSet<String>();
+			for (FlowNode node : normalizedModel.getFlowNodes()) {
+				addedIds.add(node.getId());
+			}
+			for (FlowNode node : original.getFlowNodes()) {
+				addedIds.remove(node.getId());
+			}
+			model = normalizedModel.clone();
+			while (true) {
+				checkBudget(model, 0, deadline);
+				RPST<ControlFlow<FlowNode>, FlowNode> rpst = new RPST<ControlFlow<FlowNode>, FlowNode>(model);
+				checkBudget(model, 0, deadline);
+				List<RPSTNode<ControlFlow<FlowNode>, FlowNode>> rigids = new ArrayList<RPSTNode<ControlFlow<FlowNode>, FlowNode>>(
+						rpst.getVertices(TCType.R));
+				if (rigids.isEmpty()) {
+					break;
+				}
+				//handle nested fragments first
+				Collections.sort(rigids, new Comparator<RPSTNode<ControlFlow<FlowNode>, FlowNode>>() {
+
+					@Override
+					public int compare(RPSTNode<ControlFlow<FlowNode>, FlowNode> rigid1, RPSTNode<ControlFlow<FlowNode>, FlowNode> rigid2) {
+						return rigid1.getFragmentEdges().size() - rigid2.getFragmentEdges().size();
+					}
+				});
+				//the RPST must be rebuilt after each change, because the fragments have changed
+				boolean changed = false;
+				for (RPSTNode<ControlFlow<FlowNode>, FlowNode> rigid : rigids) {
+					if (structureRigid(model, rpst, rigid, deadline)) {
+						changed = true;
+						break;
+					}
+				}
+				if (!changed) {
+					return new StructuringResult(Outcome.NOT_STRUCTURABLE, null, getExpansionFactor(model, originalSize));
+				}
+			}
+			for (FlowNode node : new ArrayList<FlowNode>(model.getFlowNodes())) {
+				if (addedIds.contains(node.getId())) {
+					model.removeFlowNode(node);
+				}
+			}
+			boolean isStructured = StructuralModelChecker.isStructured(new ModelAnalysisContext(model));
+			checkBudget(model, 0, deadline);
+			if (!isStructured) {
+				return new StructuringResult(Outcome.NOT_STRUCTURABLE, null, getExpansionFactor(model, originalSize));
+			}
+			return new StructuringResult(Outcome.STRUCTURED, model, getExpansionFactor(model, originalSize));
+		} catch (BudgetExceededException e) {
+			return new StructuringResult(Outcome.BUDGET_EXCEEDED, null, getExpansionFactor(model, originalSize));
+		} catch (Exception e) {
+			logger.warning("Error during restructuring:" + e.getClass().getName() + ": " + e.getMessage());
+			return new StructuringResult(Outcome.NOT_STRUCTURABLE, null, getExpansionFactor(model, originalSize));
+		}
+	}
+
+	private double getExpansionFactor(ProcessModel model, int originalSize) {
+		return model == null ? 1.0 : (double) model.getFlowNodes().size() / originalSize;
+	}
+
+	private void checkBudget(ProcessModel model, int additionalNodes, long deadline) throws BudgetExceededException {
+		if (model.getFlowNodes().size() + additionalNodes > this.maxNodes || System.currentTimeMillis() > deadline) {
+			throw new BudgetExceededException();
+		}
+	}
+
+	/**
+	 * Unfolds the exclusive join of the given rigid fragment being closest to the fragment's exit.
+	 * Only joins merging edges of different child fragments are unfolded, because joins of
+	 * well-structured child fragments do not contribute to the rigid.
+	 * @param model the model containing the fragment, it is modified
+	 * @param rpst the {@link RPST} of the model containing the fragment
+	 * @param rigid the rigid fragment to structure
+	 * @param deadline the time in milliseconds at which the restructuring must be stopped
+	 * @return <code>true</code> if the model has been changed, <code>false</code> otherwise.
+	 * @throws BudgetExceededException if the node or the time budget is exceeded
+	 */
+	private boolean structureRigid(ProcessModel model, RPST<ControlFlow<FlowNode>, FlowNode> rpst,
+			RPSTNode<ControlFlow<FlowNode>, FlowNode> rigid, long deadline) throws BudgetExceededException {
+		FlowNode entry = rigid.getEntry();
+		FlowNode exit = rigid.getExit();
+		Map<FlowNode, List<FlowNode>> successors = new HashMap<FlowNode, List<FlowNode>>();
+		Map<FlowNode, List<FlowNode>> predecessors = new HashMap<FlowNode, List<FlowNode>>();
+		for (IDirectedEdge<FlowNode> edge : rigid.getFragmentEdges()) {
+			addToFragment(edge.getSource(), edge.getTarget(), successors, predecessors);
+		}
+		List<FlowNode> order = getTopologicalOrder(successors, predecessors);
+		if (order == null) {
+			//cyclic fragments are not structured
+			return false;
+		}
+		//group the incoming edges of each node by the child fragment they belong to
+		Map<FlowNode, List<List<FlowNode>>> incomingGroups = new HashMap<FlowNode, List<List<FlowNode>>>();
+		for (RPSTNode<ControlFlow<FlowNode>, FlowNode> child : rpst.getChildren(rigid)) {
+			List<FlowNode> group = new ArrayList<FlowNode>();
+			for (IDirectedEdge<FlowNode> edge : child.getFragmentEdges()) {
+				if (edge.getTarget() == child.getExit()) {
+					group.add(edge.getSource());
+				}
+			}
+			if (!group.isEmpty()) {
+				List<List<FlowNode>> groups = incomingGroups.get(child.getExit());
+				if (groups == null) {
+					groups = new ArrayList<List<FlowNode>>();
+					incomingGroups.put(child.getExit(), groups);
+				}
+				groups.add(group);
+			}
+		}
+		for (int i = order.size() - 1; i >= 0; i--) {
+			FlowNode join = order.get(i);
+			List<List<FlowNode>> groups = incomingGroups.get(join);
+			if (join != entry && join != exit && isExclusive(join) && groups != null && groups.size() > 1) {
+				Set<FlowNode> region = getRegion(join, exit, successors, predecessors);
+				if (region != null) {
+					checkBudget(model, (groups.size() - 1) * region.size(), deadline);
+					unfold(model, join, region, groups, successors, predecessors);
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return <code>true</code> if the given node merges its incoming branches exclusively
+	 */
+	private boolean isExclusive(FlowNode node) {
+		return node instanceof XorGateway || !(node instanceof Gateway);
+	}
+
+	/**
+	 * Collects all nodes of the fragment reachable from the given join without passing the exit of the fragment.
+	 * @return the collected nodes including the join or <code>null</code> if a collected node other than the join
+	 * can be reached from outside the collected nodes or the exit of the fragment is not exclusive, but reached
+	 * by the collected nodes.
+	 */
+	private Set<FlowNode> getRegion(FlowNode join, FlowNode exit, Map<FlowNode, List<FlowNode>> successors,
+			Map<FlowNode, List<FlowNode>> predecessors) {
+		Set<FlowNode> region = new LinkedHashSet<FlowNode>();
+		LinkedList<FlowNode> queue = new LinkedList<FlowNode>();
+		region.add(join);
+		queue.add(join);
+		while (!queue.isEmpty()) {
+			for (FlowNode successor : successors.get(queue.poll())) {
+				if (successor == exit) {
+					if (!isExclusive(exit)) {
+						return null;
+					}
+				} else if (region.add(successor)) {
+					queue.add(successor);
+				}
+			}
+		}
+		for (FlowNode node : region) {
+			if (node != join && !region.containsAll(predecessors.get(node))) {
+				return null;
+			}
+		}
+		return region;
+	}
+
+	/**
+	 * Copies the given region for each but the first group of incoming edges of the given join.
+	 * The edges of the group are redirected to the copy.
+	 */
+	private void unfold(ProcessModel model, FlowNode join, Set<FlowNode> region, List<List<FlowNode>> incomingGroups,
+			Map<FlowNode, List<FlowNode>> successors, Map<FlowNode, List<FlowNode>> predecessors) {
+		List<FlowNode> joins = new ArrayList<FlowNode>();
+		joins.add(join);
+		for (List<FlowNode> group : incomingGroups.subList(1, incomingGroups.size())) {
+			Map<FlowNode, FlowNode> copies = new HashMap<FlowNode, FlowNode>();
+			for (FlowNode node : region) {
+				FlowNode copy = node.clone();
+				copy.setId(UUID.randomUUID().toString());
+				model.addFlowNode(copy);
+				copies.put(node, copy);
+			}
+			for (FlowNode node : region) {
+				for (FlowNode successor : successors.get(node)) {
+					FlowNode target = copies.containsKey(successor) ? copies.get(successor) : successor;
+					addFlow(model, copies.get(node), target, successors, predecessors);
+				}
+			}
+			for (FlowNode predecessor : group) {
+				removeFlow(model, predecessor, join, successors, predecessors);
+				addFlow(model, predecessor, copies.get(join), successors, predecessors);
+			}
+			joins.add(copies.get(join));
+		}
+		//gateways with one incoming and one outgoing edge are not needed anymore
+		for (FlowNode node : joins) {
+			if (node instanceof Gateway && predecessors.get(node).size() == 1 && successors.get(node).size() == 1) {
+				FlowNode predecessor = predecessors.get(node).get(0);
+				FlowNode successor = successors.get(node).get(0);
+				if (model.getDirectedEdge(predecessor, successor) == null) {
+					removeFlow(model, predecessor, node, successors, predecessors);
+					removeFlow(model, node, successor, successors, predecessors);
+					model.removeFlowNode(node);
+					successors.remove(node);
+					predecessors.remove(node);
+					addFlow(model, predecessor, successor, successors, predecessors);
+				}
+			}
+		}
+	}
+
+	private void addFlow(ProcessModel model, FlowNode source, FlowNode target,
+			Map<FlowNode, List<FlowNode>> successors, Map<FlowNode, List<FlowNode>> predecessors) {
+		if (model.addControlFlow(source, target) != null) {
+			addToFragment(source, target, successors, predecessors);
+		}
+	}
+
+	private void removeFlow(ProcessModel model, FlowNode source, FlowNode target,
+			Map<FlowNode, List<FlowNode>> successors, Map<FlowNode, List<FlowNode>> predecessors) {
+		model.removeControlFlow(model.getDirectedEdge(source, target));
+		successors.get(source).remove(target);
+		predecessors.get(target).remove(source);
+	}
+
+	private void addToFragment(FlowNode source, FlowNode target,
+			Map<FlowNode, List<FlowNode>> successors, Map<FlowNode, List<FlowNode>> predecessors) {
+		getNodes(successors, source).add(target);
+		getNodes(successors, target);
+		getNodes(predecessors, target).add(source);
+		getNodes(predecessors, source);
+	}
+
+	private List<FlowNode> getNodes(Map<FlowNode, List<FlowNode>> nodes, FlowNode node) {
+		List<FlowNode> result = nodes.get(node);
+		if (result == null) {
+			result = new ArrayList<FlowNode>(2);
+			nodes.put(node, result);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the nodes of the fragment in topological order or <code>null</code> if the fragment is cyclic.
+	 */
+	private List<FlowNode> getTopologicalOrder(Map<FlowNode, List<FlowNode>> successors, Map<FlowNode, List<FlowNode>> predecessors) {
+		Map<FlowNode, Integer> inDegrees = new HashMap<FlowNode, Integer>();
+		LinkedList<FlowNode> queue = new LinkedList<FlowNode>();
+		for (Map.Entry<FlowNode, List<FlowNode>> entry : predecessors.entrySet()) {
+			inDegrees.put(entry.getKey(), entry.getValue().size());
+			if (entry.getValue().isEmpty()) {
+				queue.add(entry.getKey());
+			}
+		}
+		List<FlowNode> order = new ArrayList<FlowNode>(predecessors.size());
+		while (!queue.isEmpty()) {
+			FlowNode node = queue.poll();
+			order.add(node);
+			for (FlowNode successor : successors.get(node)) {
+				int inDegree = inDegrees.get(successor) - 1;
+				inDegrees.put(successor, inDegree);
+				if (inDegree == 0) {
+					queue.add(successor);
+				}
+			}
+		}
+		return order.size() == predecessors.size() ? order : null;
+	}
+
+	/**
+	 * Signals, that the node or time budget of a restructuring has been exceeded.
+	 */
+	private static class BudgetExceededException extends Exception {
+
+		private static final long serialVersionUID = 1L;
+	}
+}
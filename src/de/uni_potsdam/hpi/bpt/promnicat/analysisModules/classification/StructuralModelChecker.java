@@ -17,18 +17,12 @@
  */
 package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.classification;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.logging.Logger;
 
-import org.jbpt.algo.tree.rpst.RPST;
 import org.jbpt.algo.tree.tctree.TCType;
-import org.jbpt.pm.Activity;
-import org.jbpt.pm.ControlFlow;
-import org.jbpt.pm.FlowNode;
-import org.jbpt.pm.Gateway;
 import org.jbpt.pm.ProcessModel;
-import org.jbpt.pm.XorGateway;
+
+import de.uni_potsdam.hpi.bpt.promnicat.util.ModelAnalysisContext;
 
 /**
  * TODO use bpstruct-lib's BPStructAPI class if it gets updated to a compatible jBPT version.
@@ -44,37 +38,18 @@ public class StructuralModelChecker {
 	 * @return <code>true</code> if process is structured. Otherwise, <code>false</code>.
 	 */
 	public static boolean isStructured(ProcessModel process) {
-		ProcessModel copy = null;
-		copy = process.clone();
-		
-		List<FlowNode> sources = new ArrayList<FlowNode>();
-		List<FlowNode> sinks = new ArrayList<FlowNode>();
-		// check if the process has multiple sources or sinks
-		for (FlowNode node:copy.getFlowNodes()) {
-			if (copy.getIncomingEdges(node).isEmpty())
-				sources.add(node);
-			if (copy.getOutgoingEdges(node).isEmpty())
-				sinks.add(node);
-		}
-		if (sources.size() > 1) {
-			// add a single source and connect it to the former sources
-			Activity start = new Activity("_start_");
-			Gateway gate = new XorGateway();
-			copy.addEdge(start, gate);
-			for (FlowNode node:sources)
-				copy.addEdge(gate, node);
-		}
-		if (sinks.size() > 1) {
-			// add a single sink and connect it to the former sinks
-			Activity end = new Activity("_end_");
-			Gateway gate = new XorGateway();
-			copy.addEdge(gate, end);
-			for (FlowNode node:sinks)
-				copy.addEdge(node, gate);
-		}
+		return isStructured(new ModelAnalysisContext(process));
+	}
+
+	/**
+	 * Check if a process is already structured. The {@link org.jbpt.algo.tree.rpst.RPST} of the process
+	 * having a single source and a single sink is taken from the given context.
+	 * @param context the {@link ModelAnalysisContext} of the process to check
+	 * @return <code>true</code> if process is structured. Otherwise, <code>false</code>.
+	 */
+	public static boolean isStructured(ModelAnalysisContext context) {
 		try{
-			RPST<ControlFlow<FlowNode>, FlowNode> rpst = new RPST<ControlFlow<FlowNode>, FlowNode>(copy);
-			return rpst.getVertices(TCType.R).size() == 0;
+			return context.getNormalizedRPST().getVertices(TCType.R).size() == 0;
 		} catch (Exception e) {
 			logger.warning("Error during structural check:" + e.getClass().getName() + ": " + e.getMessage());
 			return false;
@@ -88,8 +63,18 @@ public class StructuralModelChecker {
 	 * can be structured. Otherwise, <code>null</code>.
 	 */
 	public static ProcessModel structure(ProcessModel process) {
-		//TODO implement
-		return null;
+		return structure(new ModelAnalysisContext(process));
+	}
+
+	/**
+	 * Check if the {@link ProcessModel} of the given context can be structured using a
+	 * {@link ModelStructurer} with default budgets.
+	 * @param context the {@link ModelAnalysisContext} of the process to structure
+	 * @return structured {@link ProcessModel} if the given {@link ProcessModel}
+	 * can be structured. Otherwise, <code>null</code>.
+	 */
+	public static ProcessModel structure(ModelAnalysisContext context) {
+		return new ModelStructurer().structure(context).getStructuredModel();
 	}
 	
 }
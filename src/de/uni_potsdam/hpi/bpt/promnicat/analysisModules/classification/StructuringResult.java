@@ -0,0 +1,95 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.classification;
+
+import org.jbpt.pm.ProcessModel;
+
+/**
+ * Result of the restructuring of a {@link ProcessModel} by the {@link ModelStructurer}.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+public class StructuringResult {
+
+	/**
+	 * Possible outcomes of a restructuring.
+	 */
+	public enum Outcome {
+		/**
+		 * the {@link ProcessModel} has already been structured
+		 */
+		ALREADY_STRUCTURED,
+		/**
+		 * a structured equivalent of the {@link ProcessModel} has been created
+		 */
+		STRUCTURED,
+		/**
+		 * the {@link ProcessModel} contains fragments, that can not be structured by the {@link ModelStructurer}
+		 */
+		NOT_STRUCTURABLE,
+		/**
+		 * the node or time budget has been exceeded before the {@link ProcessModel} has been structured
+		 */
+		BUDGET_EXCEEDED
+	}
+
+	private final Outcome outcome;
+	private final ProcessModel structuredModel;
+	private final double expansionFactor;
+
+	/**
+	 * @param outcome the outcome of the restructuring
+	 * @param structuredModel the structured {@link ProcessModel} or <code>null</code> if none has been found
+	 * @param expansionFactor the number of nodes of the (partially) restructured model divided by the number
+	 * of nodes of the original model
+	 */
+	StructuringResult(Outcome outcome, ProcessModel structuredModel, double expansionFactor) {
+		this.outcome = outcome;
+		this.structuredModel = structuredModel;
+		this.expansionFactor = expansionFactor;
+	}
+
+	/**
+	 * @return the outcome of the restructuring
+	 */
+	public Outcome getOutcome() {
+		return this.outcome;
+	}
+
+	/**
+	 * @return the structured {@link ProcessModel}, which is the original one if it has already been structured.
+	 * <code>null</code> if no structured {@link ProcessModel} has been found.
+	 */
+	public ProcessModel getStructuredModel() {
+		return this.structuredModel;
+	}
+
+	/**
+	 * @return the number of nodes of the structured model divided by the number of nodes of the original model.
+	 * If no structured model has been found, the factor reached when the restructuring stopped is returned.
+	 */
+	public double getExpansionFactor() {
+		return this.expansionFactor;
+	}
+
+	@Override
+	public String toString() {
+		return this.outcome + " (expansion factor " + this.expansionFactor + ")";
+	}
+}
@@ -0,0 +1,604 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map.Entry;
+
+import weka.core.Attribute;
+import weka.core.FastVector;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.ClusterModelStorage;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
+import de.uni_potsdam.hpi.bpt.promnicat.util.WeightedEditDistance;
+
+/**
+ * Persistable model of a clustering result, that places new {@link ProcessInstance}s into
+ * the existing cluster hierarchy without clustering all instances again. The model stores the
+ * hierarchy of the {@link ClusterTree} with the values of its leafs and represents each node by
+ * its centroid, i.e. the mean of the normalized and weighted numeric attribute values and the most
+ * frequent value of each string attribute of its leafs. New instances are assigned by descending
+ * the hierarchy to the child with the nearest centroid, which is found with a {@link VantagePointTree}
+ * over the centroids of the children of each node.
+ * <br/>
+ * The numeric attributes are normalized with the ranges computed by
+ * {@link Clustering#normalizeValues(java.util.Collection)}, the string attributes are compared
+ * by their edit distance relative to the longest value seen during the clustering. As the new
+ * instances are not part of the clustering, the model tracks how well they fit into the clusters:
+ * the drift is the mean distance of the assigned instances to their centroids relative to that
+ * of the clustered instances. A drift considerably greater than 1 means that the new instances
+ * do not fit into the existing clusters and a full reclustering is advisable.
+ * <br/>
+ * The model is stored in the database as {@link ClusterModelStorage}, see
+ * {@link #save(IPersistenceApi, String)} and {@link #load(IPersistenceApi, String)}.
+ */
+public class ClusterModel implements Serializable {
+
+	private static final long serialVersionUID = 2L;
+
+	/**
+	 * Representation of a cluster in the normalized attribute space.
+	 */
+	static class Centroid implements Serializable {
+		private static final long serialVersionUID = 1L;
+		/** normalized and weighted numeric attribute values */
+		final double[] values;
+		/** string attribute values */
+		final String[] labels;
+		
+		Centroid(double[] values, String[] labels) {
+			this.values = values;
+			this.labels = labels;
+		}
+	}
+	
+	/**
+	 * Euclidean distance of the numeric values combined with the edit distances of the labels,
+	 * which are scaled to the interval [0,1]. The combination of both is a metric as well.
+	 */
+	private static class CentroidMetric implements VantagePointTree.Metric<Centroid> {
+		private static final long serialVersionUID = 1L;
+		private final double[] stringWeights;
+		private final double labelScale;
+		private transient WeightedEditDistance editDistance;
+		
+		CentroidMetric(double[] stringWeights, double labelScale) {
+			this.stringWeights = stringWeights;
+			this.labelScale = labelScale;
+		}
+		
+		@Override
+		public double distance(Centroid first, Centroid second) {
+			double distance = 0;
+			for (int i = 0; i < first.values.length; i++) {
+				double diff = first.values[i] - second.values[i];
+				distance += diff * diff;
+			}
+			if (first.labels.length > 0) {
+				if (editDistance == null) {
+					editDistance = new WeightedEditDistance();
+				}
+				for (int i = 0; i < first.labels.length; i++) {
+					double diff = Math.min(1, editDistance.getStringDistance(first.labels[i], second.labels[i]) / labelScale)
+							* stringWeights[i];
+					distance += diff * diff;
+				}
+			}
+			return Math.sqrt(distance);
+		}
+	}
+	
+	/**
+	 * Node of the persisted cluster hierarchy, corresponds to a {@link ClusterNode}.
+	 */
+	static class Node implements Serializable {
+		private static final long serialVersionUID = 1L;
+		final Centroid centroid;
+		/** name of the cluster as given by {@link ClusterNode#getClusterNameString()} */
+		final String name;
+		/** the clustered instance, only set for leafs */
+		final ProcessInstance instance;
+		final ArrayList<Node> children = new ArrayList<Node>();
+		/** number of instances of the subtree including the assigned ones */
+		int size;
+		/** index of the centroids of the children, created on demand */
+		transient VantagePointTree<Centroid> index;
+		
+		Node(Centroid centroid, String name, ProcessInstance instance) {
+			this.centroid = centroid;
+			this.name = name;
+			this.instance = instance;
+			this.size = instance == null ? 0 : 1;
+		}
+		
+		boolean isLeaf() {
+			return children.isEmpty();
+		}
+		
+		/**
+		 * @return the child with the centroid nearest to the given point or <code>null</code> if there is none
+		 */
+		VantagePointTree.Neighbor nearestChild(Centroid point, CentroidMetric metric) {
+			if (index == null) {
+				ArrayList<Centroid> centroids = new ArrayList<Centroid>();
+				for (Node child : children) {
+					centroids.add(child.centroid);
+				}
+				index = new VantagePointTree<Centroid>(centroids, metric);
+			}
+			return index.nearest(point);
+		}
+	}
+	
+	private final FastVector attributes;
+	private final FastVector stringAttributes;
+	private final double[] minValues;
+	private final double[] maxValues;
+	private final double[] weights;
+	/** mean numeric attribute values of all clustered instances, used for missing values */
+	private final double[] means;
+	private final CentroidMetric metric;
+	/** the cluster hierarchy, each child of the root is a cluster */
+	private final Node root;
+	/** mean distance of the clustered instances to the centroid of their cluster */
+	private final double clusteredDistance;
+	
+	private int numAssigned;
+	private double assignedDistanceSum;
+	
+	/**
+	 * Creates the model of the given clusters.
+	 * @param clusters
+	 * 			the clustering result, each child of the root is a cluster
+	 * @param attributes
+	 * 			the numeric attributes the instances have been clustered by
+	 * @param stringAttributes
+	 * 			the string attributes the instances have been clustered by, may be <code>null</code>
+	 * @param normValues
+	 * 			the maximum and minimum values of the numeric attributes as computed by
+	 * 			{@link Clustering#normalizeValues(java.util.Collection)} or <code>null</code> to take
+	 * 			them from the clustered instances
+	 */
+	public ClusterModel(ClusterTree<ProcessInstances> clusters, FastVector attributes, FastVector stringAttributes,
+			ArrayList<double[]> normValues) {
+		this.attributes = attributes;
+		this.stringAttributes = stringAttributes == null ? new FastVector() : stringAttributes;
+		int numAttributes = attributes.size();
+		int numStrAttributes = this.stringAttributes.size();
+		
+		weights = new double[numAttributes];
+		means = new double[numAttributes];
+		int[] counts = new int[numAttributes];
+		minValues = new double[numAttributes];
+		maxValues = new double[numAttributes];
+		for (int i = 0; i < numAttributes; i++) {
+			weights[i] = ((Attribute) attributes.elementAt(i)).weight();
+			minValues[i] = Double.POSITIVE_INFINITY;
+			maxValues[i] = Double.NEGATIVE_INFINITY;
+		}
+		int labelLength = 1;
+		for (ClusterNode<ProcessInstances> leaf : clusters.getRootElement().getLeafs()) {
+			if (leaf.getData() == null || leaf.getData().numInstances() == 0) {
+				continue;
+			}
+			ProcessInstance instance = leaf.getData().getFirstInstance();
+			for (int i = 0; i < numAttributes; i++) {
+				if (!instance.isMissing(i)) {
+					double value = instance.value(i);
+					means[i] += value;
+					counts[i]++;
+					minValues[i] = Math.min(minValues[i], value);
+					maxValues[i] = Math.max(maxValues[i], value);
+				}
+			}
+			for (int i = 0; i < numStrAttributes; i++) {
+				labelLength = Math.max(labelLength, label(instance, i).length());
+			}
+		}
+		for (int i = 0; i < numAttributes; i++) {
+			means[i] = counts[i] == 0 ? 0 : means[i] / counts[i];
+		}
+		if (normValues != null) {
+			System.arraycopy(normValues.get(0), 0, maxValues, 0, numAttributes);
+			System.arraycopy(normValues.get(1), 0, minValues, 0, numAttributes);
+		}
+		
+		double[] stringWeights = new double[numStrAttributes];
+		for (int i = 0; i < numStrAttributes; i++) {
+			stringWeights[i] = ((Attribute) this.stringAttributes.elementAt(i)).weight();
+		}
+		metric = new CentroidMetric(stringWeights, labelLength);
+		
+		double distanceSum = 0;
+		int numClustered = 0;
+		root = new Node(null, "", null);
+		for (ClusterNode<ProcessInstances> child : clusters.getRootElement().getChildren()) {
+			ArrayList<Centroid> points = new ArrayList<Centroid>();
+			Node cluster = createNode(child, points);
+			if (cluster == null) {
+				continue;
+			}
+			for (Centroid point : points) {
+				distanceSum += metric.distance(point, cluster.centroid);
+				numClustered++;
+			}
+			root.children.add(cluster);
+			root.size += cluster.size;
+		}
+		clusteredDistance = numClustered == 0 ? 0 : distanceSum / numClustered;
+	}
+	
+	/**
+	 * Creates the node of the given {@link ClusterNode} and its subtree.
+	 * @param clusterNode
+	 * 			the node to convert
+	 * @param points
+	 * 			list to add the points of all leafs of the subtree to
+	 * @return the created node or <code>null</code> if the subtree does not contain any instance
+	 */
+	private Node createNode(ClusterNode<ProcessInstances> clusterNode, ArrayList<Centroid> points) {
+		if (clusterNode.getNumberOfChildren() == 0) {
+			if (clusterNode.getData() == null || clusterNode.getData().numInstances() == 0) {
+				return null;
+			}
+			ProcessInstance instance = clusterNode.getData().getFirstInstance();
+			Centroid point = toCentroid(instance);
+			points.add(point);
+			return new Node(point, clusterNode.getClusterNameString(), copy(instance));
+		}
+		ArrayList<Node> children = new ArrayList<Node>();
+		int first = points.size();
+		for (ClusterNode<ProcessInstances> child : clusterNode.getChildren()) {
+			Node node = createNode(child, points);
+			if (node != null) {
+				children.add(node);
+			}
+		}
+		if (children.isEmpty()) {
+			return null;
+		}
+		Node node = new Node(createCentroid(points.subList(first, points.size())),
+				clusterNode.getClusterNameString(), null);
+		for (Node child : children) {
+			node.children.add(child);
+			node.size += child.size;
+		}
+		return node;
+	}
+	
+	/**
+	 * @return the mean of the numeric values and the most frequent labels of the given points
+	 */
+	private Centroid createCentroid(List<Centroid> points) {
+		double[] values = new double[weights.length];
+		String[] labels = new String[stringAttributes.size()];
+		ArrayList<HashMap<String, Integer>> labelCounts = new ArrayList<HashMap<String, Integer>>();
+		for (int i = 0; i < labels.length; i++) {
+			labelCounts.add(new HashMap<String, Integer>());
+		}
+		for (Centroid point : points) {
+			for (int i = 0; i < values.length; i++) {
+				values[i] += point.values[i];
+			}
+			for (int i = 0; i < labels.length; i++) {
+				Integer count = labelCounts.get(i).get(point.labels[i]);
+				labelCounts.get(i).put(point.labels[i], count == null ? 1 : count + 1);
+			}
+		}
+		for (int i = 0; i < values.length; i++) {
+			values[i] = points.isEmpty() ? 0 : values[i] / points.size();
+		}
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = mostFrequent(labelCounts.get(i));
+		}
+		return new Centroid(values, labels);
+	}
+	
+	/**
+	 * @return the label occurring most often or an empty string if there is none
+	 */
+	private static String mostFrequent(HashMap<String, Integer> labelCounts) {
+		String label = "";
+		int maxCount = 0;
+		for (Entry<String, Integer> entry : labelCounts.entrySet()) {
+			if (entry.getValue() > maxCount || (entry.getValue() == maxCount && entry.getKey().compareTo(label) < 0)) {
+				label = entry.getKey();
+				maxCount = entry.getValue();
+			}
+		}
+		return label;
+	}
+	
+	/**
+	 * Transforms the instance into the normalized and weighted attribute space of the centroids.
+	 */
+	private Centroid toCentroid(ProcessInstance instance) {
+		double[] values = new double[weights.length];
+		for (int i = 0; i < values.length; i++) {
+			double value = instance.isMissing(i) ? means[i] : instance.value(i);
+			double range = maxValues[i] - minValues[i];
+			values[i] = range == 0 ? 0 : (value - minValues[i]) / range * weights[i];
+		}
+		String[] labels = new String[stringAttributes.size()];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = label(instance, i);
+		}
+		return new Centroid(values, labels);
+	}
+	
+	/**
+	 * @return a copy of the instance without data set, that keeps the process only if it can be persisted
+	 */
+	private ProcessInstance copy(ProcessInstance instance) {
+		String[] labels = new String[stringAttributes.size()];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = instance.strValue(i);
+		}
+		ProcessInstance result = new ProcessInstance(instance.weight(), instance.toDoubleArray(), labels);
+		if (instance.process instanceof Serializable) {
+			result.process = instance.process;
+		}
+		return result;
+	}
+	
+	/**
+	 * @return the value of the string attribute or an empty string if it is missing
+	 */
+	private static String label(ProcessInstance instance, int index) {
+		String label = instance.strValue(index);
+		return label == null ? "" : label;
+	}
+	
+	/**
+	 * Assigns the given instance to the cluster with the nearest centroid. Neither the centroids
+	 * nor the hierarchy are changed, but the instance is taken into account by the drift.
+	 * @param instance
+	 * 			to assign
+	 * @return the index of the cluster, i.e. of the child of the clustered tree's root, or -1
+	 * 		if there are no clusters
+	 */
+	public synchronized int assign(ProcessInstance instance) {
+		VantagePointTree.Neighbor nearest = assign(toCentroid(instance));
+		return nearest == null ? -1 : nearest.getIndex();
+	}
+	
+	/**
+	 * Assigns the given point to the cluster with the nearest centroid and updates the drift.
+	 */
+	private VantagePointTree.Neighbor assign(Centroid point) {
+		VantagePointTree.Neighbor nearest = root.nearestChild(point, metric);
+		if (nearest != null) {
+			root.children.get(nearest.getIndex()).size++;
+			root.size++;
+			numAssigned++;
+			assignedDistanceSum += nearest.getDistance();
+		}
+		return nearest;
+	}
+	
+	/**
+	 * Assigns the given instance to the nearest cluster (see {@link #assign(ProcessInstance)})
+	 * and adds it to the hierarchy of this cluster. Therefore, the hierarchy is descended
+	 * to the child with the nearest centroid until a leaf is reached. This leaf is replaced by
+	 * a node containing the leaf and the new instance. The centroids of the other nodes are
+	 * not changed.
+	 * @param instance
+	 * 			to add
+	 * @return the index of the cluster the instance has been added to or -1 if there are no clusters
+	 */
+	public synchronized int insert(ProcessInstance instance) {
+		Centroid point = toCentroid(instance);
+		VantagePointTree.Neighbor nearest = assign(point);
+		if (nearest == null) {
+			return -1;
+		}
+		Node parent = root;
+		int childIndex = nearest.getIndex();
+		Node child = parent.children.get(childIndex);
+		while (!child.isLeaf()) {
+			if (parent != root) {
+				child.size++;
+			}
+			parent = child;
+			childIndex = parent.nearestChild(point, metric).getIndex();
+			child = parent.children.get(childIndex);
+		}
+		ArrayList<Centroid> points = new ArrayList<Centroid>();
+		points.add(child.centroid);
+		points.add(point);
+		Node node = new Node(createCentroid(points), "", null);
+		node.children.add(child);
+		node.children.add(new Node(point, "", copy(instance)));
+		if (parent == root) {
+			//single item cluster, its size has been increased by the assignment already
+			child.size--;
+		}
+		node.size = child.size + 1;
+		parent.children.set(childIndex, node);
+		parent.index = null;
+		return nearest.getIndex();
+	}
+	
+	/**
+	 * Creates the {@link ClusterTree} of the hierarchy of this model including the inserted instances.
+	 * The processes of the leafs are only available, if they are {@link Serializable}.
+	 * @return the cluster tree, each child of the root is a cluster
+	 */
+	public synchronized ClusterTree<ProcessInstances> getClusters() {
+		ClusterTree<ProcessInstances> tree = new ClusterTree<ProcessInstances>();
+		ClusterNode<ProcessInstances> rootElement = new ClusterNode<ProcessInstances>();
+		tree.setRootElement(rootElement);
+		for (Node child : root.children) {
+			rootElement.addChild(createClusterNode(child));
+		}
+		return tree;
+	}
+	
+	/**
+	 * @return the {@link ClusterNode} of the given node and its subtree
+	 */
+	private ClusterNode<ProcessInstances> createClusterNode(Node node) {
+		if (node.isLeaf()) {
+			return new ClusterNode<ProcessInstances>(new ProcessInstances(node.instance.copy(),
+					attributes, stringAttributes, 0));
+		}
+		ClusterNode<ProcessInstances> clusterNode = new ClusterNode<ProcessInstances>(
+				new ProcessInstances("", attributes, stringAttributes, 0));
+		for (Node child : node.children) {
+			clusterNode.addChild(createClusterNode(child));
+		}
+		return clusterNode;
+	}
+	
+	/**
+	 * Returns the drift of the instances assigned since the clustering, i.e. their mean
+	 * distance to the centroid of their cluster relative to the mean distance of the
+	 * clustered instances to their centroids.
+	 * @return the drift, 0 if no instances have been assigned yet
+	 */
+	public synchronized double getDrift() {
+		if (numAssigned == 0) {
+			return 0;
+		}
+		double assignedDistance = assignedDistanceSum / numAssigned;
+		if (clusteredDistance == 0) {
+			return assignedDistance == 0 ? 0 : Double.POSITIVE_INFINITY;
+		}
+		return assignedDistance / clusteredDistance;
+	}
+	
+	/**
+	 * @param maxDrift
+	 * 			the drift up to which the assigned instances are considered to fit into the clusters
+	 * @return <code>true</code> if the drift is greater than the given one and the instances should be clustered again
+	 */
+	public boolean isReclusteringNeeded(double maxDrift) {
+		return getDrift() > maxDrift;
+	}
+	
+	/**
+	 * @return the number of instances assigned since the clustering
+	 */
+	public synchronized int getNumberOfAssignedInstances() {
+		return numAssigned;
+	}
+	
+	/**
+	 * @return the number of clusters
+	 */
+	public synchronized int getNumberOfClusters() {
+		return root.children.size();
+	}
+	
+	/**
+	 * @param cluster
+	 * 			index of the cluster
+	 * @return the number of instances of the cluster including the assigned ones
+	 */
+	public synchronized int getClusterSize(int cluster) {
+		return root.children.get(cluster).size;
+	}
+	
+	/**
+	 * @param cluster
+	 * 			index of the cluster
+	 * @return the name of the cluster as given by {@link ClusterNode#getClusterNameString()}
+	 */
+	public synchronized String getClusterName(int cluster) {
+		return root.children.get(cluster).name;
+	}
+	
+	/**
+	 * Saves this model in the database with the given name. A model saved with the same name
+	 * before is replaced. The database has to be opened before.
+	 * @param persistenceApi
+	 * 			the database to save the model in
+	 * @param name
+	 * 			the name to save the model with
+	 * @return the database id of the {@link ClusterModelStorage} containing the model
+	 * @throws IOException
+	 * 			if the model could not be serialized
+	 */
+	public String save(IPersistenceApi persistenceApi, String name) throws IOException {
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(content);
+		try {
+			synchronized (this) {
+				out.writeObject(this);
+			}
+		} finally {
+			out.close();
+		}
+		ClusterModelStorage storage = findStorage(persistenceApi, name);
+		if (storage == null) {
+			storage = new ClusterModelStorage(name);
+		}
+		storage.setContent(content.toByteArray());
+		return persistenceApi.savePojo(storage);
+	}
+	
+	/**
+	 * Loads the model saved with the given name by {@link #save(IPersistenceApi, String)}.
+	 * The database has to be opened before.
+	 * @param persistenceApi
+	 * 			the database to load the model from
+	 * @param name
+	 * 			the name the model has been saved with
+	 * @return the model or <code>null</code> if no model has been saved with the given name
+	 * @throws IOException
+	 * 			if the stored content is not a cluster model
+	 */
+	public static ClusterModel load(IPersistenceApi persistenceApi, String name) throws IOException {
+		ClusterModelStorage storage = findStorage(persistenceApi, name);
+		if (storage == null || storage.getContent() == null) {
+			return null;
+		}
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(storage.getContent()));
+		try {
+			return (ClusterModel) in.readObject();
+		} catch (ClassNotFoundException e) {
+			throw new IOException("The storage " + storage.getDbId() + " does not contain a cluster model.", e);
+		} catch (ClassCastException e) {
+			throw new IOException("The storage " + storage.getDbId() + " does not contain a cluster model.", e);
+		} finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * @return the {@link ClusterModelStorage} with the given name or <code>null</code> if there is none
+	 */
+	private static ClusterModelStorage findStorage(IPersistenceApi persistenceApi, String name) {
+		try {
+			for (Object storage : persistenceApi.load("SELECT FROM " + ClusterModelStorage.class.getSimpleName()
+					+ " WHERE name = '" + name + "'")) {
+				return (ClusterModelStorage) storage;
+			}
+		} catch (RuntimeException e) {
+			//databases created before cluster models existed do not know the class yet
+		}
+		return null;
+	}
+}
@@ -18,7 +18,9 @@
 package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map.Entry;
 
 import weka.core.FastVector;
@@ -34,6 +36,9 @@ import de.uni_potsdam.hpi.bpt.promnicat.util.Range;
  */
 public class ClusterNode<T> {
 
+	/** the maximum number of words counted for each string attribute of a cluster name */
+	public static final int MAX_LABEL_WORDS = 32;
+
 	/** the clustered data */
 	public ProcessInstances data;
 	
@@ -151,6 +156,37 @@ public class ClusterNode<T> {
 					stringFeature.put(labelKey, newStringMap.get(labelKey));
 				}
 			}
+			pruneLabelWords(stringFeature);
+		}
+	}
+	
+	/**
+	 * Reduces the word counts to at most {@link #MAX_LABEL_WORDS} words (Misra-Gries summary):
+	 * the count of the first word that is too much is subtracted from all counts and the words
+	 * without a remaining count are removed. The most frequent words survive merging the counts
+	 * of all subclusters, while the size of the counts stays bounded at every level of the tree.
+	 * @param labelNames
+	 * 			the word counts to reduce
+	 */
+	static void pruneLabelWords(HashMap<String, Integer> labelNames){
+		if (labelNames.size() <= MAX_LABEL_WORDS){
+			return;
+		}
+		int[] counts = new int[labelNames.size()];
+		int i = 0;
+		for (Integer count : labelNames.values()){
+			counts[i++] = count;
+		}
+		Arrays.sort(counts);
+		int threshold = counts[counts.length - MAX_LABEL_WORDS - 1];
+		Iterator<Entry<String, Integer>> entries = labelNames.entrySet().iterator();
+		while (entries.hasNext()){
+			Entry<String, Integer> entry = entries.next();
+			if (entry.getValue() <= threshold){
+				entries.remove();
+			} else {
+				entry.setValue(entry.getValue() - threshold);
+			}
 		}
 	}
 	
@@ -163,23 +199,30 @@ public class ClusterNode<T> {
 		HashMap<String, Integer> labelNames = (HashMap<String, Integer>)clusterName.get(key);
 		//fill hashmap
 		String[] words = labelName.split(" ");
-		Stopwords stopper = new Stopwords();
 		for (String word : words){
-			if (!stopper.is(word)){
+			if (!Stopwords.isStopword(word)){
 				if (labelNames.keySet().contains(word)){//already existing, count 1 up
-					labelNames.put(word, labelNames.get(key) + 1);
+					labelNames.put(word, labelNames.get(word) + 1);
 				} else {
 					labelNames.put(word,  1);
 				}
 			}
 		}
+		pruneLabelWords(labelNames);
 	}
 	
 	
 	
+	/**
+	 * Assigns a name to this cluster and all its subclusters. The feature labels are
+	 * computed once from the instances of the leafs and are merged bottom-up: the value
+	 * ranges of the numeric attributes and the bounded word counts (see {@link #MAX_LABEL_WORDS})
+	 * of the string attributes of the subclusters are combined, so that the instances are
+	 * not visited again at every level of the tree.
+	 */
 	@SuppressWarnings("unchecked")
 	public void assignNamesToClusters(){
-		//TODO extend by numeric values
+		this.clusterName = new HashMap<String, Object>();
 		ArrayList<HashMap<String, Object>> childClusterNames = new ArrayList<HashMap<String, Object>>();
 		//assign names to child clusters
 		for (ClusterNode<T> element : this.children) {
@@ -189,11 +232,16 @@ public class ClusterNode<T> {
 		
 		if (childClusterNames.size() == 0){
 			//no children, means leaf
+			int numStrAttributes = this.data.getStringAttributes() == null ? 0 : this.data.numStrAttributes();
 			for (int i = 0; i < this.data.numInstances(); i++){
 				ProcessInstance inst = this.data.getInstance(i);
 				for (int j = 0; j < this.data.numAttributes(); j++){
 					updateFeatureLabel(j, inst.value(j));
-					updateFeatureLabel(j, inst.strValue(j));
+				}
+				for (int j = 0; j < numStrAttributes; j++){
+					if (inst.strValue(j) != null){
+						updateFeatureLabel(j, inst.strValue(j));
+					}
 				}
 			}
 		} else {//build an average value
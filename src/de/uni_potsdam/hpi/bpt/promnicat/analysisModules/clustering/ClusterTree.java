@@ -18,6 +18,7 @@
 package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 
 /**
@@ -118,7 +119,10 @@ public class ClusterTree<T> implements Cloneable{
 		ClusterNode<ProcessInstances> root = new ClusterNode<ProcessInstances>();
 		subtree.setRootElement(root);
 		
-		if (minsize >= this.getRootElement().getClusterSize()){//if the size of all elements, return only root element
+		//compute the cluster sizes of all nodes once, bottom-up
+		IdentityHashMap<ClusterNode<ProcessInstances>, Integer> clusterSizes = new IdentityHashMap<ClusterNode<ProcessInstances>, Integer>();
+		int rootSize = computeClusterSizes(this.getRootElement(), clusterSizes);
+		if (minsize >= rootSize){//if the size of all elements, return only root element
 			ClusterNode<ProcessInstances> node = (ClusterNode<ProcessInstances>) this.getRootElement().getCluster();
 			subtree.setRootElement(node);
 			return subtree;
@@ -126,11 +130,17 @@ public class ClusterTree<T> implements Cloneable{
 		
 		
 		int level = 0;
-		while (!smaller){
+		ArrayList<ClusterNode<ProcessInstances>> nodes = this.getRootElement().getChildren();
+		while (!smaller && !nodes.isEmpty()){
 			level += 1;
-			ArrayList<ClusterNode<ProcessInstances>> nodes = getNodesOnLevel(level);
+			//descend one level
+			ArrayList<ClusterNode<ProcessInstances>> nextNodes = new ArrayList<ClusterNode<ProcessInstances>>();
 			for (ClusterNode<ProcessInstances> node : nodes){
-				if (node.getClusterSize() < minsize){
+				nextNodes.addAll(node.getChildren());
+			}
+			nodes = nextNodes;
+			for (ClusterNode<ProcessInstances> node : nodes){
+				if (clusterSizes.get(node) < minsize){
 					smaller = true;
 				}
 			}
@@ -157,12 +167,38 @@ public class ClusterTree<T> implements Cloneable{
 		//get to each leaf and make a cluster from it
 		for (ClusterNode<ProcessInstances> leaf : newLeafs){
 			ClusterNode<ProcessInstances> newLeaf = (ClusterNode<ProcessInstances>) leaf.getCluster();;
-			leaf.setChildren(null);
+			leaf.setChildren(new ArrayList<ClusterNode<ProcessInstances>>());
 			leaf.setData(newLeaf.getData());
 		}
 		return subtree;
 	}
 	
+	/**
+	 * Computes the cluster size (see {@link ClusterNode#getClusterSize()}) of the given
+	 * node and all nodes of its subtree in a single post-order traversal.
+	 * @param element
+	 * 			the root of the subtree
+	 * @param clusterSizes
+	 * 			to store the cluster size of each node in
+	 * @return the cluster size of the given node
+	 */
+	private int computeClusterSizes(ClusterNode<ProcessInstances> element, 
+			IdentityHashMap<ClusterNode<ProcessInstances>, Integer> clusterSizes) {
+		int clusterSize = 0;
+		if ((element.getData() == null) || (element.getData().getInstances().size() == 0)){
+			for (ClusterNode<ProcessInstances> child : element.getChildren()) {
+				clusterSize += computeClusterSizes(child, clusterSizes);
+			}
+		} else {
+			clusterSize = 1;
+			for (ClusterNode<ProcessInstances> child : element.getChildren()) {
+				computeClusterSizes(child, clusterSizes);
+			}
+		}
+		clusterSizes.put(element, clusterSize);
+		return clusterSize;
+	}
+	
 	/**
 	 * Walks the Tree in pre-order style. This is a recursive method, and is
 	 * called from the toList() method with the root element as the first
@@ -20,12 +20,15 @@ package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.logging.Logger;
 
 import weka.core.Attribute;
 import weka.core.FastVector;
 import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.IAnalysisModule;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.DbFilterConfig;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
+import de.uni_potsdam.hpi.bpt.promnicat.util.ConfigurationParser;
 import de.uni_potsdam.hpi.bpt.promnicat.util.Constants;
 import de.uni_potsdam.hpi.bpt.promnicat.util.WeightedEuclideanDistance;
 import de.uni_potsdam.hpi.bpt.promnicat.util.FeatureConfig;
@@ -35,6 +38,7 @@ import de.uni_potsdam.hpi.bpt.promnicat.util.WeightedEditDistance;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.IUnitChainBuilder;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.UnitChain;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.UnitChainBuilder;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.collector.FeatureVectorCollectorUnit;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.UnitDataFeatureVector;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.UnitDataProcessMetrics;
 
@@ -42,6 +46,10 @@ import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.UnitDataProcessMet
  * Builds up a chain that creates {@link FeatureVector}s containing specific process 
  * metrics from the process models and clusters it afterwards hierarchically according
  * to the selected metrics/features.
+ * <br/>
+ * The result is saved as {@link ClusterModel} in the database. Models imported later on are
+ * assigned to these clusters by {@link #assignModels(IPersistenceApi, Collection)} without
+ * clustering all models again.
  * @author Cindy Fähnrich
  *
  */
@@ -49,9 +57,25 @@ public class Clustering implements IAnalysisModule {
 
 	private final static Logger logger = Logger.getLogger(Clustering.class.getName());
 	
+	/** name of the {@link ClusterModel} in the database **/
+	public static final String CLUSTER_MODEL_NAME = "bpmaiEpcClusters";
+	
 	protected HierarchicalProcessClusterer clusterer;
 	protected FastVector numericAttributes; 
 	protected FastVector stringAttributes;
+	/** the maximum and minimum feature values the clusterer has been set up with **/
+	protected ArrayList<double[]> normValues;
+	/** the model of the last clustering, used to assign new models **/
+	protected ClusterModel clusterModel;
+	/** drift up to which assigned models are considered to fit into the clusters, see {@link ClusterModel#getDrift()} **/
+	protected double maxDrift = 2;
+	
+	/** number of micro clusters for the approximate clustering, 0 for exact clustering **/
+	protected int numMicroClusters = 0;
+	/** number of instances used in each iteration to create the micro clusters **/
+	protected int microClusterBatchSize = 1000;
+	/** number of iterations to create the micro clusters **/
+	protected int microClusterIterations = 100;
 	
 	public static void main(String[] args) throws IllegalTypeException, IOException {
 		Clustering clustering = new Clustering();
@@ -64,7 +88,9 @@ public class Clustering implements IAnalysisModule {
 		long startTime = System.currentTimeMillis();
 		
 		//build up chain
-		IUnitChainBuilder chainBuilder = new UnitChainBuilder("", Constants.DATABASE_TYPES.ORIENT_DB, UnitDataProcessMetrics.class);
+		ConfigurationParser configParser = new ConfigurationParser("");
+		IPersistenceApi persistenceApi = configParser.getDbInstance(Constants.DATABASE_TYPES.ORIENT_DB);
+		IUnitChainBuilder chainBuilder = new UnitChainBuilder(persistenceApi, configParser.getThreadCount(), UnitDataProcessMetrics.class);
 		buildUpUnitChain(chainBuilder);
 		
 		logger.info(chainBuilder.getChain().toString());
@@ -73,8 +99,20 @@ public class Clustering implements IAnalysisModule {
 		@SuppressWarnings("unchecked")
 		Collection<UnitDataFeatureVector<Object>> result = (Collection<UnitDataFeatureVector<Object>>) chainBuilder.getChain().execute();
 	
-		setupClusterer(result);
-		clusterResult(result);
+		if (numMicroClusters > 0) {
+			//the feature vectors have been collected column-wise without the results
+			ColumnarProcessInstances instances = ((FeatureVectorCollectorUnit) chainBuilder.getChain().getLastUnit()).getInstances();
+			setupClusterer(normalizeValues(instances));
+			clusterResult(instances);
+		} else {
+			setupClusterer(result);
+			clusterResult(result);
+		}
+		
+		//keep the clusters for models imported later on
+		if (buildClusterModel() != null) {
+			saveClusterModel(persistenceApi);
+		}
 		
 		//finish time measurement
 		long time = System.currentTimeMillis() - startTime;
@@ -89,15 +127,51 @@ public class Clustering implements IAnalysisModule {
 	 * @throws IllegalTypeException 
 	 */
 	public void buildUpUnitChain(IUnitChainBuilder chainBuilder) throws IllegalTypeException {
+		buildUpUnitChain(chainBuilder, createDbFilterConfig(), numMicroClusters > 0);
+	}
+	
+	/**
+	 * Configures and builds up the {@link UnitChain} for the models selected by the given configuration.
+	 * @param chainBuilder
+	 * @param dbFilter the configuration of the models to create the feature vectors of
+	 * @param collectColumnwise <code>true</code> if the feature vectors should be collected column-wise
+	 * @throws IllegalTypeException 
+	 */
+	private void buildUpUnitChain(IUnitChainBuilder chainBuilder, DbFilterConfig dbFilter, boolean collectColumnwise) throws IllegalTypeException {
 		//build db query
-		chainBuilder.addDbFilterConfig(createDbFilterConfig());
+		chainBuilder.addDbFilterConfig(dbFilter);
 		chainBuilder.createBpmaiJsonToJbptUnit(false);
 		
 		chainBuilder.createProcessModelMetricsCalulatorUnit();
 		chainBuilder.createModelToFeatureVectorUnit(createMetricsConfig());
 		
 		//collect results
-		chainBuilder.createSimpleCollectorUnit();
+		if (collectColumnwise) {
+			chainBuilder.createFeatureVectorCollectorUnit(numericAttributes, stringAttributes);
+		} else {
+			chainBuilder.createSimpleCollectorUnit();
+		}
+	}
+	
+	/**
+	 * Enables the approximate clustering of large data sets, see
+	 * {@link HierarchicalProcessClusterer#setApproximateClustering(int, int, int)}.
+	 * In this case, the feature vectors are collected column-wise while the {@link UnitChain}
+	 * is executed and neither the results nor the process models are kept. The process of each
+	 * clustered instance is the database id of its process model then.
+	 * Must be called before {@link #buildUpUnitChain(IUnitChainBuilder)}.
+	 * 
+	 * @param numMicroClusters
+	 * 				maximum number of micro clusters, 0 for exact clustering
+	 * @param batchSize
+	 * 				number of instances used in each iteration to create the micro clusters
+	 * @param numIterations
+	 * 				number of iterations to create the micro clusters
+	 */
+	public void setApproximateClustering(int numMicroClusters, int batchSize, int numIterations) {
+		this.numMicroClusters = Math.max(0, numMicroClusters);
+		this.microClusterBatchSize = Math.max(1, batchSize);
+		this.microClusterIterations = Math.max(0, numIterations);
 	}
 	
 	/**
@@ -152,11 +226,21 @@ public class Clustering implements IAnalysisModule {
 	 * Create hierarchical clusterer with his attributes
 	 */
 	public void setupClusterer(Collection<UnitDataFeatureVector<Object>> result){
+		setupClusterer(normalizeValues(result));
+	}
+	
+	/**
+	 * Create hierarchical clusterer with his attributes
+	 * @param normValues the maximum and minimum feature values as computed by {@link #normalizeValues(Collection)}
+	 */
+	public void setupClusterer(ArrayList<double[]> normValues){
+		this.normValues = normValues;
 		clusterer = new HierarchicalProcessClusterer();
 		clusterer.setStringDistanceFunction(new WeightedEditDistance());
-		clusterer.setNumericDistanceFunction(new WeightedEuclideanDistance(normalizeValues(result)));
+		clusterer.setNumericDistanceFunction(new WeightedEuclideanDistance(normValues));
 		clusterer.setLinkType("CENTROID");
 		clusterer.setNumClusters(3);
+		clusterer.setApproximateClustering(numMicroClusters, microClusterBatchSize, microClusterIterations);
 		clusterer.setDebug(true);
 		clusterer.setAttributes(numericAttributes);
 		clusterer.setStringAttributes(stringAttributes);
@@ -189,10 +273,35 @@ public class Clustering implements IAnalysisModule {
 		return normVals;
 		 
 	}
+	
+	/**
+	 * Computes the maximum and minimum of all feature values like {@link #normalizeValues(Collection)}
+	 * @param instances the column-wise collected feature vectors
+	 */
+	public ArrayList<double[]> normalizeValues(ColumnarProcessInstances instances){
+		
+		double[] maxFeatureValues = new double[numericAttributes.size()];
+		double[] minFeatureValues = new double[numericAttributes.size()];
+		
+		for (int i = 0; i < instances.numAttributes(); i++){
+			double[] column = instances.column(i);
+			for (int j = 0; j < instances.numInstances(); j++){
+				if (maxFeatureValues[i] < column[j]){
+					maxFeatureValues[i] = column[j];
+				}
+				if (minFeatureValues[i] > column[j]){
+					minFeatureValues[i] = column[j];
+				}
+			}
+		}
+		ArrayList<double[]> normVals = new ArrayList<double[]>();
+		normVals.add(maxFeatureValues);
+		normVals.add(minFeatureValues);
+		return normVals;
+	}
 		
 	
 	
-	@SuppressWarnings("unused")
 	public void clusterResult(Collection<UnitDataFeatureVector<Object>> result){
 		ProcessInstances data = new ProcessInstances("", numericAttributes, stringAttributes, result.size());
 		for (UnitDataFeatureVector<Object> vector : result){
@@ -201,13 +310,132 @@ public class Clustering implements IAnalysisModule {
 			
 		try {//cluster the results
 			clusterer.buildClusterer(data);
-			ClusterTree<ProcessInstances> clusters = clusterer.getClusters();
-			int maxDepth = clusters.getRootElement().getMaxDepthOfSubtree();
-			int maxSize = clusters.getRootElement().getSizeOfSubtree();
-			ClusterTree<ProcessInstances> newCluster = clusters.getSubtreeWithMinClusterSize(2);
-			//go on with analyses of the clusters here...
+			analyzeClusters();
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 	}
+	
+	/**
+	 * Clusters the column-wise collected feature vectors, see {@link #setApproximateClustering(int, int, int)}
+	 * @param instances the instances to cluster
+	 */
+	public void clusterResult(ColumnarProcessInstances instances){
+		try {//cluster the results
+			clusterer.buildClusterer(instances);
+			analyzeClusters();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Creates the {@link ClusterModel} of the clusters created by the clusterer.
+	 * @return the created model or <code>null</code> if nothing has been clustered yet
+	 */
+	public ClusterModel buildClusterModel(){
+		if (clusterer == null || clusterer.getClusters() == null) {
+			return null;
+		}
+		clusterModel = new ClusterModel(clusterer.getClusters(), numericAttributes, stringAttributes, normValues);
+		return clusterModel;
+	}
+	
+	/**
+	 * @return the model of the last clustering or the last loaded one, <code>null</code> if there is none
+	 */
+	public ClusterModel getClusterModel(){
+		return clusterModel;
+	}
+	
+	/**
+	 * Saves the current {@link ClusterModel} in the given database, see {@link #buildClusterModel()}
+	 * and {@link #loadClusterModel(IPersistenceApi)}.
+	 * @param persistenceApi the database to save the model in
+	 * @throws IOException if the model could not be saved
+	 */
+	public void saveClusterModel(IPersistenceApi persistenceApi) throws IOException {
+		if (clusterModel == null) {
+			throw new IllegalStateException("There is no cluster model to save.");
+		}
+		clusterModel.save(persistenceApi, CLUSTER_MODEL_NAME);
+	}
+	
+	/**
+	 * Loads the {@link ClusterModel} saved by {@link #saveClusterModel(IPersistenceApi)}.
+	 * @param persistenceApi the database to load the model from
+	 * @return the loaded model or <code>null</code> if no model has been saved
+	 * @throws IOException if the model could not be loaded
+	 */
+	public ClusterModel loadClusterModel(IPersistenceApi persistenceApi) throws IOException {
+		clusterModel = ClusterModel.load(persistenceApi, CLUSTER_MODEL_NAME);
+		return clusterModel;
+	}
+	
+	/**
+	 * Sets the drift up to which assigned models are considered to fit into the clusters.
+	 * If the drift exceeds this value after {@link #assignModels(IPersistenceApi, Collection)}, a full
+	 * clustering is recommended.
+	 * @param maxDrift the maximum drift, 2 by default
+	 */
+	public void setMaxDrift(double maxDrift) {
+		this.maxDrift = maxDrift;
+	}
+	
+	/**
+	 * Assigns the given newly imported models to the clusters of the saved {@link ClusterModel}. The feature
+	 * vectors of the models are created like in {@link #execute(String[])} and inserted into the cluster
+	 * hierarchy, which is saved again afterwards. Only the latest revision of each model is assigned, so that
+	 * revisions of already clustered models are not inserted twice. Nothing is done, if no model has been saved yet.
+	 * The database has to be opened before.
+	 * @param persistenceApi the database containing the models and the saved {@link ClusterModel}
+	 * @param importedIds the imported ids of the models to assign
+	 * @return the index of the cluster each model has been assigned to in the order of the collected
+	 * feature vectors, which is empty if there is no saved {@link ClusterModel}
+	 * @throws IOException if the {@link ClusterModel} could not be loaded or saved
+	 * @throws IllegalTypeException if the {@link UnitChain} could not be built or executed
+	 */
+	public List<Integer> assignModels(IPersistenceApi persistenceApi, Collection<String> importedIds) throws IOException, IllegalTypeException {
+		List<Integer> assignedClusters = new ArrayList<Integer>();
+		if (importedIds.isEmpty()) {
+			return assignedClusters;
+		}
+		if (loadClusterModel(persistenceApi) == null) {
+			logger.info("No cluster model found, the new models have not been assigned to clusters.");
+			return assignedClusters;
+		}
+		
+		DbFilterConfig dbFilter = createDbFilterConfig();
+		dbFilter.addImportedIds(importedIds);
+		dbFilter.setLatestRevisionsOnly(true);
+		IUnitChainBuilder chainBuilder = new UnitChainBuilder(persistenceApi, UnitDataProcessMetrics.class);
+		buildUpUnitChain(chainBuilder, dbFilter, false);
+		@SuppressWarnings("unchecked")
+		Collection<UnitDataFeatureVector<Object>> result = (Collection<UnitDataFeatureVector<Object>>) chainBuilder.getChain().execute();
+		if (result == null) {
+			return assignedClusters;
+		}
+		
+		for (UnitDataFeatureVector<Object> vector : result) {
+			assignedClusters.add(clusterModel.insert(vector.getInstance()));
+		}
+		saveClusterModel(persistenceApi);
+		logger.info("Assigned " + assignedClusters.size() + " models to clusters, the drift is " + clusterModel.getDrift());
+		if (clusterModel.isReclusteringNeeded(maxDrift)) {
+			logger.warning("The assigned models do not fit into the clusters anymore, all models should be clustered again.");
+		}
+		return assignedClusters;
+	}
+	
+	/**
+	 * Analyzes the clusters created by the clusterer
+	 */
+	@SuppressWarnings("unused")
+	private void analyzeClusters(){
+		ClusterTree<ProcessInstances> clusters = clusterer.getClusters();
+		int maxDepth = clusters.getRootElement().getMaxDepthOfSubtree();
+		int maxSize = clusters.getRootElement().getSizeOfSubtree();
+		ClusterTree<ProcessInstances> newCluster = clusters.getSubtreeWithMinClusterSize(2);
+		//go on with analyses of the clusters here...
+	}
 }
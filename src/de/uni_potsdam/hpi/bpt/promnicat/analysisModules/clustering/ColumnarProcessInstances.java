@@ -0,0 +1,272 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import weka.core.FastVector;
+
+/**
+ * Column oriented storage of the data to cluster. In contrast to {@link ProcessInstances},
+ * each numeric attribute is stored in one primitive double array and each string
+ * attribute in one int array referencing a dictionary of all string values. Thus,
+ * a value needs 8 or 4 bytes only and loops over an attribute of all instances
+ * read consecutive memory.
+ * {@link ProcessInstances} for WEKA based algorithms can be created with
+ * {@link #toProcessInstances()}.
+ * 
+ * @author Cindy Fähnrich
+ *
+ */
+public class ColumnarProcessInstances {
+
+	/** code of a missing string value */
+	public static final int MISSING_STRING = -1;
+	
+	private final FastVector attributes;
+	private final FastVector strAttributes;
+	
+	/** values of each numeric attribute */
+	private double[][] columns;
+	/** dictionary codes of the values of each string attribute */
+	private int[][] strColumns;
+	private double[] weights;
+	private Object[] processes;
+	private int size = 0;
+	
+	/** string values of all string attributes */
+	private final ArrayList<String> dictionary = new ArrayList<String>();
+	private final HashMap<String, Integer> dictionaryCodes = new HashMap<String, Integer>();
+	
+	/**
+	 * Creates an empty data set.
+	 * 
+	 * @param attributes
+	 *            the numeric attributes
+	 * @param strAttributes
+	 *            the string attributes, might be <code>null</code>
+	 * @param capacity
+	 *            the initial number of instances that can be stored
+	 */
+	public ColumnarProcessInstances(FastVector attributes, FastVector strAttributes, int capacity) {
+		this.attributes = attributes;
+		this.strAttributes = strAttributes;
+		capacity = Math.max(1, capacity);
+		columns = new double[attributes.size()][capacity];
+		strColumns = new int[strAttributes == null ? 0 : strAttributes.size()][capacity];
+		weights = new double[capacity];
+		processes = new Object[capacity];
+	}
+	
+	/**
+	 * Creates a column oriented copy of the given instances.
+	 * 
+	 * @param data
+	 *            the instances to copy
+	 * @param attributes
+	 *            the numeric attributes of the instances
+	 * @param strAttributes
+	 *            the string attributes of the instances, might be <code>null</code>
+	 */
+	public ColumnarProcessInstances(ProcessInstances data, FastVector attributes, FastVector strAttributes) {
+		this(attributes, strAttributes, data.numInstances());
+		for (int i = 0; i < data.numInstances(); i++) {
+			add(data.getInstance(i));
+		}
+	}
+	
+	/**
+	 * Appends the given instance.
+	 * 
+	 * @param instance
+	 *            the instance to add
+	 */
+	public void add(ProcessInstance instance) {
+		if (size == weights.length) {
+			int capacity = size * 2;
+			for (int j = 0; j < columns.length; j++) {
+				columns[j] = Arrays.copyOf(columns[j], capacity);
+			}
+			for (int j = 0; j < strColumns.length; j++) {
+				strColumns[j] = Arrays.copyOf(strColumns[j], capacity);
+			}
+			weights = Arrays.copyOf(weights, capacity);
+			processes = Arrays.copyOf(processes, capacity);
+		}
+		for (int j = 0; j < columns.length; j++) {
+			columns[j][size] = instance.value(j);
+		}
+		for (int j = 0; j < strColumns.length; j++) {
+			strColumns[j][size] = encode(instance.strValue(j));
+		}
+		weights[size] = instance.weight();
+		processes[size] = instance.process;
+		size++;
+	}
+	
+	/**
+	 * @return the dictionary code of the given string value
+	 */
+	private int encode(String value) {
+		if (value == null) {
+			return MISSING_STRING;
+		}
+		Integer code = dictionaryCodes.get(value);
+		if (code == null) {
+			code = dictionary.size();
+			dictionaryCodes.put(value, code);
+			dictionary.add(value);
+		}
+		return code;
+	}
+	
+	/**
+	 * @return the number of instances
+	 */
+	public int numInstances() {
+		return size;
+	}
+	
+	/**
+	 * @return the number of numeric attributes
+	 */
+	public int numAttributes() {
+		return columns.length;
+	}
+	
+	/**
+	 * @return the number of string attributes
+	 */
+	public int numStrAttributes() {
+		return strColumns.length;
+	}
+	
+	/**
+	 * @return the numeric attributes
+	 */
+	public FastVector getAttributes() {
+		return attributes;
+	}
+	
+	/**
+	 * @return the string attributes
+	 */
+	public FastVector getStrAttributes() {
+		return strAttributes;
+	}
+	
+	/**
+	 * Returns the values of a numeric attribute. The array is not copied and might be
+	 * longer than the number of instances.
+	 * 
+	 * @param attribute
+	 *            index of the numeric attribute
+	 * @return the values of the attribute for all instances
+	 */
+	public double[] column(int attribute) {
+		return columns[attribute];
+	}
+	
+	/**
+	 * Returns the dictionary codes of a string attribute. The array is not copied and
+	 * might be longer than the number of instances.
+	 * 
+	 * @param attribute
+	 *            index of the string attribute
+	 * @return the codes of the values of the attribute for all instances
+	 */
+	public int[] strColumn(int attribute) {
+		return strColumns[attribute];
+	}
+	
+	/**
+	 * @return the numeric value of the given instance and attribute
+	 */
+	public double value(int instance, int attribute) {
+		return columns[attribute][instance];
+	}
+	
+	/**
+	 * @return the string value of the given instance and attribute or <code>null</code> if it is missing
+	 */
+	public String strValue(int instance, int attribute) {
+		return decode(strColumns[attribute][instance]);
+	}
+	
+	/**
+	 * @return the string value of the given dictionary code or <code>null</code> if it is missing
+	 */
+	public String decode(int code) {
+		return code == MISSING_STRING ? null : dictionary.get(code);
+	}
+	
+	/**
+	 * @return the number of distinct string values of all string attributes
+	 */
+	public int dictionarySize() {
+		return dictionary.size();
+	}
+	
+	/**
+	 * @return the weight of the given instance
+	 */
+	public double weight(int instance) {
+		return weights[instance];
+	}
+	
+	/**
+	 * @return the process model of the given instance
+	 */
+	public Object process(int instance) {
+		return processes[instance];
+	}
+	
+	/**
+	 * Creates a {@link ProcessInstance} containing the values of the given instance.
+	 * 
+	 * @param instance
+	 *            index of the instance
+	 * @return the created {@link ProcessInstance}, without a data set
+	 */
+	public ProcessInstance instance(int instance) {
+		double[] values = new double[columns.length];
+		for (int j = 0; j < columns.length; j++) {
+			values[j] = columns[j][instance];
+		}
+		String[] strValues = new String[strColumns.length];
+		for (int j = 0; j < strColumns.length; j++) {
+			strValues[j] = decode(strColumns[j][instance]);
+		}
+		ProcessInstance result = new ProcessInstance(weights[instance], values, strValues);
+		result.process = processes[instance];
+		return result;
+	}
+	
+	/**
+	 * @return all instances as {@link ProcessInstances}
+	 */
+	public ProcessInstances toProcessInstances() {
+		ProcessInstances result = new ProcessInstances("", attributes, strAttributes, size);
+		for (int i = 0; i < size; i++) {
+			result.add(instance(i));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,146 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Symmetric distance matrix used by the {@link HierarchicalProcessClusterer}.
+ * Only the upper triangle without the diagonal is stored (condensed format),
+ * hence a matrix for n elements holds n * (n - 1) / 2 values. The diagonal is
+ * always 0 and writes to it are ignored.
+ * 
+ * @author Cindy Fähnrich
+ *
+ */
+public abstract class DistanceMatrix {
+
+	/** number of elements (rows and columns) of this matrix */
+	protected final int size;
+
+	protected DistanceMatrix(int size) {
+		this.size = size;
+	}
+
+	/**
+	 * Creates a new distance matrix for the given number of elements.
+	 * 
+	 * @param size
+	 *            number of elements to store distances for
+	 * @param floatPrecision
+	 *            if <code>true</code> the values are stored as float,
+	 *            otherwise as double
+	 * @param mappedDirectory
+	 *            if not <code>null</code>, the values are stored in a memory
+	 *            mapped file in this directory instead of the heap. Values
+	 *            are always stored as float in that case.
+	 * @return the created {@link DistanceMatrix}
+	 * @throws IOException
+	 *             if the memory mapped file could not be created
+	 */
+	public static DistanceMatrix create(int size, boolean floatPrecision, File mappedDirectory) throws IOException {
+		if (mappedDirectory != null) {
+			return new MappedDistanceMatrix(size, mappedDirectory);
+		}
+		if (floatPrecision) {
+			return new FloatDistanceMatrix(size);
+		}
+		return new DoubleDistanceMatrix(size);
+	}
+
+	/**
+	 * @return the number of elements (rows and columns) of this matrix
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param i
+	 *            index of the first element
+	 * @param j
+	 *            index of the second element
+	 * @return the distance between both elements
+	 */
+	public double get(int i, int j) {
+		if (i == j) {
+			return 0;
+		}
+		return i < j ? getValue(index(i, j)) : getValue(index(j, i));
+	}
+
+	/**
+	 * Sets the distance between both elements. Writes to the diagonal are
+	 * ignored.
+	 * 
+	 * @param i
+	 *            index of the first element
+	 * @param j
+	 *            index of the second element
+	 * @param value
+	 *            the distance between both elements
+	 */
+	public void set(int i, int j, double value) {
+		if (i == j) {
+			return;
+		}
+		setValue(i < j ? index(i, j) : index(j, i), value);
+	}
+
+	/**
+	 * Releases the resources held by this matrix. The matrix must not be used
+	 * afterwards.
+	 */
+	public void dispose() {
+		// nothing to release for heap based matrices
+	}
+
+	/**
+	 * @return the number of values stored in the condensed matrix
+	 */
+	protected long condensedLength() {
+		return (long) size * (size - 1) / 2;
+	}
+
+	/**
+	 * Computes the position of element (i, j) with i &lt; j in the condensed
+	 * upper triangular matrix.
+	 */
+	protected long index(int i, int j) {
+		return (long) i * size - (long) i * (i + 1) / 2 + (j - i - 1);
+	}
+
+	/**
+	 * @return the number of values to store, if they fit into one array
+	 * @throws IllegalArgumentException
+	 *             if the values do not fit into one array
+	 */
+	protected int arrayLength() {
+		long length = condensedLength();
+		if (length > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Too many elements (" + size
+					+ ") for a heap based distance matrix, use a memory mapped one instead.");
+		}
+		return (int) length;
+	}
+
+	protected abstract double getValue(long index);
+
+	protected abstract void setValue(long index, double value);
+}
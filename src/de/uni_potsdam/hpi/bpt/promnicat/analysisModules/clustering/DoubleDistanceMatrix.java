@@ -0,0 +1,44 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
+
+/**
+ * Condensed {@link DistanceMatrix} storing the distances as double values on the heap.
+ * 
+ * @author Cindy Fähnrich
+ *
+ */
+public class DoubleDistanceMatrix extends DistanceMatrix {
+
+	private final double[] values;
+
+	public DoubleDistanceMatrix(int size) {
+		super(size);
+		values = new double[arrayLength()];
+	}
+
+	@Override
+	protected double getValue(long index) {
+		return values[(int) index];
+	}
+
+	@Override
+	protected void setValue(long index, double value) {
+		values[(int) index] = value;
+	}
+}
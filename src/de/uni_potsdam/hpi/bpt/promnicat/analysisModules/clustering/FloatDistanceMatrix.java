@@ -0,0 +1,45 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
+
+/**
+ * Condensed {@link DistanceMatrix} storing the distances as float values on the heap.
+ * Needs half of the memory of a {@link DoubleDistanceMatrix}.
+ * 
+ * @author Cindy Fähnrich
+ *
+ */
+public class FloatDistanceMatrix extends DistanceMatrix {
+
+	private final float[] values;
+
+	public FloatDistanceMatrix(int size) {
+		super(size);
+		values = new float[arrayLength()];
+	}
+
+	@Override
+	protected double getValue(long index) {
+		return values[(int) index];
+	}
+
+	@Override
+	protected void setValue(long index, double value) {
+		values[(int) index] = (float) value;
+	}
+}
@@ -17,13 +17,18 @@
  */
 package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.Serializable;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.PriorityQueue;
 import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import weka.clusterers.HierarchicalClusterer;
 import weka.core.CapabilitiesHandler;
@@ -35,6 +40,7 @@ import weka.core.OptionHandler;
 import weka.core.SelectedTag;
 import weka.core.Tag;
 import de.uni_potsdam.hpi.bpt.promnicat.util.WeightedEditDistance;
+import de.uni_potsdam.hpi.bpt.promnicat.util.WeightedEuclideanDistance;
 
 /**
  * Extends WEKAs {@link HierarchicalClusterer} by creating a clustertree
@@ -71,6 +77,42 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 	/** number of clusters desired in clustering **/
 	int m_nNumClusters = 2;
 	
+	/** number of rows and columns of a tile computed at once while filling the distance matrix **/
+	private static final int TILE_SIZE = 256;
+	
+	/** whether the distance matrix stores float instead of double values **/
+	protected boolean m_bFloatDistanceMatrix = false;
+	
+	/** directory for a memory mapped distance matrix, if <code>null</code> the matrix is kept on the heap **/
+	protected File m_mappedDistanceMatrixDirectory = null;
+	
+	/** number of threads used to fill the distance matrix **/
+	protected int m_nNumExecutionSlots = 1;
+	
+	/** maximum number of label pairs whose distances are cached, 0 disables the cache **/
+	protected long m_nLabelDistanceCacheSize = 0;
+	
+	/** time in milliseconds to precompute the label distances, 0 for no limit **/
+	protected long m_nLabelDistanceCacheTimeout = 0;
+	
+	/** cache of the edit distances between the string attribute values **/
+	protected LabelDistanceCache m_labelDistanceCache;
+	
+	/** number of micro clusters to create before the hierarchical clustering, 0 for exact clustering **/
+	protected int m_nNumMicroClusters = 0;
+	
+	/** number of instances used in each iteration to create the micro clusters **/
+	protected int m_nMicroClusterBatchSize = 1000;
+	
+	/** number of iterations to create the micro clusters **/
+	protected int m_nMicroClusterIterations = 100;
+	
+	/** indices of the instances of each micro cluster, <code>null</code> for exact clustering **/
+	int[][] m_microClusterMembers;
+	
+	/** the instances to cluster, if m_instances contains the micro clusters **/
+	ColumnarProcessInstances m_originalInstances;
+	
 	public HierarchicalProcessClusterer() {
 		super();
 	}
@@ -102,6 +144,85 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 	public int getNumClusters() {
 		return m_nNumClusters;
 	}
+	
+	/**
+	 * Sets whether the distances between the instances shall be stored with
+	 * float instead of double precision, which halves the memory needed.
+	 * @param floatDistanceMatrix
+	 * 				<code>true</code> to store float values
+	 */
+	public void setFloatDistanceMatrix(boolean floatDistanceMatrix) {
+		m_bFloatDistanceMatrix = floatDistanceMatrix;
+	}
+	
+	/**
+	 * Sets the directory to store the distances between the instances in a
+	 * memory mapped file. This is needed if the distance matrix does not fit into the heap.
+	 * The values are stored with float precision.
+	 * @param directory
+	 * 				the directory to create the temporary file in or
+	 * 				<code>null</code> to keep the distance matrix on the heap
+	 */
+	public void setMappedDistanceMatrixDirectory(File directory) {
+		m_mappedDistanceMatrixDirectory = directory;
+	}
+	
+	/**
+	 * Sets the number of threads used to calculate the distance matrix.
+	 * @param numExecutionSlots
+	 * 				number of threads to use, 1 for sequential calculation
+	 */
+	public void setNumExecutionSlots(int numExecutionSlots) {
+		m_nNumExecutionSlots = Math.max(1, numExecutionSlots);
+	}
+	
+	/**
+	 * Returns the number of threads used to calculate the distance matrix.
+	 * @return m_nNumExecutionSlots
+	 * 				the number of threads that was set
+	 */
+	public int getNumExecutionSlots() {
+		return m_nNumExecutionSlots;
+	}
+	
+	/**
+	 * Sets the limits of the cache for the edit distances between the string attribute
+	 * values. The distances of all unique value pairs are precomputed in parallel with
+	 * the number of threads set by {@link #setNumExecutionSlots(int)} and reused
+	 * during the whole clustering. The cache is only used in combination with a
+	 * {@link WeightedEditDistance}.
+	 * @param maxEntries
+	 * 				maximum number of value pairs to cache, 0 disables the cache
+	 * @param timeout
+	 * 				time in milliseconds to precompute the distances, the remaining ones
+	 * 				are calculated on demand. 0 for no limit.
+	 */
+	public void setLabelDistanceCache(long maxEntries, long timeout) {
+		m_nLabelDistanceCacheSize = Math.max(0, maxEntries);
+		m_nLabelDistanceCacheTimeout = Math.max(0, timeout);
+	}
+	
+	/**
+	 * Enables the approximate clustering of large data sets. If there are more instances than
+	 * the given number of micro clusters, the instances are grouped into micro clusters by their
+	 * numeric attributes with {@link MiniBatchKMeans} first. Only the micro clusters are clustered
+	 * hierarchically then, each represented by the mean of its numeric attribute values and the string
+	 * attribute values of its most central instance. In the resulting {@link ClusterTree}, each
+	 * micro cluster is a node containing its instances as leafs.
+	 * Large data sets should be passed as {@link ColumnarProcessInstances} to
+	 * {@link #buildClusterer(ColumnarProcessInstances)}, so that no row of the original instances is held.
+	 * @param numMicroClusters
+	 * 				maximum number of micro clusters, 0 for exact clustering
+	 * @param batchSize
+	 * 				number of instances used in each iteration to create the micro clusters
+	 * @param numIterations
+	 * 				number of iterations to create the micro clusters
+	 */
+	public void setApproximateClustering(int numMicroClusters, int batchSize, int numIterations) {
+		m_nNumMicroClusters = Math.max(0, numMicroClusters);
+		m_nMicroClusterBatchSize = Math.max(1, batchSize);
+		m_nMicroClusterIterations = Math.max(0, numIterations);
+	}
 
 	/** distance function used for comparing NUMERIC attributes of members of a cluster**/
 	protected DistanceFunction m_DistanceFunction;
@@ -202,6 +323,33 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 		}
 	}
 
+	/**
+	 * Calculates the distance between two instances of the clustering data like
+	 * {@link #calcDistanceWithFunction(ProcessInstance, ProcessInstance)}. If the numeric
+	 * distance function is a {@link WeightedEuclideanDistance}, its precomputed values
+	 * of the instances are used.
+	 * @param index1
+	 * 			index of the first instance
+	 * @param index2
+	 * 			index of the second instance
+	 * @return the distance between both instances according
+	 * 				to their numeric and string attributes (if selected)
+	 */
+	public double calcDistanceWithFunction(int index1, int index2){
+		if (!(m_DistanceFunction instanceof WeightedEuclideanDistance) || (useStrings != null && useStrings.booleanValue())){
+			// set up two instances for distance function
+			ProcessInstance instance1 = (ProcessInstance) m_instances.instance(index1).copy();
+			ProcessInstance instance2 = (ProcessInstance) m_instances.instance(index2).copy();
+			return calcDistanceWithFunction(instance1, instance2);
+		}
+		double result2 = ((WeightedEuclideanDistance) m_DistanceFunction).distance(index1, index2);
+		if (useStrings == null){//calc both
+			double result1 = m_StringDistanceFunction.distance(m_instances.instance(index1), m_instances.instance(index2));
+			return (result1 + result2)/2;
+		}
+		return result2;
+	}
+
 	/**
 	 * used for priority queue for efficient retrieval of pair of clusters to
 	 * merge
@@ -447,10 +595,7 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 
 		if (oldCluster.m_left == null) {
 			// add leaf
-			ProcessInstances newLeaf = new ProcessInstances((ProcessInstance) m_instances
-							.instance(oldCluster.m_iLeftInstance), attributes, strAttributes, 0);
-			ClusterNode<ProcessInstances> child = new ClusterNode<ProcessInstances>(newLeaf);
-			cluster.addChild(child);
+			cluster.addChild(createLeaf(oldCluster.m_iLeftInstance));
 			
 		} else {
 			// traverse again and add
@@ -461,10 +606,7 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 		}
 		if (oldCluster.m_right == null) {
 			// add leaf
-			ProcessInstances newLeaf = new ProcessInstances((ProcessInstance) m_instances
-			.instance(oldCluster.m_iRightInstance), attributes, strAttributes, 0);
-			ClusterNode<ProcessInstances> child = new ClusterNode<ProcessInstances>(newLeaf);
-			cluster.addChild(child);
+			cluster.addChild(createLeaf(oldCluster.m_iRightInstance));
 			 
 		} else {
 			// traverse again and add
@@ -489,10 +631,37 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 	public ClusterNode<ProcessInstances> createSingleCluster(Node oldCluster) {
 
 		//add to cluster
-		ProcessInstances newLeaf = new ProcessInstances((ProcessInstance) m_instances
-							.instance(oldCluster.m_iLeftInstance), attributes, strAttributes, 0);
-		ClusterNode<ProcessInstances> child = new ClusterNode<ProcessInstances>(newLeaf);
-		return child; 
+		return createLeaf(oldCluster.m_iLeftInstance);
+	}
+	
+	/**
+	 * Creates the leaf for the given instance. In case of approximate clustering,
+	 * the instance is a micro cluster and a node containing all of its instances
+	 * as leafs is created.
+	 * 
+	 * @param index
+	 *            index of the instance in m_instances
+	 * @return the leaf as {@link ClusterNode}
+	 */
+	ClusterNode<ProcessInstances> createLeaf(int index) {
+		if (m_microClusterMembers == null) {
+			return createLeaf((ProcessInstance) m_instances.instance(index));
+		}
+		int[] members = m_microClusterMembers[index];
+		if (members.length == 1) {
+			return createLeaf(m_originalInstances.instance(members[0]));
+		}
+		ClusterNode<ProcessInstances> microCluster = new ClusterNode<ProcessInstances>(new ProcessInstances
+				(new ProcessInstance(0), attributes, strAttributes, 0));
+		for (int member : members) {
+			microCluster.addChild(createLeaf(m_originalInstances.instance(member)));
+		}
+		return microCluster;
+	}
+	
+	private ClusterNode<ProcessInstances> createLeaf(ProcessInstance instance) {
+		ProcessInstances newLeaf = new ProcessInstances(instance, attributes, strAttributes, 0);
+		return new ClusterNode<ProcessInstances>(newLeaf);
 	}
 
 	/**
@@ -528,16 +697,58 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 	 *            {@link ProcessInstances} to cluster
 	 * @throws Exception
 	 */
-	@SuppressWarnings("unchecked")
 	public void buildClusterer(ProcessInstances data) throws Exception {
 		// /System.err.println("Method " + m_nLinkType);
 
+		if (useMicroClusters(data.numInstances(), data.numAttributes())) {
+			// only the column oriented copy is kept as original instances
+			buildClusterer(new ColumnarProcessInstances(data, data.getAttributes(), data.getStringAttributes()));
+			return;
+		}
+		m_microClusterMembers = null;
+		m_originalInstances = null;
+		buildHierarchy(data);
+	}
+
+	/**
+	 * Creates the clusters from the given column oriented data. In case of approximate
+	 * clustering, the micro clusters are created from the columns directly and rows are only
+	 * created for the leafs of the resulting {@link ClusterTree}.
+	 * 
+	 * @param data
+	 *            {@link ColumnarProcessInstances} to cluster
+	 * @throws Exception
+	 */
+	public void buildClusterer(ColumnarProcessInstances data) throws Exception {
+		if (!useMicroClusters(data.numInstances(), data.numAttributes())) {
+			buildClusterer(data.toProcessInstances());
+			return;
+		}
+		buildHierarchy(createMicroClusters(data));
+	}
+
+	/**
+	 * @return <code>true</code> if the given number of instances shall be grouped into micro clusters first
+	 */
+	private boolean useMicroClusters(int numInstances, int numAttributes) {
+		return m_nNumMicroClusters > 0 && numInstances > m_nNumMicroClusters && numAttributes > 0;
+	}
+
+	/**
+	 * Clusters the given instances hierarchically.
+	 * 
+	 * @param data
+	 *            the instances or micro clusters to cluster
+	 */
+	@SuppressWarnings("unchecked")
+	void buildHierarchy(ProcessInstances data) throws Exception {
 		m_instances = data;
 		int nProcessInstances = m_instances.numInstances();
 		if (nProcessInstances == 0) {
 			return;
 		}
 		setInstancesOfDistanceFunction(m_instances);
+		setUpLabelDistanceCache();
 		//m_DistanceFunction.setInstances(m_instances);
 		// use array of integer vectors to store cluster indices,
 		// starting with one cluster per instance
@@ -553,6 +764,10 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 		Node[] clusterNodes = new Node[nProcessInstances];
 		if (m_nLinkType == NEIGHBOR_JOINING) {
 			neighborJoining(nClusters, nClusterID, clusterNodes);
+		} else if (isReducibleLinkType() && m_nLinkType == SINGLE) {
+			singleLinkClustering(nClusterID, clusterNodes);
+		} else if (isReducibleLinkType()) {
+			nearestNeighborChainClustering(nClusterID, clusterNodes);
 		} else {
 			doLinkClustering(nClusters, nClusterID, clusterNodes);
 		}
@@ -571,7 +786,74 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 				iCurrent++;
 			}
 		}
-	} // buildClusterer
+	} // buildHierarchy
+
+	/**
+	 * Groups the given instances into micro clusters with {@link MiniBatchKMeans}.
+	 * 
+	 * @param data
+	 *            the instances to cluster
+	 * @return an instance for each micro cluster with the mean numeric attribute values
+	 *         and the string attribute values of the instance closest to its center
+	 */
+	ProcessInstances createMicroClusters(ColumnarProcessInstances data) {
+		MiniBatchKMeans kMeans = new MiniBatchKMeans(m_nNumMicroClusters, m_nMicroClusterBatchSize,
+				m_nMicroClusterIterations, 1);
+		kMeans.buildClusterer(data, m_nNumExecutionSlots);
+		int nMicroClusters = kMeans.numberOfClusters();
+		int[] assignment = kMeans.getAssignment();
+		int[] sizes = kMeans.getClusterSizes();
+		m_microClusterMembers = new int[nMicroClusters][];
+		for (int i = 0; i < nMicroClusters; i++) {
+			m_microClusterMembers[i] = new int[sizes[i]];
+		}
+		int[] nextMember = new int[nMicroClusters];
+		for (int i = 0; i < assignment.length; i++) {
+			m_microClusterMembers[assignment[i]][nextMember[assignment[i]]++] = i;
+		}
+		m_originalInstances = data;
+		ProcessInstances microClusters = new ProcessInstances("", data.getAttributes(), data.getStrAttributes(),
+				nMicroClusters);
+		for (int i = 0; i < nMicroClusters; i++) {
+			ProcessInstance representative = data.instance(kMeans.getRepresentatives()[i]);
+			microClusters.add(new ProcessInstance(sizes[i], kMeans.getMeans()[i], representative.m_StringAttValues));
+		}
+		return microClusters;
+	}
+	
+	/**
+	 * Creates the {@link LabelDistanceCache} for all string attribute values of the
+	 * current instances, if configured, and hands it to the string distance function.
+	 */
+	void setUpLabelDistanceCache() {
+		m_labelDistanceCache = null;
+		if (!(m_StringDistanceFunction instanceof WeightedEditDistance)) {
+			return;
+		}
+		if (m_nLabelDistanceCacheSize > 0) {
+			ArrayList<String> labels = new ArrayList<String>();
+			for (int i = 0; i < m_instances.numInstances(); i++) {
+				ProcessInstance instance = m_instances.getInstance(i);
+				for (int j = 0; j < instance.numStrAttributes(); j++) {
+					labels.add(instance.strValue(j));
+				}
+			}
+			m_labelDistanceCache = new LabelDistanceCache(labels, m_nLabelDistanceCacheSize);
+			m_labelDistanceCache.precompute(m_nNumExecutionSlots, m_nLabelDistanceCacheTimeout);
+		}
+		((WeightedEditDistance) m_StringDistanceFunction).setLabelDistanceCache(m_labelDistanceCache);
+	}
+	
+	/**
+	 * Returns the edit distance between two string attribute values, taken from the
+	 * {@link LabelDistanceCache} if available.
+	 */
+	double getStringDistance(String val1, String val2) {
+		if (m_labelDistanceCache != null) {
+			return m_labelDistanceCache.getDistance(val1, val2);
+		}
+		return ((WeightedEditDistance) m_StringDistanceFunction).getStringDistance(val1, val2);
+	}
 
 	/**
 	 * use neighbor joining algorithm for clustering This is roughly based on
@@ -586,14 +868,7 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 			Node[] clusterNodes) {
 		int n = m_instances.numInstances();
 
-		double[][] fDist = new double[nClusters][nClusters];
-		for (int i = 0; i < nClusters; i++) {
-			fDist[i][i] = 0;
-			for (int j = i + 1; j < nClusters; j++) {
-				fDist[i][j] = getDistance0(nClusterID[i], nClusterID[j]);
-				fDist[j][i] = fDist[i][j];
-			}
-		}
+		DistanceMatrix fDist = createDistanceMatrix(nClusterID);
 
 		double[] fSeparationSums = new double[n];
 		double[] fSeparations = new double[n];
@@ -603,7 +878,7 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 		for (int i = 0; i < n; i++) {
 			double fSum = 0;
 			for (int j = 0; j < n; j++) {
-				fSum += fDist[i][j];
+				fSum += fDist.get(i, j);
 			}
 			fSeparationSums[i] = fSum;
 			fSeparations[i] = fSum / (nClusters - 2);
@@ -618,12 +893,11 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 			if (m_bDebug) {
 				for (int i = 0; i < n; i++) {
 					if (nClusterID[i].size() > 0) {
-						double[] fRow = fDist[i];
 						double fSep1 = fSeparations[i];
 						for (int j = 0; j < n; j++) {
 							if (nClusterID[j].size() > 0 && i != j) {
 								double fSep2 = fSeparations[j];
-								double fVal = fRow[j] - fSep1 - fSep2;
+								double fVal = fDist.get(i, j) - fSep1 - fSep2;
 
 								if (fVal < fMin) {
 									// new minimum
@@ -639,11 +913,10 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 				int i = 0;
 				while (i < n) {
 					double fSep1 = fSeparations[i];
-					double[] fRow = fDist[i];
 					int j = nNextActive[i];
 					while (j < n) {
 						double fSep2 = fSeparations[j];
-						double fVal = fRow[j] - fSep1 - fSep2;
+						double fVal = fDist.get(i, j) - fSep1 - fSep2;
 						if (fVal < fMin) {
 							// new minimum
 							iMin1 = i;
@@ -656,7 +929,7 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 				}
 			}
 			// record distance
-			double fMinDistance = fDist[iMin1][iMin2];
+			double fMinDistance = fDist.get(iMin1, iMin2);
 			nClusters--;
 			double fSep1 = fSeparations[iMin1];
 			double fSep2 = fSeparations[iMin2];
@@ -665,22 +938,19 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 			if (nClusters > 2) {
 				// update separations & distance
 				double fNewSeparationSum = 0;
-				double fMutualDistance = fDist[iMin1][iMin2];
-				double[] fRow1 = fDist[iMin1];
-				double[] fRow2 = fDist[iMin2];
+				double fMutualDistance = fDist.get(iMin1, iMin2);
 				for (int i = 0; i < n; i++) {
 					if (i == iMin1 || i == iMin2 || nClusterID[i].size() == 0) {
-						fRow1[i] = 0;
+						fDist.set(iMin1, i, 0);
 					} else {
-						double fVal1 = fRow1[i];
-						double fVal2 = fRow2[i];
+						double fVal1 = fDist.get(iMin1, i);
+						double fVal2 = fDist.get(iMin2, i);
 						double fDistance = (fVal1 + fVal2 - fMutualDistance) / 2.0;
 						fNewSeparationSum += fDistance;
 						// update the separationsum of cluster i.
 						fSeparationSums[i] += (fDistance - fVal1 - fVal2);
 						fSeparations[i] = fSeparationSums[i] / (nClusters - 2);
-						fRow1[i] = fDistance;
-						fDist[i][iMin1] = fDistance;
+						fDist.set(iMin1, i, fDistance);
 					}
 				}
 				fSeparationSums[iMin1] = fNewSeparationSum;
@@ -704,7 +974,7 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 			if (nClusterID[i].size() > 0) {
 				for (int j = i + 1; j < n; j++) {
 					if (nClusterID[j].size() > 0) {
-						double fDist1 = fDist[i][j];
+						double fDist1 = fDist.get(i, j);
 						if (nClusterID[i].size() == 1) {
 							merge(i, j, fDist1, 0, nClusterID, clusterNodes);
 						} else if (nClusterID[j].size() == 1) {
@@ -724,6 +994,7 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 				addSingleItem(nClusterID[i].elementAt(0), clusterNodes);
 			}
 		}
+		fDist.dispose();
 	} // neighborJoining
 
 	/**
@@ -738,23 +1009,13 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 	void doLinkClustering(int nClusters, Vector<Integer>[] nClusterID,
 			Node[] clusterNodes) {
 		int nProcessInstances = m_instances.numInstances();
-		PriorityQueue<Tuple> queue = new PriorityQueue<Tuple>(nClusters
-				* nClusters / 2, new TupleComparator());
-		double[][] fDistance0 = new double[nClusters][nClusters];
-		double[][] fClusterDistance = null;
-		if (m_bDebug) {
-			fClusterDistance = new double[nClusters][nClusters];
-		}
+		// avoid integer overflow of the initial capacity for large data sets
+		PriorityQueue<Tuple> queue = new PriorityQueue<Tuple>((int) Math.max(1,
+				Math.min(Integer.MAX_VALUE - 8, (long) nClusters * nClusters / 2)), new TupleComparator());
+		DistanceMatrix fDistance0 = createDistanceMatrix(nClusterID);
 		for (int i = 0; i < nClusters; i++) {
-			fDistance0[i][i] = 0;
 			for (int j = i + 1; j < nClusters; j++) {
-				fDistance0[i][j] = getDistance0(nClusterID[i], nClusterID[j]);
-				fDistance0[j][i] = fDistance0[i][j];
-				queue.add(new Tuple(fDistance0[i][j], i, j, 1, 1));
-				if (m_bDebug) {
-					fClusterDistance[i][j] = fDistance0[i][j];
-					fClusterDistance[j][i] = fDistance0[i][j];
-				}
+				queue.add(new Tuple(fDistance0.get(i, j), i, j, 1, 1));
 			}
 		}
 		while (nClusters > m_nNumClusters) {
@@ -762,13 +1023,15 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 			int iMin2 = -1;
 			// find closest two clusters
 			if (m_bDebug) {
-				/* simple but inefficient implementation */
+				/* simple but inefficient implementation, the cluster distances are
+				 * computed from the condensed matrix instead of being stored twice */
 				double fMinDistance = Double.MAX_VALUE;
 				for (int i = 0; i < nProcessInstances; i++) {
 					if (nClusterID[i].size() > 0) {
 						for (int j = i + 1; j < nProcessInstances; j++) {
 							if (nClusterID[j].size() > 0) {
-								double fDist = fClusterDistance[i][j];
+								double fDist = nClusterID[i].size() == 1 && nClusterID[j].size() == 1
+										? fDistance0.get(i, j) : getDistance(fDistance0, nClusterID[i], nClusterID[j]);
 								if (fDist < fMinDistance) {
 									fMinDistance = fDist;
 									iMin1 = i;
@@ -802,10 +1065,6 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 					int i2 = Math.max(iMin1, i);
 					double fDistance = getDistance(fDistance0, nClusterID[i1],
 							nClusterID[i2]);
-					if (m_bDebug) {
-						fClusterDistance[i1][i2] = fDistance;
-						fClusterDistance[i2][i1] = fDistance;
-					}
 					queue.add(new Tuple(fDistance, i1, i2, nClusterID[i1]
 							.size(), nClusterID[i2].size()));
 				}
@@ -819,7 +1078,287 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 				addSingleItem(nClusterID[i].elementAt(0), clusterNodes);
 			}
 		}
+		fDistance0.dispose();
 	} // doLinkClustering
+	
+	/**
+	 * Returns whether the set link type is reducible. The clusters of the reducible
+	 * link types are built with SLINK (for link type SINGLE) or the nearest-neighbor-chain
+	 * algorithm (for link types COMPLETE and AVERAGE) instead of the priority queue.
+	 * Both need O(n^2) time instead of O(n^2 log(n)) and do not create a queue entry
+	 * for each pair of instances.
+	 * 
+	 * @return <code>true</code> if the link type is SINGLE, COMPLETE or AVERAGE
+	 */
+	boolean isReducibleLinkType() {
+		return m_nLinkType == SINGLE || m_nLinkType == COMPLETE || m_nLinkType == AVERAGE;
+	}
+	
+	/**
+	 * Perform single link clustering using the SLINK algorithm of Sibson, which
+	 * runs in O(n^2) time and needs only O(n) memory, because the distances are
+	 * calculated on demand instead of being stored in a distance matrix.
+	 * 
+	 * @param nClusterID
+	 * @param clusterNodes
+	 */
+	void singleLinkClustering(Vector<Integer>[] nClusterID, Node[] clusterNodes) {
+		int n = nClusterID.length;
+		// pointer representation of the dendrogram
+		int[] pi = new int[n];
+		double[] lambda = new double[n];
+		double[] m = new double[n];
+		for (int t = 0; t < n; t++) {
+			pi[t] = t;
+			lambda[t] = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < t; i++) {
+				m[i] = getDistance0(nClusterID[i], nClusterID[t]);
+			}
+			for (int i = 0; i < t; i++) {
+				if (lambda[i] >= m[i]) {
+					m[pi[i]] = Math.min(m[pi[i]], lambda[i]);
+					lambda[i] = m[i];
+					pi[i] = t;
+				} else {
+					m[pi[i]] = Math.min(m[pi[i]], m[i]);
+				}
+			}
+			for (int i = 0; i < t; i++) {
+				if (lambda[i] >= lambda[pi[i]]) {
+					pi[i] = t;
+				}
+			}
+		}
+		// every element except the last one is merged with its pointer at height lambda
+		int[] merge1 = new int[n - 1];
+		int[] merge2 = new int[n - 1];
+		double[] mergeDistance = new double[n - 1];
+		for (int i = 0; i < n - 1; i++) {
+			merge1[i] = i;
+			merge2[i] = pi[i];
+			mergeDistance[i] = lambda[i];
+		}
+		replayMerges(merge1, merge2, mergeDistance, nClusterID, clusterNodes);
+	} // singleLinkClustering
+	
+	/**
+	 * Perform clustering using the nearest-neighbor-chain algorithm, which runs in
+	 * O(n^2) time. The chain is extended by the nearest neighbor of its last cluster
+	 * until two clusters are reciprocal nearest neighbors, which are merged then.
+	 * The distances to the merged cluster are derived from the distance matrix with the
+	 * Lance-Williams formula. Thus, this is only applicable for reducible link types,
+	 * i.e. COMPLETE and AVERAGE.
+	 * 
+	 * @param nClusterID
+	 * @param clusterNodes
+	 */
+	void nearestNeighborChainClustering(Vector<Integer>[] nClusterID, Node[] clusterNodes) {
+		int n = nClusterID.length;
+		DistanceMatrix fDistance = createDistanceMatrix(nClusterID);
+		int[] nSize = new int[n];
+		Arrays.fill(nSize, 1);
+		boolean[] active = new boolean[n];
+		Arrays.fill(active, true);
+		int[] chain = new int[n];
+		int nChainLength = 0;
+		int iFirstActive = 0;
+		int[] merge1 = new int[n - 1];
+		int[] merge2 = new int[n - 1];
+		double[] mergeDistance = new double[n - 1];
+		for (int step = 0; step < n - 1; step++) {
+			if (nChainLength == 0) {
+				while (!active[iFirstActive]) {
+					iFirstActive++;
+				}
+				chain[nChainLength++] = iFirstActive;
+			}
+			int a;
+			int b;
+			double fMinDistance;
+			while (true) {
+				a = chain[nChainLength - 1];
+				// prefer the previous cluster of the chain to terminate on ties
+				b = nChainLength > 1 ? chain[nChainLength - 2] : -1;
+				fMinDistance = b >= 0 ? fDistance.get(a, b) : Double.POSITIVE_INFINITY;
+				for (int i = 0; i < n; i++) {
+					if (active[i] && i != a) {
+						double fDist = fDistance.get(a, i);
+						if (fDist < fMinDistance) {
+							fMinDistance = fDist;
+							b = i;
+						}
+					}
+				}
+				if (nChainLength > 1 && b == chain[nChainLength - 2]) {
+					break;
+				}
+				chain[nChainLength++] = b;
+			}
+			nChainLength -= 2;
+			int iMin1 = Math.min(a, b);
+			int iMin2 = Math.max(a, b);
+			merge1[step] = iMin1;
+			merge2[step] = iMin2;
+			mergeDistance[step] = fMinDistance;
+			// update distances to the merged cluster, which is kept at the smaller index
+			for (int i = 0; i < n; i++) {
+				if (active[i] && i != iMin1 && i != iMin2) {
+					double fDist1 = fDistance.get(iMin1, i);
+					double fDist2 = fDistance.get(iMin2, i);
+					if (m_nLinkType == COMPLETE) {
+						fDistance.set(iMin1, i, Math.max(fDist1, fDist2));
+					} else {
+						fDistance.set(iMin1, i, (nSize[iMin1] * fDist1 + nSize[iMin2] * fDist2)
+								/ (nSize[iMin1] + nSize[iMin2]));
+					}
+				}
+			}
+			nSize[iMin1] += nSize[iMin2];
+			active[iMin2] = false;
+		}
+		fDistance.dispose();
+		replayMerges(merge1, merge2, mergeDistance, nClusterID, clusterNodes);
+	} // nearestNeighborChainClustering
+	
+	/**
+	 * Applies the given merges in ascending order of their distance until the desired
+	 * number of clusters is reached. Thus, the same hierarchy is built as by merging the
+	 * closest clusters one after another.
+	 * 
+	 * @param merge1
+	 * 			an instance of the first cluster of each merge
+	 * @param merge2
+	 * 			an instance of the second cluster of each merge
+	 * @param mergeDistance
+	 * 			the distance of each merge
+	 * @param nClusterID
+	 * @param clusterNodes
+	 */
+	void replayMerges(int[] merge1, int[] merge2, final double[] mergeDistance, Vector<Integer>[] nClusterID,
+			Node[] clusterNodes) {
+		int n = nClusterID.length;
+		Integer[] order = new Integer[mergeDistance.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		// stable sort keeps merges of equal distance in the order they were found
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return Double.compare(mergeDistance[o1], mergeDistance[o2]);
+			}
+		});
+		// union find structure pointing to the index holding the cluster of an instance
+		int[] parent = new int[n];
+		for (int i = 0; i < n; i++) {
+			parent[i] = i;
+		}
+		int nMerges = Math.max(0, n - m_nNumClusters);
+		for (int k = 0; k < nMerges; k++) {
+			int iMerge = order[k];
+			int iMin1 = findCluster(parent, merge1[iMerge]);
+			int iMin2 = findCluster(parent, merge2[iMerge]);
+			merge(iMin1, iMin2, mergeDistance[iMerge], mergeDistance[iMerge], nClusterID, clusterNodes);
+			parent[Math.max(iMin1, iMin2)] = Math.min(iMin1, iMin2);
+		}
+		//add items in own clusters to clusterNodes
+		for (int i = 0; i < n; i++){
+			if (nClusterID[i].size() == 1){//single item cluster found
+				addSingleItem(nClusterID[i].elementAt(0), clusterNodes);
+			}
+		}
+	}
+	
+	/**
+	 * @return the index of the cluster the given instance belongs to
+	 */
+	private int findCluster(int[] parent, int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+	
+	/**
+	 * Creates the {@link DistanceMatrix} according to the configured precision and
+	 * storage and fills it with the initial distances between all clusters.
+	 * If more than one execution slot is configured, the matrix is divided into tiles
+	 * that are calculated in parallel.
+	 * 
+	 * @param nClusterID
+	 * 			the initial clusters, one for each instance
+	 * @return the filled distance matrix
+	 */
+	DistanceMatrix createDistanceMatrix(final Vector<Integer>[] nClusterID) {
+		final int nClusters = nClusterID.length;
+		final DistanceMatrix fDistance;
+		try {
+			fDistance = DistanceMatrix.create(nClusters, m_bFloatDistanceMatrix, m_mappedDistanceMatrixDirectory);
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not create memory mapped distance matrix: " + e.getMessage(), e);
+		}
+		if (m_nNumExecutionSlots <= 1 || nClusters <= TILE_SIZE) {
+			fillDistanceMatrix(fDistance, nClusterID, 0, nClusters, 0, nClusters);
+			return fDistance;
+		}
+		// the distance functions initialize themselves lazily on their first usage,
+		// thus calculate the first distance before starting the other threads
+		fDistance.set(0, 1, getDistance0(nClusterID[0], nClusterID[1]));
+		final ArrayList<RecursiveAction> tiles = new ArrayList<RecursiveAction>();
+		for (int row = 0; row < nClusters; row += TILE_SIZE) {
+			for (int column = row; column < nClusters; column += TILE_SIZE) {
+				final int rowStart = row;
+				final int columnStart = column;
+				tiles.add(new RecursiveAction() {
+					private static final long serialVersionUID = 1L;
+					@Override
+					protected void compute() {
+						fillDistanceMatrix(fDistance, nClusterID, rowStart, Math.min(rowStart + TILE_SIZE, nClusters),
+								columnStart, Math.min(columnStart + TILE_SIZE, nClusters));
+					}
+				});
+			}
+		}
+		ForkJoinPool pool = new ForkJoinPool(m_nNumExecutionSlots);
+		try {
+			pool.invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+				@Override
+				protected void compute() {
+					invokeAll(tiles);
+				}
+			});
+		} finally {
+			pool.shutdown();
+		}
+		return fDistance;
+	}
+	
+	/**
+	 * Calculates the distances of the given tile of the upper triangular distance matrix.
+	 * 
+	 * @param fDistance
+	 * 			the matrix to fill
+	 * @param nClusterID
+	 * 			the initial clusters, one for each instance
+	 * @param rowStart
+	 * 			first row of the tile
+	 * @param rowEnd
+	 * 			row after the last row of the tile
+	 * @param columnStart
+	 * 			first column of the tile
+	 * @param columnEnd
+	 * 			column after the last column of the tile
+	 */
+	void fillDistanceMatrix(DistanceMatrix fDistance, Vector<Integer>[] nClusterID, int rowStart, int rowEnd,
+			int columnStart, int columnEnd) {
+		for (int i = rowStart; i < rowEnd; i++) {
+			for (int j = Math.max(i + 1, columnStart); j < columnEnd; j++) {
+				fDistance.set(i, j, getDistance0(nClusterID[i], nClusterID[j]));
+			}
+		}
+	}
 
 	/**
 	 * Adds a single item node to a cluster, by creating a node with a filled
@@ -894,12 +1433,7 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 		case ADJCOMLPETE:
 		case AVERAGE:
 		case MEAN:
-			// set up two instances for distance function
-			ProcessInstance instance1 = (ProcessInstance) m_instances.instance(
-					cluster1.elementAt(0)).copy();
-			ProcessInstance instance2 = (ProcessInstance) m_instances.instance(
-					cluster2.elementAt(0)).copy();
-			fBestDist = calcDistanceWithFunction(instance1, instance2);
+			fBestDist = calcDistanceWithFunction(cluster1.elementAt(0), cluster2.elementAt(0));
 			//fBestDist = m_DistanceFunction.distance(instance1, instance2);
 			break;
 		case WARD: {
@@ -931,7 +1465,7 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 	 *            dito for second cluster
 	 * @return distance between clusters based on link type
 	 */
-	double getDistance(double[][] fDistance, Vector<Integer> cluster1,
+	double getDistance(DistanceMatrix fDistance, Vector<Integer> cluster1,
 			Vector<Integer> cluster2) {
 		double fBestDist = Double.MAX_VALUE;
 		switch (m_nLinkType) {
@@ -944,7 +1478,7 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 				int i1 = cluster1.elementAt(i);
 				for (int j = 0; j < cluster2.size(); j++) {
 					int i2 = cluster2.elementAt(j);
-					double fDist = fDistance[i1][i2];
+					double fDist = fDistance.get(i1, i2);
 					if (fBestDist > fDist) {
 						fBestDist = fDist;
 					}
@@ -961,7 +1495,7 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 				int i1 = cluster1.elementAt(i);
 				for (int j = 0; j < cluster2.size(); j++) {
 					int i2 = cluster2.elementAt(j);
-					double fDist = fDistance[i1][i2];
+					double fDist = fDistance.get(i1, i2);
 					if (fBestDist < fDist) {
 						fBestDist = fDist;
 					}
@@ -977,7 +1511,7 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 				int i1 = cluster1.elementAt(i);
 				for (int j = i + 1; j < cluster1.size(); j++) {
 					int i2 = cluster1.elementAt(j);
-					double fDist = fDistance[i1][i2];
+					double fDist = fDistance.get(i1, i2);
 					if (fMaxDist < fDist) {
 						fMaxDist = fDist;
 					}
@@ -987,7 +1521,7 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 				int i1 = cluster2.elementAt(i);
 				for (int j = i + 1; j < cluster2.size(); j++) {
 					int i2 = cluster2.elementAt(j);
-					double fDist = fDistance[i1][i2];
+					double fDist = fDistance.get(i1, i2);
 					if (fMaxDist < fDist) {
 						fMaxDist = fDist;
 					}
@@ -1002,7 +1536,7 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 				int i1 = cluster1.elementAt(i);
 				for (int j = 0; j < cluster2.size(); j++) {
 					int i2 = cluster2.elementAt(j);
-					fBestDist += fDistance[i1][i2];
+					fBestDist += fDistance.get(i1, i2);
 				}
 			}
 			fBestDist /= (cluster1.size() * cluster2.size());
@@ -1018,7 +1552,7 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 				int i1 = merged.elementAt(i);
 				for (int j = i + 1; j < merged.size(); j++) {
 					int i2 = merged.elementAt(j);
-					fBestDist += fDistance[i1][i2];
+					fBestDist += fDistance.get(i1, i2);
 				}
 			}
 			int n = merged.size();
@@ -1051,7 +1585,7 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 						//compare and add to matrix
 						String val1 = atts.get(k);
 						String val2 = atts.get(j);
-						Double similarity = ((WeightedEditDistance) m_StringDistanceFunction).getStringDistance(val1, val2);
+						Double similarity = getStringDistance(val1, val2);
 						if (matrix.get(val1) == null){
 							matrix.put(val1, similarity);
 						} else {
@@ -1100,7 +1634,7 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 						//compare and add to matrix
 						String val1 = atts.get(k);
 						String val2 = atts.get(j);
-						Double similarity = ((WeightedEditDistance) m_StringDistanceFunction).getStringDistance(val1, val2);
+						Double similarity = getStringDistance(val1, val2);
 						if (matrix.get(val1) == null){
 							matrix.put(val1, similarity);
 						} else {
@@ -1196,7 +1730,7 @@ public class HierarchicalProcessClusterer extends HierarchicalClusterer
 					//compare and add to matrix
 					String val1 = atts.get(k);
 					String val2 = atts.get(j);
-					Double similarity = ((WeightedEditDistance) m_StringDistanceFunction).getStringDistance(val1, val2);
+					Double similarity = getStringDistance(val1, val2);
 					if (matrix.get(val1) == null){
 						matrix.put(val1, similarity);
 					} else {
@@ -0,0 +1,184 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import de.uni_potsdam.hpi.bpt.promnicat.util.WeightedEditDistance;
+
+/**
+ * Caches the edit distances between the string attribute values (labels) of
+ * {@link ProcessInstances}. Each unique label gets an id and the distances of all
+ * pairs of ids are kept in a condensed symmetric matrix. The distances can be
+ * precomputed in parallel and are calculated on demand otherwise.
+ * 
+ * @author Cindy Fähnrich
+ *
+ */
+public class LabelDistanceCache {
+
+	/** marks a distance that has not been calculated yet */
+	private static final char UNKNOWN = Character.MAX_VALUE;
+	
+	/** number of rows of the matrix that are precomputed in one task */
+	private static final int ROWS_PER_TASK = 64;
+	
+	private final WeightedEditDistance editDistance = new WeightedEditDistance();
+	private final HashMap<String, Integer> labelIds = new HashMap<String, Integer>();
+	private final ArrayList<String> labels = new ArrayList<String>();
+	
+	/**
+	 * edit distances of all label pairs, stored as char to halve the memory needed
+	 * or <code>null</code> if they do not fit into the configured maximum number of entries
+	 */
+	private final char[] distances;
+	
+	/**
+	 * Creates a new cache for the given labels.
+	 * 
+	 * @param labelValues
+	 *            the labels to compare, duplicates are only stored once
+	 * @param maxEntries
+	 *            the maximum number of label pairs to cache. If there are more
+	 *            pairs, the distances are always calculated on demand.
+	 */
+	public LabelDistanceCache(Collection<String> labelValues, long maxEntries) {
+		for (String label : labelValues) {
+			if (label != null && !labelIds.containsKey(label)) {
+				labelIds.put(label, labels.size());
+				labels.add(label);
+			}
+		}
+		long numberOfPairs = (long) labels.size() * (labels.size() - 1) / 2;
+		if (numberOfPairs > maxEntries || numberOfPairs > Integer.MAX_VALUE - 8) {
+			distances = null;
+		} else {
+			distances = new char[(int) numberOfPairs];
+			for (int i = 0; i < distances.length; i++) {
+				distances[i] = UNKNOWN;
+			}
+		}
+	}
+	
+	/**
+	 * @return the number of unique labels of this cache
+	 */
+	public int size() {
+		return labels.size();
+	}
+	
+	/**
+	 * @return <code>true</code> if the distances between the labels are cached
+	 */
+	public boolean isCaching() {
+		return distances != null;
+	}
+	
+	/**
+	 * Calculates the distances between all labels in parallel.
+	 * 
+	 * @param parallelism
+	 *            number of threads to use
+	 * @param timeout
+	 *            time in milliseconds after which the precomputation is stopped. The
+	 *            remaining distances are calculated on demand. Values less or
+	 *            equal to 0 disable the timeout.
+	 */
+	public void precompute(int parallelism, long timeout) {
+		if (distances == null) {
+			return;
+		}
+		final long deadline = timeout > 0 ? System.currentTimeMillis() + timeout : Long.MAX_VALUE;
+		final ArrayList<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+		for (int row = 0; row < labels.size(); row += ROWS_PER_TASK) {
+			final int rowStart = row;
+			tasks.add(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+				@Override
+				protected void compute() {
+					int rowEnd = Math.min(rowStart + ROWS_PER_TASK, labels.size());
+					for (int i = rowStart; i < rowEnd && System.currentTimeMillis() < deadline; i++) {
+						for (int j = i + 1; j < labels.size(); j++) {
+							getDistance(i, j);
+						}
+					}
+				}
+			});
+		}
+		ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+		try {
+			pool.invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+			});
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	/**
+	 * Returns the edit distance between both labels. Labels that are not part of
+	 * this cache are compared directly.
+	 * 
+	 * @param label1
+	 *            the first label
+	 * @param label2
+	 *            the second label
+	 * @return the edit distance between both labels
+	 */
+	public int getDistance(String label1, String label2) {
+		Integer id1 = labelIds.get(label1);
+		Integer id2 = labelIds.get(label2);
+		if (id1 == null || id2 == null) {
+			return editDistance.getStringDistance(label1, label2, Integer.MAX_VALUE);
+		}
+		return getDistance(id1, id2);
+	}
+	
+	/**
+	 * @return the edit distance between the labels with the given ids
+	 */
+	private int getDistance(int id1, int id2) {
+		if (id1 == id2) {
+			return 0;
+		}
+		if (distances == null) {
+			return editDistance.getStringDistance(labels.get(id1), labels.get(id2), Integer.MAX_VALUE);
+		}
+		int i = Math.min(id1, id2);
+		int j = Math.max(id1, id2);
+		int index = (int) ((long) i * labels.size() - (long) i * (i + 1) / 2 + (j - i - 1));
+		char distance = distances[index];
+		if (distance != UNKNOWN) {
+			return distance;
+		}
+		int result = editDistance.getStringDistance(labels.get(i), labels.get(j), Integer.MAX_VALUE);
+		// concurrent writes of the same value to a char array are safe
+		if (result < UNKNOWN) {
+			distances[index] = (char) result;
+		}
+		return result;
+	}
+}
@@ -0,0 +1,95 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.logging.Logger;
+
+/**
+ * Condensed {@link DistanceMatrix} storing the distances as float values in a
+ * temporary memory mapped file. Thus, the matrix is not limited by the heap size.
+ * The file is split into several segments, because a single mapping is limited to 2 GB.
+ * 
+ * @author Cindy Fähnrich
+ *
+ */
+public class MappedDistanceMatrix extends DistanceMatrix {
+
+	private static final Logger logger = Logger.getLogger(MappedDistanceMatrix.class.getName());
+
+	/** number of float values per segment as power of two */
+	private static final int SEGMENT_SHIFT = 28;
+	private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+	private final File file;
+	private final RandomAccessFile randomAccessFile;
+	private final MappedByteBuffer[] segments;
+
+	/**
+	 * Creates a new memory mapped distance matrix in the given directory.
+	 * 
+	 * @param size
+	 *            number of elements to store distances for
+	 * @param directory
+	 *            the directory to create the temporary file in
+	 * @throws IOException
+	 *             if the file could not be created or mapped
+	 */
+	public MappedDistanceMatrix(int size, File directory) throws IOException {
+		super(size);
+		long length = Math.max(1, condensedLength());
+		file = File.createTempFile("distanceMatrix", ".bin", directory);
+		file.deleteOnExit();
+		randomAccessFile = new RandomAccessFile(file, "rw");
+		randomAccessFile.setLength(length * 4);
+		FileChannel channel = randomAccessFile.getChannel();
+		int numberOfSegments = (int) (((length - 1) >>> SEGMENT_SHIFT) + 1);
+		segments = new MappedByteBuffer[numberOfSegments];
+		for (int i = 0; i < numberOfSegments; i++) {
+			long start = (long) i << SEGMENT_SHIFT;
+			long segmentLength = Math.min(SEGMENT_MASK + 1, length - start);
+			segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, start * 4, segmentLength * 4);
+		}
+	}
+
+	@Override
+	protected double getValue(long index) {
+		return segments[(int) (index >>> SEGMENT_SHIFT)].getFloat((int) (index & SEGMENT_MASK) << 2);
+	}
+
+	@Override
+	protected void setValue(long index, double value) {
+		segments[(int) (index >>> SEGMENT_SHIFT)].putFloat((int) (index & SEGMENT_MASK) << 2, (float) value);
+	}
+
+	@Override
+	public void dispose() {
+		try {
+			randomAccessFile.close();
+		} catch (IOException e) {
+			logger.warning("Could not close distance matrix file " + file.getPath() + ": " + e.getMessage());
+		}
+		if (!file.delete()) {
+			logger.warning("Could not delete distance matrix file " + file.getPath());
+		}
+	}
+}
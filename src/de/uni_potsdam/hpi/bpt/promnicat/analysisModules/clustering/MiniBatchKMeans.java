@@ -0,0 +1,329 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import weka.core.Attribute;
+import weka.core.Instance;
+
+/**
+ * Groups {@link ProcessInstances} by their numeric attributes with mini-batch k-means
+ * (Sculley). The attribute values are read column-wise from {@link ColumnarProcessInstances},
+ * normalized to [0,1] and weighted with the attribute weights. Only the cluster centers are updated with small random batches,
+ * hence the memory needed besides the instances themselves is bounded by the number
+ * of clusters.
+ * 
+ * @author Cindy Fähnrich
+ *
+ */
+public class MiniBatchKMeans {
+
+	/** number of instances assigned to the clusters in one task */
+	private static final int INSTANCES_PER_TASK = 10000;
+	
+	private final int numClusters;
+	private final int batchSize;
+	private final int numIterations;
+	private final Random random;
+	
+	private ColumnarProcessInstances data;
+	private double[][] columns;
+	private double[] minimum;
+	private double[] range;
+	private double[] weight;
+	private double[][] centers;
+	
+	/** cluster of each instance */
+	private int[] assignment;
+	/** number of instances of each cluster */
+	private int[] clusterSizes;
+	/** mean attribute values of each cluster */
+	private double[][] means;
+	/** index of the instance closest to the center of each cluster */
+	private int[] representatives;
+	
+	/**
+	 * Creates a new mini-batch k-means clusterer.
+	 * 
+	 * @param numClusters
+	 *            the maximum number of clusters to create
+	 * @param batchSize
+	 *            number of random instances used to update the centers in each iteration
+	 * @param numIterations
+	 *            number of iterations
+	 * @param seed
+	 *            seed of the random number generator
+	 */
+	public MiniBatchKMeans(int numClusters, int batchSize, int numIterations, long seed) {
+		this.numClusters = Math.max(1, numClusters);
+		this.batchSize = Math.max(1, batchSize);
+		this.numIterations = Math.max(0, numIterations);
+		this.random = new Random(seed);
+	}
+	
+	/**
+	 * Clusters the given instances. Empty clusters are dropped afterwards.
+	 * 
+	 * @param instances
+	 *            the instances to cluster
+	 * @param parallelism
+	 *            number of threads used to assign the instances to their clusters
+	 */
+	public void buildClusterer(ColumnarProcessInstances instances, int parallelism) {
+		data = instances;
+		columns = new double[data.numAttributes()][];
+		for (int j = 0; j < columns.length; j++) {
+			columns[j] = data.column(j);
+		}
+		int n = data.numInstances();
+		int d = data.numAttributes();
+		initializeNormalization();
+		// choose distinct random instances as initial centers
+		int k = Math.min(numClusters, n);
+		int[] indices = new int[n];
+		for (int i = 0; i < n; i++) {
+			indices[i] = i;
+		}
+		centers = new double[k][];
+		for (int c = 0; c < k; c++) {
+			int swap = c + random.nextInt(n - c);
+			int tmp = indices[c];
+			indices[c] = indices[swap];
+			indices[swap] = tmp;
+			centers[c] = normalizedValues(indices[c]);
+		}
+		indices = null;
+		// update the centers with the instances of random batches
+		int[] counts = new int[k];
+		int[] batch = new int[batchSize];
+		int[] batchClusters = new int[batchSize];
+		for (int iteration = 0; iteration < numIterations; iteration++) {
+			for (int b = 0; b < batchSize; b++) {
+				batch[b] = random.nextInt(n);
+				batchClusters[b] = nearestCenter(batch[b], null);
+			}
+			for (int b = 0; b < batchSize; b++) {
+				double[] center = centers[batchClusters[b]];
+				double eta = 1.0 / ++counts[batchClusters[b]];
+				for (int j = 0; j < d; j++) {
+					center[j] = (1 - eta) * center[j] + eta * normalizedValue(batch[b], j);
+				}
+			}
+		}
+		assignInstances(parallelism);
+	}
+	
+	/**
+	 * @return the number of (non-empty) clusters
+	 */
+	public int numberOfClusters() {
+		return clusterSizes.length;
+	}
+	
+	/**
+	 * @return the cluster of each instance
+	 */
+	public int[] getAssignment() {
+		return assignment;
+	}
+	
+	/**
+	 * @return the number of instances of each cluster
+	 */
+	public int[] getClusterSizes() {
+		return clusterSizes;
+	}
+	
+	/**
+	 * @return the mean attribute values of each cluster
+	 */
+	public double[][] getMeans() {
+		return means;
+	}
+	
+	/**
+	 * @return the index of the instance closest to the center of each cluster
+	 */
+	public int[] getRepresentatives() {
+		return representatives;
+	}
+	
+	/**
+	 * Assigns each instance to its nearest center in parallel and calculates the
+	 * cluster means afterwards.
+	 */
+	private void assignInstances(int parallelism) {
+		final int n = data.numInstances();
+		final int[] nearest = new int[n];
+		final double[] distances = new double[n];
+		final ArrayList<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+		for (int start = 0; start < n; start += INSTANCES_PER_TASK) {
+			final int taskStart = start;
+			tasks.add(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+				@Override
+				protected void compute() {
+					double[] distance = new double[1];
+					for (int i = taskStart; i < Math.min(taskStart + INSTANCES_PER_TASK, n); i++) {
+						nearest[i] = nearestCenter(i, distance);
+						distances[i] = distance[0];
+					}
+				}
+			});
+		}
+		ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+		try {
+			pool.invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+			});
+		} finally {
+			pool.shutdown();
+		}
+		// drop empty clusters
+		int[] sizes = new int[centers.length];
+		for (int i = 0; i < n; i++) {
+			sizes[nearest[i]]++;
+		}
+		int[] newIndex = new int[centers.length];
+		int k = 0;
+		for (int c = 0; c < centers.length; c++) {
+			newIndex[c] = sizes[c] > 0 ? k++ : -1;
+		}
+		int d = data.numAttributes();
+		assignment = nearest;
+		clusterSizes = new int[k];
+		means = new double[k][d];
+		representatives = new int[k];
+		double[] bestDistances = new double[k];
+		for (int c = 0; c < k; c++) {
+			bestDistances[c] = Double.MAX_VALUE;
+		}
+		for (int i = 0; i < n; i++) {
+			int c = newIndex[nearest[i]];
+			assignment[i] = c;
+			clusterSizes[c]++;
+			if (distances[i] < bestDistances[c]) {
+				bestDistances[c] = distances[i];
+				representatives[c] = i;
+			}
+		}
+		for (int j = 0; j < d; j++) {
+			double[] column = columns[j];
+			for (int i = 0; i < n; i++) {
+				double value = column[i];
+				means[assignment[i]][j] += Instance.isMissingValue(value) ? minimum[j] : value;
+			}
+		}
+		for (int c = 0; c < k; c++) {
+			for (int j = 0; j < d; j++) {
+				means[c][j] /= clusterSizes[c];
+			}
+		}
+		centers = null;
+	}
+	
+	/**
+	 * Determines minimum, range and weight of each numeric attribute.
+	 */
+	private void initializeNormalization() {
+		int d = data.numAttributes();
+		minimum = new double[d];
+		range = new double[d];
+		weight = new double[d];
+		double[] maximum = new double[d];
+		for (int j = 0; j < d; j++) {
+			minimum[j] = Double.MAX_VALUE;
+			maximum[j] = -Double.MAX_VALUE;
+			weight[j] = ((Attribute) data.getAttributes().elementAt(j)).weight();
+			double[] column = columns[j];
+			for (int i = 0; i < data.numInstances(); i++) {
+				double value = column[i];
+				if (!Instance.isMissingValue(value)) {
+					minimum[j] = Math.min(minimum[j], value);
+					maximum[j] = Math.max(maximum[j], value);
+				}
+			}
+		}
+		for (int j = 0; j < d; j++) {
+			if (minimum[j] > maximum[j]) {
+				// only missing values
+				minimum[j] = 0;
+				maximum[j] = 0;
+			}
+			range[j] = maximum[j] > minimum[j] ? maximum[j] - minimum[j] : 1;
+		}
+	}
+	
+	/**
+	 * @return the normalized values of the instance with the given index,
+	 * missing values are mapped to 0
+	 */
+	private double[] normalizedValues(int index) {
+		double[] values = new double[minimum.length];
+		for (int j = 0; j < values.length; j++) {
+			values[j] = normalizedValue(index, j);
+		}
+		return values;
+	}
+	
+	/**
+	 * @return the normalized value of the given instance and attribute,
+	 * missing values are mapped to 0
+	 */
+	private double normalizedValue(int index, int attribute) {
+		double value = columns[attribute][index];
+		return Instance.isMissingValue(value) ? 0 : (value - minimum[attribute]) / range[attribute];
+	}
+	
+	/**
+	 * @param index
+	 *            index of the instance
+	 * @param distance
+	 *            array to store the squared distance to the nearest center in, might be <code>null</code>
+	 * @return the index of the nearest center
+	 */
+	private int nearestCenter(int index, double[] distance) {
+		int best = 0;
+		double bestDistance = Double.MAX_VALUE;
+		int d = minimum.length;
+		for (int c = 0; c < centers.length; c++) {
+			double[] center = centers[c];
+			double sum = 0;
+			for (int j = 0; j < d && sum < bestDistance; j++) {
+				double diff = normalizedValue(index, j) - center[j];
+				sum += weight[j] * diff * diff;
+			}
+			if (sum < bestDistance) {
+				bestDistance = sum;
+				best = c;
+			}
+		}
+		if (distance != null) {
+			distance[0] = bestDistance;
+		}
+		return best;
+	}
+}
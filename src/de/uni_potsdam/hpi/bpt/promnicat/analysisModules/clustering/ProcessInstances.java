@@ -768,7 +768,8 @@ public class ProcessInstances extends Instances {
 	}
 
 	/**
-	 * Copies instances from one set to the end of another one.
+	 * Copies instances from one set to the end of another one. The copies share
+	 * the attribute values with the original instances.
 	 * 
 	 * @param from
 	 *            the position of the first instance to be copied
@@ -828,9 +829,11 @@ public class ProcessInstances extends Instances {
 		ProcessInstances merged = new ProcessInstances(first.relationName()
 				+ '_' + second.relationName(), newAttributes, newStrAttributes,
 				first.numInstances());
-		// Merge each instance
+		// Merge each instance, the merged instance is new and needs not to be copied again
 		for (int i = 0; i < first.numInstances(); i++) {
-			merged.addInstance(first.getInstance(i).mergeInstance(second.getInstance(i)));
+			ProcessInstance instance = first.getInstance(i).mergeInstance(second.getInstance(i));
+			instance.setDataset(merged);
+			merged.m_Instances.addElement(instance);
 		}
 		return merged;
 	}
@@ -0,0 +1,229 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Vantage point tree (Yianilos) for nearest neighbor queries in an arbitrary metric
+ * space. Each node splits the remaining points by their distance to the node's
+ * vantage point at the median distance. A query only descends into the other half
+ * if the ball around the query point with the distance of the nearest point found so far
+ * reaches over the median, thus it needs about O(log n) distance calculations for well
+ * separated points. The distance function has to satisfy the triangle inequality.
+ * 
+ * @author Cindy Fähnrich
+ *
+ * @param <T> the type of the indexed points
+ */
+public class VantagePointTree<T extends Serializable> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Metric the points of a {@link VantagePointTree} are compared with.
+	 *
+	 * @param <T> the type of the points
+	 */
+	public interface Metric<T> extends Serializable {
+		/**
+		 * @return the distance between the given points
+		 */
+		double distance(T first, T second);
+	}
+	
+	private static class Node<T> implements Serializable {
+		private static final long serialVersionUID = 1L;
+		/** index of the vantage point in the list of points */
+		private int point;
+		/** median distance of the points below this node to the vantage point */
+		private double threshold;
+		/** points closer to the vantage point than the threshold */
+		private Node<T> inside;
+		/** points with a distance of at least the threshold */
+		private Node<T> outside;
+	}
+	
+	private final List<T> points;
+	private final Metric<T> metric;
+	private final Node<T> root;
+	
+	/**
+	 * Creates the tree for the given points.
+	 * @param points
+	 * 			to index
+	 * @param metric
+	 * 			to calculate the distance between two points
+	 */
+	public VantagePointTree(List<T> points, Metric<T> metric) {
+		this.points = new ArrayList<T>(points);
+		this.metric = metric;
+		int[] indices = new int[points.size()];
+		for (int i = 0; i < indices.length; i++) {
+			indices[i] = i;
+		}
+		this.root = build(indices, 0, indices.length, new double[indices.length]);
+	}
+	
+	/**
+	 * Builds the subtree of the points with the indices from begin (inclusive) to end (exclusive).
+	 */
+	private Node<T> build(int[] indices, int begin, int end, double[] distances) {
+		if (begin >= end) {
+			return null;
+		}
+		Node<T> node = new Node<T>();
+		node.point = indices[begin];
+		if (end - begin == 1) {
+			return node;
+		}
+		T vantagePoint = points.get(node.point);
+		for (int i = begin + 1; i < end; i++) {
+			distances[i] = metric.distance(vantagePoint, points.get(indices[i]));
+		}
+		int median = (begin + 1 + end) / 2;
+		select(indices, distances, begin + 1, end - 1, median);
+		node.threshold = distances[median];
+		node.inside = build(indices, begin + 1, median, distances);
+		node.outside = build(indices, median, end, distances);
+		return node;
+	}
+	
+	/**
+	 * Partially sorts the indices and their distances (quickselect), so that the element at position k
+	 * is the one with the k-th smallest distance and all elements in front of it are not farther away.
+	 */
+	private static void select(int[] indices, double[] distances, int left, int right, int k) {
+		while (left < right) {
+			double pivot = distances[(left + right) >>> 1];
+			int i = left;
+			int j = right;
+			while (i <= j) {
+				while (distances[i] < pivot) {
+					i++;
+				}
+				while (distances[j] > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					swap(indices, distances, i++, j--);
+				}
+			}
+			if (k <= j) {
+				right = j;
+			} else if (k >= i) {
+				left = i;
+			} else {
+				return;
+			}
+		}
+	}
+	
+	private static void swap(int[] indices, double[] distances, int i, int j) {
+		int index = indices[i];
+		indices[i] = indices[j];
+		indices[j] = index;
+		double distance = distances[i];
+		distances[i] = distances[j];
+		distances[j] = distance;
+	}
+	
+	/**
+	 * @return the number of indexed points
+	 */
+	public int size() {
+		return points.size();
+	}
+	
+	/**
+	 * @param index
+	 * 			of the point in the list the tree has been created with
+	 * @return the point with the given index
+	 */
+	public T getPoint(int index) {
+		return points.get(index);
+	}
+	
+	/**
+	 * Searches the indexed point closest to the given one.
+	 * @param query
+	 * 			point to search the nearest neighbor for
+	 * @return the index of the nearest point in the list the tree has been created with
+	 * 		and its distance to the query point or <code>null</code>, if the tree is empty
+	 */
+	public Neighbor nearest(T query) {
+		if (root == null) {
+			return null;
+		}
+		Neighbor best = new Neighbor(-1, Double.POSITIVE_INFINITY);
+		search(root, query, best);
+		return best;
+	}
+	
+	private void search(Node<T> node, T query, Neighbor best) {
+		double distance = metric.distance(query, points.get(node.point));
+		if (distance < best.distance || (distance == best.distance && node.point < best.index)) {
+			best.index = node.point;
+			best.distance = distance;
+		}
+		if (distance < node.threshold) {
+			if (node.inside != null && distance - best.distance <= node.threshold) {
+				search(node.inside, query, best);
+			}
+			if (node.outside != null && distance + best.distance >= node.threshold) {
+				search(node.outside, query, best);
+			}
+		} else {
+			if (node.outside != null && distance + best.distance >= node.threshold) {
+				search(node.outside, query, best);
+			}
+			if (node.inside != null && distance - best.distance <= node.threshold) {
+				search(node.inside, query, best);
+			}
+		}
+	}
+	
+	/**
+	 * Result of a nearest neighbor query.
+	 */
+	public static class Neighbor {
+		private int index;
+		private double distance;
+		
+		private Neighbor(int index, double distance) {
+			this.index = index;
+			this.distance = distance;
+		}
+		
+		/**
+		 * @return the index of the point in the list the tree has been created with
+		 */
+		public int getIndex() {
+			return index;
+		}
+		
+		/**
+		 * @return the distance of the point to the query point
+		 */
+		public double getDistance() {
+			return distance;
+		}
+	}
+}
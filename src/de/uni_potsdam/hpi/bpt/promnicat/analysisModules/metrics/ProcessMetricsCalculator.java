@@ -18,6 +18,7 @@
 package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.metrics;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -25,6 +26,8 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.jbpt.algo.CombinationGenerator;
 import org.jbpt.algo.graph.GraphAlgorithms;
@@ -50,6 +53,7 @@ import org.jbpt.pm.bpmn.EndEvent;
 import org.jbpt.pm.bpmn.StartEvent;
 import org.jbpt.pm.bpmn.Subprocess;
 
+import de.uni_potsdam.hpi.bpt.promnicat.util.ModelAnalysisContext;
 import de.uni_potsdam.hpi.bpt.promnicat.util.ProcessMetricConstants;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitDataProcessMetrics;
 
@@ -62,6 +66,33 @@ import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitDataProcessMe
  */
 public class ProcessMetricsCalculator {
 
+	/**
+	 * version of the metric calculation, must be increased whenever the result of any metric calculation changes.
+	 * Otherwise, outdated metric values are loaded from the {@link ProcessMetricsStore}.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * analysis results of the analyzed {@link ProcessModel} or <code>null</code> if none are shared
+	 */
+	private final ModelAnalysisContext analysisContext;
+
+	/**
+	 * Creates a new calculator calculating all analysis results needed for metric calculation on its own.
+	 */
+	public ProcessMetricsCalculator() {
+		this(null);
+	}
+
+	/**
+	 * Creates a new calculator taking analysis results needed for metric calculation, e.g., the
+	 * {@link TransitiveClosure}, from the given context whenever the {@link ProcessModel} of the context is analyzed.
+	 * @param analysisContext the {@link ModelAnalysisContext} to use or <code>null</code> if none shall be used
+	 */
+	public ProcessMetricsCalculator(ModelAnalysisContext analysisContext) {
+		this.analysisContext = analysisContext;
+	}
+
 	/**
 	 * Calculates all available process metrics for the {@link ProcessModel} given 
 	 * by the {@link IUnitDataProcessMetrics} and sets
@@ -130,6 +161,62 @@ public class ProcessMetricsCalculator {
 		}
 	}
 
+	/**
+	 * Calculates the given metrics for the {@link ProcessModel} given by the {@link IUnitDataProcessMetrics} and sets
+	 * the metric values in the given {@link IUnitDataProcessMetrics}. Each metric is calculated by a separate task
+	 * running on the given {@link ForkJoinPool}. Thus, the {@link ProcessModel} is only read concurrently and each
+	 * task sets a different value of the given {@link IUnitDataProcessMetrics}. The diameter and the separability
+	 * are calculated afterwards in the calling thread, because extracting the model fragments for these metrics
+	 * assigns the shared {@link FlowNode}s to the fragments.
+	 * @param metricsToCalculate a list of the metrics to calculate. If the list is empty, all available metrics are calculated.
+	 * @param unitData the {@link IUnitDataProcessMetrics} to use for calculation
+	 * @param includeSubProcesses flag indicates whether to include all available sub process or not
+	 * @param pool the {@link ForkJoinPool} used to execute the metric calculation tasks
+	 */
+	public void calculateProcessMetrics(Collection<ProcessMetricConstants.METRICS> metricsToCalculate, final IUnitDataProcessMetrics<Object> unitData, 
+			final boolean includeSubProcesses, ForkJoinPool pool) {
+		if (!(unitData.getValue() instanceof ProcessModel)) {
+			throw new IllegalArgumentException("The given UnitData value must be an instance of a jBPT ProcessModel!");
+		}
+		final Collection<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+		if (metricsToCalculate.isEmpty()) {
+			metricsToCalculate = Arrays.asList(ProcessMetricConstants.METRICS.values());
+			//this metric is calculated by calculateAllProcessMetrics, but not part of the metric enumeration
+			tasks.add(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					unitData.setDensityRelatedToNumberOfGateways(getDensityRelatedToNumberOfGateways((ProcessModel) unitData.getValue(), includeSubProcesses));
+				}
+			});
+		}
+		Collection<ProcessMetricConstants.METRICS> serialMetrics = new ArrayList<ProcessMetricConstants.METRICS>();
+		for (final ProcessMetricConstants.METRICS metric : metricsToCalculate) {
+			if (metric == ProcessMetricConstants.METRICS.DIAMETER || metric == ProcessMetricConstants.METRICS.SEPARABILITY) {
+				serialMetrics.add(metric);
+				continue;
+			}
+			tasks.add(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					calculateProcessMetric(metric, unitData, includeSubProcesses);
+				}
+			});
+		}
+		pool.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
+		calculateProcessMetrics(serialMetrics, unitData, includeSubProcesses);
+	}
+
 	/**
 	 * The Average Connector Degree relates the number of incoming and outgoing edges of 
 	 * all {@link Gateway}s to the total number of {@link Gateway}s.<br/>
@@ -229,6 +316,18 @@ public class ProcessMetricsCalculator {
 		return connectionValues / (nodes.size() * nodes.size() - 1);
 	}
 
+	/**
+	 * @param model to analyze
+	 * @return the {@link TransitiveClosure} of the given {@link ProcessModel}. It is taken from the
+	 * {@link ModelAnalysisContext} if the context belongs to the given {@link ProcessModel}.
+	 */
+	private TransitiveClosure<ControlFlow<FlowNode>, FlowNode> getTransitiveClosure(ProcessModel model) {
+		if (this.analysisContext != null && this.analysisContext.getProcessModel() == model) {
+			return this.analysisContext.getTransitiveClosure();
+		}
+		return new TransitiveClosure<ControlFlow<FlowNode>, FlowNode>(model);
+	}
+
 	/**
 	 * @param model to analyze
 	 * @param edgeWeights mapping for each {@link ControlFlow} edge of the given {@link ProcessModel} to its corresponding weigth
@@ -237,7 +336,7 @@ public class ProcessMetricsCalculator {
 	private double getConnectionValues(ProcessModel model, Map<ControlFlow<FlowNode>, Double> edgeWeights) {
 		double connectionValues = 0.0;
 		Collection<FlowNode> nodes = model.getVertices();
-		TransitiveClosure<ControlFlow<FlowNode>, FlowNode> transitiveClosure = new TransitiveClosure<ControlFlow<FlowNode>, FlowNode>(model);
+		TransitiveClosure<ControlFlow<FlowNode>, FlowNode> transitiveClosure = getTransitiveClosure(model);
 		for(FlowNode node1 : nodes) {
 			for(FlowNode node2 : nodes){
 				if (node1 == node2){
@@ -273,7 +372,7 @@ public class ProcessMetricsCalculator {
 			return 0;
 		}
 		int nodesOnCycle = 0;
-		TransitiveClosure<ControlFlow<FlowNode>, FlowNode> transitivClosure = new TransitiveClosure<ControlFlow<FlowNode>, FlowNode>(model);
+		TransitiveClosure<ControlFlow<FlowNode>, FlowNode> transitivClosure = getTransitiveClosure(model);
 		for (FlowNode node : nodes){
 			if (transitivClosure.isInLoop(node)) {
 				nodesOnCycle++;
@@ -411,7 +510,7 @@ public class ProcessMetricsCalculator {
 	 * @return the depth of the given {@link ProcessModel}.
 	 */
 	public int getDepth(ProcessModel model, boolean includeSubProcesses) {
-		TransitiveClosure<ControlFlow<FlowNode>, FlowNode> transitiveClosure = new TransitiveClosure<ControlFlow<FlowNode>, FlowNode>(model);
+		TransitiveClosure<ControlFlow<FlowNode>, FlowNode> transitiveClosure = getTransitiveClosure(model);
 		Collection<FlowNode> startNodes = model.getEntries();
 		Collection<FlowNode> endNodes = model.getExits();
 		Map<FlowNode, Integer> inDepths = new HashMap<FlowNode, Integer>(model.countVertices());
@@ -0,0 +1,210 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.metrics;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.metrics.pojos.ProcessMetricsStorage;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Representation;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.orientdbObj.PersistenceApiOrientDbObj;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.orientdbObj.index.IndexElement;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.orientdbObj.index.StringIndex;
+import de.uni_potsdam.hpi.bpt.promnicat.util.ProcessMetricConstants.METRICS;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitDataProcessMetrics;
+
+/**
+ * This class stores already calculated process metrics in the database and loads them again,
+ * if the metrics of an unchanged {@link Representation} are requested.
+ * The metric values are saved as {@link ProcessMetricsStorage} and referenced by a {@link StringIndex}.
+ * The index key consists of the {@link Representation}'s database id and the sub process handling flag.
+ * The stored values are only used, if the content key of the {@link Representation} (see
+ * {@link #getContentKey(Representation)}) and the {@link ProcessMetricsCalculator#VERSION} are unchanged.
+ * Otherwise, the outdated values are replaced by the newly calculated ones.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+public class ProcessMetricsStore {
+
+	/**
+	 * name of the index used to reference the stored metric values
+	 */
+	public static final String INDEX_NAME = "processMetricsIndex";
+	
+	/**
+	 * name used to store the density related to the number of gateways, which is not
+	 * part of {@link METRICS}, but calculated if all metrics are requested.
+	 */
+	private static final String DENSITY_RELATED_TO_NUMBER_OF_GATEWAYS = "densityGateways";
+	
+	private static final String KEY_SEPARATOR = "|";
+	
+	private PersistenceApiOrientDbObj papi;
+	private StringIndex<ProcessMetricsStorage> index;
+	
+	/**
+	 * Creates a new store using the given database. The underlying index is created, if it does not exist yet.
+	 * @param papi the database to store the metric values in
+	 */
+	public ProcessMetricsStore(PersistenceApiOrientDbObj papi) {
+		this.papi = papi;
+		this.papi.registerPojoClass(ProcessMetricsStorage.class);
+		this.index = new StringIndex<ProcessMetricsStorage>(INDEX_NAME, papi);
+		if (!papi.getIndexMngr().contains(INDEX_NAME)) {
+			this.index.createIndex();
+		}
+	}
+	
+	/**
+	 * Calculates a key identifying the data content of the given {@link Representation}, which has already been loaded.
+	 * The key consists of the revision number, the content length and the CRC-32 checksum of the content.
+	 * @param representation the {@link Representation} to get the key for
+	 * @return the content key or <code>null</code> if the {@link Representation} has no content.
+	 */
+	public static String getContentKey(Representation representation) {
+		if (representation == null || !representation.hasDataContent()) {
+			return null;
+		}
+		byte[] content = representation.getDataContent();
+		CRC32 checksum = new CRC32();
+		checksum.update(content);
+		return representation.getRevisionNumber() + "-" + content.length + "-" + Long.toHexString(checksum.getValue());
+	}
+	
+	/**
+	 * Sets the stored values of the given metrics in the given {@link IUnitDataProcessMetrics}, if all of them have
+	 * been stored before for the given {@link Representation} content.
+	 * @param representationId the database id of the analyzed {@link Representation}
+	 * @param contentKey the key of the analyzed {@link Representation}'s data content
+	 * @param includeSubProcesses flag indicates whether to include all available sub process or not
+	 * @param metrics the metrics to load, if empty all available metrics are loaded
+	 * @param unitData the {@link IUnitDataProcessMetrics} to set the metric values in
+	 * @return <code>true</code> if all metric values have been found, <code>false</code> otherwise.
+	 */
+	public synchronized boolean loadMetrics(String representationId, String contentKey, boolean includeSubProcesses,
+			Collection<METRICS> metrics, IUnitDataProcessMetrics<Object> unitData) {
+		ProcessMetricsStorage storage = this.findStorage(this.getKey(representationId, includeSubProcesses));
+		if (storage == null || !isUpToDate(storage, contentKey)) {
+			return false;
+		}
+		boolean allMetrics = metrics.isEmpty();
+		if (allMetrics && storage.getMetricValue(DENSITY_RELATED_TO_NUMBER_OF_GATEWAYS) == null) {
+			return false;
+		}
+		for (METRICS metric : this.getMetrics(metrics)) {
+			if (storage.getMetricValue(metric.toString()) == null) {
+				return false;
+			}
+		}
+		for (METRICS metric : this.getMetrics(metrics)) {
+			metric.setAttribute(unitData, storage.getMetricValue(metric.toString()));
+		}
+		if (allMetrics) {
+			unitData.setDensityRelatedToNumberOfGateways(storage.getMetricValue(DENSITY_RELATED_TO_NUMBER_OF_GATEWAYS));
+		}
+		return true;
+	}
+	
+	/**
+	 * Stores the values of the given metrics from the given {@link IUnitDataProcessMetrics}. Already stored
+	 * metric values of the same {@link Representation} content are kept, those of another content are removed.
+	 * @param representationId the database id of the analyzed {@link Representation}
+	 * @param contentKey the key of the analyzed {@link Representation}'s data content
+	 * @param includeSubProcesses flag indicates whether to include all available sub process or not
+	 * @param metrics the metrics to save, if empty all available metrics are saved
+	 * @param unitData the {@link IUnitDataProcessMetrics} containing the calculated metric values
+	 */
+	public synchronized void saveMetrics(String representationId, String contentKey, boolean includeSubProcesses,
+			Collection<METRICS> metrics, IUnitDataProcessMetrics<Object> unitData) {
+		String key = this.getKey(representationId, includeSubProcesses);
+		ProcessMetricsStorage storage = this.findStorage(key);
+		boolean isNew = storage == null;
+		if (isNew) {
+			storage = new ProcessMetricsStorage(representationId, contentKey, ProcessMetricsCalculator.VERSION, includeSubProcesses);
+		} else if (!isUpToDate(storage, contentKey)) {
+			//replace the outdated values
+			storage.setContentHash(contentKey);
+			storage.setCalculatorVersion(ProcessMetricsCalculator.VERSION);
+			storage.getMetricValues().clear();
+		}
+		for (METRICS metric : this.getMetrics(metrics)) {
+			storage.setMetricValue(metric.toString(), metric.getAttribute(unitData));
+		}
+		if (metrics.isEmpty()) {
+			storage.setMetricValue(DENSITY_RELATED_TO_NUMBER_OF_GATEWAYS, unitData.getDensityRelatedToNumberOfGateways());
+		}
+		String dbId = this.papi.savePojo(storage);
+		if (isNew) {
+			this.index.add(key, dbId);
+		}
+	}
+	
+	/**
+	 * Deletes all stored metric values, but keeps the index.
+	 */
+	public synchronized void clear() {
+		this.index.setSelectAll();
+		for (IndexElement<String, ProcessMetricsStorage> element : this.index.load()) {
+			this.papi.deletePojo(element.getDbId());
+		}
+		this.index.clearIndex();
+	}
+	
+	/**
+	 * @param key the index key to search for
+	 * @return the stored metric values for the given key or <code>null</code> if nothing is stored.
+	 */
+	private ProcessMetricsStorage findStorage(String key) {
+		this.index.setSelectEquals(key);
+		List<IndexElement<String, ProcessMetricsStorage>> elements = this.index.load();
+		for (IndexElement<String, ProcessMetricsStorage> element : elements) {
+			if (element.getPojo() != null) {
+				return element.getPojo();
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * @param metrics the requested metrics
+	 * @return the given metrics or all available metrics if the given collection is empty.
+	 */
+	private Collection<METRICS> getMetrics(Collection<METRICS> metrics) {
+		if (metrics.isEmpty()) {
+			return Arrays.asList(METRICS.values());
+		}
+		return metrics;
+	}
+	
+	/**
+	 * @return the index key for the given values
+	 */
+	private String getKey(String representationId, boolean includeSubProcesses) {
+		return representationId + KEY_SEPARATOR + includeSubProcesses;
+	}
+	
+	/**
+	 * @return <code>true</code> if the given storage belongs to the given content and the current calculator version
+	 */
+	private boolean isUpToDate(ProcessMetricsStorage storage, String contentKey) {
+		return contentKey.equals(storage.getContentHash()) && storage.getCalculatorVersion() == ProcessMetricsCalculator.VERSION;
+	}
+}
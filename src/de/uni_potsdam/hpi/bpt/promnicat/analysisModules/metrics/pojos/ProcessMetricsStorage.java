@@ -0,0 +1,144 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.metrics.pojos;
+
+import java.util.HashMap;
+
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.metrics.ProcessMetricsCalculator;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.AbstractPojo;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Representation;
+
+/**
+ * This class can be used to store the already calculated process metrics of one {@link Representation}.
+ * Besides the id of the {@link Representation}, a hash of its data content and the version of the
+ * {@link ProcessMetricsCalculator} are stored to detect outdated metric values.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+public class ProcessMetricsStorage extends AbstractPojo {
+
+	String representationId = null; // the process model id these metrics belong to
+	String contentHash = null; // hash of the representation's data content used for metric calculation
+	int calculatorVersion = 0; // version of the metrics calculator
+	boolean includeSubProcesses = true; // whether sub processes have been included in metric calculation
+	HashMap<String, Double> metricValues = new HashMap<String, Double>(); // metric name mapped to its value
+	
+	public ProcessMetricsStorage() {
+	}
+	
+	public ProcessMetricsStorage(String representationId, String contentHash, int calculatorVersion, boolean includeSubProcesses) {
+		this.representationId = representationId;
+		this.contentHash = contentHash;
+		this.calculatorVersion = calculatorVersion;
+		this.includeSubProcesses = includeSubProcesses;
+	}
+	
+	public String toString() {
+		return "ProcessMetricsStorage [representationId: " + representationId + ", contentHash: " + contentHash
+				+ ", calculatorVersion: " + calculatorVersion + ", includeSubProcesses: " + includeSubProcesses
+				+ ", metricValues: " + metricValues
+				+ "]";
+	}
+
+	/**
+	 * @return the representationId
+	 */
+	public String getRepresentationId() {
+		return representationId;
+	}
+
+	/**
+	 * @param representationId the representationId to set
+	 */
+	public void setRepresentationId(String representationId) {
+		this.representationId = representationId;
+	}
+
+	/**
+	 * @return the contentHash
+	 */
+	public String getContentHash() {
+		return contentHash;
+	}
+
+	/**
+	 * @param contentHash the contentHash to set
+	 */
+	public void setContentHash(String contentHash) {
+		this.contentHash = contentHash;
+	}
+
+	/**
+	 * @return the calculatorVersion
+	 */
+	public int getCalculatorVersion() {
+		return calculatorVersion;
+	}
+
+	/**
+	 * @param calculatorVersion the calculatorVersion to set
+	 */
+	public void setCalculatorVersion(int calculatorVersion) {
+		this.calculatorVersion = calculatorVersion;
+	}
+
+	/**
+	 * @return the includeSubProcesses flag
+	 */
+	public boolean isIncludeSubProcesses() {
+		return includeSubProcesses;
+	}
+
+	/**
+	 * @param includeSubProcesses the includeSubProcesses flag to set
+	 */
+	public void setIncludeSubProcesses(boolean includeSubProcesses) {
+		this.includeSubProcesses = includeSubProcesses;
+	}
+
+	/**
+	 * @return the metricValues
+	 */
+	public HashMap<String, Double> getMetricValues() {
+		return metricValues;
+	}
+
+	/**
+	 * @param metricValues the metricValues to set
+	 */
+	public void setMetricValues(HashMap<String, Double> metricValues) {
+		this.metricValues = metricValues;
+	}
+	
+	/**
+	 * @param metricName the name of the metric
+	 * @return the stored value of the given metric or <code>null</code> if it is not stored.
+	 */
+	public Double getMetricValue(String metricName) {
+		return metricValues.get(metricName);
+	}
+	
+	/**
+	 * @param metricName the name of the metric
+	 * @param value the value of the metric to store
+	 */
+	public void setMetricValue(String metricName, double value) {
+		this.metricValues.put(metricName, value);
+	}
+}
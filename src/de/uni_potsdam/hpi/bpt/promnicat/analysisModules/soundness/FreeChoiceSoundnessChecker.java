@@ -0,0 +1,379 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.soundness;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Decides the soundness of free-choice workflow nets in polynomial time without exploring their state space.
+ * A free-choice workflow net N is sound iff its short-circuited net N*, which has an additional transition
+ * from the sink place back to the source place, is live and bounded with the source place marked.
+ * This holds iff N* is well-formed and each of its siphons is marked initially, i.e., contains the source place.
+ * By the rank theorem, N* is well-formed iff
+ * <li> it has a positive S-invariant, </li>
+ * <li> it has a positive T-invariant and </li>
+ * <li> the rank of its incidence matrix equals the number of its clusters minus one. </li>
+ * The invariants are found by the first phase of the simplex algorithm, the rank by fraction free
+ * Gaussian elimination. Both use exact integer arithmetic.
+ * <br/><br/>
+ * In this context, free-choice means extended free-choice, i.e., transitions sharing an input place have
+ * the same input places. Instances are thread safe.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+class FreeChoiceSoundnessChecker {
+
+	/**
+	 * Checks the soundness of the given free-choice workflow net.
+	 * @param net the reduced free-choice workflow net to check, which has exactly one source place being
+	 * marked with one token and exactly one sink place
+	 * @return <code>true</code> if the given net is sound, <code>false</code> otherwise
+	 */
+	public boolean isSound(ReducedNet net) {
+		int places = net.getNumberOfPlaces();
+		int transitions = net.getNumberOfTransitions() + 1;
+		int source = indexOfMarkedPlace(net.getInitialMarking());
+		int sink = indexOfMarkedPlace(net.getFinalMarking());
+
+		//incidence matrix of the short-circuited net, whose last transition leads from the sink to the source
+		long[][] incidence = new long[places][transitions];
+		for (int t = 0; t < net.getNumberOfTransitions(); t++) {
+			for (int p : net.getPreset(t)) {
+				incidence[p][t]--;
+			}
+			for (int p : net.getPostset(t)) {
+				incidence[p][t]++;
+			}
+		}
+		incidence[sink][transitions - 1]--;
+		incidence[source][transitions - 1]++;
+
+		if (hasUnmarkedSiphon(net, source)) {
+			return false;
+		}
+		if (rank(incidence) != countClusters(net, sink) - 1) {
+			return false;
+		}
+		return hasPositiveSolution(incidence) && hasPositiveSolution(transpose(incidence));
+	}
+
+	private int indexOfMarkedPlace(int[] marking) {
+		for (int p = 0; p < marking.length; p++) {
+			if (marking[p] > 0) {
+				return p;
+			}
+		}
+		throw new IllegalArgumentException("The net has no source or sink place.");
+	}
+
+	/**
+	 * Calculates the largest siphon of the short-circuited net not containing the source place. A set of places
+	 * is a siphon, if each transition putting tokens onto one of them also consumes tokens from one of them.
+	 * Starting with all places but the source place, places violating this condition are removed until none is left.
+	 * @param net the net to search a siphon in
+	 * @param source the index of the source place, which is the output place of the short-circuiting transition
+	 * @return <code>true</code> if the short-circuited net has a non empty siphon being unmarked initially
+	 */
+	private boolean hasUnmarkedSiphon(ReducedNet net, int source) {
+		boolean[] inSiphon = new boolean[net.getNumberOfPlaces()];
+		Arrays.fill(inSiphon, true);
+		inSiphon[source] = false;
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int t = 0; t < net.getNumberOfTransitions(); t++) {
+				boolean consumes = false;
+				for (int p : net.getPreset(t)) {
+					consumes |= inSiphon[p];
+				}
+				if (!consumes) {
+					for (int p : net.getPostset(t)) {
+						changed |= inSiphon[p];
+						inSiphon[p] = false;
+					}
+				}
+			}
+		}
+		//the short-circuiting transition only produces tokens on the source place, which is never part of the siphon
+		for (boolean place : inSiphon) {
+			if (place) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Counts the clusters of the short-circuited net. Each place belongs to the same cluster as its output transitions.
+	 * @param net the net to count the clusters of
+	 * @param sink the index of the sink place, which is the input place of the short-circuiting transition
+	 * @return the number of clusters
+	 */
+	private int countClusters(ReducedNet net, int sink) {
+		int places = net.getNumberOfPlaces();
+		//places are numbered first, transitions afterwards, the short-circuiting transition is the last node
+		int[] parents = new int[places + net.getNumberOfTransitions() + 1];
+		for (int node = 0; node < parents.length; node++) {
+			parents[node] = node;
+		}
+		int clusters = parents.length;
+		for (int t = 0; t < net.getNumberOfTransitions(); t++) {
+			for (int p : net.getPreset(t)) {
+				if (union(parents, p, places + t)) {
+					clusters--;
+				}
+			}
+		}
+		if (union(parents, sink, parents.length - 1)) {
+			clusters--;
+		}
+		return clusters;
+	}
+
+	private boolean union(int[] parents, int node1, int node2) {
+		int root1 = find(parents, node1);
+		int root2 = find(parents, node2);
+		if (root1 == root2) {
+			return false;
+		}
+		parents[root1] = root2;
+		return true;
+	}
+
+	private int find(int[] parents, int node) {
+		while (parents[node] != node) {
+			parents[node] = parents[parents[node]];
+			node = parents[node];
+		}
+		return node;
+	}
+
+	private long[][] transpose(long[][] matrix) {
+		long[][] result = new long[matrix.length == 0 ? 0 : matrix[0].length][matrix.length];
+		for (int i = 0; i < matrix.length; i++) {
+			for (int j = 0; j < matrix[i].length; j++) {
+				result[j][i] = matrix[i][j];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Calculates the rank of the given matrix by fraction free Gaussian elimination. The rows are
+	 * divided by the greatest common divisor of their entries to keep the numbers small.
+	 * @param matrix the matrix to calculate the rank of, it is not modified
+	 * @return the rank of the given matrix
+	 */
+	int rank(long[][] matrix) {
+		int rows = matrix.length;
+		int columns = rows == 0 ? 0 : matrix[0].length;
+		BigInteger[][] m = toBigIntegers(matrix);
+		int rank = 0;
+		for (int column = 0; column < columns && rank < rows; column++) {
+			int pivotRow = -1;
+			for (int row = rank; row < rows && pivotRow < 0; row++) {
+				if (m[row][column].signum() != 0) {
+					pivotRow = row;
+				}
+			}
+			if (pivotRow < 0) {
+				continue;
+			}
+			BigInteger[] swap = m[pivotRow];
+			m[pivotRow] = m[rank];
+			m[rank] = swap;
+			BigInteger pivot = m[rank][column];
+			for (int row = rank + 1; row < rows; row++) {
+				BigInteger factor = m[row][column];
+				if (factor.signum() == 0) {
+					continue;
+				}
+				for (int j = column; j < columns; j++) {
+					m[row][j] = m[row][j].multiply(pivot).subtract(m[rank][j].multiply(factor));
+				}
+				normalize(m[row]);
+			}
+			rank++;
+		}
+		return rank;
+	}
+
+	/**
+	 * Checks whether M * z = 0 has a solution with z >= 1 for the given matrix M. With z = 1 + w this is
+	 * equivalent to M * w = -M * 1 having a solution w >= 0, which is decided by the first phase of the
+	 * simplex algorithm using Bland's rule.
+	 * @param matrix the matrix M, it is not modified
+	 * @return <code>true</code> if the given matrix has a positive solution, <code>false</code> otherwise
+	 */
+	boolean hasPositiveSolution(long[][] matrix) {
+		int rows = matrix.length;
+		if (rows == 0) {
+			return true;
+		}
+		int variables = matrix[0].length;
+		//tableau [M | I | b] with artificial variables, each row is scaled by its own denominator
+		int columns = variables + rows + 1;
+		BigInteger[][] tableau = new BigInteger[rows][columns];
+		int[] basis = new int[rows];
+		for (int i = 0; i < rows; i++) {
+			long rhs = 0;
+			for (int j = 0; j < variables; j++) {
+				rhs -= matrix[i][j];
+			}
+			long sign = rhs < 0 ? -1 : 1;
+			for (int j = 0; j < variables; j++) {
+				tableau[i][j] = BigInteger.valueOf(sign * matrix[i][j]);
+			}
+			for (int j = 0; j < rows; j++) {
+				tableau[i][variables + j] = i == j ? BigInteger.ONE : BigInteger.ZERO;
+			}
+			tableau[i][columns - 1] = BigInteger.valueOf(sign * rhs);
+			basis[i] = variables + i;
+		}
+		while (true) {
+			//reduced costs of minimizing the sum of the artificial variables, scaled per row
+			int entering = -1;
+			for (int j = 0; j < variables + rows && entering < 0; j++) {
+				if (!isBasic(basis, j) && reducedCostSignum(tableau, basis, variables, j) < 0) {
+					entering = j;
+				}
+			}
+			if (entering < 0) {
+				break;
+			}
+			int leaving = -1;
+			for (int i = 0; i < rows; i++) {
+				if (tableau[i][entering].signum() <= 0) {
+					continue;
+				}
+				if (leaving < 0) {
+					leaving = i;
+					continue;
+				}
+				//compare b_i / a_i with b_leaving / a_leaving
+				int comparison = tableau[i][columns - 1].multiply(tableau[leaving][entering])
+						.compareTo(tableau[leaving][columns - 1].multiply(tableau[i][entering]));
+				if (comparison < 0 || (comparison == 0 && basis[i] < basis[leaving])) {
+					leaving = i;
+				}
+			}
+			if (leaving < 0) {
+				//unbounded direction, can not happen while minimizing a sum of non-negative variables
+				break;
+			}
+			pivot(tableau, leaving, entering);
+			basis[leaving] = entering;
+		}
+		for (int i = 0; i < rows; i++) {
+			if (basis[i] >= variables && tableau[i][columns - 1].signum() != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isBasic(int[] basis, int column) {
+		for (int basic : basis) {
+			if (basic == column) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The reduced cost of a column is its cost minus the sum of the entries in rows having an artificial
+	 * basic variable. As the rows are scaled differently, each entry is normalized by its row's basic entry.
+	 * @return the signum of the reduced cost of the given column
+	 */
+	private int reducedCostSignum(BigInteger[][] tableau, int[] basis, int variables, int column) {
+		BigInteger numerator = column >= variables ? BigInteger.ONE : BigInteger.ZERO;
+		BigInteger denominator = BigInteger.ONE;
+		for (int i = 0; i < tableau.length; i++) {
+			if (basis[i] < variables || tableau[i][column].signum() == 0) {
+				continue;
+			}
+			//numerator / denominator - tableau[i][column] / tableau[i][basis[i]]
+			BigInteger basicEntry = tableau[i][basis[i]];
+			numerator = numerator.multiply(basicEntry).subtract(tableau[i][column].multiply(denominator));
+			denominator = denominator.multiply(basicEntry);
+			BigInteger gcd = numerator.gcd(denominator);
+			if (gcd.signum() != 0 && !gcd.equals(BigInteger.ONE)) {
+				numerator = numerator.divide(gcd);
+				denominator = denominator.divide(gcd);
+			}
+		}
+		return numerator.signum() * denominator.signum();
+	}
+
+	/**
+	 * Pivots the given tableau on the given entry. All rows are kept integral by cross multiplication
+	 * and are divided by the greatest common divisor of their entries afterwards.
+	 */
+	private void pivot(BigInteger[][] tableau, int pivotRow, int pivotColumn) {
+		BigInteger pivot = tableau[pivotRow][pivotColumn];
+		for (int i = 0; i < tableau.length; i++) {
+			if (i == pivotRow || tableau[i][pivotColumn].signum() == 0) {
+				continue;
+			}
+			BigInteger factor = tableau[i][pivotColumn];
+			for (int j = 0; j < tableau[i].length; j++) {
+				tableau[i][j] = tableau[i][j].multiply(pivot).subtract(tableau[pivotRow][j].multiply(factor));
+			}
+			if (pivot.signum() < 0) {
+				negate(tableau[i]);
+			}
+			normalize(tableau[i]);
+		}
+		normalize(tableau[pivotRow]);
+	}
+
+	private void negate(BigInteger[] row) {
+		for (int j = 0; j < row.length; j++) {
+			row[j] = row[j].negate();
+		}
+	}
+
+	private void normalize(BigInteger[] row) {
+		BigInteger gcd = BigInteger.ZERO;
+		for (BigInteger entry : row) {
+			gcd = gcd.gcd(entry);
+			if (gcd.equals(BigInteger.ONE)) {
+				return;
+			}
+		}
+		if (gcd.signum() != 0) {
+			for (int j = 0; j < row.length; j++) {
+				row[j] = row[j].divide(gcd);
+			}
+		}
+	}
+
+	private BigInteger[][] toBigIntegers(long[][] matrix) {
+		BigInteger[][] result = new BigInteger[matrix.length][];
+		for (int i = 0; i < matrix.length; i++) {
+			result[i] = new BigInteger[matrix[i].length];
+			for (int j = 0; j < matrix[i].length; j++) {
+				result[i][j] = BigInteger.valueOf(matrix[i][j]);
+			}
+		}
+		return result;
+	}
+}
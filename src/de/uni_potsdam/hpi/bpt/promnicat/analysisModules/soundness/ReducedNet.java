@@ -0,0 +1,259 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.soundness;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+
+/**
+ * Index based copy of a {@link NetSystem}, which is reduced by the fusion of series transitions:
+ * A place p having exactly one input transition t1 and exactly one output transition t2, where p is
+ * the only input place of t2, is removed and t2 is merged into t1. The reduction preserves boundedness,
+ * liveness and the option to complete. Each transition of the reduced net knows the transitions of the
+ * original net it stands for, such that dead transitions can be reported for the original net.
+ * <br/><br/>
+ * The initial marking is the marking of the given {@link NetSystem}, the final marking has one token
+ * on each sink place.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+class ReducedNet {
+
+	private final List<Place> places = new ArrayList<Place>();
+	private final List<Collection<Transition>> transitions = new ArrayList<Collection<Transition>>();
+	private final int[][] presets;
+	private final int[][] postsets;
+	private final int[] initialMarking;
+	private final int[] finalMarking;
+	private final int removedTransitions;
+
+	/**
+	 * Creates the reduced net of the given {@link NetSystem}.
+	 * @param netSystem the net to reduce, it is not modified
+	 */
+	public ReducedNet(NetSystem netSystem) {
+		List<Place> allPlaces = new ArrayList<Place>(netSystem.getPlaces());
+		List<Transition> allTransitions = new ArrayList<Transition>(netSystem.getTransitions());
+		Map<Place, Integer> placeIds = new HashMap<Place, Integer>();
+		for (int i = 0; i < allPlaces.size(); i++) {
+			placeIds.put(allPlaces.get(i), i);
+		}
+		int[] initial = new int[allPlaces.size()];
+		int[] last = new int[allPlaces.size()];
+		for (int i = 0; i < allPlaces.size(); i++) {
+			Integer tokens = netSystem.getMarking().get(allPlaces.get(i));
+			initial[i] = tokens == null ? 0 : tokens;
+		}
+		for (Place sink : netSystem.getSinkPlaces()) {
+			last[placeIds.get(sink)] = 1;
+		}
+
+		//arcs of the original net
+		List<Set<Integer>> transitionPresets = new ArrayList<Set<Integer>>();
+		List<Set<Integer>> transitionPostsets = new ArrayList<Set<Integer>>();
+		List<Set<Integer>> placePresets = new ArrayList<Set<Integer>>();
+		List<Set<Integer>> placePostsets = new ArrayList<Set<Integer>>();
+		List<Collection<Transition>> originals = new ArrayList<Collection<Transition>>();
+		for (int i = 0; i < allPlaces.size(); i++) {
+			placePresets.add(new LinkedHashSet<Integer>());
+			placePostsets.add(new LinkedHashSet<Integer>());
+		}
+		for (int t = 0; t < allTransitions.size(); t++) {
+			Transition transition = allTransitions.get(t);
+			Set<Integer> preset = new LinkedHashSet<Integer>();
+			for (Place place : netSystem.getPreset(transition)) {
+				int p = placeIds.get(place);
+				preset.add(p);
+				placePostsets.get(p).add(t);
+			}
+			Set<Integer> postset = new LinkedHashSet<Integer>();
+			for (Place place : netSystem.getPostset(transition)) {
+				int p = placeIds.get(place);
+				postset.add(p);
+				placePresets.get(p).add(t);
+			}
+			transitionPresets.add(preset);
+			transitionPostsets.add(postset);
+			Collection<Transition> original = new ArrayList<Transition>();
+			original.add(transition);
+			originals.add(original);
+		}
+
+		//fusion of series transitions
+		boolean[] removedPlace = new boolean[allPlaces.size()];
+		boolean[] removedTransition = new boolean[allTransitions.size()];
+		int removed = 0;
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int p = 0; p < allPlaces.size(); p++) {
+				if (removedPlace[p] || initial[p] != 0 || last[p] != 0
+						|| placePresets.get(p).size() != 1 || placePostsets.get(p).size() != 1) {
+					continue;
+				}
+				int t1 = placePresets.get(p).iterator().next();
+				int t2 = placePostsets.get(p).iterator().next();
+				if (t1 == t2 || transitionPresets.get(t2).size() != 1 || !isFusible(transitionPostsets.get(t1), transitionPostsets.get(t2), p)) {
+					continue;
+				}
+				transitionPostsets.get(t1).remove(p);
+				for (int q : transitionPostsets.get(t2)) {
+					transitionPostsets.get(t1).add(q);
+					placePresets.get(q).remove(t2);
+					placePresets.get(q).add(t1);
+				}
+				originals.get(t1).addAll(originals.get(t2));
+				removedPlace[p] = true;
+				removedTransition[t2] = true;
+				removed++;
+				changed = true;
+			}
+		}
+		this.removedTransitions = removed;
+
+		//compact the remaining nodes
+		int[] compactPlaceIds = new int[allPlaces.size()];
+		for (int p = 0; p < allPlaces.size(); p++) {
+			if (!removedPlace[p]) {
+				compactPlaceIds[p] = this.places.size();
+				this.places.add(allPlaces.get(p));
+			}
+		}
+		this.initialMarking = new int[this.places.size()];
+		this.finalMarking = new int[this.places.size()];
+		for (int p = 0; p < allPlaces.size(); p++) {
+			if (!removedPlace[p]) {
+				this.initialMarking[compactPlaceIds[p]] = initial[p];
+				this.finalMarking[compactPlaceIds[p]] = last[p];
+			}
+		}
+		List<int[]> compactPresets = new ArrayList<int[]>();
+		List<int[]> compactPostsets = new ArrayList<int[]>();
+		for (int t = 0; t < allTransitions.size(); t++) {
+			if (!removedTransition[t]) {
+				this.transitions.add(originals.get(t));
+				compactPresets.add(toCompactIds(transitionPresets.get(t), compactPlaceIds));
+				compactPostsets.add(toCompactIds(transitionPostsets.get(t), compactPlaceIds));
+			}
+		}
+		this.presets = compactPresets.toArray(new int[compactPresets.size()][]);
+		this.postsets = compactPostsets.toArray(new int[compactPostsets.size()][]);
+	}
+
+	/**
+	 * @param postset1 the postset of the first transition
+	 * @param postset2 the postset of the second transition
+	 * @param place the place connecting both transitions
+	 * @return <code>true</code> if both postsets are disjoint apart from the given place, so that merging
+	 * them does not create arcs with a weight greater than one
+	 */
+	private boolean isFusible(Set<Integer> postset1, Set<Integer> postset2, int place) {
+		for (int p : postset2) {
+			if (p == place || postset1.contains(p)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int[] toCompactIds(Set<Integer> ids, int[] compactIds) {
+		int[] result = new int[ids.size()];
+		int i = 0;
+		for (int id : ids) {
+			result[i++] = compactIds[id];
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of places of the reduced net
+	 */
+	public int getNumberOfPlaces() {
+		return this.places.size();
+	}
+
+	/**
+	 * @return the number of transitions of the reduced net
+	 */
+	public int getNumberOfTransitions() {
+		return this.transitions.size();
+	}
+
+	/**
+	 * @return the number of transitions, which have been removed by the reduction
+	 */
+	public int getNumberOfRemovedTransitions() {
+		return this.removedTransitions;
+	}
+
+	/**
+	 * @param place the index of the place
+	 * @return the place of the original net
+	 */
+	public Place getPlace(int place) {
+		return this.places.get(place);
+	}
+
+	/**
+	 * @param transition the index of the transition
+	 * @return the transitions of the original net the given transition stands for
+	 */
+	public Collection<Transition> getTransitions(int transition) {
+		return this.transitions.get(transition);
+	}
+
+	/**
+	 * @param transition the index of the transition
+	 * @return the indices of the input places of the given transition
+	 */
+	public int[] getPreset(int transition) {
+		return this.presets[transition];
+	}
+
+	/**
+	 * @param transition the index of the transition
+	 * @return the indices of the output places of the given transition
+	 */
+	public int[] getPostset(int transition) {
+		return this.postsets[transition];
+	}
+
+	/**
+	 * @return the number of tokens of each place in the initial marking
+	 */
+	public int[] getInitialMarking() {
+		return this.initialMarking;
+	}
+
+	/**
+	 * @return the number of tokens of each place in the final marking
+	 */
+	public int[] getFinalMarking() {
+		return this.finalMarking;
+	}
+}
@@ -0,0 +1,458 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.soundness;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.bevahior.LolaSoundnessChecker;
+import org.jbpt.petri.bevahior.LolaSoundnessCheckerResult;
+
+/**
+ * Decides the soundness of workflow nets in process, hence it is a replacement for the
+ * {@link LolaSoundnessChecker}, which calls an external LoLA service.
+ * <br/><br/>
+ * The net is reduced by the fusion of series transitions first. Afterwards, its state space is explored
+ * breadth first. The markings are packed into {@value #BITS_PER_PLACE} bits per place and are stored
+ * in one array. The exploration is aborted as soon as a marking strictly covers one of its ancestors,
+ * because the net is unbounded then. The following properties are decided with respect to the initial
+ * marking of the given net and the final marking having one token on each sink place:
+ * <li> boundedness </li>
+ * <li> quasi-liveness, i.e., no dead transitions </li>
+ * <li> weak soundness, i.e., option to complete and proper completion </li>
+ * <li> classical soundness, i.e., weak soundness and quasi-liveness </li>
+ * <li> liveness of the short-circuited net, which is equivalent to classical soundness for bounded workflow nets </li>
+ * <li> relaxed soundness and transition cover, i.e., each transition occurs in a firing sequence reaching the final marking </li>
+ * For unbounded nets, only the unbounded places are reported and all other properties are <code>false</code>.
+ * <br/><br/>
+ * Instances are thread safe.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+public class StateSpaceSoundnessChecker {
+
+	/** default maximum number of markings to explore */
+	public static final int DEFAULT_STATE_BUDGET = 1000000;
+
+	private static final int BITS_PER_PLACE = 8;
+	private static final int PLACES_PER_WORD = 64 / BITS_PER_PLACE;
+	private static final int MAX_TOKENS = (1 << BITS_PER_PLACE) - 1;
+
+	private final int stateBudget;
+
+	/**
+	 * Creates a new checker exploring at most {@value #DEFAULT_STATE_BUDGET} markings.
+	 */
+	public StateSpaceSoundnessChecker() {
+		this(DEFAULT_STATE_BUDGET);
+	}
+
+	/**
+	 * @param stateBudget the maximum number of markings to explore, must be at least 1
+	 */
+	public StateSpaceSoundnessChecker(int stateBudget) {
+		if (stateBudget < 1) {
+			throw new IllegalArgumentException("The state budget must be at least 1, but was " + stateBudget);
+		}
+		this.stateBudget = stateBudget;
+	}
+
+	/**
+	 * @return the maximum number of markings to explore
+	 */
+	public int getStateBudget() {
+		return stateBudget;
+	}
+
+	/**
+	 * Analyzes the soundness of the given net.
+	 * @param netSystem the net to analyze, its marking is used as initial marking. The net is not modified.
+	 * @return the result of the analysis
+	 * @throws IllegalStateException if the state budget is exceeded or a place gets more than
+	 * {@value #MAX_TOKENS} tokens
+	 */
+	public LolaSoundnessCheckerResult analyzeSoundness(NetSystem netSystem) {
+		return analyzeSoundness(new ReducedNet(netSystem));
+	}
+
+	/**
+	 * Analyzes the soundness of the given reduced net.
+	 * @param net the net to analyze
+	 * @return the result of the analysis
+	 * @throws IllegalStateException if the state budget is exceeded or a place gets more than
+	 * {@value #MAX_TOKENS} tokens
+	 */
+	LolaSoundnessCheckerResult analyzeSoundness(ReducedNet net) {
+		StateSpace stateSpace = new StateSpace(net.getNumberOfPlaces());
+		int[] marking = net.getInitialMarking().clone();
+		checkTokens(marking);
+		stateSpace.add(pack(marking, stateSpace.getWordsPerState()), -1);
+
+		int[] successor = new int[marking.length];
+		long[] packedSuccessor = new long[stateSpace.getWordsPerState()];
+		for (int state = 0; state < stateSpace.size(); state++) {
+			stateSpace.unpack(state, marking);
+			for (int t = 0; t < net.getNumberOfTransitions(); t++) {
+				if (!isEnabled(marking, net.getPreset(t))) {
+					continue;
+				}
+				System.arraycopy(marking, 0, successor, 0, marking.length);
+				for (int p : net.getPreset(t)) {
+					successor[p]--;
+				}
+				for (int p : net.getPostset(t)) {
+					successor[p]++;
+				}
+				checkTokens(successor);
+				packInto(successor, packedSuccessor);
+				int target = stateSpace.indexOf(packedSuccessor);
+				if (target < 0) {
+					Collection<Integer> growingPlaces = getGrowingPlaces(stateSpace, state, successor);
+					if (growingPlaces != null) {
+						return createUnboundedResult(net, growingPlaces);
+					}
+					if (stateSpace.size() >= this.stateBudget) {
+						throw new IllegalStateException("The state budget of " + this.stateBudget + " markings has been exceeded.");
+					}
+					target = stateSpace.add(packedSuccessor.clone(), state);
+				}
+				stateSpace.addEdge(state, target, t);
+			}
+		}
+		return createBoundedResult(net, stateSpace);
+	}
+
+	private boolean isEnabled(int[] marking, int[] preset) {
+		for (int p : preset) {
+			if (marking[p] == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void checkTokens(int[] marking) {
+		for (int tokens : marking) {
+			if (tokens > MAX_TOKENS) {
+				throw new IllegalStateException("A place has more than " + MAX_TOKENS + " tokens.");
+			}
+		}
+	}
+
+	private long[] pack(int[] marking, int wordsPerState) {
+		long[] packed = new long[wordsPerState];
+		packInto(marking, packed);
+		return packed;
+	}
+
+	private void packInto(int[] marking, long[] packed) {
+		Arrays.fill(packed, 0L);
+		for (int p = 0; p < marking.length; p++) {
+			packed[p / PLACES_PER_WORD] |= ((long) marking[p]) << ((p % PLACES_PER_WORD) * BITS_PER_PLACE);
+		}
+	}
+
+	/**
+	 * Checks whether the given marking strictly covers the marking of the given state or of one of its ancestors.
+	 * @param stateSpace the explored states
+	 * @param state the predecessor of the given marking
+	 * @param marking the new marking
+	 * @return the places having more tokens in the given marking than in the covered ancestor or <code>null</code>
+	 * if no ancestor is covered
+	 */
+	private Collection<Integer> getGrowingPlaces(StateSpace stateSpace, int state, int[] marking) {
+		for (int ancestor = state; ancestor >= 0; ancestor = stateSpace.getParent(ancestor)) {
+			boolean covers = true;
+			Collection<Integer> growingPlaces = new ArrayList<Integer>();
+			for (int p = 0; p < marking.length && covers; p++) {
+				int tokens = stateSpace.getTokens(ancestor, p);
+				if (marking[p] < tokens) {
+					covers = false;
+				} else if (marking[p] > tokens) {
+					growingPlaces.add(p);
+				}
+			}
+			if (covers && !growingPlaces.isEmpty()) {
+				return growingPlaces;
+			}
+		}
+		return null;
+	}
+
+	private LolaSoundnessCheckerResult createUnboundedResult(ReducedNet net, Collection<Integer> growingPlaces) {
+		LolaSoundnessCheckerResult result = createResult(false, false, false, false, false);
+		Collection<Place> unboundedPlaces = new ArrayList<Place>();
+		for (int p : growingPlaces) {
+			unboundedPlaces.add(net.getPlace(p));
+		}
+		result.setUnboundedPlaces(unboundedPlaces);
+		return result;
+	}
+
+	private LolaSoundnessCheckerResult createBoundedResult(ReducedNet net, StateSpace stateSpace) {
+		int[] finalMarking = net.getFinalMarking();
+		int finalState = stateSpace.indexOf(pack(finalMarking, stateSpace.getWordsPerState()));
+		boolean[] canReachFinalState = new boolean[stateSpace.size()];
+		if (finalState >= 0) {
+			stateSpace.markBackwardReachable(finalState, canReachFinalState);
+		}
+
+		//option to complete and proper completion
+		boolean weakSound = finalState >= 0;
+		for (int state = 0; state < stateSpace.size() && weakSound; state++) {
+			if (!canReachFinalState[state] || (state != finalState && covers(stateSpace, state, finalMarking))) {
+				weakSound = false;
+			}
+		}
+
+		boolean[] fired = new boolean[net.getNumberOfTransitions()];
+		boolean[] covered = new boolean[net.getNumberOfTransitions()];
+		for (int edge = 0; edge < stateSpace.getNumberOfEdges(); edge++) {
+			fired[stateSpace.getEdgeTransition(edge)] = true;
+			if (canReachFinalState[stateSpace.getEdgeTarget(edge)]) {
+				covered[stateSpace.getEdgeTransition(edge)] = true;
+			}
+		}
+		Collection<Transition> deadTransitions = new ArrayList<Transition>();
+		Collection<Transition> uncoveredTransitions = new ArrayList<Transition>();
+		for (int t = 0; t < net.getNumberOfTransitions(); t++) {
+			if (!fired[t]) {
+				deadTransitions.addAll(net.getTransitions(t));
+			}
+			if (!covered[t]) {
+				uncoveredTransitions.addAll(net.getTransitions(t));
+			}
+		}
+		boolean quasiLive = deadTransitions.isEmpty();
+		boolean relaxedSound = finalState >= 0 && uncoveredTransitions.isEmpty();
+		LolaSoundnessCheckerResult result = createResult(true, quasiLive, weakSound, relaxedSound, weakSound && quasiLive);
+		result.setDeadTransitions(deadTransitions);
+		result.setUncoveredTransitions(uncoveredTransitions);
+		return result;
+	}
+
+	/**
+	 * @return <code>true</code> if the marking of the given state has at least as many tokens on each place as the given marking
+	 */
+	private boolean covers(StateSpace stateSpace, int state, int[] marking) {
+		for (int p = 0; p < marking.length; p++) {
+			if (stateSpace.getTokens(state, p) < marking[p]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private LolaSoundnessCheckerResult createResult(boolean bounded, boolean quasiLive, boolean weakSound, boolean relaxedSound, boolean sound) {
+		LolaSoundnessCheckerResult result = new LolaSoundnessCheckerResult();
+		result.setBoundedness(bounded);
+		result.setQuasiLiveness(quasiLive);
+		result.setWeakSoundness(weakSound);
+		result.setRelaxedSoundness(relaxedSound);
+		result.setTransitioncover(relaxedSound);
+		result.setClassicalSoundness(sound);
+		result.setLiveness(sound);
+		result.setDeadTransitions(new ArrayList<Transition>());
+		result.setUncoveredTransitions(new ArrayList<Transition>());
+		result.setUnboundedPlaces(new ArrayList<Place>());
+		return result;
+	}
+
+	/**
+	 * The explored markings and the transitions between them. The markings are stored packed one after the other
+	 * in one array and are found by an open addressing hash table of state indices.
+	 */
+	private static class StateSpace {
+
+		private final int wordsPerState;
+		private long[] markings;
+		private int[] parents;
+		private int size = 0;
+		private int[] table;
+
+		private int[] edgeSources = new int[64];
+		private int[] edgeTargets = new int[64];
+		private int[] edgeTransitions = new int[64];
+		private int numberOfEdges = 0;
+
+		public StateSpace(int numberOfPlaces) {
+			this.wordsPerState = Math.max(1, (numberOfPlaces + PLACES_PER_WORD - 1) / PLACES_PER_WORD);
+			this.markings = new long[64 * this.wordsPerState];
+			this.parents = new int[64];
+			this.table = new int[128];
+			Arrays.fill(this.table, -1);
+		}
+
+		public int getWordsPerState() {
+			return this.wordsPerState;
+		}
+
+		public int size() {
+			return this.size;
+		}
+
+		public int getParent(int state) {
+			return this.parents[state];
+		}
+
+		public int getTokens(int state, int place) {
+			long word = this.markings[state * this.wordsPerState + place / PLACES_PER_WORD];
+			return (int) (word >>> ((place % PLACES_PER_WORD) * BITS_PER_PLACE)) & MAX_TOKENS;
+		}
+
+		public void unpack(int state, int[] marking) {
+			for (int p = 0; p < marking.length; p++) {
+				marking[p] = getTokens(state, p);
+			}
+		}
+
+		/**
+		 * @param packedMarking the marking to search for
+		 * @return the index of the state having the given marking or -1 if it has not been explored yet
+		 */
+		public int indexOf(long[] packedMarking) {
+			int slot = hash(packedMarking) & (this.table.length - 1);
+			while (this.table[slot] >= 0) {
+				if (equals(this.table[slot], packedMarking)) {
+					return this.table[slot];
+				}
+				slot = (slot + 1) & (this.table.length - 1);
+			}
+			return -1;
+		}
+
+		/**
+		 * Adds a new state, which must not have been explored yet.
+		 * @param packedMarking the marking of the new state
+		 * @param parent the state the new state has been reached from or -1 for the initial state
+		 * @return the index of the new state
+		 */
+		public int add(long[] packedMarking, int parent) {
+			if ((this.size + 1) * this.wordsPerState > this.markings.length) {
+				this.markings = Arrays.copyOf(this.markings, this.markings.length * 2);
+				this.parents = Arrays.copyOf(this.parents, this.parents.length * 2);
+			}
+			System.arraycopy(packedMarking, 0, this.markings, this.size * this.wordsPerState, this.wordsPerState);
+			this.parents[this.size] = parent;
+			int state = this.size++;
+			if (2 * this.size > this.table.length) {
+				rehash();
+			} else {
+				insert(state, packedMarking);
+			}
+			return state;
+		}
+
+		private void insert(int state, long[] packedMarking) {
+			int slot = hash(packedMarking) & (this.table.length - 1);
+			while (this.table[slot] >= 0) {
+				slot = (slot + 1) & (this.table.length - 1);
+			}
+			this.table[slot] = state;
+		}
+
+		private void rehash() {
+			this.table = new int[this.table.length * 2];
+			Arrays.fill(this.table, -1);
+			long[] packedMarking = new long[this.wordsPerState];
+			for (int state = 0; state < this.size; state++) {
+				System.arraycopy(this.markings, state * this.wordsPerState, packedMarking, 0, this.wordsPerState);
+				insert(state, packedMarking);
+			}
+		}
+
+		private int hash(long[] packedMarking) {
+			int hash = Arrays.hashCode(packedMarking);
+			return hash ^ (hash >>> 16);
+		}
+
+		private boolean equals(int state, long[] packedMarking) {
+			int offset = state * this.wordsPerState;
+			for (int i = 0; i < this.wordsPerState; i++) {
+				if (this.markings[offset + i] != packedMarking[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		public void addEdge(int source, int target, int transition) {
+			if (this.numberOfEdges == this.edgeSources.length) {
+				this.edgeSources = Arrays.copyOf(this.edgeSources, this.numberOfEdges * 2);
+				this.edgeTargets = Arrays.copyOf(this.edgeTargets, this.numberOfEdges * 2);
+				this.edgeTransitions = Arrays.copyOf(this.edgeTransitions, this.numberOfEdges * 2);
+			}
+			this.edgeSources[this.numberOfEdges] = source;
+			this.edgeTargets[this.numberOfEdges] = target;
+			this.edgeTransitions[this.numberOfEdges] = transition;
+			this.numberOfEdges++;
+		}
+
+		public int getNumberOfEdges() {
+			return this.numberOfEdges;
+		}
+
+		public int getEdgeTarget(int edge) {
+			return this.edgeTargets[edge];
+		}
+
+		public int getEdgeTransition(int edge) {
+			return this.edgeTransitions[edge];
+		}
+
+		/**
+		 * Marks all states, from which the given state can be reached.
+		 * @param state the state to reach
+		 * @param reachable the marks, which are set to <code>true</code> for all found states
+		 */
+		public void markBackwardReachable(int state, boolean[] reachable) {
+			//predecessors of each state in compressed sparse row format
+			int[] offsets = new int[this.size + 1];
+			for (int edge = 0; edge < this.numberOfEdges; edge++) {
+				offsets[this.edgeTargets[edge] + 1]++;
+			}
+			for (int i = 0; i < this.size; i++) {
+				offsets[i + 1] += offsets[i];
+			}
+			int[] predecessors = new int[this.numberOfEdges];
+			int[] next = Arrays.copyOf(offsets, this.size);
+			for (int edge = 0; edge < this.numberOfEdges; edge++) {
+				predecessors[next[this.edgeTargets[edge]]++] = this.edgeSources[edge];
+			}
+			int[] queue = new int[this.size];
+			int head = 0;
+			int tail = 0;
+			reachable[state] = true;
+			queue[tail++] = state;
+			while (head < tail) {
+				int current = queue[head++];
+				for (int i = offsets[current]; i < offsets[current + 1]; i++) {
+					if (!reachable[predecessors[i]]) {
+						reachable[predecessors[i]] = true;
+						queue[tail++] = predecessors[i];
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,201 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.soundness;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.bevahior.LolaSoundnessCheckerResult;
+import org.jbpt.petri.structure.PetriNetPathUtils;
+import org.jbpt.petri.structure.PetriNetStructuralClassChecks;
+
+/**
+ * Analyzes the soundness of nets in tiers of increasing cost. The structural class of a workflow net
+ * is detected first and sound nets of the following classes are recognized without exploring their state space:
+ * <li> S-nets, i.e., each transition has exactly one input and one output place, are always sound </li>
+ * <li> T-nets, i.e., each place has at most one input and one output transition, are sound iff they are acyclic </li>
+ * <li> extended free-choice nets are sound iff the rank theorem holds for the short-circuited net,
+ * see {@link FreeChoiceSoundnessChecker} </li>
+ * All other nets as well as the nets being found unsound are analyzed by the {@link StateSpaceSoundnessChecker},
+ * which provides the complete diagnosis, e.g., the dead transitions.
+ * <br/><br/>
+ * The number of nets decided by each tier is counted and logged every {@value #STATISTICS_INTERVAL} nets.
+ * Instances are thread safe.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+public class TieredSoundnessChecker {
+
+	/**
+	 * The tiers of the soundness analysis.
+	 */
+	public enum Tier {
+		S_NET, T_NET, FREE_CHOICE, STATE_SPACE
+	}
+
+	private static final int STATISTICS_INTERVAL = 1000;
+
+	private final static Logger logger = Logger.getLogger(TieredSoundnessChecker.class.getName());
+
+	private final StateSpaceSoundnessChecker stateSpaceChecker;
+	private final FreeChoiceSoundnessChecker freeChoiceChecker = new FreeChoiceSoundnessChecker();
+	private final AtomicLong analyzedNets = new AtomicLong();
+	private final AtomicLong[] hits = new AtomicLong[Tier.values().length];
+
+	/**
+	 * Creates a new checker, whose last tier explores at most {@value StateSpaceSoundnessChecker#DEFAULT_STATE_BUDGET} markings.
+	 */
+	public TieredSoundnessChecker() {
+		this(StateSpaceSoundnessChecker.DEFAULT_STATE_BUDGET);
+	}
+
+	/**
+	 * @param stateBudget the maximum number of markings explored by the last tier, must be at least 1
+	 */
+	public TieredSoundnessChecker(int stateBudget) {
+		this.stateSpaceChecker = new StateSpaceSoundnessChecker(stateBudget);
+		for (int i = 0; i < this.hits.length; i++) {
+			this.hits[i] = new AtomicLong();
+		}
+	}
+
+	/**
+	 * Analyzes the soundness of the given net.
+	 * @param netSystem the net to analyze, its marking is used as initial marking. The net is not modified.
+	 * @return the result of the analysis
+	 * @throws IllegalStateException if the state space has to be explored and the state budget is exceeded
+	 */
+	public LolaSoundnessCheckerResult analyzeSoundness(NetSystem netSystem) {
+		ReducedNet net = new ReducedNet(netSystem);
+		Tier tier = Tier.STATE_SPACE;
+		if (isWorkflowSystem(netSystem, net)) {
+			if (isSNet(net)) {
+				tier = Tier.S_NET;
+			} else if (isTNet(net) && !PetriNetPathUtils.isCyclic(netSystem)) {
+				tier = Tier.T_NET;
+			} else if (PetriNetStructuralClassChecks.isExtendedFreeChoice(netSystem) && this.freeChoiceChecker.isSound(net)) {
+				tier = Tier.FREE_CHOICE;
+			}
+		}
+		count(tier);
+		if (tier == Tier.STATE_SPACE) {
+			return this.stateSpaceChecker.analyzeSoundness(net);
+		}
+		return createSoundResult();
+	}
+
+	private void count(Tier tier) {
+		this.hits[tier.ordinal()].incrementAndGet();
+		if (this.analyzedNets.incrementAndGet() % STATISTICS_INTERVAL == 0) {
+			logger.info(getStatistics());
+		}
+	}
+
+	/**
+	 * @return the number of analyzed nets
+	 */
+	public long getNumberOfAnalyzedNets() {
+		return this.analyzedNets.get();
+	}
+
+	/**
+	 * @param tier the tier to get the number of decided nets for
+	 * @return the number of nets decided by the given tier
+	 */
+	public long getHits(Tier tier) {
+		return this.hits[tier.ordinal()].get();
+	}
+
+	/**
+	 * @return the number and the percentage of nets decided by each tier
+	 */
+	public String getStatistics() {
+		long analyzed = getNumberOfAnalyzedNets();
+		StringBuilder statistics = new StringBuilder("Analyzed the soundness of " + analyzed + " nets:");
+		for (Tier tier : Tier.values()) {
+			long tierHits = getHits(tier);
+			statistics.append(" ").append(tier).append(" ").append(tierHits);
+			statistics.append(String.format(" (%.1f%%)", analyzed == 0 ? 0.0 : 100.0 * tierHits / analyzed));
+		}
+		return statistics.toString();
+	}
+
+	/**
+	 * @return <code>true</code> if the given net is a workflow net, whose only marked place is its source place
+	 * having one token
+	 */
+	private boolean isWorkflowSystem(NetSystem netSystem, ReducedNet net) {
+		if (!PetriNetStructuralClassChecks.isWorkflowNet(netSystem)) {
+			return false;
+		}
+		Place source = netSystem.getSourcePlaces().iterator().next();
+		int tokens = 0;
+		for (int marked : net.getInitialMarking()) {
+			tokens += marked;
+		}
+		Integer sourceTokens = netSystem.getMarking().get(source);
+		return tokens == 1 && sourceTokens != null && sourceTokens == 1;
+	}
+
+	private boolean isSNet(ReducedNet net) {
+		for (int t = 0; t < net.getNumberOfTransitions(); t++) {
+			if (net.getPreset(t).length != 1 || net.getPostset(t).length != 1) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isTNet(ReducedNet net) {
+		int[] inputs = new int[net.getNumberOfPlaces()];
+		int[] outputs = new int[net.getNumberOfPlaces()];
+		for (int t = 0; t < net.getNumberOfTransitions(); t++) {
+			for (int p : net.getPreset(t)) {
+				if (++outputs[p] > 1) {
+					return false;
+				}
+			}
+			for (int p : net.getPostset(t)) {
+				if (++inputs[p] > 1) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private LolaSoundnessCheckerResult createSoundResult() {
+		LolaSoundnessCheckerResult result = new LolaSoundnessCheckerResult();
+		result.setBoundedness(true);
+		result.setQuasiLiveness(true);
+		result.setWeakSoundness(true);
+		result.setRelaxedSoundness(true);
+		result.setTransitioncover(true);
+		result.setClassicalSoundness(true);
+		result.setLiveness(true);
+		result.setDeadTransitions(new ArrayList<Transition>());
+		result.setUncoveredTransitions(new ArrayList<Transition>());
+		result.setUnboundedPlaces(new ArrayList<Place>());
+		return result;
+	}
+}
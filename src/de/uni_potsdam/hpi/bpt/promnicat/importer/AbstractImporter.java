@@ -26,6 +26,8 @@ import java.util.Collection;
 import org.jdom.JDOMException;
 import org.json.JSONException;
 
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
+
 /**
  * This is an abstract base class for all {@link IImporter} implementations.
  * 
@@ -34,6 +36,25 @@ import org.json.JSONException;
  */
 public abstract class AbstractImporter implements IImporter {
 
+	private boolean incremental = false;
+
+	/**
+	 * @return <code>true</code> if files that have not been changed since their last import are skipped,
+	 * <code>false</code> otherwise
+	 */
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	/**
+	 * Enables or disables the incremental import. If enabled, an {@link ImportManifest} is kept for each
+	 * origin and files that have not been changed since their last import are skipped. Disabled by default.
+	 * @param incremental <code>true</code> to skip unchanged files, <code>false</code> to read all files
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+
 	@Override
 	public void importModelsFrom(Collection<String> modelDirectories) throws IOException, JSONException, JDOMException {
 		for (String uri : modelDirectories) {
@@ -83,6 +104,44 @@ public abstract class AbstractImporter implements IImporter {
 		return files;
 	}
 	
+	/**
+	 * Loads the {@link ImportManifest} of the given origin, if incremental import is enabled.
+	 * The database has to be opened before.
+	 * 
+	 * @param persistenceApi persistence API used to load and store the manifest
+	 * @param origin the origin of the models to import
+	 * @return the manifest of the given origin or <code>null</code> if incremental import is disabled.
+	 */
+	protected ImportManifest loadManifest(IPersistenceApi persistenceApi, String origin) {
+		if (!this.incremental) {
+			return null;
+		}
+		return new ImportManifest(persistenceApi, origin);
+	}
+
+	/**
+	 * Collects recursively all files in the given directory and all of it's sub-directories,
+	 * that have been changed since their last import.
+	 * 
+	 * @param rootDir the directory to start with
+	 * @param manifest the manifest used to skip unchanged files, if <code>null</code> all files are returned
+	 * @return a {@link Collection} of all found files, that are new or have been changed.
+	 * @throws IOException if one of the files could not be read
+	 */
+	protected Collection<File> getFilesRecursivelyFromDir(File rootDir, ImportManifest manifest) throws IOException {
+		Collection<File> files = getFilesRecursivelyFromDir(rootDir);
+		if (manifest == null) {
+			return files;
+		}
+		Collection<File> changedFiles = new ArrayList<File>();
+		for (File file : files) {
+			if (!manifest.isUnchanged(file)) {
+				changedFiles.add(file);
+			}
+		}
+		return changedFiles;
+	}
+
 	/**
 	 * Deletes the given file or directory and all sub-directories.
 	 * @param path to delete
@@ -0,0 +1,178 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.importer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.logging.Logger;
+
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.ImportManifestEntry;
+
+/**
+ * The import manifest of one origin keeps track of all files imported so far. For each file
+ * the size, the last modification time stamp, a content hash, and the ids of the imported models are
+ * stored as {@link ImportManifestEntry} in the database. Files whose size and time stamp or content hash
+ * did not change since their last import can be skipped by the importers.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+public class ImportManifest {
+
+	private static final String HASH_ALGORITHM = "MD5";
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final IPersistenceApi persistenceApi;
+	private final String origin;
+	//canonical path -> entry
+	private final HashMap<String, ImportManifestEntry> entries = new HashMap<String, ImportManifestEntry>();
+
+	private final static Logger logger = Logger.getLogger(ImportManifest.class.getName());
+
+	/**
+	 * Loads the manifest of the given origin from the database. The database has to be opened before.
+	 * @param persistenceApi persistence API used to load and store the manifest entries
+	 * @param origin the origin of the imported models, e.g. {@link de.uni_potsdam.hpi.bpt.promnicat.util.Constants#ORIGIN_BPMAI}
+	 */
+	public ImportManifest(IPersistenceApi persistenceApi, String origin) {
+		this.persistenceApi = persistenceApi;
+		this.origin = origin;
+		load();
+	}
+
+	private void load() {
+		try {
+			for (Object entry : this.persistenceApi.load("SELECT FROM " + ImportManifestEntry.class.getSimpleName()
+					+ " WHERE origin = '" + this.origin + "'")) {
+				ImportManifestEntry manifestEntry = (ImportManifestEntry) entry;
+				this.entries.put(manifestEntry.getPath(), manifestEntry);
+			}
+		} catch (RuntimeException e) {
+			//databases created before manifests existed do not know the class yet
+			logger.info("No import manifest found for origin " + this.origin);
+		}
+	}
+
+	/**
+	 * @return the origin of this manifest
+	 */
+	public String getOrigin() {
+		return origin;
+	}
+
+	/**
+	 * @return the number of files recorded in this manifest
+	 */
+	public int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Checks whether the given file is unchanged since its last import. Size and time stamp are compared first.
+	 * If only the time stamp differs, the content hash decides and the new time stamp is stored.
+	 * 
+	 * @param file the file to check
+	 * @return <code>true</code> if the file has been imported before and has not been changed since,
+	 * <code>false</code> otherwise
+	 * @throws IOException if the file could not be read
+	 */
+	public boolean isUnchanged(File file) throws IOException {
+		ImportManifestEntry entry = this.entries.get(file.getCanonicalPath());
+		if (entry == null || entry.getSize() != file.length()) {
+			return false;
+		}
+		if (entry.getLastModified() == file.lastModified()) {
+			return true;
+		}
+		if (!entry.getContentHash().equals(computeContentHash(file))) {
+			return false;
+		}
+		entry.setLastModified(file.lastModified());
+		this.persistenceApi.savePojo(entry);
+		return true;
+	}
+
+	/**
+	 * Records the current state of the given file after it has been imported.
+	 * 
+	 * @param file the imported file
+	 * @param modelDbIds the database ids of the models imported from the file
+	 * @throws IOException if the file could not be read
+	 */
+	public void update(File file, Collection<String> modelDbIds) throws IOException {
+		String path = file.getCanonicalPath();
+		ImportManifestEntry entry = this.entries.get(path);
+		if (entry == null) {
+			entry = new ImportManifestEntry(this.origin, path);
+			this.entries.put(path, entry);
+		}
+		entry.setSize(file.length());
+		entry.setLastModified(file.lastModified());
+		entry.setContentHash(computeContentHash(file));
+		entry.setModelDbIds(modelDbIds);
+		this.persistenceApi.savePojo(entry);
+	}
+
+	/**
+	 * @param file the file to get the manifest entry for
+	 * @return the manifest entry of the given file or <code>null</code> if the file has not been imported yet
+	 * @throws IOException if the canonical path of the file could not be determined
+	 */
+	public ImportManifestEntry getEntry(File file) throws IOException {
+		return this.entries.get(file.getCanonicalPath());
+	}
+
+	/**
+	 * @param file the file to hash
+	 * @return the hex encoded hash of the file's content
+	 * @throws IOException if the file could not be read
+	 */
+	static String computeContentHash(File file) throws IOException {
+		MessageDigest digest = null;
+		try {
+			digest = MessageDigest.getInstance(HASH_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(HASH_ALGORITHM + " is not supported by this platform.", e);
+		}
+		FileInputStream inputStream = new FileInputStream(file);
+		try {
+			FileChannel channel = inputStream.getChannel();
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			while (channel.read(buffer) >= 0) {
+				buffer.flip();
+				digest.update(buffer);
+				buffer.clear();
+			}
+		} finally {
+			inputStream.close();
+		}
+		StringBuilder hash = new StringBuilder();
+		for (byte b : digest.digest()) {
+			hash.append(String.format("%02x", b));
+		}
+		return hash.toString();
+	}
+}
@@ -0,0 +1,121 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.importer;
+
+import java.util.Map;
+
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Model;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Revision;
+
+/**
+ * Resolves the imported ids of one origin to the {@link Model}s already stored in the database.
+ * The database ids and latest revision numbers of all {@link Model}s of the origin are loaded once,
+ * hence importers only need to load a complete {@link Model} if it has to be changed.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+public class ImportedModelLookup {
+
+	private final IPersistenceApi persistenceApi;
+	private final String origin;
+	//imported id -> database id
+	private final Map<String, String> dbIds;
+	//imported id -> revision number of latest revision
+	private final Map<String, Integer> latestRevisionNumbers;
+
+	/**
+	 * Loads the ids of all {@link Model}s of the given origin. The database has to be opened before.
+	 * @param persistenceApi persistence API used to load the ids and the {@link Model}s
+	 * @param origin the origin of the models to import, e.g. {@link de.uni_potsdam.hpi.bpt.promnicat.util.Constants#ORIGIN_BPMAI}
+	 */
+	public ImportedModelLookup(IPersistenceApi persistenceApi, String origin) {
+		this.persistenceApi = persistenceApi;
+		this.origin = origin;
+		this.dbIds = persistenceApi.loadImportedIds(origin);
+		this.latestRevisionNumbers = persistenceApi.loadLatestRevisionNumbers(origin);
+	}
+
+	/**
+	 * @return the origin of the resolved {@link Model}s
+	 */
+	public String getOrigin() {
+		return origin;
+	}
+
+	/**
+	 * @return the number of known {@link Model}s
+	 */
+	public int size() {
+		return this.dbIds.size();
+	}
+
+	/**
+	 * @param importedId the imported id to check
+	 * @return <code>true</code> if a {@link Model} with the given imported id exists, <code>false</code> otherwise
+	 */
+	public boolean contains(String importedId) {
+		return this.dbIds.containsKey(importedId);
+	}
+
+	/**
+	 * @param importedId the imported id of the {@link Model}
+	 * @return the database id of the {@link Model} or <code>null</code> if it does not exist
+	 */
+	public String getDbId(String importedId) {
+		return this.dbIds.get(importedId);
+	}
+
+	/**
+	 * @param importedId the imported id of the {@link Model}
+	 * @return the number of the {@link Model}'s latest {@link Revision} or <code>null</code> if it is unknown
+	 */
+	public Integer getLatestRevisionNumber(String importedId) {
+		return this.latestRevisionNumbers.get(importedId);
+	}
+
+	/**
+	 * Loads the complete {@link Model} with the given imported id.
+	 * @param importedId the imported id of the {@link Model}
+	 * @return the {@link Model} with all {@link Revision}s or <code>null</code> if it does not exist
+	 */
+	public Model loadModel(String importedId) {
+		String dbId = this.dbIds.get(importedId);
+		if (dbId == null) {
+			return null;
+		}
+		return this.persistenceApi.loadCompleteModelWithDbId(dbId);
+	}
+
+	/**
+	 * Registers the given saved {@link Model}, so that it is found by subsequent look ups.
+	 * @param model the saved {@link Model}
+	 * @param dbId the database id of the saved {@link Model}
+	 */
+	public void add(Model model, String dbId) {
+		if (dbId == null) {
+			return;
+		}
+		this.dbIds.put(model.getImportedId(), dbId);
+		Revision latestRevision = model.getLatestRevision();
+		if (latestRevision != null) {
+			this.latestRevisionNumbers.put(model.getImportedId(), latestRevision.getRevisionNumber());
+		}
+	}
+}
@@ -25,6 +25,7 @@ import java.util.logging.Logger;
 import org.jdom.JDOMException;
 import org.json.JSONException;
 
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering.Clustering;
 import de.uni_potsdam.hpi.bpt.promnicat.importer.aok.AokModelImporter;
 import de.uni_potsdam.hpi.bpt.promnicat.importer.bpmai.BpmaiImporter;
 import de.uni_potsdam.hpi.bpt.promnicat.importer.npb.NPBImporter;
@@ -32,6 +33,7 @@ import de.uni_potsdam.hpi.bpt.promnicat.importer.sap_rm.SapReferenceModelImporte
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
 import de.uni_potsdam.hpi.bpt.promnicat.util.ConfigurationParser;
 import de.uni_potsdam.hpi.bpt.promnicat.util.Constants;
+import de.uni_potsdam.hpi.bpt.promnicat.util.IllegalTypeException;
 
 /**
  * This class is used to fetch business process models from a given path
@@ -78,7 +80,9 @@ public class ModelImporter {
 			//import models			
 			// BPMAI model?
 			if (args[1].toUpperCase().equals(Constants.ORIGIN_BPMAI)) {
-				startImport(new BpmaiImporter(persistenceApi), args);
+				BpmaiImporter importer = new BpmaiImporter(persistenceApi);
+				startImport(importer, args);
+				assignToClusters(persistenceApi, importer.getNewModelIds());
 				return;
 			}
 			// NPB model?
@@ -137,6 +141,27 @@ public class ModelImporter {
 				+ ((endTime - startTime) / 1000 % 60) + " sec");
 	}
 
+	/**
+	 * Assigns the newly imported models to the clusters saved by the last {@link Clustering},
+	 * instead of clustering all models again.
+	 * 
+	 * @param persistenceApi the database containing the models
+	 * @param newModelIds the imported ids of the newly imported models
+	 * @throws IOException if the saved clusters could not be loaded or updated.
+	 * @throws IllegalTypeException if the feature vectors of the models could not be created.
+	 */
+	private static void assignToClusters(IPersistenceApi persistenceApi, Collection<String> newModelIds) throws IOException, IllegalTypeException {
+		if (newModelIds.isEmpty()) {
+			return;
+		}
+		persistenceApi.openDb();
+		try {
+			new Clustering().assignModels(persistenceApi, newModelIds);
+		} finally {
+			persistenceApi.closeDb();
+		}
+	}
+
 	/**
 	 * Collects all given process model paths and returns them.
 	 * @param args the parameter the main class has been executed with
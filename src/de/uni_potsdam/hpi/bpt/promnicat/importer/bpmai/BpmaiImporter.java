@@ -17,14 +17,29 @@
  */
 package de.uni_potsdam.hpi.bpt.promnicat.importer.bpmai;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
@@ -36,17 +51,21 @@ import de.uni_potsdam.hpi.bpt.ai.collection.BPMAIExport;
 import de.uni_potsdam.hpi.bpt.ai.collection.BPMAIExportBuilder;
 import de.uni_potsdam.hpi.bpt.ai.diagram.Diagram;
 import de.uni_potsdam.hpi.bpt.promnicat.importer.AbstractImporter;
+import de.uni_potsdam.hpi.bpt.promnicat.importer.ImportManifest;
+import de.uni_potsdam.hpi.bpt.promnicat.importer.ImportedModelLookup;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Model;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Representation;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Revision;
-import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.orientdbObj.PersistenceApiOrientDbObj;
 import de.uni_potsdam.hpi.bpt.promnicat.util.Constants;
 import de.uni_potsdam.hpi.bpt.promnicat.util.ConstantsMapper;
 
 /**
  * This class is used to import models from the BPM Academic Initiative.
  * 
+ * The import is pipelined: sgx archives are extracted first, afterwards new models are parsed
+ * by a fixed size worker pool, while the calling thread is the only one accessing the database.
+ * 
  * @author Andrina Mascher, Tobias Hoppe
  * 
  */
@@ -54,11 +73,20 @@ public class BpmaiImporter extends AbstractImporter {
 
 	private static final String PROPERTY_AUTHOR = "author";
 	private static final String PROPERTY_LANGUAGE = "language";
+	/**
+	 * size of the direct buffer used for the extraction of sgx archives
+	 */
+	private static final int EXTRACTION_BUFFER_SIZE = 256 * 1024;
 
-	private int createdRepresentationsCount = 0;
-	private int createdRevisionsCount = 0;
+	private final AtomicInteger createdRepresentationsCount = new AtomicInteger();
+	private final AtomicInteger createdRevisionsCount = new AtomicInteger();
+	/**
+	 * imported ids of the models, that have been newly created by this importer
+	 */
+	private final Collection<String> newModelIds = new ArrayList<String>();
 
 	private IPersistenceApi persistenceApi = null;
+	private int numberOfThreads = 1;
 
 	private final static Logger logger = Logger.getLogger(BpmaiImporter.class.getName());
 
@@ -70,12 +98,38 @@ public class BpmaiImporter extends AbstractImporter {
 		this.persistenceApi = persistenceApi;
 	}
 
+	/**
+	 * @return the number of threads used to parse the models
+	 */
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	/**
+	 * Sets the number of threads used to parse the models. One thread is used by default.
+	 * @param numberOfThreads the number of parsing threads, must be at least 1
+	 */
+	public void setNumberOfThreads(int numberOfThreads) {
+		if (numberOfThreads < 1){
+			throw new IllegalArgumentException("The number of threads must be at least 1, but was " + numberOfThreads);
+		}
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * @return the imported ids of all models, that have been newly created by this importer.
+	 * Models that existed before and have only been updated are not contained.
+	 */
+	public Collection<String> getNewModelIds() {
+		return Collections.unmodifiableCollection(newModelIds);
+	}
+
 	@Override
 	public void importModelsFrom(String modelDirectory) throws IOException, JSONException {
 		File rootDir = super.checkModelPath(modelDirectory, true);
 		//reset counter
-		this.createdRepresentationsCount = 0;
-		this.createdRevisionsCount = 0;
+		this.createdRepresentationsCount.set(0);
+		this.createdRevisionsCount.set(0);
 
 		//import all models
 		importAll(rootDir);
@@ -85,17 +139,27 @@ public class BpmaiImporter extends AbstractImporter {
 	 * Reads the given content and writes it into a  file with the given path.
 	 * @param in stream to read
 	 * @param targetPath path to write the read content to
+	 * @param buffer buffer used for copying
+	 * @return the number of written bytes
 	 * @throws IOException if the specified path does not exists.
 	 */
-	private void copyInputStream(InputStream in, String targetPath)	throws IOException {
-		BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(new FileOutputStream(targetPath));
-		byte[] buffer = new byte[1024];
-		int len;
-		while((len = in.read(buffer)) >= 0) {
-			bufferedOutputStream.write(buffer, 0, len);
+	private long copyInputStream(InputStream in, String targetPath, ByteBuffer buffer) throws IOException {
+		ReadableByteChannel source = Channels.newChannel(in);
+		FileOutputStream outputStream = new FileOutputStream(targetPath);
+		FileChannel target = outputStream.getChannel();
+		long written = 0;
+		try {
+			buffer.clear();
+			while(source.read(buffer) >= 0 || buffer.position() > 0) {
+				buffer.flip();
+				written += target.write(buffer);
+				buffer.compact();
+			}
+		} finally {
+			source.close();
+			outputStream.close();
 		}
-		in.close();
-		bufferedOutputStream.close();
+		return written;
 	}
 	
 	/**
@@ -103,12 +167,21 @@ public class BpmaiImporter extends AbstractImporter {
 	 * The extracted models can be parsed like any other process models from the BPM AI.
 	 * @param rootDir container of archives to extract
 	 * @param dummyFolder folder to extract the models to
+	 * @param manifest the manifest used to skip unchanged archives, might be <code>null</code>
+	 * @param extractedArchives collection the extracted archives are added to
+	 * @return the number of extracted bytes
 	 * @throws ZipException if archive extraction went wrong
 	 * @throws IOException if one of the given paths can not be read or written
 	 */
-	private void extractAvailableSgxArchives(File rootDir, File dummyFolder) throws ZipException, IOException {
+	private long extractAvailableSgxArchives(File rootDir, File dummyFolder, ImportManifest manifest, Collection<File> extractedArchives) throws ZipException, IOException {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(EXTRACTION_BUFFER_SIZE);
+		long extractedBytes = 0;
 		for(File file : rootDir.listFiles()) {
 			if((!file.isDirectory()) && (file.getName().endsWith(".sgx"))) {
+				if (manifest != null && manifest.isUnchanged(file)) {
+					continue;
+				}
+				extractedArchives.add(file);
 				ZipFile zipFile = new ZipFile(file);
 				Enumeration<? extends ZipEntry> entries = zipFile.entries();
 				//iterate through files of an zip archive
@@ -142,11 +215,12 @@ public class BpmaiImporter extends AbstractImporter {
 						(new File(dummyFolder.getPath() + File.separatorChar + entryName.substring(0, entryName.lastIndexOf("/")))).mkdirs();
 					}
 					//extract process model
-					copyInputStream(zipFile.getInputStream(entry), dummyFolder.getPath() + File.separatorChar + entryName);
+					extractedBytes += copyInputStream(zipFile.getInputStream(entry), dummyFolder.getPath() + File.separatorChar + entryName, buffer);
 				}
 				zipFile.close();
 			}
 		}
+		return extractedBytes;
 	}
 
 	/**
@@ -175,90 +249,229 @@ public class BpmaiImporter extends AbstractImporter {
 	 */
 	private void importAll(File rootDir) throws JSONException, IOException {
 		int modelCounter = 0;
+		int unchangedModelCounter = 0;
 		this.persistenceApi.openDb();
+		ImportManifest manifest = loadManifest(this.persistenceApi, Constants.ORIGIN_BPMAI);
+		ImportedModelLookup lookup = new ImportedModelLookup(this.persistenceApi, Constants.ORIGIN_BPMAI);
 		
 		//temp folder being used for extraction of sgx archives
 		File container = new File(rootDir + File.separator + "dummy");
 		container.mkdir();
 		//search for sgx-archives and unzip them
-		extractAvailableSgxArchives(rootDir, container);
+		long start = System.currentTimeMillis();
+		Collection<File> extractedArchives = new ArrayList<File>();
+		long extractedBytes = extractAvailableSgxArchives(rootDir, container, manifest, extractedArchives);
+		logger.info("Extracted " + extractedBytes + " bytes of sgx archives in " + (System.currentTimeMillis() - start) + " ms");
 		
 		// parse directory
+		start = System.currentTimeMillis();
 		BPMAIExport directoryWalker = BPMAIExportBuilder.parseDirectory(rootDir);
-		for (de.uni_potsdam.hpi.bpt.ai.collection.Model bpmAiModel : directoryWalker.getModels()) {
+		logger.info("Scanned model directory in " + (System.currentTimeMillis() - start) + " ms");
+		
+		//new models are parsed by the workers, the database is accessed by this thread only
+		start = System.currentTimeMillis();
+		ExecutorService executor = Executors.newFixedThreadPool(this.numberOfThreads);
+		CompletionService<Model> completionService = new ExecutorCompletionService<Model>(executor);
+		int maxPendingModels = 2 * this.numberOfThreads;
+		int pendingModels = 0;
+		int newModelCounter = 0;
+		long writeTime = 0;
+		//imported id -> files of models being parsed
+		Map<String, Collection<File>> pendingModelFiles = new HashMap<String, Collection<File>>();
+		try {
+			for (final de.uni_potsdam.hpi.bpt.ai.collection.Model bpmAiModel : directoryWalker.getModels()) {
+				Collection<File> modelFiles = getModelFiles(bpmAiModel);
+				if (manifest != null && allUnchanged(modelFiles, manifest)) {
+					unchangedModelCounter++;
+					continue;
+				}
 	
-			Model model = this.persistenceApi.loadCompleteModelWithImportedId(bpmAiModel.getId().toString());
-			if (model == null){
-				//create and save new Model
-				model = parseModel(bpmAiModel);
-				((PersistenceApiOrientDbObj)this.persistenceApi).savePojo(model);
-			} else {
-				//check for new revision
-				boolean found = false;
-				for (de.uni_potsdam.hpi.bpt.ai.collection.Revision bpmAiRev : bpmAiModel.getRevisions()){
-					found = false;
-					for (Revision revision : model.getRevisions()){
-						if (revision.getRevisionNumber().equals(bpmAiRev.getNumber())){
-							//search for new representations
-							boolean containsJsonRepresentation = false;
-							boolean containsSvgRepresentation = false;
-							for(Representation representation : revision.getRepresentations()){
-								if (representation.getFormat().equals(Constants.FORMAT_BPMAI_JSON)) {
-									containsJsonRepresentation = true;
-									continue;
+				if (!lookup.contains(bpmAiModel.getId().toString())){
+					pendingModelFiles.put(bpmAiModel.getId().toString(), modelFiles);
+					//create and save new Model
+					completionService.submit(new Callable<Model>() {
+						@Override
+						public Model call() throws Exception {
+							return parseModel(bpmAiModel);
+						}
+					});
+					pendingModels++;
+					newModelCounter++;
+					if (pendingModels >= maxPendingModels) {
+						writeTime += saveParsedModel(completionService.take(), manifest, pendingModelFiles);
+						pendingModels--;
+					}
+				} else {
+					//existing models are loaded completely to check for new revisions and representations
+					Model model = lookup.loadModel(bpmAiModel.getId().toString());
+					//check for new revision
+					boolean found = false;
+					for (de.uni_potsdam.hpi.bpt.ai.collection.Revision bpmAiRev : bpmAiModel.getRevisions()){
+						found = false;
+						for (Revision revision : model.getRevisions()){
+							if (revision.getRevisionNumber().equals(bpmAiRev.getNumber())){
+								//search for new representations
+								boolean containsJsonRepresentation = false;
+								boolean containsSvgRepresentation = false;
+								for(Representation representation : revision.getRepresentations()){
+									if (representation.getFormat().equals(Constants.FORMAT_BPMAI_JSON)) {
+										containsJsonRepresentation = true;
+										continue;
+									}
+									if (representation.getFormat().equals(Constants.FORMAT_SVG)) {
+										containsSvgRepresentation = true;
+										continue;
+									}
 								}
-								if (representation.getFormat().equals(Constants.FORMAT_SVG)) {
-									containsSvgRepresentation = true;
-									continue;
+								//if the representations for Json or Svg do not exist, they are parsed
+								if (!containsJsonRepresentation) {
+									Representation representation = parseRepresentation(bpmAiRev, Constants.FORMAT_BPMAI_JSON);
+									if (representation != null) {
+										revision.connectRepresentation(representation);								
+									}
 								}
-							}
-							//if the representations for Json or Svg do not exist, they are parsed
-							if (!containsJsonRepresentation) {
-								Representation representation = parseRepresentation(bpmAiRev, Constants.FORMAT_BPMAI_JSON);
-								if (representation != null) {
-									revision.connectRepresentation(representation);								
+								if (!containsSvgRepresentation) {
+									Representation representation = parseRepresentation(bpmAiRev, Constants.FORMAT_SVG);
+									if (representation != null) {
+										revision.connectRepresentation(representation);								
+									}
 								}
-							}
-							if (!containsSvgRepresentation) {
-								Representation representation = parseRepresentation(bpmAiRev, Constants.FORMAT_SVG);
-								if (representation != null) {
-									revision.connectRepresentation(representation);								
+								if (!containsJsonRepresentation || !containsSvgRepresentation) {
+									this.persistenceApi.savePojo(model);
 								}
+								found = true;
+								break;
 							}
-							if (!containsJsonRepresentation || !containsSvgRepresentation) {
-								this.persistenceApi.savePojo(model);
-							}
-							found = true;
-							break;
 						}
-					}
-					if (!found){
-						//create new revision
-						Revision revision = parseRevision(bpmAiRev);
-						if (model.getLatestRevision().getRevisionNumber() < bpmAiRev.getNumber()) {
-							model.connectLatestRevision(revision);
+						if (!found){
+							//create new revision
+							Revision revision = parseRevision(bpmAiRev);
+							if (model.getLatestRevision().getRevisionNumber() < bpmAiRev.getNumber()) {
+								model.connectLatestRevision(revision);
+							}
+							revision.connectModel(model);
+							this.persistenceApi.savePojo(model);
 						}
-						revision.connectModel(model);
-						this.persistenceApi.savePojo(model);
 					}
+					recordInManifest(manifest, modelFiles, model.getDbId());
 				}
 	
+				modelCounter++;
+				if(modelCounter % 100 == 0) {
+					this.persistenceApi.clearCache();
+					logger.info("imported or updated " + modelCounter + " models");
+				}
 			}
-	
-			modelCounter++;
-			if(modelCounter % 100 == 0) {
-				this.persistenceApi.clearCache();
-				logger.info("imported or updated " + modelCounter + " models");
+			while (pendingModels > 0) {
+				writeTime += saveParsedModel(completionService.take(), manifest, pendingModelFiles);
+				pendingModels--;
+			}
+			if (manifest != null) {
+				for (File archive : extractedArchives) {
+					manifest.update(archive, Collections.<String>emptyList());
+				}
 			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("The import has been interrupted.", e);
+		} finally {
+			executor.shutdownNow();
 		}
+		long duration = Math.max(1, System.currentTimeMillis() - start);
+		logger.info("Parsed and wrote " + newModelCounter + " new models in " + duration + " ms (" +
+				(newModelCounter * 1000 / duration) + " models/s), thereof " + writeTime + " ms were spent writing");
 		this.persistenceApi.closeDb();
 		//delete dummy folder containing extracted sgx archives
 		deleteDirectory(container);
 	
+		if (manifest != null) {
+			logger.info("Skipped " + unchangedModelCounter + " unchanged models");
+		}
 		logger.info("Finished import or update of " + modelCounter + " models," +
 				" and created " + this.createdRevisionsCount + " revisions and " + this.createdRepresentationsCount + " representations.");
 	}
 
+	/**
+	 * Collects the JSON and SVG files of all revisions of the given model.
+	 * @param bpmAiModel the model to collect the files of
+	 * @return the files of the given model
+	 */
+	private Collection<File> getModelFiles(de.uni_potsdam.hpi.bpt.ai.collection.Model bpmAiModel) {
+		Collection<File> files = new ArrayList<File>();
+		for (de.uni_potsdam.hpi.bpt.ai.collection.Revision bpmAiRev : bpmAiModel.getRevisions()) {
+			if (bpmAiRev.getJson() != null) {
+				files.add(bpmAiRev.getJson());
+			}
+			if (bpmAiRev.getSvg() != null) {
+				files.add(bpmAiRev.getSvg());
+			}
+		}
+		return files;
+	}
+
+	/**
+	 * @param files the files to check
+	 * @param manifest the manifest to check the files with
+	 * @return <code>true</code> if all given files have been imported before and have not been changed since,
+	 * <code>false</code> otherwise
+	 * @throws IOException if one of the files could not be read
+	 */
+	private boolean allUnchanged(Collection<File> files, ImportManifest manifest) throws IOException {
+		for (File file : files) {
+			if (!manifest.isUnchanged(file)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Records the given files of an imported model in the given manifest.
+	 * @param manifest the manifest to update, might be <code>null</code>
+	 * @param files the files of the imported model
+	 * @param modelDbId the database id of the imported model
+	 * @throws IOException if one of the files could not be read
+	 */
+	private void recordInManifest(ImportManifest manifest, Collection<File> files, String modelDbId) throws IOException {
+		if (manifest == null || files == null) {
+			return;
+		}
+		for (File file : files) {
+			manifest.update(file, Collections.singleton(modelDbId));
+		}
+	}
+
+	/**
+	 * Saves the model of the given finished parsing task.
+	 * @param parsedModel the finished parsing task
+	 * @param manifest the manifest to record the model's files in, might be <code>null</code>
+	 * @param pendingModelFiles the files of the models being parsed, the entry of the saved model is removed
+	 * @return the time spent for saving in milliseconds
+	 * @throws JSONException if JSON parsing of the model has been erroneous
+	 * @throws IOException if the model could not be read
+	 * @throws InterruptedException if the calling thread has been interrupted
+	 */
+	private long saveParsedModel(Future<Model> parsedModel, ImportManifest manifest, Map<String, Collection<File>> pendingModelFiles) throws JSONException, IOException, InterruptedException {
+		Model model = null;
+		try {
+			model = parsedModel.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof JSONException) {
+				throw (JSONException) e.getCause();
+			}
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		}
+		long start = System.currentTimeMillis();
+		String dbId = this.persistenceApi.savePojo(model);
+		long writeTime = System.currentTimeMillis() - start;
+		this.newModelIds.add(model.getImportedId());
+		recordInManifest(manifest, pendingModelFiles.remove(model.getImportedId()), dbId);
+		return writeTime;
+	}
+
 	/**
 	 * Transform given meta data into an other format
 	 * @param properties current meta data
@@ -325,7 +538,7 @@ public class BpmaiImporter extends AbstractImporter {
 		Diagram diagram = bpmAiRev.getDiagram();
 		revision.setMetadata(parseMetadata(diagram.getProperties()));
 		revision.setAuthor(parseProperty(diagram, PROPERTY_AUTHOR));
-		this.createdRevisionsCount++;
+		this.createdRevisionsCount.incrementAndGet();
 		
 		//create available representations
 		Representation JsonRep = parseRepresentation(bpmAiRev, Constants.FORMAT_BPMAI_JSON);
@@ -360,11 +573,11 @@ public class BpmaiImporter extends AbstractImporter {
 		if (format.equals(Constants.FORMAT_BPMAI_JSON) && bpmAiRev.getJson() != null) {
 			representation = new Representation(Constants.FORMAT_BPMAI_JSON, getNotation(diagram), bpmAiRev.getJson());
 			representation.setLanguage(parseProperty(diagram, PROPERTY_LANGUAGE));
-			this.createdRepresentationsCount++;
+			this.createdRepresentationsCount.incrementAndGet();
 		} else if (format.equals(Constants.FORMAT_SVG) && bpmAiRev.getSvg() != null) {
 			representation = new Representation(Constants.FORMAT_SVG, getNotation(diagram), bpmAiRev.getSvg());
 			representation.setLanguage(parseProperty(diagram, PROPERTY_LANGUAGE));
-			this.createdRepresentationsCount++;
+			this.createdRepresentationsCount.incrementAndGet();
 		}
 		return representation;
 	}
@@ -0,0 +1,81 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.importer.ibm;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps BPMN 2.0 XML flow elements to the stencil ids of the Oryx BPMN 2.0 stencil set for the
+ * {@link Bpmn2XmlStreamConverter}. The mapping is the one of the <code>toShape</code> methods used by the JAXB
+ * based conversion of {@link IBMModelImporter}, so that a model is converted the same way regardless of its file size.
+ * Thus, all gateways are mapped to exclusive gateways without marker and all events are mapped to none events.
+ * <br/>
+ * Elements the JAXB based conversion does not set a stencil for, i.e. catching events and sub processes,
+ * are mapped to the corresponding Oryx stencils.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+final class Bpmn2StencilMapping {
+
+	static final String ELEMENT_SEQUENCE_FLOW = "sequenceFlow";
+
+	static final String PROPERTY_MARKER_VISIBLE = "markervisible";
+
+	private static final String STENCIL_GATEWAY = "Exclusive_Databased_Gateway";
+
+	//BPMN 2.0 element name -> Oryx stencil id
+	private static final Map<String, String> STENCILS = new HashMap<String, String>();
+	static {
+		for (String task : new String[]{"task", "userTask", "manualTask", "serviceTask", "scriptTask",
+				"sendTask", "receiveTask", "businessRuleTask"}) {
+			STENCILS.put(task, "Task");
+		}
+		STENCILS.put("subProcess", "Subprocess");
+		STENCILS.put("callActivity", "CollapsedSubprocess");
+		STENCILS.put("startEvent", "StartNoneEvent");
+		STENCILS.put("endEvent", "EndNoneEvent");
+		STENCILS.put("intermediateCatchEvent", "IntermediateEvent");
+		STENCILS.put("intermediateThrowEvent", "IntermediateEvent");
+		for (String gateway : new String[]{"parallelGateway", "exclusiveGateway", "inclusiveGateway",
+				"eventBasedGateway", "complexGateway"}) {
+			STENCILS.put(gateway, STENCIL_GATEWAY);
+		}
+		STENCILS.put(ELEMENT_SEQUENCE_FLOW, "SequenceFlow");
+	}
+
+	private Bpmn2StencilMapping() {
+	}
+
+	/**
+	 * @param elementName the local name of a BPMN 2.0 XML element
+	 * @return the Oryx stencil id of the element or <code>null</code> if the element is not supported
+	 */
+	static String getStencil(String elementName) {
+		return STENCILS.get(elementName);
+	}
+
+	/**
+	 * @param stencil an Oryx stencil id returned by {@link #getStencil(String)}
+	 * @return <code>true</code> if the stencil is the one of a gateway, whose marker is hidden
+	 */
+	static boolean isGateway(String stencil) {
+		return STENCIL_GATEWAY.equals(stencil);
+	}
+}
@@ -0,0 +1,224 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.importer.ibm;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Converts BPMN 2.0 XML files into the JSON format of the BPM Academic Initiative by streaming through
+ * the XML with StAX. In contrast to the JAXB based conversion of {@link IBMModelImporter}, neither the
+ * complete object model nor an intermediate Oryx diagram is built, which makes this converter suitable
+ * for large files. As the JAXB based conversion, only the flow elements of the first process are converted
+ * and the elements are mapped to stencils by {@link Bpmn2StencilMapping}.
+ * <br/>
+ * Instances are thread safe.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+public class Bpmn2XmlStreamConverter {
+
+	private static final String ELEMENT_PROCESS = "process";
+	private static final String ATTRIBUTE_ID = "id";
+	private static final String ATTRIBUTE_NAME = "name";
+	private static final String ATTRIBUTE_SOURCE_REF = "sourceRef";
+	private static final String ATTRIBUTE_TARGET_REF = "targetRef";
+
+	private static final String CANVAS_ID = "oryx-canvas123";
+	private static final String STENCIL_DIAGRAM = "BPMNDiagram";
+	private static final String STENCIL_SET_NAMESPACE = "http://b3mn.org/stencilset/bpmn2.0#";
+	private static final String STENCIL_SET_URL = "/oryx/stencilsets/bpmn2.0/bpmn2.0.json";
+
+	private final XMLInputFactory inputFactory;
+
+	public Bpmn2XmlStreamConverter() {
+		this.inputFactory = XMLInputFactory.newInstance();
+		this.inputFactory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+		this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+	}
+
+	/**
+	 * Converts the first process of the given BPMN 2.0 XML file.
+	 * @param xml the file to convert
+	 * @return the JSON representation of the first process
+	 * @throws XMLStreamException if the XML could not be parsed
+	 * @throws IOException if the file could not be read
+	 * @throws JSONException if the JSON could not be created
+	 */
+	public String convert(File xml) throws XMLStreamException, IOException, JSONException {
+		InputStream inputStream = new BufferedInputStream(new FileInputStream(xml));
+		try {
+			return convert(inputStream);
+		} finally {
+			inputStream.close();
+		}
+	}
+
+	/**
+	 * Converts the first process of the given BPMN 2.0 XML stream.
+	 * @param inputStream the stream to read the XML from, it is not closed by this method
+	 * @return the JSON representation of the first process
+	 * @throws XMLStreamException if the XML could not be parsed
+	 * @throws JSONException if the JSON could not be created
+	 */
+	public String convert(InputStream inputStream) throws XMLStreamException, JSONException {
+		//resource id -> shape, in document order
+		Map<String, JSONObject> shapes = new LinkedHashMap<String, JSONObject>();
+		//resource id of sequence flow -> {source, target}
+		Map<String, String[]> flows = new HashMap<String, String[]>();
+
+		XMLStreamReader reader = null;
+		synchronized (this.inputFactory) {
+			reader = this.inputFactory.createXMLStreamReader(inputStream);
+		}
+		try {
+			int processDepth = -1;
+			int depth = 0;
+			while (reader.hasNext()) {
+				int event = reader.next();
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					depth++;
+					String elementName = reader.getLocalName();
+					if (processDepth < 0 && ELEMENT_PROCESS.equals(elementName)) {
+						processDepth = depth;
+					} else if (processDepth > 0 && depth == processDepth + 1) {
+						readFlowElement(reader, elementName, shapes, flows);
+					}
+				} else if (event == XMLStreamConstants.END_ELEMENT) {
+					if (depth == processDepth) {
+						//only the first process is converted
+						break;
+					}
+					depth--;
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		connectFlows(shapes, flows);
+		return createCanvas(shapes).toString();
+	}
+
+	/**
+	 * Creates a shape for the current flow element, if it is supported.
+	 */
+	private void readFlowElement(XMLStreamReader reader, String elementName, Map<String, JSONObject> shapes,
+			Map<String, String[]> flows) throws JSONException {
+		String stencil = Bpmn2StencilMapping.getStencil(elementName);
+		String id = reader.getAttributeValue(null, ATTRIBUTE_ID);
+		if (stencil == null || id == null) {
+			return;
+		}
+		//the JAXB based conversion always sets a name
+		JSONObject properties = new JSONObject();
+		String name = reader.getAttributeValue(null, ATTRIBUTE_NAME);
+		properties.put(ATTRIBUTE_NAME, name != null ? name : "");
+		if (Bpmn2StencilMapping.isGateway(stencil)) {
+			properties.put(Bpmn2StencilMapping.PROPERTY_MARKER_VISIBLE, "false");
+		}
+		shapes.put(id, createShape(id, stencil, properties));
+		if (Bpmn2StencilMapping.ELEMENT_SEQUENCE_FLOW.equals(elementName)) {
+			flows.put(id, new String[]{reader.getAttributeValue(null, ATTRIBUTE_SOURCE_REF),
+					reader.getAttributeValue(null, ATTRIBUTE_TARGET_REF)});
+		}
+	}
+
+	/**
+	 * Adds the sequence flows to the outgoing shapes of their source and their target to their own outgoing shapes.
+	 */
+	private void connectFlows(Map<String, JSONObject> shapes, Map<String, String[]> flows) throws JSONException {
+		for (Map.Entry<String, String[]> flow : flows.entrySet()) {
+			JSONObject source = shapes.get(flow.getValue()[0]);
+			if (source != null) {
+				source.getJSONArray("outgoing").put(createReference(flow.getKey()));
+			}
+			String target = flow.getValue()[1];
+			if (target != null && shapes.containsKey(target)) {
+				JSONObject edge = shapes.get(flow.getKey());
+				edge.getJSONArray("outgoing").put(createReference(target));
+				edge.put("target", createReference(target));
+			}
+		}
+	}
+
+	private JSONObject createCanvas(Map<String, JSONObject> shapes) throws JSONException {
+		JSONObject canvas = createShape(CANVAS_ID, STENCIL_DIAGRAM, new JSONObject());
+		JSONArray childShapes = canvas.getJSONArray("childShapes");
+		for (JSONObject shape : shapes.values()) {
+			childShapes.put(shape);
+		}
+		JSONObject stencilSet = new JSONObject();
+		stencilSet.put("url", STENCIL_SET_URL);
+		stencilSet.put("namespace", STENCIL_SET_NAMESPACE);
+		canvas.put("stencilset", stencilSet);
+		canvas.put("ssextensions", new JSONArray());
+		return canvas;
+	}
+
+	private JSONObject createShape(String resourceId, String stencil, JSONObject properties) throws JSONException {
+		JSONObject shape = new JSONObject();
+		shape.put("resourceId", resourceId);
+		shape.put("properties", properties);
+		JSONObject stencilObject = new JSONObject();
+		stencilObject.put("id", stencil);
+		shape.put("stencil", stencilObject);
+		shape.put("childShapes", new JSONArray());
+		shape.put("outgoing", new JSONArray());
+		shape.put("bounds", createStandardBounds());
+		shape.put("dockers", new JSONArray());
+		return shape;
+	}
+
+	private JSONObject createReference(String resourceId) throws JSONException {
+		JSONObject reference = new JSONObject();
+		reference.put("resourceId", resourceId);
+		return reference;
+	}
+
+	/**
+	 * @return the same bounds as {@link IBMModelImporter#setStandardBounds(org.oryxeditor.server.diagram.Shape)}
+	 */
+	private JSONObject createStandardBounds() throws JSONException {
+		JSONObject lowerRight = new JSONObject();
+		lowerRight.put("x", 200d);
+		lowerRight.put("y", 200d);
+		JSONObject upperLeft = new JSONObject();
+		upperLeft.put("x", 100d);
+		upperLeft.put("y", 100d);
+		JSONObject bounds = new JSONObject();
+		bounds.put("lowerRight", lowerRight);
+		bounds.put("upperLeft", upperLeft);
+		return bounds;
+	}
+}
@@ -21,14 +21,24 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
 
 import org.json.JSONException;
 import org.oryxeditor.server.diagram.Bounds;
@@ -44,6 +54,8 @@ import de.hpi.bpmn2_0.model.FlowElement;
 import de.hpi.bpmn2_0.model.RootElement;
 import de.hpi.bpmn2_0.model.connector.Edge;
 import de.uni_potsdam.hpi.bpt.promnicat.importer.AbstractImporter;
+import de.uni_potsdam.hpi.bpt.promnicat.importer.ImportManifest;
+import de.uni_potsdam.hpi.bpt.promnicat.importer.ImportedModelLookup;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Model;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Representation;
@@ -58,6 +70,13 @@ import de.uni_potsdam.hpi.bpt.promnicat.util.Constants;
  */
 public class IBMModelImporter extends AbstractImporter {
 	private IPersistenceApi persistenceApi = null;
+	private int numberOfThreads = 1;
+	private long streamingThreshold = Long.MAX_VALUE;
+	private final Bpmn2XmlStreamConverter streamConverter = new Bpmn2XmlStreamConverter();
+	//unmarshallers are not thread safe, hence each conversion thread gets its own one
+	private final ThreadLocal<Unmarshaller> unmarshallers = new ThreadLocal<Unmarshaller>();
+	//creating the context is expensive, but it is thread safe and can be shared
+	private static JAXBContext jaxbContext = null;
 	private final static Logger logger = Logger.getLogger(IBMModelImporter.class.getName());
 	/**
 	 * Creates a new {@link IBMModelImporter} with the given {@link IPersistenceApi} used for database access.
@@ -66,6 +85,40 @@ public class IBMModelImporter extends AbstractImporter {
 	public IBMModelImporter(IPersistenceApi persistenceApi) {
 		this.persistenceApi = persistenceApi;
 	}
+
+	/**
+	 * @return the number of threads used to convert the files
+	 */
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	/**
+	 * Sets the number of threads used to convert the files. One thread is used by default.
+	 * @param numberOfThreads the number of conversion threads, must be at least 1
+	 */
+	public void setNumberOfThreads(int numberOfThreads) {
+		if (numberOfThreads < 1){
+			throw new IllegalArgumentException("The number of threads must be at least 1, but was " + numberOfThreads);
+		}
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * @return the file size in bytes from which on files are converted by the {@link Bpmn2XmlStreamConverter}
+	 */
+	public long getStreamingThreshold() {
+		return streamingThreshold;
+	}
+
+	/**
+	 * Files with at least the given size are converted by the {@link Bpmn2XmlStreamConverter} instead of JAXB.
+	 * By default, all files are converted with JAXB.
+	 * @param streamingThreshold the file size in bytes, 0 to stream all files
+	 */
+	public void setStreamingThreshold(long streamingThreshold) {
+		this.streamingThreshold = streamingThreshold;
+	}
 	
 	/*
 	 * (non-Javadoc)
@@ -74,25 +127,109 @@ public class IBMModelImporter extends AbstractImporter {
 	 */
 	@Override
 	public void importModelsFrom(String modelDirectory) throws IOException, JSONException {
-	    	persistenceApi.openDb();
-	    	File rootDir = super.checkModelPath(modelDirectory, true);
-	    	Collection<File> files = super.getFilesRecursivelyFromDir(rootDir);
-	    	for(File file:files){
-	    	    String id = file.getAbsolutePath().replace(rootDir.getAbsolutePath(), "");
-	    	    //PromniCat does not support slashes in ids
-	    	    id = id .replace(File.separator, "_");
-		    Model model = this.persistenceApi.loadCompleteModelWithImportedId(id);
-	    	if (model == null){
-			//create and save new Model
-			model = parseModel(file, id);
-			persistenceApi.savePojo(model);
-
-		} else {
-		    logger.warning("Model already there");
+		persistenceApi.openDb();
+		File rootDir = super.checkModelPath(modelDirectory, true);
+		ImportManifest manifest = loadManifest(persistenceApi, Constants.ORIGIN_IBM);
+		ImportedModelLookup lookup = new ImportedModelLookup(persistenceApi, Constants.ORIGIN_IBM);
+		Collection<File> files = super.getFilesRecursivelyFromDir(rootDir, manifest);
+		//files are converted by the workers, the database is accessed by this thread only
+		ExecutorService executor = Executors.newFixedThreadPool(this.numberOfThreads);
+		CompletionService<Model> completionService = new ExecutorCompletionService<Model>(executor);
+		int maxPendingFiles = 2 * this.numberOfThreads;
+		int pendingFiles = 0;
+		//imported id -> file being converted
+		Map<String, File> pendingModelFiles = new HashMap<String, File>();
+		AtomicLong conversionTime = new AtomicLong();
+		int convertedFiles = 0;
+		try {
+			for(File file:files){
+				final String id = getImportedId(rootDir, file);
+				String dbId = lookup.getDbId(id);
+				if (dbId == null){
+					//create and save new Model
+					completionService.submit(createConversion(file, id, conversionTime));
+					pendingModelFiles.put(id, file);
+					pendingFiles++;
+					convertedFiles++;
+					if (pendingFiles >= maxPendingFiles) {
+						saveConvertedModel(completionService.take(), manifest, pendingModelFiles);
+						pendingFiles--;
+					}
+				} else {
+					logger.warning("Model already there");
+					if (manifest != null){
+						manifest.update(file, Collections.singleton(dbId));
+					}
+				}
+			}
+			while (pendingFiles > 0) {
+				saveConvertedModel(completionService.take(), manifest, pendingModelFiles);
+				pendingFiles--;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("The import has been interrupted.", e);
+		} finally {
+			executor.shutdownNow();
+		}
+		if (convertedFiles > 0) {
+			logger.info("Converted " + convertedFiles + " files in " + conversionTime.get() + " ms, that is " +
+					(conversionTime.get() / convertedFiles) + " ms per file");
 		}
-	    	}
 
-	    	persistenceApi.closeDb();
+		persistenceApi.closeDb();
+	}
+
+	/**
+	 * @param rootDir the root directory of the import
+	 * @param file the file to get the id for
+	 * @return the imported id of the model contained in the given file
+	 */
+	private String getImportedId(File rootDir, File file) {
+		String id = file.getAbsolutePath().replace(rootDir.getAbsolutePath(), "");
+		//PromniCat does not support slashes in ids
+		return id.replace(File.separator, "_");
+	}
+
+	/**
+	 * Creates a task converting the given file into a new {@link Model}.
+	 * @param file the file to convert
+	 * @param id the imported id of the new model
+	 * @param conversionTime the overall conversion time in milliseconds, which is increased by the task
+	 * @return the conversion task
+	 */
+	private Callable<Model> createConversion(final File file, final String id, final AtomicLong conversionTime) {
+		return new Callable<Model>() {
+			@Override
+			public Model call() throws Exception {
+				long start = System.currentTimeMillis();
+				Model model = parseModel(file, id);
+				conversionTime.addAndGet(System.currentTimeMillis() - start);
+				return model;
+			}
+		};
+	}
+
+	/**
+	 * Saves the model of the given finished conversion and records its file in the given manifest.
+	 * @param conversion the finished conversion
+	 * @param manifest the manifest to record the file in, might be <code>null</code>
+	 * @param pendingModelFiles the files being converted, the entry of the saved model is removed
+	 * @throws IOException if the file could not be read or the conversion failed unexpectedly
+	 * @throws InterruptedException if the calling thread has been interrupted
+	 */
+	private void saveConvertedModel(Future<Model> conversion, ImportManifest manifest, Map<String, File> pendingModelFiles) throws IOException, InterruptedException {
+		Model model = null;
+		try {
+			model = conversion.get();
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+		String dbId = this.persistenceApi.savePojo(model);
+		File file = pendingModelFiles.remove(model.getImportedId());
+		if (manifest != null){
+			manifest.update(file, Collections.singleton(dbId));
+		}
 	}
 
 	private Model parseModel(File file, String id) {
@@ -100,22 +237,55 @@ public class IBMModelImporter extends AbstractImporter {
 	    Revision revision = new Revision(0);
 	    revision.connectRepresentation(new Representation(Constants.FORMAT_XML, Constants.NOTATION_BPMN2_0, file ));
 	    try {
-		revision.connectRepresentation(new Representation(Constants.FORMAT_BPMAI_JSON, Constants.NOTATION_BPMN2_0, parseIBMBPMN2Diagram(file).getBytes() ));
+		String json = null;
+		if (file.length() >= this.streamingThreshold) {
+		    json = this.streamConverter.convert(file);
+		} else {
+		    json = parseIBMBPMN2Diagram(file);
+		}
+		revision.connectRepresentation(new Representation(Constants.FORMAT_BPMAI_JSON, Constants.NOTATION_BPMN2_0, json.getBytes() ));
 	    } catch (JAXBException e) {
 		// TODO Auto-generated catch block
 		e.printStackTrace();
 	    } catch (JSONException e) {
 		// TODO Auto-generated catch block
 		e.printStackTrace();
+	    } catch (XMLStreamException e) {
+		e.printStackTrace();
+	    } catch (IOException e) {
+		e.printStackTrace();
 	    }
 
 	    model.connectLatestRevision(revision); 
 	    return model;
 	}
+
+	/**
+	 * @return the shared {@link JAXBContext} for BPMN 2.0 {@link Definitions}
+	 * @throws JAXBException if the context could not be created
+	 */
+	private static synchronized JAXBContext getJaxbContext() throws JAXBException {
+		if (jaxbContext == null) {
+			jaxbContext = JAXBContext.newInstance(Definitions.class);
+		}
+		return jaxbContext;
+	}
+
+	/**
+	 * @return the {@link Unmarshaller} of the calling thread
+	 * @throws JAXBException if the unmarshaller could not be created
+	 */
+	private Unmarshaller getUnmarshaller() throws JAXBException {
+		Unmarshaller unmarshaller = this.unmarshallers.get();
+		if (unmarshaller == null) {
+			unmarshaller = getJaxbContext().createUnmarshaller();
+			this.unmarshallers.set(unmarshaller);
+		}
+		return unmarshaller;
+	}
+
 	public String parseIBMBPMN2Diagram(File xml) throws JAXBException, JSONException{
-		JAXBContext context = JAXBContext.newInstance(Definitions.class);
-		Unmarshaller unmarshaller = context.createUnmarshaller();
-		Definitions definitions = (Definitions) unmarshaller.unmarshal(xml);
+		Definitions definitions = (Definitions) getUnmarshaller().unmarshal(xml);
 
 		List<Diagram> diagrams = new ArrayList<Diagram>();
 		for(RootElement e: definitions.getRootElement()){
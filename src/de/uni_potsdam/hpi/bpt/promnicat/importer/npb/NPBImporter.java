@@ -21,24 +21,26 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
-import javax.xml.bind.DatatypeConverter;
+import javax.xml.stream.XMLStreamException;
 
-import org.apache.commons.lang3.StringEscapeUtils;
-import org.jdom.Document;
-import org.jdom.Element;
 import org.jdom.JDOMException;
-import org.jdom.input.SAXBuilder;
 
 import de.uni_potsdam.hpi.bpt.promnicat.importer.AbstractImporter;
+import de.uni_potsdam.hpi.bpt.promnicat.importer.ImportManifest;
+import de.uni_potsdam.hpi.bpt.promnicat.importer.ImportedModelLookup;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Model;
-import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Representation;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Revision;
 import de.uni_potsdam.hpi.bpt.promnicat.util.Constants;
 
@@ -58,22 +60,8 @@ public class NPBImporter extends AbstractImporter {
 	private int createdRevisionsCount = 0;
 	private int createdRepresentationsCount = 0;
 
-	//XML keys
-	private static final String KEY_REVISION = "revision";
-	private static final String KEY_PROCESS_NAME = "processName";
-	private static final String KEY_PROCESS_AUTHOR = "processAuthor";
-	private static final String KEY_MODELING_METHOD = "modelingMethod";
-	private static final String KEY_SOURCE_FILE = "sourceFile";
-	private static final String KEY_IMAGE_FILE = "imageFile";
-	private static final String KEY_NAME = "name";
-	private static final String KEY_LISTE = "liste";
-	private static final String KEY_META_INFORMATION = "metaInformation";
-	private static final String KEY_BPMN = "BPMN";
-	private static final String KEY_EPK_OR_eEPK = "EPK / eEPK";
-	private static final String KEY_WERT = "wert";
-	private static final String KEY_CODE = "code";
-	private static final String KEY_SCHLUESSEL = "schluessel";
-	private static final String KEY_EXPORT = "export";
+	private int numberOfThreads = 1;
+	private final NPBStreamParser parser = new NPBStreamParser();
 	
 	/**
 	 * Creates a new {@link NPBImporter} with the given {@link IPersistenceApi} used for database access.
@@ -82,6 +70,24 @@ public class NPBImporter extends AbstractImporter {
 	public NPBImporter(IPersistenceApi persistenceApi) {
 		this.persistenceApi = persistenceApi;
 	}
+
+	/**
+	 * @return the number of threads used to parse the files
+	 */
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	/**
+	 * Sets the number of threads used to parse the files. One thread is used by default.
+	 * @param numberOfThreads the number of parsing threads, must be at least 1
+	 */
+	public void setNumberOfThreads(int numberOfThreads) {
+		if (numberOfThreads < 1){
+			throw new IllegalArgumentException("The number of threads must be at least 1, but was " + numberOfThreads);
+		}
+		this.numberOfThreads = numberOfThreads;
+	}
 	
 	@Override
 	public void importModelsFrom(String modelDirectory) throws IOException, JDOMException {
@@ -92,85 +98,138 @@ public class NPBImporter extends AbstractImporter {
 		this.createdRepresentationsCount = 0;
 		this.createdRevisionsCount = 0;
 		
+		ImportManifest manifest = loadManifest(this.persistenceApi, Constants.ORIGIN_NPB);
+		ImportedModelLookup lookup = new ImportedModelLookup(this.persistenceApi, Constants.ORIGIN_NPB);
+		
 		//walk through all files and import them
+		Collection<File> files = Collections.emptyList();
 		if (rootFile.isDirectory()){
-			for (File file : getFilesRecursivelyFromDir(rootFile)) {
-				importFile(file);
-			}
-		} else {
-			importFile(rootFile);
+			files = getFilesRecursivelyFromDir(rootFile, manifest);
+		} else if (manifest == null || !manifest.isUnchanged(rootFile)) {
+			files = Collections.singleton(rootFile);
 		}
+		importFiles(files, manifest, lookup);
 		this.persistenceApi.closeDb();
 		logger.info("Finished import or update of " + this.createdModelsCount + " models," +
 				" and created " + this.createdRevisionsCount + " revisions and " + this.createdRepresentationsCount + " representations.");
 	}
 
 	/**
-	 * Parses the given XML-file and creates a new {@link Model} including {@link Revision}s and {@link Representation}s
-	 * if no {@link Model} exists for the process model. Otherwise, a new {@link Revision} is added, if the revision attribute
-	 * has been changed since last import. In case the revision number is still the same nothing is done.
+	 * Parses the given XML-files on a fixed size worker pool. At most twice as many files as there are threads
+	 * are in flight at once. The parsed {@link Model}s are written to the database by the calling thread only.
 	 * 
-	 * @param modelFile file containing the XML to parse and to import into database
+	 * @param files the files to import
+	 * @param manifest the manifest to record the imported files in, might be <code>null</code>
+	 * @param lookup the already imported {@link Model}s, the saved {@link Model}s are added
 	 * @throws JDOMException if XML parsing is erroneous
-	 * @throws IOException if the given path could not be found or read
+	 * @throws IOException if one of the files could not be read
 	 */
-	private void importFile(File modelFile) throws JDOMException, IOException {
-		SAXBuilder builder = new SAXBuilder();
-		Document doc = builder.build(modelFile);
-		Element rootElement = doc.getRootElement();
-		//only parse expected file format schema
-		if (Constants.NPB_XML_NAMESPACE.equals(rootElement.getNamespace().getURI())) {
-			//if file with more than one model is given, parse them one after the other
-			if (KEY_EXPORT.equals(rootElement.getName())){
-				for (Object modelElement: rootElement.getChildren()){
-					parseModel((Element) modelElement, modelFile);
+	private void importFiles(Collection<File> files, ImportManifest manifest, ImportedModelLookup lookup) throws JDOMException, IOException {
+		ExecutorService executor = Executors.newFixedThreadPool(this.numberOfThreads);
+		CompletionService<ParsedFile> completionService = new ExecutorCompletionService<ParsedFile>(executor);
+		int maxPendingFiles = 2 * this.numberOfThreads;
+		int pendingFiles = 0;
+		try {
+			for (final File file : files) {
+				completionService.submit(new Callable<ParsedFile>() {
+					@Override
+					public ParsedFile call() throws Exception {
+						return new ParsedFile(file, parser.parse(file));
+					}
+				});
+				pendingFiles++;
+				if (pendingFiles >= maxPendingFiles) {
+					saveParsedFile(completionService.take(), manifest, lookup);
+					pendingFiles--;
 				}
-			} else {
-				parseModel(rootElement, modelFile);
 			}
-		} else {
-			logger.info("Tried to import model with unknown file format. This file has been skipped: " + modelFile.getPath());			
+			while (pendingFiles > 0) {
+				saveParsedFile(completionService.take(), manifest, lookup);
+				pendingFiles--;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("The import has been interrupted.", e);
+		} finally {
+			executor.shutdownNow();
 		}
 	}
 
 	/**
-	 * Traverses the XML-file beginning from the given root element and extracts all meta data information.
-	 * Afterwards, a model with the corresponding revision and it's representations is created from the parsed data,
-	 * if it is not already present in the database.
+	 * Saves the {@link Model}s of the given parsed file and records the file in the given manifest.
 	 * 
-	 * @param rootElement the root element of the model in the XML-file
-	 * @param file the current {@link File} to handle
+	 * @param parsedFile the finished parsing of a file
+	 * @param manifest the manifest to record the file in, might be <code>null</code>
+	 * @param lookup the already imported {@link Model}s, the saved {@link Model}s are added
+	 * @throws JDOMException if XML parsing is erroneous
+	 * @throws IOException if the file could not be read
+	 * @throws InterruptedException if the calling thread has been interrupted
 	 */
-	private void parseModel(Element rootElement, File file) {
-		String modelId = rootElement.getAttributeValue(KEY_SCHLUESSEL);
-		if (modelId == null){
-			//model id could not be found, just skip the model
-			logger.info("Tried to import model without identifier. This file has been skipped: " + file.getPath());
-			return;
+	private void saveParsedFile(Future<ParsedFile> parsedFile, ImportManifest manifest, ImportedModelLookup lookup) throws JDOMException, IOException, InterruptedException {
+		ParsedFile result = null;
+		try {
+			result = parsedFile.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof XMLStreamException) {
+				throw new JDOMException(e.getCause().getMessage(), e.getCause());
+			}
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
 		}
-		Model model = this.persistenceApi.loadCompleteModelWithImportedId(modelId);
-		if (model == null){
+		Collection<String> modelDbIds = new ArrayList<String>();
+		for (Model model : result.models) {
+			modelDbIds.add(saveModel(model, lookup));
+		}
+		if (manifest != null) {
+			manifest.update(result.file, modelDbIds);
+		}
+	}
+
+	/**
+	 * Saves the given parsed {@link Model}, if no {@link Model} exists for the process model. Otherwise, the parsed
+	 * {@link Revision} is added, if the revision attribute has been changed since last import. In case the revision
+	 * number is still the same nothing is done. The complete {@link Model} is only loaded from the database,
+	 * if its latest {@link Revision} differs from the parsed one.
+	 * 
+	 * @param parsedModel the parsed {@link Model} having exactly one {@link Revision}
+	 * @param lookup the already imported {@link Model}s, the saved {@link Model} is added
+	 * @return the database id of the imported or already existing {@link Model}
+	 */
+	private String saveModel(Model parsedModel, ImportedModelLookup lookup) {
+		String modelId = parsedModel.getImportedId();
+		Revision parsedRevision = parsedModel.getLatestRevision();
+		Model model = null;
+		if (!lookup.contains(modelId)){
 			//create new model
-			Map<String, Collection<String>> metaData = parseMetaData(rootElement);
-			model = new Model(metaData.get(KEY_PROCESS_NAME).iterator().next(), Constants.ORIGIN_NPB, modelId);
+			model = parsedModel;
 			this.createdModelsCount++;
-			Revision revision = createRevisionAndRepresentations(metaData, getRevisionNumber(rootElement));
-			revision.connectModel(model);			
 		} else {
-			int revisionNumber = getRevisionNumber(rootElement);
+			int revisionNumber = parsedRevision.getRevisionNumber();
+			Integer latestRevisionNumber = lookup.getLatestRevisionNumber(modelId);
+			if (latestRevisionNumber != null && latestRevisionNumber == revisionNumber){
+				//latest revision already exists, nothing to do
+				return lookup.getDbId(modelId);
+			}
+			model = lookup.loadModel(modelId);
 			//check for new revision
 			for (Revision revision : model.getRevisions()){
 				if (revision.getRevisionNumber() == revisionNumber){
 					//revision already exists, nothing to do
-					return;
+					return model.getDbId();
 				}
-			}			
-			//create new revision and it's representation. Finally, connect model and revision
-			Map<String, Collection<String>> metaData = parseMetaData(rootElement);
-			Revision revision = createRevisionAndRepresentations(metaData, revisionNumber);
-			revision.connectModel(model);			
+			}
+			//connect model and new revision
+			parsedRevision.connectModel(model);
 		}
-		this.persistenceApi.savePojo(model);
+		this.createdRevisionsCount++;
+		this.createdRepresentationsCount += parsedRevision.getRepresentations().size();
+		String dbId = this.persistenceApi.savePojo(model);
+		lookup.add(model, dbId);
 		
 		if(this.createdModelsCount % 100 == 0) {
 			logger.info("imported or updated " + this.createdModelsCount + " models");
@@ -178,124 +237,21 @@ public class NPBImporter extends AbstractImporter {
 		if(this.createdModelsCount % 20 == 0) {
 			this.persistenceApi.clearCache();
 		}
+		return dbId;
 	}
 
 	/**
-	 * Creates a new {@link Revision} and all {@link Representation}s from the given meta data mapping.
-	 * 
-	 * @param metaData the data to use for {@link Revision} and {@link Representation} creation.
-	 * @param revisionNumber number to use for new {@link Revision}
+	 * The {@link Model}s parsed from a file.
 	 */
-	private Revision createRevisionAndRepresentations(Map<String, Collection<String>> metaData, int revisionNumber) {
-		Revision revision = new Revision(revisionNumber);
-		revision.setLatestRevision(true);
-		
-		//set meta data
-		for (String metaDataKey : metaData.keySet()){
-			Collection<String> values = metaData.get(metaDataKey);
-			for (String value : values){
-				revision.addMetadataAtKey(metaDataKey, value);
-			}
-		}		
-		if (metaData.containsKey(KEY_PROCESS_AUTHOR)) {
-			revision.setAuthor(metaData.get(KEY_PROCESS_AUTHOR).iterator().next());
-		}
-		
-		//create Representations if data is available
-		if (metaData.containsKey(KEY_IMAGE_FILE)) {
-			revision.connectRepresentation(createRepresentation(metaData.get(KEY_IMAGE_FILE), getNotation(metaData)));
-		}
-		if (metaData.containsKey(KEY_SOURCE_FILE)) {
-			revision.connectRepresentation(createRepresentation(metaData.get(KEY_SOURCE_FILE), getNotation(metaData)));
-		}
-		this.createdRevisionsCount++;
-		return revision;
-	}
+	private static class ParsedFile {
 
-	/**
-	 * Parses the notation from the given meta data.
-	 * @param metaData the meta data of the current process
-	 * @return the notation used for the process model or an empty string if none was given.
-	 */
-	private String getNotation(Map<String, Collection<String>> metaData) {
-		String notation = "";
-		if (metaData.containsKey(KEY_MODELING_METHOD)){
-			String modelingMethod = metaData.get(KEY_MODELING_METHOD).iterator().next();
-			if (KEY_EPK_OR_eEPK.equals(modelingMethod)){
-				notation = Constants.NOTATION_EPC;
-			} else if (KEY_BPMN.equals(modelingMethod)){
-				notation = Constants.NOTATION_BPMN2_0;
-			}
-		}
-		return notation;
-	}
+		private final File file;
+		private final List<Model> models;
 
-	/**
-	 * Parses all meta data from the given {@link Element}'s 'metaInformation' tags.
-	 * 
-	 * @param rootElement the root element of the XML to consider for parsing
-	 * @return all parsed meta data
-	 */
-	private Map<String, Collection<String>> parseMetaData(Element rootElement) {
-		Map<String, Collection<String>> metaData = new HashMap<String, Collection<String>>();
-		List<?> metaDataElements = rootElement.getChildren(KEY_META_INFORMATION, rootElement.getNamespace());
-		for (Object metaDataElement : metaDataElements) {
-			if (metaDataElement instanceof Element && ((Element) metaDataElement).getName().equals(KEY_META_INFORMATION)){
-				List<?> metaInformation = ((Element) metaDataElement).getChildren(KEY_SCHLUESSEL, rootElement.getNamespace());
-				if (!metaInformation.isEmpty()) {
-					String key = ((Element) metaInformation.get(0)).getChild(KEY_CODE).getText();
-					metaInformation = ((Element) metaDataElement).getChildren(KEY_WERT, rootElement.getNamespace());
-					Collection<String> values = new ArrayList<String>();
-					if(!metaInformation.isEmpty()){
-						Element valueElement = (Element)metaInformation.get(0);
-						if(valueElement.getChild(KEY_LISTE, rootElement.getNamespace()) == null){
-							//single value
-							Element value = ((Element) valueElement.getChildren().get(0));
-							values.add(StringEscapeUtils.unescapeHtml4(value.getText()));
-							String name = value.getAttributeValue(KEY_NAME);
-							if (name != null) {
-								values.add(StringEscapeUtils.unescapeHtml4(name));
-							}
-						} else {
-							//parse all values
-							List<?> valueElements = valueElement.getChild(KEY_LISTE, rootElement.getNamespace()).getChildren();
-							for(Object value : valueElements){
-								values.add(StringEscapeUtils.unescapeHtml4(((Element) value).getText()));
-							}
-						}
-					}
-					metaData.put(key, values);
-				}
-			}
+		public ParsedFile(File file, List<Model> models) {
+			this.file = file;
+			this.models = models;
 		}
-		return metaData;
-	}
-	
-	/**
-	 * Parses the revision number from the given element's revision attribute, which 
-	 * is the first part of the complete revision attribute value.
-	 * @param element the element of the XML containing the revision attribute
-	 * @return the revision parsed from the given element's revision attribute
-	 */
-	private Integer getRevisionNumber(Element element) {
-		String completeModelId = element.getAttributeValue(KEY_REVISION, "");
-		return new Integer(completeModelId.split("-")[0]);
-	}
-
-	/**
-	 * Creates a new {@link Representation} with the given notation and data file content.
-	 * 
-	 * @param dataContent the data content as first and the type as second element
-	 * @param notation the notation that was used
-	 * 
-	 * @return a new {@link Representation} with the given notation, data content and data format
-	 */
-	private Representation createRepresentation(Collection<String> dataContent, String notation) {
-		Iterator<String> it = dataContent.iterator();
-		byte[] data = DatatypeConverter.parseBase64Binary(it.next());
-		String format[] = it.next().split("\\.");
-		this.createdRepresentationsCount++;
-		return new Representation(format[format.length - 1], notation, data);
 	}
 
-}
\ No newline at end of file
+}
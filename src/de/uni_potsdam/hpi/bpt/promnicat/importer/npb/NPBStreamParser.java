@@ -0,0 +1,397 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.importer.npb;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Model;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Representation;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Revision;
+import de.uni_potsdam.hpi.bpt.promnicat.util.Constants;
+
+/**
+ * Parses the XML files of the 'National Process Library' by streaming through them with StAX.
+ * Each process of a file is returned as a new {@link Model} having exactly one {@link Revision},
+ * which contains the process' meta data and {@link Representation}s. The returned {@link Model}s
+ * are not connected to the database.
+ * <br/>
+ * Instances are thread safe.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+public class NPBStreamParser {
+
+	private Logger logger = Logger.getLogger(NPBStreamParser.class.getName());
+
+	//XML keys
+	private static final String KEY_REVISION = "revision";
+	private static final String KEY_PROCESS_NAME = "processName";
+	private static final String KEY_PROCESS_AUTHOR = "processAuthor";
+	private static final String KEY_MODELING_METHOD = "modelingMethod";
+	private static final String KEY_SOURCE_FILE = "sourceFile";
+	private static final String KEY_IMAGE_FILE = "imageFile";
+	private static final String KEY_NAME = "name";
+	private static final String KEY_LISTE = "liste";
+	private static final String KEY_META_INFORMATION = "metaInformation";
+	private static final String KEY_BPMN = "BPMN";
+	private static final String KEY_EPK_OR_eEPK = "EPK / eEPK";
+	private static final String KEY_WERT = "wert";
+	private static final String KEY_CODE = "code";
+	private static final String KEY_SCHLUESSEL = "schluessel";
+	private static final String KEY_EXPORT = "export";
+
+	private final XMLInputFactory inputFactory;
+
+	public NPBStreamParser() {
+		this.inputFactory = XMLInputFactory.newInstance();
+		this.inputFactory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+		this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+	}
+
+	/**
+	 * Parses all processes of the given XML file.
+	 * @param modelFile the file to parse
+	 * @return the parsed {@link Model}s, which is empty if the file has an unknown format
+	 * @throws XMLStreamException if the XML could not be parsed
+	 * @throws IOException if the file could not be read
+	 */
+	public List<Model> parse(File modelFile) throws XMLStreamException, IOException {
+		InputStream inputStream = new BufferedInputStream(new FileInputStream(modelFile));
+		try {
+			return parse(inputStream, modelFile.getPath());
+		} finally {
+			inputStream.close();
+		}
+	}
+
+	/**
+	 * Parses all processes of the given XML stream.
+	 * @param inputStream the stream to read the XML from, it is not closed by this method
+	 * @param source the name of the stream's source, used for logging
+	 * @return the parsed {@link Model}s, which is empty if the stream has an unknown format
+	 * @throws XMLStreamException if the XML could not be parsed
+	 */
+	public List<Model> parse(InputStream inputStream, String source) throws XMLStreamException {
+		List<Model> models = new ArrayList<Model>();
+		XMLStreamReader reader = null;
+		synchronized (this.inputFactory) {
+			reader = this.inputFactory.createXMLStreamReader(inputStream);
+		}
+		try {
+			reader.nextTag();
+			//only parse expected file format schema
+			if (!Constants.NPB_XML_NAMESPACE.equals(reader.getNamespaceURI())) {
+				logger.info("Tried to import model with unknown file format. This file has been skipped: " + source);
+				return models;
+			}
+			//if file with more than one model is given, parse them one after the other
+			if (KEY_EXPORT.equals(reader.getLocalName())) {
+				while (nextChildElement(reader)) {
+					addModel(parseModel(reader, source), models);
+				}
+			} else {
+				addModel(parseModel(reader, source), models);
+			}
+		} finally {
+			reader.close();
+		}
+		return models;
+	}
+
+	/**
+	 * Adds the given {@link Model} to the given {@link Model}s, if it is not <code>null</code>.
+	 * @param model the model to add
+	 * @param models the collection to add the model to
+	 */
+	private void addModel(Model model, Collection<Model> models) {
+		if (model != null) {
+			models.add(model);
+		}
+	}
+
+	/**
+	 * Parses the process starting at the current element of the given reader. Afterwards, the
+	 * reader is positioned at the end of this element.
+	 * 
+	 * @param reader the reader positioned at the start of the process element
+	 * @param source the name of the parsed source, used for logging
+	 * @return the parsed {@link Model} or <code>null</code> if the process has no identifier
+	 * @throws XMLStreamException if the XML could not be parsed
+	 */
+	private Model parseModel(XMLStreamReader reader, String source) throws XMLStreamException {
+		String modelId = reader.getAttributeValue(null, KEY_SCHLUESSEL);
+		if (modelId == null){
+			//model id could not be found, just skip the model
+			logger.info("Tried to import model without identifier. This file has been skipped: " + source);
+			skipElement(reader);
+			return null;
+		}
+		Integer revisionNumber = getRevisionNumber(reader.getAttributeValue(null, KEY_REVISION));
+		Map<String, Collection<String>> metaData = new HashMap<String, Collection<String>>();
+		while (nextChildElement(reader)) {
+			if (isNpbElement(reader, KEY_META_INFORMATION)) {
+				parseMetaInformation(reader, metaData);
+			} else {
+				skipElement(reader);
+			}
+		}
+		Model model = new Model(metaData.get(KEY_PROCESS_NAME).iterator().next(), Constants.ORIGIN_NPB, modelId);
+		Revision revision = createRevisionAndRepresentations(metaData, revisionNumber);
+		revision.connectModel(model);
+		return model;
+	}
+
+	/**
+	 * Parses the key and the values of the current 'metaInformation' element. Only the first key and
+	 * the first value element are considered.
+	 * 
+	 * @param reader the reader positioned at the start of the 'metaInformation' element
+	 * @param metaData the parsed meta data, the parsed key and values are added
+	 * @throws XMLStreamException if the XML could not be parsed
+	 */
+	private void parseMetaInformation(XMLStreamReader reader, Map<String, Collection<String>> metaData) throws XMLStreamException {
+		String key = null;
+		boolean keyParsed = false;
+		Collection<String> values = null;
+		while (nextChildElement(reader)) {
+			if (!keyParsed && isNpbElement(reader, KEY_SCHLUESSEL)) {
+				keyParsed = true;
+				while (nextChildElement(reader)) {
+					if (key == null && KEY_CODE.equals(reader.getLocalName()) && isEmpty(reader.getNamespaceURI())) {
+						key = readText(reader);
+					} else {
+						skipElement(reader);
+					}
+				}
+			} else if (values == null && isNpbElement(reader, KEY_WERT)) {
+				values = parseValues(reader);
+			} else {
+				skipElement(reader);
+			}
+		}
+		if (keyParsed) {
+			metaData.put(key, values == null ? new ArrayList<String>() : values);
+		}
+	}
+
+	/**
+	 * Parses the values of the current 'wert' element. If it contains a list, all list entries are
+	 * returned. Otherwise, the text and the name of the first child element are returned.
+	 * 
+	 * @param reader the reader positioned at the start of the 'wert' element
+	 * @return the parsed values
+	 * @throws XMLStreamException if the XML could not be parsed
+	 */
+	private Collection<String> parseValues(XMLStreamReader reader) throws XMLStreamException {
+		Collection<String> singleValue = null;
+		Collection<String> listValues = null;
+		while (nextChildElement(reader)) {
+			if (listValues == null && isNpbElement(reader, KEY_LISTE)) {
+				//parse all values
+				listValues = new ArrayList<String>();
+				while (nextChildElement(reader)) {
+					listValues.add(StringEscapeUtils.unescapeHtml4(readText(reader)));
+				}
+			} else if (singleValue == null) {
+				singleValue = new ArrayList<String>();
+				String name = reader.getAttributeValue(null, KEY_NAME);
+				singleValue.add(StringEscapeUtils.unescapeHtml4(readText(reader)));
+				if (name != null) {
+					singleValue.add(StringEscapeUtils.unescapeHtml4(name));
+				}
+			} else {
+				skipElement(reader);
+			}
+		}
+		if (listValues != null) {
+			return listValues;
+		}
+		return singleValue == null ? new ArrayList<String>() : singleValue;
+	}
+
+	/**
+	 * Moves the given reader to the start of the next child element of the current element.
+	 * @param reader the reader positioned at the start of the parent element or at the end of a child element
+	 * @return <code>true</code> if the reader is positioned at the start of a child element, <code>false</code>
+	 * if it is positioned at the end of the parent element
+	 * @throws XMLStreamException if the XML could not be parsed
+	 */
+	private boolean nextChildElement(XMLStreamReader reader) throws XMLStreamException {
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				return true;
+			}
+			if (event == XMLStreamConstants.END_ELEMENT) {
+				return false;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reads the text directly contained in the current element. The text of nested elements is ignored.
+	 * Afterwards, the reader is positioned at the end of the current element.
+	 * @param reader the reader positioned at the start of an element
+	 * @return the text of the current element
+	 * @throws XMLStreamException if the XML could not be parsed
+	 */
+	private String readText(XMLStreamReader reader) throws XMLStreamException {
+		StringBuilder text = new StringBuilder();
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				skipElement(reader);
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				break;
+			} else if (reader.hasText()) {
+				text.append(reader.getText());
+			}
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Skips the current element including all of its children.
+	 * @param reader the reader positioned at the start of an element
+	 * @throws XMLStreamException if the XML could not be parsed
+	 */
+	private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0 && reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
+	/**
+	 * @param reader the reader positioned at the start of an element
+	 * @param name the expected local name
+	 * @return <code>true</code> if the current element has the given name and the NPB namespace
+	 */
+	private boolean isNpbElement(XMLStreamReader reader, String name) {
+		return name.equals(reader.getLocalName()) && Constants.NPB_XML_NAMESPACE.equals(reader.getNamespaceURI());
+	}
+
+	/**
+	 * @param namespace the namespace to check
+	 * @return <code>true</code> if the given namespace is <code>null</code> or empty
+	 */
+	private boolean isEmpty(String namespace) {
+		return namespace == null || namespace.isEmpty();
+	}
+
+	/**
+	 * Parses the revision number from the given revision attribute value, which 
+	 * is the first part of the complete revision attribute value.
+	 * @param revision the revision attribute value, might be <code>null</code>
+	 * @return the revision parsed from the given revision attribute value
+	 */
+	private Integer getRevisionNumber(String revision) {
+		String completeModelId = revision == null ? "" : revision;
+		return new Integer(completeModelId.split("-")[0]);
+	}
+
+	/**
+	 * Creates a new {@link Revision} and all {@link Representation}s from the given meta data mapping.
+	 * 
+	 * @param metaData the data to use for {@link Revision} and {@link Representation} creation.
+	 * @param revisionNumber number to use for new {@link Revision}
+	 */
+	private Revision createRevisionAndRepresentations(Map<String, Collection<String>> metaData, int revisionNumber) {
+		Revision revision = new Revision(revisionNumber);
+		revision.setLatestRevision(true);
+		
+		//set meta data
+		for (String metaDataKey : metaData.keySet()){
+			Collection<String> values = metaData.get(metaDataKey);
+			for (String value : values){
+				revision.addMetadataAtKey(metaDataKey, value);
+			}
+		}		
+		if (metaData.containsKey(KEY_PROCESS_AUTHOR)) {
+			revision.setAuthor(metaData.get(KEY_PROCESS_AUTHOR).iterator().next());
+		}
+		
+		//create Representations if data is available
+		if (metaData.containsKey(KEY_IMAGE_FILE)) {
+			revision.connectRepresentation(createRepresentation(metaData.get(KEY_IMAGE_FILE), getNotation(metaData)));
+		}
+		if (metaData.containsKey(KEY_SOURCE_FILE)) {
+			revision.connectRepresentation(createRepresentation(metaData.get(KEY_SOURCE_FILE), getNotation(metaData)));
+		}
+		return revision;
+	}
+
+	/**
+	 * Parses the notation from the given meta data.
+	 * @param metaData the meta data of the current process
+	 * @return the notation used for the process model or an empty string if none was given.
+	 */
+	private String getNotation(Map<String, Collection<String>> metaData) {
+		String notation = "";
+		if (metaData.containsKey(KEY_MODELING_METHOD)){
+			String modelingMethod = metaData.get(KEY_MODELING_METHOD).iterator().next();
+			if (KEY_EPK_OR_eEPK.equals(modelingMethod)){
+				notation = Constants.NOTATION_EPC;
+			} else if (KEY_BPMN.equals(modelingMethod)){
+				notation = Constants.NOTATION_BPMN2_0;
+			}
+		}
+		return notation;
+	}
+
+	/**
+	 * Creates a new {@link Representation} with the given notation and data file content.
+	 * 
+	 * @param dataContent the data content as first and the type as second element
+	 * @param notation the notation that was used
+	 * 
+	 * @return a new {@link Representation} with the given notation, data content and data format
+	 */
+	private Representation createRepresentation(Collection<String> dataContent, String notation) {
+		Iterator<String> it = dataContent.iterator();
+		byte[] data = DatatypeConverter.parseBase64Binary(it.next());
+		String format[] = it.next().split("\\.");
+		return new Representation(format[format.length - 1], notation, data);
+	}
+}
@@ -17,27 +17,52 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.Text;
 
+/**
+ * Transforms an RDF document of an Oryx model into Oryx JSON. The transformation state is kept
+ * per instance, thus different documents can be transformed concurrently by different instances.
+ */
 public class RdfJsonTransformation {
 	
 	private final static String[] reservedNodeNames = 
 	{ "rdf:type", "type", "mode", "stencilset", "render", "bounds", "dockers", "outgoing", "target", "parent", "ssextension", "ssnamespace" };
 	
-	private static JSONObject canvas;
-	private static Map<String,JSONObject> objects; // resourceId -> JSONObject
-	private static Map<String,String> parents; // resourceId -> parent's resourceId
+	private JSONObject canvas;
+	private Map<String,JSONObject> objects; // resourceId -> JSONObject
+	private Map<String,String> parents; // resourceId -> parent's resourceId
 	
-	private static String hostUrl;
+	private final String hostUrl;
 	
 	private static Logger log = Logger.getLogger("org.oryxeditor.server.RdfJsonTransformation");
 
+	/**
+	 * Creates a new transformation resolving relative stencil set URLs against the given URL.
+	 * @param requestUrl the URL prepended to relative stencil set URLs
+	 */
+	public RdfJsonTransformation(String requestUrl) {
+		this.hostUrl = requestUrl;
+	}
+	
+	/**
+	 * Transforms the given RDF document into Oryx JSON.
+	 * @param rdfDoc the RDF document to transform
+	 * @param requestUrl the URL prepended to relative stencil set URLs
+	 * @return the JSON representation of the model
+	 */
 	public static JSONObject toJson(Document rdfDoc, String requestUrl) {
+		return new RdfJsonTransformation(requestUrl).transform(rdfDoc);
+	}
+	
+	/**
+	 * Transforms the given RDF document into Oryx JSON.
+	 * @param rdfDoc the RDF document to transform
+	 * @return the JSON representation of the model
+	 */
+	public JSONObject transform(Document rdfDoc) {
 		
 		canvas = new JSONObject();
 		objects = new HashMap<String,JSONObject>();
 		parents = new HashMap<String,String>();
 		
-		hostUrl = requestUrl;
-		
 		Node root = getRootNode(rdfDoc);
 		if(root==null) return canvas;
 		
@@ -71,7 +96,7 @@ public class RdfJsonTransformation {
 		return canvas;
 	}
 	
-	private static void handleCanvas(Node n) {
+	private void handleCanvas(Node n) {
 		try {
 			canvas.put("resourceId", getResourceId(n));
 			canvas.put("childShapes", new JSONArray());
@@ -81,7 +106,7 @@ public class RdfJsonTransformation {
 		}
 	}
 	
-	private static void handleShape(Node n) {
+	private void handleShape(Node n) {
 		try {
 			if(!isValidShapeNode(n))
 				return;
@@ -119,7 +144,7 @@ public class RdfJsonTransformation {
 		return true;
 	}
 	
-	private static void setupParentRelationships() {
+	private void setupParentRelationships() {
 		for(String resourceId : parents.keySet()) {
 			JSONObject child = objects.get(resourceId);
 			JSONObject parent = objects.get(parents.get(resourceId));
@@ -132,7 +157,7 @@ public class RdfJsonTransformation {
 		}
 	}
 	
-	private static void handleProperties(Node n, JSONObject object) throws JSONException {
+	private void handleProperties(Node n, JSONObject object) throws JSONException {
 		JSONObject properties = new JSONObject();
 		object.put("properties", properties);
 		if(n.hasChildNodes()) {
@@ -165,7 +190,7 @@ public class RdfJsonTransformation {
 //		}
 	}
 	
-	private static void handleReservedNodeName(Node n, JSONObject object) throws JSONException {
+	private void handleReservedNodeName(Node n, JSONObject object) throws JSONException {
 		String nodeName = n.getNodeName();
 		
 		if(nodeName.equals("bounds")) {
@@ -19,19 +19,29 @@ package de.uni_potsdam.hpi.bpt.promnicat.importer.sap_rm;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
+import javax.xml.transform.Templates;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
@@ -45,9 +55,9 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
-import de.uni_potsdam.hpi.bpt.ai.diagram.Diagram;
-import de.uni_potsdam.hpi.bpt.ai.diagram.DiagramBuilder;
 import de.uni_potsdam.hpi.bpt.promnicat.importer.AbstractImporter;
+import de.uni_potsdam.hpi.bpt.promnicat.importer.ImportManifest;
+import de.uni_potsdam.hpi.bpt.promnicat.importer.ImportedModelLookup;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Model;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Representation;
@@ -57,11 +67,20 @@ import de.uni_potsdam.hpi.bpt.promnicat.util.Constants;
 /**
  * This class is used to import the SAP reference model.
  * 
+ * If more than one thread is configured, the EPCs are converted to JSON by a bounded
+ * worker pool, whereas all database accesses remain on the calling thread.
+ * 
  * @author Tobias Hoppe
  * 
  */
 public class SapReferenceModelImporter extends AbstractImporter {
+    private static final String EPML_TO_ERDF_XSLT = "resources/xslt/EPML2eRDF.xslt";
+    private static final String EXTRACT_RDF_XSLT = "resources/xslt/extract-rdf.xsl";
+
     private IPersistenceApi persistenceApi = null;
+    private int numberOfThreads = 1;
+    private Templates epmlToErdf = null;
+    private Templates extractRdf = null;
 
     /**
      * Creates a new {@link SapReferenceModelImporter} with the given {@link IPersistenceApi} used for database access.
@@ -71,6 +90,25 @@ public class SapReferenceModelImporter extends AbstractImporter {
 	this.persistenceApi = persistenceApi;
     }
 
+    /**
+     * @return the number of threads used to convert the EPCs
+     */
+    public int getNumberOfThreads() {
+	return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads used to convert the EPCs. The conversion is done
+     * sequentially by default.
+     * @param numberOfThreads the number of conversion threads, must be at least 1
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+	if (numberOfThreads < 1){
+	    throw new IllegalArgumentException("The number of threads must be at least 1, but was " + numberOfThreads);
+	}
+	this.numberOfThreads = numberOfThreads;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -80,83 +118,247 @@ public class SapReferenceModelImporter extends AbstractImporter {
     public void importModelsFrom(String modelDirectory) throws IOException, JSONException {
 	persistenceApi.openDb();
 	File rootDir = super.checkModelPath(modelDirectory, true);
-	Collection<File> files = super.getFilesRecursivelyFromDir(rootDir);
-	for(File file:files){
-	    try {
-		splitEPML(file);
-	    } catch (ParserConfigurationException e) {
-		// TODO Auto-generated catch block
-		e.printStackTrace();
-	    } catch (SAXException e) {
-		// TODO Auto-generated catch block
-		e.printStackTrace();
-	    } catch (TransformerException e) {
-		// TODO Auto-generated catch block
-		e.printStackTrace();
+	ImportManifest manifest = loadManifest(persistenceApi, Constants.ORIGIN_SAP_RM);
+	ImportedModelLookup lookup = new ImportedModelLookup(persistenceApi, Constants.ORIGIN_SAP_RM);
+	Collection<File> files = super.getFilesRecursivelyFromDir(rootDir, manifest);
+	if (this.numberOfThreads > 1){
+	    importInParallel(files, manifest, lookup);
+	} else {
+	    for(File file:files){
+		try {
+		    Collection<String> modelDbIds = splitEPML(file, lookup);
+		    if (manifest != null){
+			manifest.update(file, modelDbIds);
+		    }
+		} catch (ParserConfigurationException e) {
+		    // TODO Auto-generated catch block
+		    e.printStackTrace();
+		} catch (SAXException e) {
+		    // TODO Auto-generated catch block
+		    e.printStackTrace();
+		} catch (TransformerException e) {
+		    // TODO Auto-generated catch block
+		    e.printStackTrace();
+		}
 	    }
 	}
 
 	persistenceApi.closeDb();
     }
-    public void splitEPML(File file) throws ParserConfigurationException, SAXException, IOException, TransformerException, JSONException{
-	DocumentBuilderFactory fac = DocumentBuilderFactory.newInstance();
-	DocumentBuilder builder = fac.newDocumentBuilder();
+
+    /**
+     * Imports all EPCs of the given EPML file, that are not yet in the database.
+     * @param file the EPML file to import
+     * @return the database ids of the imported and the already existing models of the given file
+     */
+    public Collection<String> splitEPML(File file) throws ParserConfigurationException, SAXException, IOException, TransformerException, JSONException{
+	return splitEPML(file, new ImportedModelLookup(persistenceApi, Constants.ORIGIN_SAP_RM));
+    }
+
+    /**
+     * Imports all EPCs of the given EPML file, that are not yet in the database.
+     * @param file the EPML file to import
+     * @param lookup the already imported models, the saved models are added
+     * @return the database ids of the imported and the already existing models of the given file
+     */
+    private Collection<String> splitEPML(File file, ImportedModelLookup lookup) throws ParserConfigurationException, SAXException, IOException, TransformerException, JSONException{
+	Collection<String> modelDbIds = new ArrayList<String>();
+	DocumentBuilder builder = createDocumentBuilder();
 	Document doc = builder.parse(file);
 	NodeList epcNodes = doc.getElementsByTagName("epc");
 	for(int i = 0; i < epcNodes.getLength(); i ++ ){
 	    String epcName = epcNodes.item(i).getAttributes().getNamedItem("name").getNodeValue();
 
-	    Model model = this.persistenceApi.loadCompleteModelWithImportedId(epcName);
-	    if (model != null){
+	    String dbId = lookup.getDbId(epcName);
+	    if (dbId != null){
+		modelDbIds.add(dbId);
 		continue;
 	    }
-	    
-	    Document newEpcDoc = builder.newDocument();
-	    Element epml = newEpcDoc.createElement("epml:epml");
-	    Element directory = newEpcDoc.createElement("directory");
-	    newEpcDoc.appendChild(epml);
-	    epml.appendChild(directory);
-	    directory.setAttribute("name", "ROOT");
-	    Node epcNode = newEpcDoc.importNode(epcNodes.item(i), true);
-	    directory.appendChild(epcNode);
-
-	    DOMSource epmlSource = new DOMSource(newEpcDoc);
-	    final File epml2eRDFxsltFile = new File("resources/xslt/EPML2eRDF.xslt");
-	    final Source epml2eRDFxsltSource = new StreamSource(epml2eRDFxsltFile);	
-
-	    // Transformer Factory
-	    final TransformerFactory transformerFactory = TransformerFactory.newInstance();
-
-	    // Get the epml source
-	    Transformer transformer = transformerFactory.newTransformer(epml2eRDFxsltSource);
-	    StringWriter writer = new StringWriter();
-	    transformer.transform(epmlSource, new StreamResult(writer));
-	    String erdf = writer.toString();
-	    String rdf = erdfToRdf(erdf);
-	    rdf = rdf.replaceAll("ns[0-9]+:", "");
-	    rdf = rdf.replace("#resource", "#");
-	    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-	    factory.setNamespaceAware(true);
-	    Document rdfDoc = builder.parse(new ByteArrayInputStream(rdf.getBytes("UTF-8")));
-	    String json =  RdfJsonTransformation.toJson(rdfDoc, "").toString();
-
-	    //Diagram diagram = DiagramBuilder.parseJson(json);
-	    Representation representation = new Representation(Constants.FORMAT_BPMAI_JSON, Constants.NOTATION_EPC);
-	    Diagram parseJson = DiagramBuilder.parseJson(json);
-	    representation.setDataContent(json.getBytes());
-	    model = new Model(epcName, Constants.ORIGIN_SAP_RM);
-	    model.setImportedId(epcName);
-	    Revision revision = new Revision(0);
-	    revision.connectRepresentation(representation);
-	    model.connectLatestRevision(revision); 
-	    revision.connectModel(model);
-	    model.connectLatestRevision(revision);
-	    persistenceApi.savePojo(model);
 
+	    Document newEpcDoc = extractEpc(builder, epcNodes.item(i));
+	    Model model = convertEpc(epcName, newEpcDoc, builder);
+	    dbId = persistenceApi.savePojo(model);
+	    lookup.add(model, dbId);
+	    modelDbIds.add(dbId);
+	}
+	return modelDbIds;
+    }
+
+    /**
+     * Extracts the EPCs of the given files on the calling thread and hands them over to a fixed
+     * size worker pool for the conversion to JSON. At most twice as many EPCs as there are threads are
+     * in flight at once. The converted models are written to the database by the calling thread only.
+     * @param files the EPML files to import
+     * @param manifest the manifest to record the imported files in, might be <code>null</code>
+     * @param lookup the models imported before this run
+     */
+    private void importInParallel(Collection<File> files, ImportManifest manifest, ImportedModelLookup lookup) {
+	ExecutorService executor = Executors.newFixedThreadPool(this.numberOfThreads);
+	CompletionService<Model> completionService = new ExecutorCompletionService<Model>(executor);
+	int maxPendingConversions = 2 * this.numberOfThreads;
+	int pendingConversions = 0;
+	//EPCs scheduled in this run, which are not yet visible in the database
+	Set<String> scheduledEpcs = new HashSet<String>();
+	//conversion -> file of the EPC, file -> database ids of its models
+	Map<Future<Model>, File> conversionFiles = new HashMap<Future<Model>, File>();
+	Map<File, Collection<String>> fileModels = new LinkedHashMap<File, Collection<String>>();
+	//files with at least one failed conversion must not be recorded as imported
+	Set<File> failedFiles = new HashSet<File>();
+	try {
+	    DocumentBuilder builder = createDocumentBuilder();
+	    //compile the stylesheets before the workers share them
+	    getEpmlToErdfTemplates();
+	    getExtractRdfTemplates();
+	    for(File file:files){
+		Document doc = null;
+		try {
+		    doc = builder.parse(file);
+		} catch (SAXException e) {
+		    e.printStackTrace();
+		    continue;
+		} catch (IOException e) {
+		    e.printStackTrace();
+		    continue;
+		}
+		Collection<String> modelDbIds = new ArrayList<String>();
+		fileModels.put(file, modelDbIds);
+		NodeList epcNodes = doc.getElementsByTagName("epc");
+		for(int i = 0; i < epcNodes.getLength(); i ++ ){
+		    final String epcName = epcNodes.item(i).getAttributes().getNamedItem("name").getNodeValue();
+		    if (!scheduledEpcs.add(epcName)){
+			continue;
+		    }
+		    String dbId = lookup.getDbId(epcName);
+		    if (dbId != null){
+			modelDbIds.add(dbId);
+			continue;
+		    }
+		    //the DOM is not thread safe, hence each worker gets its own copy of the EPC
+		    final Document newEpcDoc = extractEpc(builder, epcNodes.item(i));
+		    Future<Model> conversion = completionService.submit(new Callable<Model>() {
+			@Override
+			public Model call() throws Exception {
+			    return convertEpc(epcName, newEpcDoc, createDocumentBuilder());
+			}
+		    });
+		    conversionFiles.put(conversion, file);
+		    pendingConversions++;
+		    if (pendingConversions >= maxPendingConversions){
+			saveConvertedModel(completionService.take(), conversionFiles, fileModels, failedFiles);
+			pendingConversions--;
+		    }
+		}
+	    }
+	    while (pendingConversions > 0){
+		saveConvertedModel(completionService.take(), conversionFiles, fileModels, failedFiles);
+		pendingConversions--;
+	    }
+	    if (manifest != null){
+		for (Map.Entry<File, Collection<String>> fileModel : fileModels.entrySet()){
+		    if (!failedFiles.contains(fileModel.getKey())){
+			manifest.update(fileModel.getKey(), fileModel.getValue());
+		    }
+		}
+	    }
+	} catch (ParserConfigurationException e) {
+	    e.printStackTrace();
+	} catch (TransformerException e) {
+	    e.printStackTrace();
+	} catch (IOException e) {
+	    e.printStackTrace();
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	} finally {
+	    executor.shutdownNow();
+	}
+    }
+
+    /**
+     * Saves the model of the given finished conversion. Failed conversions are reported and skipped.
+     * @param conversion the finished conversion
+     * @param conversionFiles the files containing the EPCs of the pending conversions
+     * @param fileModels the database ids of the models of each file, the id of the saved model is added
+     * @param failedFiles the files with failed conversions, the file of a failed conversion is added
+     * @throws InterruptedException if the calling thread has been interrupted
+     */
+    private void saveConvertedModel(Future<Model> conversion, Map<Future<Model>, File> conversionFiles,
+	    Map<File, Collection<String>> fileModels, Set<File> failedFiles) throws InterruptedException {
+	File file = conversionFiles.remove(conversion);
+	try {
+	    Model model = conversion.get();
+	    String dbId = this.persistenceApi.savePojo(model);
+	    fileModels.get(file).add(dbId);
+	} catch (ExecutionException e) {
+	    failedFiles.add(file);
+	    e.getCause().printStackTrace();
+	}
+    }
 
+    private DocumentBuilder createDocumentBuilder() throws ParserConfigurationException {
+	return DocumentBuilderFactory.newInstance().newDocumentBuilder();
+    }
+
+    /**
+     * Copies the given epc node into a new EPML document.
+     * @param builder the builder used to create the new document
+     * @param epc the epc node to copy
+     * @return the EPML document containing only the given epc
+     */
+    private Document extractEpc(DocumentBuilder builder, Node epc) {
+	Document newEpcDoc = builder.newDocument();
+	Element epml = newEpcDoc.createElement("epml:epml");
+	Element directory = newEpcDoc.createElement("directory");
+	newEpcDoc.appendChild(epml);
+	epml.appendChild(directory);
+	directory.setAttribute("name", "ROOT");
+	Node epcNode = newEpcDoc.importNode(epc, true);
+	directory.appendChild(epcNode);
+	return newEpcDoc;
+    }
+
+    /**
+     * Converts the given EPML document into a new {@link Model} with a JSON representation.
+     * @param epcName the name of the epc, used as imported id
+     * @param epcDoc the EPML document containing the epc
+     * @param builder the builder used to parse the intermediate RDF
+     * @return the new model
+     */
+    private Model convertEpc(String epcName, Document epcDoc, DocumentBuilder builder) throws TransformerException, SAXException, IOException {
+	DOMSource epmlSource = new DOMSource(epcDoc);
+	StringWriter writer = new StringWriter();
+	getEpmlToErdfTemplates().newTransformer().transform(epmlSource, new StreamResult(writer));
+	String erdf = writer.toString();
+	String rdf = erdfToRdf(erdf);
+	rdf = rdf.replaceAll("ns[0-9]+:", "");
+	rdf = rdf.replace("#resource", "#");
+	Document rdfDoc = builder.parse(new ByteArrayInputStream(rdf.getBytes("UTF-8")));
+	String json = new RdfJsonTransformation("").transform(rdfDoc).toString();
+
+	Representation representation = new Representation(Constants.FORMAT_BPMAI_JSON, Constants.NOTATION_EPC);
+	representation.setDataContent(json.getBytes());
+	Model model = new Model(epcName, Constants.ORIGIN_SAP_RM);
+	model.setImportedId(epcName);
+	Revision revision = new Revision(0);
+	revision.connectRepresentation(representation);
+	revision.connectModel(model);
+	model.connectLatestRevision(revision);
+	return model;
+    }
+
+    private synchronized Templates getEpmlToErdfTemplates() throws TransformerException {
+	if (this.epmlToErdf == null){
+	    this.epmlToErdf = TransformerFactory.newInstance().newTemplates(new StreamSource(new File(EPML_TO_ERDF_XSLT)));
+	}
+	return this.epmlToErdf;
+    }
+
+    private synchronized Templates getExtractRdfTemplates() throws TransformerException {
+	if (this.extractRdf == null){
+	    this.extractRdf = TransformerFactory.newInstance().newTemplates(new StreamSource(new File(EXTRACT_RDF_XSLT)));
+	}
+	return this.extractRdf;
     }
 
-}
 protected String erdfToRdf(String erdf) throws TransformerException, FileNotFoundException{
     erdf = erdf.replace("<?xml version=\"1.0\" encoding=\"UTF-8\"?>", "");
     String epcCanvasNode = "<div id=\"oryx-canvas123\" class=\"-oryx-canvas\"><span class=\"oryx-type\">http://b3mn.org/stencilset/epc#Diagram</span><span class=\"oryx-title\"></span><span class=\"oryx-version\"></span><span class=\"oryx-author\"></span><span class=\"oryx-description\"></span><span class=\"oryx-mode\">writable</span><span class=\"oryx-mode\">fullscreen</span><a rel=\"oryx-stencilset\" href=\"/oryx//stencilsets/epc/epc.json\"/><a rel=\"oryx-ssnamespace\" href=\"http://b3mn.org/stencilset/epc#\"/><a rel=\"oryx-render\" href=\"#oryx_64B5C11B-B687-478F-9484-2754D57936DE\"/><a rel=\"oryx-render\" href=\"#oryx_6C9B2F26-39BE-4A80-BF8D-F6BF48427F12\"/><a rel=\"oryx-render\" href=\"#oryx_B0D82B5D-BF33-4A64-A5EF-BC4DD5E006C1\"/><a rel=\"oryx-render\" href=\"#oryx_821F2F7C-D2A4-4D92-B6BF-B37ECA795FAA\"/><a rel=\"oryx-render\" href=\"#oryx_696EB3FE-4F56-4A44-9920-7361648A2A8C\"/></div>";
@@ -174,15 +376,9 @@ protected String erdfToRdf(String erdf) throws TransformerException, FileNotFoun
 	    "<link rel=\"schema.raziel\" href=\"http://raziel.org/\" />" +
 	    "</head><body>"+ 
 	    epcCanvasNode + erdf + "</body></html>" ;
-    InputStream xsltStream = new FileInputStream("resources/xslt/extract-rdf.xsl");
-    Source xsltSource = new StreamSource(xsltStream);
-    Source erdfSource = new StreamSource(new StringReader(serializedDOM));
-
-    TransformerFactory transFact =
-	    TransformerFactory.newInstance();
-    Transformer trans = transFact.newTransformer(xsltSource);
+    StreamSource erdfSource = new StreamSource(new StringReader(serializedDOM));
     StringWriter output = new StringWriter();
-    trans.transform(erdfSource, new StreamResult(output));
+    getExtractRdfTemplates().newTransformer().transform(erdfSource, new StreamResult(output));
     return output.toString();
 }
 }
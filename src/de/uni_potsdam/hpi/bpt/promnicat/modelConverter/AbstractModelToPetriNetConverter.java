@@ -41,6 +41,8 @@ import org.jbpt.pm.ProcessModel;
 import org.jbpt.pm.XorGateway;
 import org.jbpt.throwable.TransformationException;
 
+import de.uni_potsdam.hpi.bpt.promnicat.util.ModelAnalysisContext;
+
 /**
  * Abstract base class for {@link ProcessModel} to {@link PetriNet} converter.
  * Provides some fields needed in all sub-types and some basic transformations.
@@ -66,8 +68,24 @@ public abstract class AbstractModelToPetriNetConverter implements IModelToPetriN
 	
 	/**
 	 * {@link RPST} of the model to transform. Needed for structural checks of {@link OrGateway}-mappings.
+	 * Use {@link #getRPST()}, because it is calculated on first access.
 	 */
 	protected RPST<ControlFlow<FlowNode>, FlowNode> rpsTree = null;
+
+	/**
+	 * Analysis results of the model to transform or <code>null</code> if none are shared.
+	 */
+	private ModelAnalysisContext analysisContext = null;
+
+	/**
+	 * The model to transform as given to {@link #prepareProcessModel(ProcessModel)}.
+	 */
+	private ProcessModel originalModel = null;
+
+	/**
+	 * The pre-processed model to transform.
+	 */
+	private ProcessModel transformedModel = null;
 	
 	/**
 	 * Identifier used for additional created model elements. Shall be
@@ -83,6 +101,34 @@ public abstract class AbstractModelToPetriNetConverter implements IModelToPetriN
 	public PetriNet getLastPetriNet() {
 		return this.petriNet;
 	}
+
+	/* (non-Javadoc)
+	 * @see de.uni_potsdam.hpi.bpt.promnicat.modelConverter.IModelToPetriNetConverter#convertToPetriNet(org.jbpt.pm.ProcessModel, de.uni_potsdam.hpi.bpt.promnicat.util.ModelAnalysisContext)
+	 */
+	@Override
+	public PetriNet convertToPetriNet(ProcessModel model, ModelAnalysisContext context) throws TransformationException {
+		this.analysisContext = context;
+		try {
+			return convertToPetriNet(model);
+		} finally {
+			this.analysisContext = null;
+		}
+	}
+
+	/**
+	 * @return the {@link RPST} of the model to transform. It is taken from the {@link ModelAnalysisContext}
+	 * if one has been given for the model, otherwise it is calculated.
+	 */
+	protected RPST<ControlFlow<FlowNode>, FlowNode> getRPST() {
+		if (this.rpsTree == null) {
+			if (this.analysisContext != null && this.analysisContext.getProcessModel() == this.originalModel) {
+				this.rpsTree = this.analysisContext.getRPST();
+			} else {
+				this.rpsTree = new RPST<ControlFlow<FlowNode>, FlowNode>(this.transformedModel);
+			}
+		}
+		return this.rpsTree;
+	}
 	
 	/**
 	 * Initializes {@link PetriNet} and pre-process the given {@link ProcessModel}.
@@ -101,7 +147,9 @@ public abstract class AbstractModelToPetriNetConverter implements IModelToPetriN
 		//initialize internal data structures
 		this.petriNet = new PetriNet();
 		this.nodeMapping.clear();
-		this.rpsTree = new RPST<ControlFlow<FlowNode>, FlowNode>(transformedModel);
+		this.rpsTree = null;
+		this.originalModel = model;
+		this.transformedModel = transformedModel;
 		//copy id, name, desc, and tag
 		copyAttributes(model, this.petriNet);
 		
@@ -200,7 +248,7 @@ public abstract class AbstractModelToPetriNetConverter implements IModelToPetriN
 			this.petriNet.addPlace(p);
 			this.nodeMapping.put(gateway, p);
 		} else if (gateway instanceof OrGateway) {
-			for (RPSTNode<ControlFlow<FlowNode>, FlowNode> rigidNode : rpsTree.getVertices(TCType.R)) {
+			for (RPSTNode<ControlFlow<FlowNode>, FlowNode> rigidNode : getRPST().getVertices(TCType.R)) {
 				if (rigidNode.getSkeleton().contains(gateway)) {
 					throw new TransformationException(THE_GIVEN_PROCESS_MODEL_CONTAINS_AT_LEAST_ONE_OR_GATEWAY);
 				}
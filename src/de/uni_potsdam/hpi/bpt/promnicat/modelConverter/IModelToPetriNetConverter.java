@@ -21,6 +21,8 @@ import org.jbpt.petri.PetriNet;
 import org.jbpt.pm.ProcessModel;
 import org.jbpt.throwable.TransformationException;
 
+import de.uni_potsdam.hpi.bpt.promnicat.util.ModelAnalysisContext;
+
 /**
  * Interface for all converter transforming any kind of business process model
  * into a jBPT {@link PetriNet}.
@@ -38,6 +40,17 @@ public interface IModelToPetriNetConverter {
 	 */
 	public PetriNet convertToPetriNet(ProcessModel model) throws TransformationException;
 
+	/**
+	 * Transforms the given {@link ProcessModel} into a {@link PetriNet}.
+	 * Analysis results needed for the transformation are taken from the given context.
+	 * @param model to transform
+	 * @param context the {@link ModelAnalysisContext} of the given model or <code>null</code>
+	 * if analysis results shall not be shared.
+	 * @return the created {@link PetriNet}
+	 * @throws TransformationException if transformation failed.
+	 */
+	public PetriNet convertToPetriNet(ProcessModel model, ModelAnalysisContext context) throws TransformationException;
+
 	/**
 	 * @return the {@link PetriNet} being transformed from the last {@link ProcessModel}
 	 * converted with {@link #convertToPetriNet(ProcessModel)}. Or <code>null</code> if
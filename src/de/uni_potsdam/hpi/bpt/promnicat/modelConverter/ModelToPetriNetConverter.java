@@ -26,6 +26,8 @@ import org.jbpt.pm.bpmn.Bpmn;
 import org.jbpt.pm.epc.Epc;
 import org.jbpt.throwable.TransformationException;
 
+import de.uni_potsdam.hpi.bpt.promnicat.util.ModelAnalysisContext;
+
 /**
  * @author Tobias Hoppe
  *
@@ -54,9 +56,17 @@ public class ModelToPetriNetConverter implements IModelToPetriNetConverter {
 	 */
 	@Override
 	public PetriNet convertToPetriNet(ProcessModel model) throws TransformationException {
+		return convertToPetriNet(model, null);
+	}
+
+	/* (non-Javadoc)
+	 * @see de.uni_potsdam.hpi.bpt.promnicat.modelConverter.IModelToPetriNetConverter#convertToPetriNet(org.jbpt.pm.ProcessModel, de.uni_potsdam.hpi.bpt.promnicat.util.ModelAnalysisContext)
+	 */
+	@Override
+	public PetriNet convertToPetriNet(ProcessModel model, ModelAnalysisContext context) throws TransformationException {
 		IModelToPetriNetConverter converter = this.delegates.get(model.getClass());
 		if (converter != null) {
-			this.lastPetriNet = converter.convertToPetriNet(model);		
+			this.lastPetriNet = converter.convertToPetriNet(model, context);		
 			return this.lastPetriNet;			
 		} else {
 			Logger.getLogger(ModelToPetriNetConverter.class.getName()).
@@ -0,0 +1,428 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jbpt.pm.ProcessModel;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import de.uni_potsdam.hpi.bpt.ai.diagram.Bounds;
+import de.uni_potsdam.hpi.bpt.ai.diagram.Diagram;
+import de.uni_potsdam.hpi.bpt.ai.diagram.DiagramBuilder;
+import de.uni_potsdam.hpi.bpt.ai.diagram.Point;
+import de.uni_potsdam.hpi.bpt.ai.diagram.Shape;
+import de.uni_potsdam.hpi.bpt.ai.diagram.StencilType;
+
+/**
+ * Transforms process models given as BPM AI (Oryx) JSON into jBPT {@link ProcessModel}s without building
+ * a {@link JSONObject} of the whole model and a {@link Diagram}. The JSON is read with a {@link JSONTokener}
+ * and each shape is handed over to the responsible {@link IShapeParser} as soon as its JSON object has been
+ * read. Only the small JSON objects of a shape, e.g. its properties and bounds, are built.
+ * <br/>
+ * Oryx writes the stencil set after the child shapes. Hence, the stencil set's namespace is looked up
+ * in the bytes first, which is much cheaper than parsing them. If it can not be found, the model is
+ * transformed via {@link DiagramBuilder} and {@link ModelParser#transformProcess(Diagram)}.
+ * <br/>
+ * Instances can be shared between threads, if the given {@link ModelParser} is shared as well.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+public class BpmaiJsonStreamParser {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	//JSON keys
+	private static final String KEY_RESOURCE_ID = "resourceId";
+	private static final String KEY_PROPERTIES = "properties";
+	private static final String KEY_STENCIL = "stencil";
+	private static final String KEY_ID = "id";
+	private static final String KEY_CHILD_SHAPES = "childShapes";
+	private static final String KEY_OUTGOING = "outgoing";
+	private static final String KEY_BOUNDS = "bounds";
+	private static final String KEY_UPPER_LEFT = "upperLeft";
+	private static final String KEY_LOWER_RIGHT = "lowerRight";
+	private static final String KEY_X = "x";
+	private static final String KEY_Y = "y";
+	private static final byte[] KEY_STENCIL_SET = "stencilset".getBytes(UTF8);
+	private static final byte[] KEY_NAMESPACE = "namespace".getBytes(UTF8);
+
+	/**
+	 * Same pattern as used by {@link DiagramBuilder} to remove glossary links from property values
+	 */
+	private static final Pattern GLOSSARY_PATTERN = Pattern.compile("glossary://(.*?)/([\\w\\W]*?)(;;)");
+
+	private final ModelParser modelParser;
+
+	/**
+	 * Creates a parser, that uses the {@link IShapeParser}s of the given {@link ModelParser}.
+	 * @param modelParser the parser to get the responsible {@link IShapeParser}s from
+	 */
+	public BpmaiJsonStreamParser(ModelParser modelParser) {
+		this.modelParser = modelParser;
+	}
+
+	/**
+	 * Transforms the given UTF-8 encoded BPM AI JSON into a {@link ProcessModel}.
+	 * @param json the bytes of the JSON to transform
+	 * @return the resulting process model or <code>null</code> if it is erroneous or
+	 * its stencil set is not supported
+	 * @throws JSONException if the JSON could not be parsed
+	 */
+	public ProcessModel transformProcess(byte[] json) throws JSONException {
+		String namespace = findStencilSetNamespace(json);
+		if (namespace == null) {
+			JSONTokener tokener = new JSONTokener(new InputStreamReader(new ByteArrayInputStream(json), UTF8));
+			return this.modelParser.transformProcess(DiagramBuilder.parseJson(new JSONObject(tokener)));
+		}
+		IShapeParser parser = this.modelParser.getShapeParser(namespace);
+		if (parser == null) {
+			return null;
+		}
+		JSONTokener tokener = new JSONTokener(new InputStreamReader(new ByteArrayInputStream(json), UTF8));
+		if (tokener.nextClean() != '{') {
+			throw tokener.syntaxError("A JSONObject text must begin with '{'");
+		}
+		parser.startProcess();
+		Shape canvas = readShape(tokener, parser, new HashMap<String, Shape>(), 0);
+		return parser.finishProcess(canvas);
+	}
+
+	/**
+	 * Reads the JSON object of a shape, whose opening brace has already been read, and hands the shape
+	 * over to the given parser. The child shapes are read and handed over before their parent.
+	 * The key and separator grammar is the same as the one of {@link JSONObject#JSONObject(JSONTokener)}.
+	 * @param x the tokener to read from
+	 * @param parser the parser to hand the shapes over to
+	 * @param shapes all shapes read so far, including the ones only referenced as outgoing, by resource id
+	 * @param depth the nesting depth of the shape, 0 for the canvas
+	 * @return the read shape
+	 * @throws JSONException if the JSON could not be parsed
+	 */
+	private Shape readShape(JSONTokener x, IShapeParser parser, Map<String, Shape> shapes, int depth) throws JSONException {
+		String resourceId = null;
+		JSONObject properties = null;
+		JSONObject stencil = null;
+		JSONObject bounds = null;
+		JSONArray outgoing = null;
+		ArrayList<Shape> childShapes = null;
+
+		for (;;) {
+			String key;
+			char c = x.nextClean();
+			switch (c) {
+			case 0:
+				throw x.syntaxError("A JSONObject text must end with '}'");
+			case '}':
+				return finishShape(parser, shapes, depth, resourceId, properties, stencil, bounds, outgoing, childShapes);
+			default:
+				x.back();
+				key = x.nextValue().toString();
+			}
+
+			c = x.nextClean();
+			if (c == '=') {
+				if (x.next() != '>') {
+					x.back();
+				}
+			} else if (c != ':') {
+				throw x.syntaxError("Expected a ':' after a key");
+			}
+
+			if (KEY_CHILD_SHAPES.equals(key)) {
+				childShapes = readChildShapes(x, parser, shapes, depth + 1);
+			} else {
+				Object value = x.nextValue();
+				if (KEY_RESOURCE_ID.equals(key)) {
+					resourceId = value.toString();
+				} else if (KEY_PROPERTIES.equals(key)) {
+					properties = toJSONObject(x, key, value);
+				} else if (KEY_STENCIL.equals(key)) {
+					stencil = toJSONObject(x, key, value);
+				} else if (KEY_BOUNDS.equals(key)) {
+					bounds = toJSONObject(x, key, value);
+				} else if (KEY_OUTGOING.equals(key)) {
+					if (!(value instanceof JSONArray)) {
+						throw x.syntaxError("JSONObject[\"" + key + "\"] is not a JSONArray.");
+					}
+					outgoing = (JSONArray) value;
+				}
+			}
+
+			switch (x.nextClean()) {
+			case ';':
+			case ',':
+				if (x.nextClean() == '}') {
+					return finishShape(parser, shapes, depth, resourceId, properties, stencil, bounds, outgoing, childShapes);
+				}
+				x.back();
+				break;
+			case '}':
+				return finishShape(parser, shapes, depth, resourceId, properties, stencil, bounds, outgoing, childShapes);
+			default:
+				throw x.syntaxError("Expected a ',' or '}'");
+			}
+		}
+	}
+
+	/**
+	 * Reads the array of child shapes, whose key has already been read, and hands each child shape
+	 * over to the given parser.
+	 * @param x the tokener to read from
+	 * @param parser the parser to hand the shapes over to
+	 * @param shapes all shapes read so far by resource id
+	 * @param depth the nesting depth of the child shapes
+	 * @return the child shapes in the order of the JSON array
+	 * @throws JSONException if the JSON could not be parsed
+	 */
+	private ArrayList<Shape> readChildShapes(JSONTokener x, IShapeParser parser, Map<String, Shape> shapes, int depth) throws JSONException {
+		ArrayList<Shape> childShapes = new ArrayList<Shape>();
+		if (x.nextClean() != '[') {
+			throw x.syntaxError("JSONObject[\"" + KEY_CHILD_SHAPES + "\"] is not a JSONArray.");
+		}
+		if (x.nextClean() == ']') {
+			return childShapes;
+		}
+		x.back();
+		for (;;) {
+			if (x.nextClean() != '{') {
+				throw x.syntaxError("JSONArray[" + childShapes.size() + "] is not a JSONObject.");
+			}
+			childShapes.add(readShape(x, parser, shapes, depth));
+			switch (x.nextClean()) {
+			case ';':
+			case ',':
+				if (x.nextClean() == ']') {
+					return childShapes;
+				}
+				x.back();
+				break;
+			case ']':
+				return childShapes;
+			default:
+				throw x.syntaxError("Expected a ',' or ']'");
+			}
+		}
+	}
+
+	/**
+	 * Creates the shape from the read values like {@link DiagramBuilder} and hands it over to the parser,
+	 * unless it is the canvas. As in {@link DiagramBuilder}, only the values of shapes having child shapes
+	 * are set.
+	 * @return the finished shape
+	 * @throws JSONException if a resource id is missing or a value has an unexpected type
+	 */
+	private Shape finishShape(IShapeParser parser, Map<String, Shape> shapes, int depth, String resourceId,
+			JSONObject properties, JSONObject stencil, JSONObject bounds, JSONArray outgoing,
+			ArrayList<Shape> childShapes) throws JSONException {
+		if (resourceId == null) {
+			throw new JSONException("JSONObject[\"" + KEY_RESOURCE_ID + "\"] not found.");
+		}
+		Shape shape;
+		if (depth == 0) {
+			shape = new Shape(resourceId);
+		} else {
+			shape = getShape(shapes, resourceId);
+		}
+		if (childShapes != null) {
+			if (stencil != null) {
+				shape.setStencil(new StencilType(stencil.has(KEY_ID) ? stencil.getString(KEY_ID) : "", null));
+			}
+			if (properties != null) {
+				setProperties(shape, properties);
+			}
+			if (outgoing != null) {
+				ArrayList<Shape> outgoings = new ArrayList<Shape>();
+				for (int i = 0; i < outgoing.length(); i++) {
+					Shape target = getShape(shapes, outgoing.getJSONObject(i).getString(KEY_RESOURCE_ID));
+					outgoings.add(target);
+					target.addIncoming(shape);
+				}
+				shape.setOutgoings(outgoings);
+			}
+			for (Shape child : childShapes) {
+				child.setParent(shape);
+			}
+			shape.setChildShapes(childShapes);
+			if (bounds != null) {
+				JSONObject lowerRight = bounds.getJSONObject(KEY_LOWER_RIGHT);
+				JSONObject upperLeft = bounds.getJSONObject(KEY_UPPER_LEFT);
+				shape.setBounds(new Bounds(
+						new Point(lowerRight.getDouble(KEY_X), lowerRight.getDouble(KEY_Y)),
+						new Point(upperLeft.getDouble(KEY_X), upperLeft.getDouble(KEY_Y))));
+			}
+		}
+		if (depth > 0) {
+			parser.transformShape(shape, depth);
+		}
+		return shape;
+	}
+
+	/**
+	 * Sets the properties of the given shape and removes the glossary links like {@link DiagramBuilder}.
+	 * @param shape the shape to set the properties of
+	 * @param properties the JSON object containing the properties
+	 * @throws JSONException if a value is missing
+	 */
+	private void setProperties(Shape shape, JSONObject properties) throws JSONException {
+		Iterator<?> keys = properties.keys();
+		while (keys.hasNext()) {
+			String key = (String) keys.next();
+			String value = properties.getString(key);
+			StringBuilder result = new StringBuilder();
+			int last = 0;
+			Matcher matcher = GLOSSARY_PATTERN.matcher(value);
+			while (matcher.find()) {
+				shape.addGlossaryIds(matcher.group(1));
+				result.append(matcher.group(2));
+				last = matcher.end();
+			}
+			result.append(value.substring(last));
+			shape.putProperty(key, result.toString());
+		}
+	}
+
+	/**
+	 * @return the shape having the given resource id, which is created if it has not been read so far
+	 */
+	private Shape getShape(Map<String, Shape> shapes, String resourceId) {
+		Shape shape = shapes.get(resourceId);
+		if (shape == null) {
+			shape = new Shape(resourceId);
+			shapes.put(resourceId, shape);
+		}
+		return shape;
+	}
+
+	private JSONObject toJSONObject(JSONTokener x, String key, Object value) throws JSONException {
+		if (!(value instanceof JSONObject)) {
+			throw x.syntaxError("JSONObject[\"" + key + "\"] is not a JSONObject.");
+		}
+		return (JSONObject) value;
+	}
+
+	/**
+	 * Looks up the namespace of the diagram's stencil set without parsing the JSON. Only the brackets,
+	 * double quoted strings and colons are taken into account.
+	 * @param json the bytes of the JSON
+	 * @return the namespace or <code>null</code> if it could not be found
+	 * @throws JSONException if the namespace could not be decoded
+	 */
+	static String findStencilSetNamespace(byte[] json) throws JSONException {
+		int depth = 0;
+		int stringStart = -1;
+		int stringEnd = -1;
+		boolean stencilSetFollows = false;
+		boolean inStencilSet = false;
+		for (int i = 0; i < json.length; i++) {
+			switch (json[i]) {
+			case '"':
+				stringStart = i;
+				i++;
+				while (i < json.length && json[i] != '"') {
+					if (json[i] == '\\') {
+						i++;
+					}
+					i++;
+				}
+				if (i >= json.length) {
+					return null;
+				}
+				stringEnd = i;
+				break;
+			case '{':
+			case '[':
+				depth++;
+				if (depth == 2) {
+					inStencilSet = stencilSetFollows && json[i] == '{';
+				}
+				stencilSetFollows = false;
+				break;
+			case '}':
+			case ']':
+				if (inStencilSet && depth == 2) {
+					//stencil set without namespace
+					return null;
+				}
+				depth--;
+				break;
+			case ':':
+				if (depth == 1) {
+					stencilSetFollows = isKey(json, stringStart, stringEnd, KEY_STENCIL_SET);
+				} else if (inStencilSet && depth == 2 && isKey(json, stringStart, stringEnd, KEY_NAMESPACE)) {
+					return readString(json, i + 1);
+				}
+				break;
+			default:
+				break;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return <code>true</code> if the quoted string between the given indices is equal to the given key
+	 */
+	private static boolean isKey(byte[] json, int stringStart, int stringEnd, byte[] key) {
+		if (stringStart < 0 || stringEnd - stringStart - 1 != key.length) {
+			return false;
+		}
+		for (int i = 0; i < key.length; i++) {
+			if (json[stringStart + 1 + i] != key[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the decoded double quoted string starting after the given index or <code>null</code> if
+	 * there is no such string
+	 */
+	private static String readString(byte[] json, int index) throws JSONException {
+		while (index < json.length && Character.isWhitespace(json[index])) {
+			index++;
+		}
+		if (index >= json.length || json[index] != '"') {
+			return null;
+		}
+		int end = index + 1;
+		while (end < json.length && json[end] != '"') {
+			if (json[end] == '\\') {
+				end++;
+			}
+			end++;
+		}
+		if (end >= json.length) {
+			return null;
+		}
+		return new JSONTokener(new String(json, index, end - index + 1, UTF8)).nextValue().toString();
+	}
+}
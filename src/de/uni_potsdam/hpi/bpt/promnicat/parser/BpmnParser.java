@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import org.jbpt.hypergraph.abs.IVertex;
@@ -62,13 +63,13 @@ import de.uni_potsdam.hpi.bpt.ai.diagram.Shape;
  * @author Cindy Fähnrich, Tobias Hoppe
  *
  */
-public class BpmnParser implements IParser {
+public class BpmnParser implements IShapeParser {
 
 	private final static Logger logger = Logger.getLogger(BpmnParser.class.getName());
-	public IBpmnConstants constants;
+	public final IBpmnConstants constants;
 	public Diagram diagram = null;
 	public Bpmn<BpmnControlFlow<FlowNode>, FlowNode> process = null;
-	public boolean strictness = false;
+	public final boolean strictness;
 	public boolean error = false;
 	
 	/**
@@ -100,6 +101,37 @@ public class BpmnParser implements IParser {
 	 */
 	public Vector<Shape> assocs = new Vector<Shape>();
 	
+	/**
+	 * Contains all intermediate events and their shapes - needed because the connected shapes
+	 * may be parsed later than the event
+	 */
+	public Vector<Entry<Shape, BpmnEvent>> intermediateEvents = new Vector<Entry<Shape, BpmnEvent>>();
+	
+	/**
+	 * The kinds of shapes a stencil id can be mapped to
+	 */
+	public enum StencilKind {
+		TASK, SUBPROCESS, XOR_GATEWAY, AND_GATEWAY, OR_GATEWAY, ALTERNATIVE_GATEWAY, EVENTBASED_GATEWAY,
+		RESOURCE, DOCUMENT, START_EVENT, END_EVENT, THROWING_EVENT, CATCHING_EVENT, SEQUENCE_FLOW,
+		MESSAGE_FLOW, ASSOCIATION, NONE
+	}
+	
+	/**
+	 * Maximum number of stencil ids kept in the registry of one constants set
+	 */
+	private static final int MAX_STENCIL_IDS = 1024;
+	
+	/**
+	 * Registry of the already classified stencil ids for each implementation of {@link IBpmnConstants}
+	 */
+	private static final ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, StencilKind>> STENCIL_REGISTRY = 
+			new ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, StencilKind>>();
+	
+	/**
+	 * The classified stencil ids of the constants used by this parser
+	 */
+	private final ConcurrentHashMap<String, StencilKind> stencilKinds;
+	
 	/**
 	 * Set the constants set in the constructor
 	 * @param constants
@@ -107,17 +139,22 @@ public class BpmnParser implements IParser {
 	public BpmnParser(IBpmnConstants constants, boolean strictness) {
 		this.strictness = strictness;
 		this.constants = constants;
+		ConcurrentHashMap<String, StencilKind> kinds = new ConcurrentHashMap<String, StencilKind>();
+		ConcurrentHashMap<String, StencilKind> registered = STENCIL_REGISTRY.putIfAbsent(constants.getClass(), kinds);
+		this.stencilKinds = registered == null ? kinds : registered;
 	}
 	
 	/**
 	 * Clear the instance variables, in case the parser has to parse a new diagram
 	 */
 	public void clear(){
+		this.error = false;
 		this.assocs.clear();
 		this.attachedEvents.clear();
 		this.controlflowIds.clear();
 		this.diagram = null;
 		this.flows.clear();
+		this.intermediateEvents.clear();
 		this.process = new Bpmn<BpmnControlFlow<FlowNode>, FlowNode>();
 		this.messageflowIds.clear();
 		this.nodeIds.clear();
@@ -128,13 +165,32 @@ public class BpmnParser implements IParser {
 	 */
 	@Override
 	public ProcessModel transformProcess(Diagram diagram) {
-		clear();
-		this.process.setName(diagram.getProperty(constants.getPropertyTitle()));
+		startProcess();
 		
 		//invoke transformation of nodes
 		List<Shape> shapes = diagram.getChildShapes();
 		transformShapes(shapes);
 		
+		return finishProcess(diagram);
+	}
+	
+	@Override
+	public void startProcess() {
+		clear();
+	}
+	
+	@Override
+	public void transformShape(Shape shape, int depth) {
+		Vertex node = parseIds(shape);
+		if (node != null && node instanceof Subprocess){
+			addChildNodes(shape, (Subprocess)node);
+		}
+	}
+	
+	@Override
+	public ProcessModel finishProcess(Shape canvas) {
+		this.process.setName(canvas.getProperty(constants.getPropertyTitle()));
+		
 		//create flows at last here, since the connected nodes may be parsed later than the actual relation otherwise
 		for (Shape s : flows){
 			createFlows(s);
@@ -144,6 +200,10 @@ public class BpmnParser implements IParser {
 			createAssociation(s);
 		}
 		
+		for (Entry<Shape, BpmnEvent> event : intermediateEvents){
+			checkForAttached(event.getKey(), event.getValue());
+		}
+		
 		for (String key : attachedEvents.keySet()){
 			BpmnControlFlow<FlowNode> flow = this.controlflowIds.get(key);
 			BpmnEvent event = this.attachedEvents.get(key);
@@ -162,8 +222,7 @@ public class BpmnParser implements IParser {
 	 * @param s the flow shape
 	 */
 	public void createFlows(Shape s){
-		String id = s.getStencilId();
-		if (id.contains(constants.getEntityMessageflow())){
+		if (getStencilKind(s.getStencilId()) == StencilKind.MESSAGE_FLOW){
 			createMessageFlow(s);
 		} else {//otherwise it is a sequence flow
 			createSequenceFlow(s);
@@ -176,14 +235,20 @@ public class BpmnParser implements IParser {
 	 * @param sList List of Shapes to transform
 	 */
 	public void transformShapes(List<Shape> sList){
+		transformShapes(sList, 1);
+	}
+	
+	/**
+	 * Recursive method for parsing all subshapes of a shape.
+	 * @param sList List of Shapes to transform
+	 * @param depth the nesting depth of the shapes
+	 */
+	private void transformShapes(List<Shape> sList, int depth){
 		for (Shape subshape : sList){
 			if (subshape.getChildShapes().size() != 0){//invoke recursion if shape has childshapes
-				transformShapes(subshape.getChildShapes());
+				transformShapes(subshape.getChildShapes(), depth + 1);
 			} 
-			Vertex node = parseIds(subshape);
-			if (node != null && node instanceof Subprocess){
-				addChildNodes(subshape, (Subprocess)node);
-			}
+			transformShape(subshape, depth);
 		}
 	}
 	
@@ -218,55 +283,119 @@ public class BpmnParser implements IParser {
 	 * @param s shape to map
 	 */
 	public Vertex parseIds(Shape s){
-		String id = s.getStencilId();
-		if (id.contains(constants.getEntityTask())){
+		switch (getStencilKind(s.getStencilId())) {
+		case TASK:
 			return createTask(s);
+		case SUBPROCESS:
+			return createSubprocess(s);
+		case XOR_GATEWAY:
+			return createXorGateway(s);
+		case AND_GATEWAY:
+			return createAndGateway(s);
+		case OR_GATEWAY:
+			return createOrGateway(s);
+		case ALTERNATIVE_GATEWAY:
+			return createAlternativeGateway(s);
+		case EVENTBASED_GATEWAY:
+			return createEventbasedGateway(s);
+		case RESOURCE:
+			return createResource(s);
+		case DOCUMENT:
+			return createDocument(s);
+		case START_EVENT:
+			return createStartEvent(s);
+		case END_EVENT:
+			return createEndEvent(s);
+		case THROWING_EVENT:
+			return createIntermediateThrowingEvent(s);
+		case CATCHING_EVENT:
+			return createIntermediateCatchingEvent(s);
+		case SEQUENCE_FLOW:
+		case MESSAGE_FLOW:
+			flows.add(s);
+			return null;
+		case ASSOCIATION:
+			assocs.add(s);
+			return null;
+		default:
+			return null;
+		}
+	}
+	
+	/**
+	 * Returns the kind of shape the given stencil id stands for. The stencil ids are classified only
+	 * once for each implementation of {@link IBpmnConstants}, later lookups are answered from the
+	 * registry.
+	 * @param id the stencil id of a shape
+	 * @return the kind of the shape
+	 */
+	public StencilKind getStencilKind(String id){
+		StencilKind kind = this.stencilKinds.get(id);
+		if (kind == null){
+			kind = classifyStencil(id);
+			if (this.stencilKinds.size() < MAX_STENCIL_IDS){
+				this.stencilKinds.put(id, kind);
 			}
+		}
+		return kind;
+	}
+	
+	/**
+	 * Classifies the given stencil id by the entity names of the constants. Since some entity names
+	 * are contained in others, the order of the checks matters.
+	 * @param id the stencil id of a shape
+	 * @return the kind of the shape
+	 */
+	private StencilKind classifyStencil(String id){
+		if (id.contains(constants.getEntityTask())){
+			return StencilKind.TASK;
+		}
 		if (id.contains(constants.getEntitySubprocess())){
-			return createSubprocess(s);
+			return StencilKind.SUBPROCESS;
 		}
 		if (id.contains(constants.getEntityGatewayXor())){
-			return createXorGateway(s);
+			return StencilKind.XOR_GATEWAY;
 		}
 		if (id.contains(constants.getEntityGatewayAnd())){
-			return createAndGateway(s);
+			return StencilKind.AND_GATEWAY;
 		}
 		if (id.contains(constants.getEntityGatewayOr())){
-			return createOrGateway(s);
+			return StencilKind.OR_GATEWAY;
 		}
 		if (id.contains(constants.getEntityGatewayAlternative())){
-			return createAlternativeGateway(s);
+			return StencilKind.ALTERNATIVE_GATEWAY;
 		}
 		if (id.contains(constants.getEntityGatewayEventbased())){
-			return createEventbasedGateway(s);
+			return StencilKind.EVENTBASED_GATEWAY;
 		}
 		if (id.contains(constants.getEntityLane()) || id.contains(constants.getEntityPool())){
-			return createResource(s);
+			return StencilKind.RESOURCE;
 		}
 		if (id.contains(constants.getEntityData())){
-			return createDocument(s);
+			return StencilKind.DOCUMENT;
 		}
 		if (id.contains(constants.getEntityEventStart())){
-			return createStartEvent(s);
+			return StencilKind.START_EVENT;
 		}
 		if (id.contains(constants.getEventEnd())){
-			return createEndEvent(s);
+			return StencilKind.END_EVENT;
 		}
 		if (id.contains(constants.getEntityEventThrowing())){
-			return createIntermediateThrowingEvent(s);
+			return StencilKind.THROWING_EVENT;
 		}
 		if (id.contains(constants.getEntityEventCatching()) || id.contains(constants.getEntityEventIntermediate())){
-			return createIntermediateCatchingEvent(s);
+			return StencilKind.CATCHING_EVENT;
 		}
-		if (id.contains(constants.getEntitySequenceflow()) || id.contains(constants.getEntityMessageflow())){
-			flows.add(s);
-			return null;
+		if (id.contains(constants.getEntityMessageflow())){
+			return StencilKind.MESSAGE_FLOW;
+		}
+		if (id.contains(constants.getEntitySequenceflow())){
+			return StencilKind.SEQUENCE_FLOW;
 		}
 		if (id.contains(constants.getEntityAssociation())){
-			assocs.add(s);
-			return null;
+			return StencilKind.ASSOCIATION;
 		}
-		return null;
+		return StencilKind.NONE;
 	}
 	
 	/**
@@ -443,7 +572,7 @@ public class BpmnParser implements IParser {
 		CatchingEvent f = new CatchingEvent();
 		prepareNode(s, f);
 		prepareEvent(s,f);
-		checkForAttached(s,f);
+		this.intermediateEvents.add(new AbstractMap.SimpleEntry<Shape, BpmnEvent>(s, f));
 		this.process.addFlowNode(f);
 		return f;
 	}
@@ -457,7 +586,7 @@ public class BpmnParser implements IParser {
 		ThrowingEvent f = new ThrowingEvent();
 		prepareNode(s, f);
 		prepareEvent(s,f);
-		checkForAttached(s,f);
+		this.intermediateEvents.add(new AbstractMap.SimpleEntry<Shape, BpmnEvent>(s, f));
 		this.process.addFlowNode(f);
 		return f;
 	}
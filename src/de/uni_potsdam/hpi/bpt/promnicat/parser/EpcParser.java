@@ -44,12 +44,12 @@ import de.uni_potsdam.hpi.bpt.ai.diagram.Shape;
  * @author Cindy Fähnrich, Tobias Hoppe
  *
  */
-public class EpcParser implements IParser {
+public class EpcParser implements IShapeParser {
 	
 	private final static Logger logger = Logger.getLogger(EpcParser.class.getName());
 	public Diagram diagram = null;
 	public Epc process = null;
-	public boolean strictness = false;
+	public final boolean strictness;
 	public boolean error = false;
 	
 	/**
@@ -70,6 +70,7 @@ public class EpcParser implements IParser {
 	 * Clears all the variables for next parse
 	 */
 	public void clear(){
+		this.error = false;
 		this.diagram = null;
 		this.process = new Epc();
 		this.edges.clear();
@@ -83,14 +84,33 @@ public class EpcParser implements IParser {
 	 * @return the resulting EPC process model
 	 */
 	public ProcessModel transformProcess(Diagram diagram){
-		clear();
-		this.process.setName(diagram.getProperty(EpcConstants.PROPERTY_TITLE));
+		startProcess();
 		
 		//EPC processes do only have one level of childshapes (no pools/lanes), no recursion needed here
 		List<Shape> shapes = diagram.getChildShapes();
 		for (Shape s : shapes){
-			parseIds(s);
+			transformShape(s, 1);
+		}
+		
+		return finishProcess(diagram);
+	}
+	
+	@Override
+	public void startProcess() {
+		clear();
+	}
+	
+	@Override
+	public void transformShape(Shape shape, int depth) {
+		//nested shapes are not part of an EPC
+		if (depth == 1){
+			parseIds(shape);
 		}
+	}
+	
+	@Override
+	public ProcessModel finishProcess(Shape canvas) {
+		this.process.setName(canvas.getProperty(EpcConstants.PROPERTY_TITLE));
 		
 		//create relations at last here, since the connected nodes may be parsed later than the relation otherwise
 		for (Shape s : edges){
@@ -111,35 +131,40 @@ public class EpcParser implements IParser {
 		String id = s.getStencil().getId();
 		Vertex v = null;
 		
-		if (id.equals(EpcConstants.ENTITY_FUNCTION)){
+		//the stencil ids of EPCs are matched exactly, hence dispatch by their hash
+		switch (id) {
+		case EpcConstants.ENTITY_FUNCTION:
 			v = createFunction(s);
-		}
-		if (id.equals(EpcConstants.ENTITY_EVENT)){
+			break;
+		case EpcConstants.ENTITY_EVENT:
 			v = createEvent(s);
-		}
-		if (id.equals(EpcConstants.ENTITY_XORCONNECTOR)){
+			break;
+		case EpcConstants.ENTITY_XORCONNECTOR:
 			v = createXorConnector(s);
-		}
-		if (id.equals(EpcConstants.ENTITY_ORCONNECTOR)){
+			break;
+		case EpcConstants.ENTITY_ORCONNECTOR:
 			v = createOrConnector(s);
-		}
-		if (id.equals(EpcConstants.ENTITY_ANDCONNECTOR)){
+			break;
+		case EpcConstants.ENTITY_ANDCONNECTOR:
 			v = createAndConnector(s);
-		}
-		if (id.equals(EpcConstants.ENTITY_CONTROLFLOW) || id.equals(EpcConstants.ENTITY_RELATION)){
+			break;
+		case EpcConstants.ENTITY_CONTROLFLOW:
+		case EpcConstants.ENTITY_RELATION:
 			edges.add(s);
 			return;
-		}
-		if (id.equals(EpcConstants.ENTITY_PROCESSINTERFACE)){
+		case EpcConstants.ENTITY_PROCESSINTERFACE:
 			v = createProcessInterface(s);
-		}
-		if (id.equals(EpcConstants.ENTITY_POSITION) || id.equals(EpcConstants.ENTITY_ORGANIZATION) || id.equals(EpcConstants.ENTITY_ORGANIZATIONUNIT)){
+			break;
+		case EpcConstants.ENTITY_POSITION:
+		case EpcConstants.ENTITY_ORGANIZATION:
+		case EpcConstants.ENTITY_ORGANIZATIONUNIT:
 			createResource(s);
 			return;
-		}
-		if (id.equals(EpcConstants.ENTITY_DATA)){
+		case EpcConstants.ENTITY_DATA:
 			createDataObject(s);
 			return;
+		default:
+			break;
 		}
 		if (v != null) {
 			v.setId(s.getResourceId());
@@ -153,11 +178,12 @@ public class EpcParser implements IParser {
 	 * @param Shape s, which is an edge
 	 */
 	private void createEdges(Shape s){
-		if (s.getStencil().getId().equals(EpcConstants.ENTITY_RELATION)){
+		String id = s.getStencil().getId();
+		if (id.equals(EpcConstants.ENTITY_RELATION)){
 			createRelation(s);
 			return;
 		}
-		if (s.getStencil().getId().equals(EpcConstants.ENTITY_CONTROLFLOW)){
+		if (id.equals(EpcConstants.ENTITY_CONTROLFLOW)){
 			createControlFlow(s);
 			return;
 		}
@@ -0,0 +1,53 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.parser;
+
+import org.jbpt.pm.ProcessModel;
+
+import de.uni_potsdam.hpi.bpt.ai.diagram.Diagram;
+import de.uni_potsdam.hpi.bpt.ai.diagram.Shape;
+
+/**
+ * Interface for parsers, that transform the shapes of a process model one after another.
+ * Thus, the shapes can be handed over while they are read and no complete {@link Diagram} is needed.
+ * @author Tobias Hoppe
+ *
+ */
+public interface IShapeParser extends IParser {
+
+	/**
+	 * Prepares the parser for the transformation of a new process model.
+	 */
+	public void startProcess();
+	
+	/**
+	 * Transforms the given shape. The child shapes of the given shape have been transformed before.
+	 * The shapes connected to the given shape may be transformed later on.
+	 * @param shape the shape to transform
+	 * @param depth the nesting depth of the shape, 1 for the child shapes of the diagram
+	 */
+	public void transformShape(Shape shape, int depth);
+	
+	/**
+	 * Connects the transformed shapes and returns the resulting process model.
+	 * @param canvas the shape containing the properties of the process model
+	 * @return the corresponding process model or <code>null</code> if it is erroneous
+	 */
+	public ProcessModel finishProcess(Shape canvas);
+
+}
@@ -27,40 +27,79 @@ import de.uni_potsdam.hpi.bpt.ai.diagram.Diagram;
 /**
  * Parser for transforming a given JSON process model into jBPT format. Delegates the transformation
  * to the actually responsible parsers (EPC, BPMN).
+ * <br/>
+ * A ModelParser can be shared by several threads: its configuration does not change after construction
+ * and each thread gets its own set of delegate parsers, whose per-model state is reset and reused
+ * for every model that thread transforms.
  * @author Cindy Fähnrich, Tobias Hoppe
  *
  */
 public class ModelParser implements IParser {
 
 	/**
-	 * Hashmap for delegater parsers
+	 * Indicates whether only "correct" process models are parsed (true) or also
+	 * the erroneous ones (false)
 	 */
-	private HashMap<String, IParser> delegates;
+	private final boolean strictness;
+	
+	/**
+	 * Hashmap for delegater parsers of each thread
+	 */
+	private final ThreadLocal<HashMap<String, IShapeParser>> delegates = new ThreadLocal<HashMap<String, IShapeParser>>() {
+		@Override
+		protected HashMap<String, IShapeParser> initialValue() {
+			return createDelegates();
+		}
+	};
 
 	public ModelParser() {
 		this(false);
 	}
 	
 	public ModelParser(boolean strictness) {
-		delegates = new HashMap<String, IParser>();
-
-		delegates.put("bpmn2.0#", new BpmnParser(new Bpmn2_0Constants(), strictness));
-		delegates.put("bpmn1.1#", new BpmnParser(new Bpmn1_1Constants(), strictness));
-		delegates.put("epc#", new EpcParser(new EpcConstants(), strictness));
+		this.strictness = strictness;
+	}
+	
+	/**
+	 * Creates the delegate parsers for the different stencil sets.
+	 * @return the delegate parsers indexed by stencil set
+	 */
+	private HashMap<String, IShapeParser> createDelegates() {
+		HashMap<String, IShapeParser> delegates = new HashMap<String, IShapeParser>();
+		delegates.put("bpmn2.0#", new BpmnParser(new Bpmn2_0Constants(), this.strictness));
+		delegates.put("bpmn1.1#", new BpmnParser(new Bpmn1_1Constants(), this.strictness));
+		delegates.put("epc#", new EpcParser(new EpcConstants(), this.strictness));
+		return delegates;
+	}
+	
+	/**
+	 * @return <code>true</code> if only "correct" process models are parsed
+	 */
+	public boolean isStrict() {
+		return this.strictness;
 	}
 
 	@Override
 	public ProcessModel transformProcess(Diagram process){
-
-		String namespace = process.getStencilset().getNamespace();
-		String stencilset = namespace.substring(namespace.lastIndexOf("/") + 1);
-
-		IParser parser = this.delegates.get(stencilset);
+		IShapeParser parser = getShapeParser(process.getStencilset().getNamespace());
 		if (parser != null) {
 			return parser.transformProcess(process);
-		} else {
+		}
+		return null;
+	}
+	
+	/**
+	 * Returns the parser of the calling thread, that is responsible for the given stencil set.
+	 * @param namespace the namespace of the process model's stencil set
+	 * @return the responsible parser or <code>null</code> if the stencil set is not supported
+	 */
+	public IShapeParser getShapeParser(String namespace){
+		String stencilset = namespace.substring(namespace.lastIndexOf("/") + 1);
+
+		IShapeParser parser = this.delegates.get().get(stencilset);
+		if (parser == null) {
 			Logger.getLogger(ModelParser.class.getName()).warning("Model with stencilset '" + stencilset + "' could not be parsed!");
-			return null;
 		}
+		return parser;
 	}
 }
@@ -0,0 +1,69 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.persistenceApi;
+
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering.ClusterModel;
+
+/**
+ * A {@link ClusterModelStorage} keeps a serialized {@link ClusterModel} under a unique name.
+ * It is used to assign newly imported models to the clusters of an earlier clustering.
+ */
+public class ClusterModelStorage extends AbstractPojo {
+
+	// the name the cluster model is stored with
+	private String name = "";
+	// the serialized cluster model
+	private byte[] content = null;
+
+	public ClusterModelStorage() {
+	}
+
+	public ClusterModelStorage(String name) {
+		super();
+		this.name = name;
+	}
+
+	@Override
+	public String toString() {
+		return "ClusterModelStorage [dbId=" + dbId 
+								+ ", name=" + name
+								+ ", content=" + (content == null ? 0 : content.length) + " bytes"
+								+ "]";
+	}
+
+	/**
+	 * @return the name the cluster model is stored with
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the serialized cluster model
+	 */
+	public byte[] getContent() {
+		return content;
+	}
+
+	/**
+	 * @param content the serialized cluster model to set
+	 */
+	public void setContent(byte[] content) {
+		this.content = content;
+	}
+}
@@ -19,6 +19,7 @@ package de.uni_potsdam.hpi.bpt.promnicat.persistenceApi;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Observer;
 
 /**
@@ -168,6 +169,21 @@ public interface IPersistenceApi {
 	 * @return all found objects loaded recursively
 	 */
 	public List<Object> load(String noSql);
+	/**
+	 * Loads the imported ids of all {@link Model}s of the given origin without loading the {@link Model}s.
+	 * 
+	 * @param origin the origin of the {@link Model}s, e.g. {@link de.uni_potsdam.hpi.bpt.promnicat.util.Constants#ORIGIN_BPMAI}
+	 * @return a mapping from imported id to database id
+	 */
+	public Map<String, String> loadImportedIds(String origin);
+	/**
+	 * Loads the revision numbers of the latest {@link Revision}s of all {@link Model}s of the given origin
+	 * without loading the {@link Model}s.
+	 * 
+	 * @param origin the origin of the {@link Model}s, e.g. {@link de.uni_potsdam.hpi.bpt.promnicat.util.Constants#ORIGIN_BPMAI}
+	 * @return a mapping from imported id to the number of the latest {@link Revision}
+	 */
+	public Map<String, Integer> loadLatestRevisionNumbers(String origin);
 	
 	//--------------------------------------------------------------------------------------------
 	//---------------------------------- load asynchronously -------------------------------------
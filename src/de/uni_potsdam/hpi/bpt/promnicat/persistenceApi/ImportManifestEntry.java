@@ -0,0 +1,135 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.persistenceApi;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * An {@link ImportManifestEntry} remembers the state of an imported file at the time of its import.
+ * It is used to skip files that have not been changed since the last import of the same origin.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+public class ImportManifestEntry extends AbstractPojo {
+
+	// the origin of the imported models, such as BPMAI or NPB
+	private String origin = "";
+	// the canonical path of the imported file
+	private String path = "";
+	// the size of the file in bytes
+	private long size = 0;
+	// the last modification time stamp of the file
+	private long lastModified = 0;
+	// the hex encoded content hash of the file
+	private String contentHash = "";
+	// the database ids of the models imported from the file
+	private ArrayList<String> modelDbIds = new ArrayList<String>();
+
+	public ImportManifestEntry() {
+	}
+
+	public ImportManifestEntry(String origin, String path) {
+		super();
+		this.origin = origin;
+		this.path = path;
+	}
+
+	@Override
+	public String toString() {
+		return "ImportManifestEntry [dbId=" + dbId 
+								+ ", origin=" + origin
+								+ ", path=" + path
+								+ ", size=" + size
+								+ ", lastModified=" + lastModified
+								+ ", contentHash=" + contentHash
+								+ ", modelDbIds=" + modelDbIds
+								+ "]";
+	}
+
+	/**
+	 * @return the origin of the imported models
+	 */
+	public String getOrigin() {
+		return origin;
+	}
+
+	/**
+	 * @return the canonical path of the imported file
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * @return the size of the imported file in bytes
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * @param size the size of the imported file in bytes
+	 */
+	public void setSize(long size) {
+		this.size = size;
+	}
+
+	/**
+	 * @return the last modification time stamp of the imported file
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * @param lastModified the last modification time stamp of the imported file
+	 */
+	public void setLastModified(long lastModified) {
+		this.lastModified = lastModified;
+	}
+
+	/**
+	 * @return the hex encoded content hash of the imported file
+	 */
+	public String getContentHash() {
+		return contentHash;
+	}
+
+	/**
+	 * @param contentHash the hex encoded content hash of the imported file
+	 */
+	public void setContentHash(String contentHash) {
+		this.contentHash = contentHash;
+	}
+
+	/**
+	 * @return the database ids of the models imported from the file
+	 */
+	public Collection<String> getModelDbIds() {
+		return modelDbIds;
+	}
+
+	/**
+	 * @param modelDbIds the database ids of the models imported from the file
+	 */
+	public void setModelDbIds(Collection<String> modelDbIds) {
+		this.modelDbIds = new ArrayList<String>(modelDbIds);
+	}
+}
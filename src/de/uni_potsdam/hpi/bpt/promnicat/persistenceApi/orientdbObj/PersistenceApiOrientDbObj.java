@@ -20,8 +20,10 @@ package de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.orientdbObj;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Observer;
 import java.util.logging.Logger;
 
@@ -37,6 +39,7 @@ import com.orientechnologies.orient.core.exception.OSerializationException;
 import com.orientechnologies.orient.core.id.ORecordId;
 import com.orientechnologies.orient.core.intent.OIntentMassiveRead;
 import com.orientechnologies.orient.core.iterator.OObjectIteratorMultiCluster;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.sql.OCommandSQL;
@@ -46,8 +49,10 @@ import com.orientechnologies.orient.core.sql.query.OSQLAsynchQuery;
 import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
 
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.AbstractPojo;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.ClusterModelStorage;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.DbFilterConfig;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.ImportManifestEntry;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Model;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Representation;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Revision;
@@ -149,6 +154,7 @@ public class PersistenceApiOrientDbObj implements IPersistenceApi {
 		if (db.isClosed()) {
 			db.open(user, password);
 			loadIndexMngr();
+			createImportedIdIndex();
 			logger.info("Opened database at " + dbPath);
 		}
 		OGlobalConfiguration.FILE_MMAP_MAX_MEMORY.setValue(memorySize);
@@ -171,11 +177,31 @@ public class PersistenceApiOrientDbObj implements IPersistenceApi {
 		Representation rep = new Representation();
 		db.save(rep);
 		db.delete(rep);
+		ImportManifestEntry entry = new ImportManifestEntry();
+		db.save(entry);
+		db.delete(entry);
 		
 		//for StringIndex
 		executeCommand("CREATE PROPERTY StringIndexStorage.key STRING");
 		//for IndexManager
 		createIndexManager();
+		//for model look up during import
+		createImportedIdIndex();
+	}
+	
+	/**
+	 * Creates an index on the imported id of {@link Model}s, if it does not exist yet.
+	 * The index is not unique, because {@link Model}s created without imported id share the empty one.
+	 */
+	private void createImportedIdIndex() {
+		OClass modelClass = db.getMetadata().getSchema().getClass(DbConstants.CLS_MODEL);
+		if (modelClass == null || modelClass.areIndexed(DbConstants.ATTR_IMPORTED_ID)) {
+			return;
+		}
+		if (!modelClass.existsProperty(DbConstants.ATTR_IMPORTED_ID)) {
+			executeCommand("CREATE PROPERTY " + DbConstants.CLS_MODEL + "." + DbConstants.ATTR_IMPORTED_ID + " STRING");
+		}
+		executeCommand("CREATE INDEX " + DbConstants.CLS_MODEL + "." + DbConstants.ATTR_IMPORTED_ID + " NOTUNIQUE");
 	}
 	
 	/**
@@ -242,6 +268,8 @@ public class PersistenceApiOrientDbObj implements IPersistenceApi {
 		registerPojoClass(Model.class); 
 		registerPojoClass(Revision.class); 
 		registerPojoClass(Representation.class);
+		registerPojoClass(ImportManifestEntry.class);
+		registerPojoClass(ClusterModelStorage.class);
 		registerPojoClass(StringIndexStorage.class);
 		registerPojoClass(IndexManager.class);
 	}
@@ -478,8 +506,9 @@ public class PersistenceApiOrientDbObj implements IPersistenceApi {
 	 */
 	@Override
 	public Model loadCompleteModelWithImportedId(String id) {
+		//use equality instead of like to make use of the index
 		String sql = "SELECT FROM " + DbConstants.CLS_MODEL
-				+ " WHERE " +DbConstants.ATTR_IMPORTED_ID + " like '" + id + "'";
+				+ " WHERE " +DbConstants.ATTR_IMPORTED_ID + " = '" + id + "'";
 		List<? extends AbstractPojo> models = loadPojos(sql);
 		if (models.size() > 1){
 			throw new IllegalStateException("Model ids must be unique! But, got "
@@ -526,6 +555,38 @@ public class PersistenceApiOrientDbObj implements IPersistenceApi {
 		return db.query(new OSQLSynchQuery<Object>(noSql));
 	}
 	
+	/* (non-Javadoc)
+	 * @see de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi#loadImportedIds(java.lang.String)
+	 */
+	@Override
+	public Map<String, String> loadImportedIds(String origin) {
+		Map<String, String> importedIds = new HashMap<String, String>();
+		String sql = "SELECT " + DbConstants.ATTR_IMPORTED_ID + ", @rid AS rid FROM " + DbConstants.CLS_MODEL
+				+ " WHERE " + DbConstants.ATTR_ORIGIN + " = '" + origin + "'";
+		for(Object o : load(sql)) {
+			ODocument doc = (ODocument) o;
+			importedIds.put((String) doc.field(DbConstants.ATTR_IMPORTED_ID), doc.field("rid", ORecordId.class).toString());
+		}
+		return importedIds;
+	}
+
+	/* (non-Javadoc)
+	 * @see de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi#loadLatestRevisionNumbers(java.lang.String)
+	 */
+	@Override
+	public Map<String, Integer> loadLatestRevisionNumbers(String origin) {
+		Map<String, Integer> revisionNumbers = new HashMap<String, Integer>();
+		String sql = "SELECT " + DbConstants.ATTR_MODEL + "." + DbConstants.ATTR_IMPORTED_ID + " AS " + DbConstants.ATTR_IMPORTED_ID
+				+ ", " + DbConstants.ATTR_REVISION_NUMBER + " FROM " + DbConstants.CLS_REVISION
+				+ " WHERE " + DbConstants.ATTR_LATEST_REVISION + " = true"
+				+ " AND " + DbConstants.ATTR_MODEL + "." + DbConstants.ATTR_ORIGIN + " = '" + origin + "'";
+		for(Object o : load(sql)) {
+			ODocument doc = (ODocument) o;
+			revisionNumbers.put((String) doc.field(DbConstants.ATTR_IMPORTED_ID), (Integer) doc.field(DbConstants.ATTR_REVISION_NUMBER));
+		}
+		return revisionNumbers;
+	}
+
 	private List<AbstractPojo> loadPojos(String noSql) {
 		List<AbstractPojo> list = db.query(new OSQLSynchQuery<Object>(noSql));
 		return list;
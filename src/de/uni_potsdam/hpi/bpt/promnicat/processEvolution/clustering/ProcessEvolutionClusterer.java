@@ -32,6 +32,7 @@ import weka.core.EuclideanDistance;
 import weka.core.FastVector;
 import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering.ClusterNode;
 import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering.ClusterTree;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering.ColumnarProcessInstances;
 import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering.HierarchicalProcessClusterer;
 import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering.ProcessInstance;
 import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering.ProcessInstances;
@@ -54,6 +55,8 @@ public class ProcessEvolutionClusterer {
 	private final static String LINEBREAK = "\n";
 	private final static String CSV_DELIMITER= ";";
 	private final static String FILE_PATH = new File("").getAbsolutePath() + "/resources/new.cluster_results.csv";
+	private final static int MICRO_CLUSTER_BATCH_SIZE = 1000;
+	private final static int MICRO_CLUSTER_ITERATIONS = 100;
 	
 	/**
 	 * cluster the models according to the given configuration
@@ -69,7 +72,7 @@ public class ProcessEvolutionClusterer {
 
 		setClusterAttributes(configuration, clusterResultStringBuilder);
 		// cluster the models
-		ProcessInstances instances = getInstances(models, getNumericAttributes(configuration));
+		ColumnarProcessInstances instances = getInstances(models, getNumericAttributes(configuration));
 		clusterModels(instances, clusterResultStringBuilder);
 		// write the results into a file
 		writeResults(clusterResultStringBuilder);
@@ -93,13 +96,14 @@ public class ProcessEvolutionClusterer {
 
 	/**
 	 * The clusterer depends on a special format for the models to cluster, this methods converts
-	 * the models and the numeric values to cluster them by into the correct format
+	 * the models and the numeric values to cluster them by into the correct format.
+	 * The values are stored column-wise, rows are only created by the clusterer if needed.
 	 * @param models the models to cluster
 	 * @param numericAttributes the numeric attributes to cluster by
 	 * @return the instances that can be passed on to the clusterer
 	 */
-	private static ProcessInstances getInstances(Map<String, ProcessEvolutionModel> models, FastVector numericAttributes) {
-		ProcessInstances instances = new ProcessInstances("", numericAttributes, null, models.values().size());
+	private static ColumnarProcessInstances getInstances(Map<String, ProcessEvolutionModel> models, FastVector numericAttributes) {
+		ColumnarProcessInstances instances = new ColumnarProcessInstances(numericAttributes, null, models.values().size());
 		// every model's numeric values and the model itself are added to a ProcessInstance
 		for (ProcessEvolutionModel model : models.values()){
 			double[] values = new double[numericAttributes.size()];
@@ -125,6 +129,7 @@ public class ProcessEvolutionClusterer {
 		clusterer.setLinkType(linkType);
 		clusterer.setNumClusters(numClusters);
 		clusterer.setAttributes(extractedAttributes);
+		clusterer.setApproximateClustering(configuration.getNumMicroClusters(), MICRO_CLUSTER_BATCH_SIZE, MICRO_CLUSTER_ITERATIONS);
 		clusterer.setDebug(true);
 		addAttributesToResult(clusterResultStringBuilder, extractedAttributes, linkType, numClusters);
 	}
@@ -156,7 +161,7 @@ public class ProcessEvolutionClusterer {
 	 * @param instances
 	 * @param clusterResultStringBuilder 
 	 */
-	private static void clusterModels(ProcessInstances instances, StringBuilder clusterResultStringBuilder) {
+	private static void clusterModels(ColumnarProcessInstances instances, StringBuilder clusterResultStringBuilder) {
 		try {
 			clusterer.buildClusterer(instances);
 			ClusterTree<ProcessInstances> clusters = clusterer.getClusters();
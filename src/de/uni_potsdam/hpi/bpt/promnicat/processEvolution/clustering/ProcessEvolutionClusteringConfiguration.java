@@ -30,11 +30,21 @@ public class ProcessEvolutionClusteringConfiguration {
 	private Map<String, Double> numericAttributes;
 	private String linkType;
 	private int numClusters;
+	private int numMicroClusters;
 	
 	public ProcessEvolutionClusteringConfiguration(Map<String, Double> numericAttributes2, String linkType, int numClusters) {
+		this(numericAttributes2, linkType, numClusters, 0);
+	}
+	
+	/**
+	 * @param numMicroClusters the number of micro clusters to group the models into before
+	 * clustering them hierarchically, 0 for exact clustering
+	 */
+	public ProcessEvolutionClusteringConfiguration(Map<String, Double> numericAttributes2, String linkType, int numClusters, int numMicroClusters) {
 		this.numClusters = numClusters;
 		this.linkType = linkType;
 		this.numericAttributes = numericAttributes2;
+		this.numMicroClusters = numMicroClusters;
 	}
 
 	/**
@@ -57,4 +67,11 @@ public class ProcessEvolutionClusteringConfiguration {
 	public int getNumClusters() {
 		return numClusters;
 	}
+
+	/**
+	 * @return the number of micro clusters for approximate clustering, 0 for exact clustering
+	 */
+	public int getNumMicroClusters() {
+		return numMicroClusters;
+	}
 }
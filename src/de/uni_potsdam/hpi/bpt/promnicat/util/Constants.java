@@ -106,6 +106,10 @@ public interface Constants {
 	 * Name used for PNML format.
 	 */
 	public static final String FORMAT_PNML = "Pnml";
+	/**
+	 * Name used for the binary Petri net format.
+	 */
+	public static final String FORMAT_PETRINET_BINARY = "PetriNetBinary";
 	/**
 	 * Name used for EPC notation.
 	 */
@@ -226,7 +230,8 @@ public interface Constants {
 	public enum FORMATS{
 		SVG(Constants.FORMAT_SVG),
 		BPMAI_JSON(Constants.FORMAT_BPMAI_JSON),
-		PNML(Constants.FORMAT_PNML);
+		PNML(Constants.FORMAT_PNML),
+		PETRINET_BINARY(Constants.FORMAT_PETRINET_BINARY);
 		
 		private String description;
 	     
@@ -0,0 +1,176 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jbpt.algo.graph.TransitiveClosure;
+import org.jbpt.algo.tree.rpst.RPST;
+import org.jbpt.pm.Activity;
+import org.jbpt.pm.ControlFlow;
+import org.jbpt.pm.FlowNode;
+import org.jbpt.pm.Gateway;
+import org.jbpt.pm.ProcessModel;
+import org.jbpt.pm.XorGateway;
+
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.IUnit;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.IUnitChain;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitData;
+
+/**
+ * Analysis results of a {@link ProcessModel} being expensive to calculate and needed by several
+ * {@link IUnit}s, e.g., the {@link RPST}. Each result is calculated once on first request.
+ * The context is shared among the {@link IUnit}s of an {@link IUnitChain} via {@link IUnitData}.
+ * <br/><br/>
+ * The {@link ProcessModel} must not be modified after a result has been requested.
+ * Instances are thread safe.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+public class ModelAnalysisContext {
+
+	private final ProcessModel processModel;
+	private RPST<ControlFlow<FlowNode>, FlowNode> rpst = null;
+	private ProcessModel normalizedModel = null;
+	private RPST<ControlFlow<FlowNode>, FlowNode> normalizedRpst = null;
+	private TransitiveClosure<ControlFlow<FlowNode>, FlowNode> transitiveClosure = null;
+
+	/**
+	 * Creates a new context for the given {@link ProcessModel}.
+	 * @param processModel the {@link ProcessModel} to analyze
+	 */
+	public ModelAnalysisContext(ProcessModel processModel) {
+		if (processModel == null) {
+			throw new IllegalArgumentException("Got an invalid null pointer process model!");
+		}
+		this.processModel = processModel;
+	}
+
+	/**
+	 * Returns the context of the given {@link IUnitData} if it belongs to the given {@link ProcessModel}.
+	 * Otherwise, a new context is created and set in the given {@link IUnitData}.
+	 * @param unitData the {@link IUnitData} to get the context from
+	 * @param processModel the {@link ProcessModel} to get the context for
+	 * @return the context of the given {@link ProcessModel}
+	 */
+	public static ModelAnalysisContext getContext(IUnitData<?> unitData, ProcessModel processModel) {
+		synchronized (unitData) {
+			ModelAnalysisContext context = unitData.getAnalysisContext();
+			if (context == null || context.getProcessModel() != processModel) {
+				context = new ModelAnalysisContext(processModel);
+				unitData.setAnalysisContext(context);
+			}
+			return context;
+		}
+	}
+
+	/**
+	 * @return the analyzed {@link ProcessModel}
+	 */
+	public ProcessModel getProcessModel() {
+		return this.processModel;
+	}
+
+	/**
+	 * @return the {@link RPST} of the analyzed {@link ProcessModel}
+	 */
+	public synchronized RPST<ControlFlow<FlowNode>, FlowNode> getRPST() {
+		if (this.rpst == null) {
+			this.rpst = new RPST<ControlFlow<FlowNode>, FlowNode>(this.processModel);
+		}
+		return this.rpst;
+	}
+
+	/**
+	 * If the analyzed {@link ProcessModel} has multiple sources, a copy of it is created having an additional
+	 * source being connected to the former sources by an {@link XorGateway}. Multiple sinks are handled the same way.
+	 * @return the analyzed {@link ProcessModel} if it has a single source and a single sink,
+	 * otherwise a copy of it having a single source and a single sink.
+	 */
+	public synchronized ProcessModel getNormalizedModel() {
+		if (this.normalizedModel != null) {
+			return this.normalizedModel;
+		}
+		List<FlowNode> sources = new ArrayList<FlowNode>();
+		List<FlowNode> sinks = new ArrayList<FlowNode>();
+		collectSourcesAndSinks(this.processModel, sources, sinks);
+		if (sources.size() <= 1 && sinks.size() <= 1) {
+			this.normalizedModel = this.processModel;
+			return this.normalizedModel;
+		}
+		ProcessModel copy = this.processModel.clone();
+		sources.clear();
+		sinks.clear();
+		collectSourcesAndSinks(copy, sources, sinks);
+		if (sources.size() > 1) {
+			// add a single source and connect it to the former sources
+			Activity start = new Activity("_start_");
+			Gateway gate = new XorGateway();
+			copy.addEdge(start, gate);
+			for (FlowNode node : sources) {
+				copy.addEdge(gate, node);
+			}
+		}
+		if (sinks.size() > 1) {
+			// add a single sink and connect it to the former sinks
+			Activity end = new Activity("_end_");
+			Gateway gate = new XorGateway();
+			copy.addEdge(gate, end);
+			for (FlowNode node : sinks) {
+				copy.addEdge(node, gate);
+			}
+		}
+		this.normalizedModel = copy;
+		return this.normalizedModel;
+	}
+
+	private void collectSourcesAndSinks(ProcessModel model, List<FlowNode> sources, List<FlowNode> sinks) {
+		for (FlowNode node : model.getFlowNodes()) {
+			if (model.getIncomingEdges(node).isEmpty()) {
+				sources.add(node);
+			}
+			if (model.getOutgoingEdges(node).isEmpty()) {
+				sinks.add(node);
+			}
+		}
+	}
+
+	/**
+	 * @return the {@link RPST} of the normalized {@link ProcessModel}
+	 * @see #getNormalizedModel()
+	 */
+	public synchronized RPST<ControlFlow<FlowNode>, FlowNode> getNormalizedRPST() {
+		if (this.normalizedRpst == null) {
+			ProcessModel model = getNormalizedModel();
+			this.normalizedRpst = model == this.processModel ? getRPST() : new RPST<ControlFlow<FlowNode>, FlowNode>(model);
+		}
+		return this.normalizedRpst;
+	}
+
+	/**
+	 * @return the {@link TransitiveClosure} of the analyzed {@link ProcessModel}
+	 */
+	public synchronized TransitiveClosure<ControlFlow<FlowNode>, FlowNode> getTransitiveClosure() {
+		if (this.transitiveClosure == null) {
+			this.transitiveClosure = new TransitiveClosure<ControlFlow<FlowNode>, FlowNode>(this.processModel);
+		}
+		return this.transitiveClosure;
+	}
+}
@@ -82,10 +82,15 @@ public class ProcessMetricConstants {
 				return data.getNumberOfNodes();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setNumberOfNodes((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setNumberOfNodes(new ProcessMetricsCalculator().getNumberOfNodes((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setNumberOfNodes(calculator(data).getNumberOfNodes((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		NUM_EDGES(ProcessMetricConstants.NUM_EDGES){
@@ -93,10 +98,15 @@ public class ProcessMetricConstants {
 				return data.getNumberOfEdges();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setNumberOfEdges((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setNumberOfEdges(new ProcessMetricsCalculator().getNumberOfEdges((ProcessModel) data.getValue(), includeSubProcesses));				
+				data.setNumberOfEdges(calculator(data).getNumberOfEdges((ProcessModel) data.getValue(), includeSubProcesses));				
 			}
 		},
 		NUM_ACTIVITIES(ProcessMetricConstants.NUM_ACTIVITIES){
@@ -104,10 +114,15 @@ public class ProcessMetricConstants {
 				return data.getNumberOfActivities();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setNumberOfActivities((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setNumberOfActivities(new ProcessMetricsCalculator().getNumberOfElementsFromClass((ProcessModel) data.getValue(), Activity.class, includeSubProcesses));
+				data.setNumberOfActivities(calculator(data).getNumberOfElementsFromClass((ProcessModel) data.getValue(), Activity.class, includeSubProcesses));
 			}
 		},
 		NUM_AND_SPLITS(ProcessMetricConstants.NUM_AND_SPLITS){
@@ -115,10 +130,15 @@ public class ProcessMetricConstants {
 				return data.getNumberOfAndSplits();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setNumberOfAndSplits((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setNumberOfAndSplits(new ProcessMetricsCalculator().getNumberOfAndSplits((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setNumberOfAndSplits(calculator(data).getNumberOfAndSplits((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		NUM_AND_JOINS(ProcessMetricConstants.NUM_AND_JOINS){
@@ -126,10 +146,15 @@ public class ProcessMetricConstants {
 				return data.getNumberOfAndJoins();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setNumberOfAndJoins((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setNumberOfAndJoins(new ProcessMetricsCalculator().getNumberOfAndJoins((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setNumberOfAndJoins(calculator(data).getNumberOfAndJoins((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		NUM_OR_JOINS(ProcessMetricConstants.NUM_OR_JOINS){
@@ -137,10 +162,15 @@ public class ProcessMetricConstants {
 				return data.getNumberOfOrJoins();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setNumberOfOrJoins((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setNumberOfOrJoins(new ProcessMetricsCalculator().getNumberOfOrJoins((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setNumberOfOrJoins(calculator(data).getNumberOfOrJoins((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		NUM_OR_SPLITS(ProcessMetricConstants.NUM_OR_SPLITS){
@@ -148,10 +178,15 @@ public class ProcessMetricConstants {
 				return data.getNumberOfOrSplits();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setNumberOfOrSplits((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setNumberOfOrSplits(new ProcessMetricsCalculator().getNumberOfOrSplits((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setNumberOfOrSplits(calculator(data).getNumberOfOrSplits((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		NUM_XOR_SPLITS(ProcessMetricConstants.NUM_XOR_SPLITS){
@@ -159,10 +194,15 @@ public class ProcessMetricConstants {
 				return data.getNumberOfXorSplits();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setNumberOfXorSplits((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setNumberOfXorSplits(new ProcessMetricsCalculator().getNumberOfXorSplits((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setNumberOfXorSplits(calculator(data).getNumberOfXorSplits((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		NUM_XOR_JOINS(ProcessMetricConstants.NUM_XOR_JOINS){
@@ -170,10 +210,15 @@ public class ProcessMetricConstants {
 				return data.getNumberOfXorJoins();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setNumberOfXorJoins((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setNumberOfXorJoins(new ProcessMetricsCalculator().getNumberOfXorJoins((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setNumberOfXorJoins(calculator(data).getNumberOfXorJoins((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		NUM_DATA_NODES(ProcessMetricConstants.NUM_DATA_NODES){
@@ -181,10 +226,15 @@ public class ProcessMetricConstants {
 				return data.getNumberOfDataNodes();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setNumberOfDataNodes((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setNumberOfDataNodes(new ProcessMetricsCalculator().getNumberOfDataNodes((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setNumberOfDataNodes(calculator(data).getNumberOfDataNodes((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		NUM_EVENTS(ProcessMetricConstants.NUM_EVENTS){
@@ -192,10 +242,15 @@ public class ProcessMetricConstants {
 				return data.getNumberOfEvents();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setNumberOfEvents((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setNumberOfEvents(new ProcessMetricsCalculator().getNumberOfElementsFromClass((ProcessModel) data.getValue(), Event.class, includeSubProcesses));
+				data.setNumberOfEvents(calculator(data).getNumberOfElementsFromClass((ProcessModel) data.getValue(), Event.class, includeSubProcesses));
 			}
 		},
 		NUM_START_EVENTS(ProcessMetricConstants.NUM_START_EVENTS){
@@ -203,10 +258,15 @@ public class ProcessMetricConstants {
 				return data.getNumberOfStartEvents();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setNumberOfStartEvents((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setNumberOfStartEvents(new ProcessMetricsCalculator().getNumberOfStartEvents((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setNumberOfStartEvents(calculator(data).getNumberOfStartEvents((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		NUM_END_EVENTS(ProcessMetricConstants.NUM_END_EVENTS){
@@ -214,10 +274,15 @@ public class ProcessMetricConstants {
 				return data.getNumberOfEndEvents();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setNumberOfEndEvents((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setNumberOfEndEvents(new ProcessMetricsCalculator().getNumberOfEndEvents((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setNumberOfEndEvents(calculator(data).getNumberOfEndEvents((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		NUM_INTERNAL_EVENTS(ProcessMetricConstants.NUM_INTERNAL_EVENTS){
@@ -225,10 +290,15 @@ public class ProcessMetricConstants {
 				return data.getNumberOfInternalEvents();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setNumberOfInternalEvents((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setNumberOfInternalEvents(new ProcessMetricsCalculator().getNumberOfInternalEvents((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setNumberOfInternalEvents(calculator(data).getNumberOfInternalEvents((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		NUM_GATEWAYS(ProcessMetricConstants.NUM_GATEWAYS){
@@ -236,10 +306,15 @@ public class ProcessMetricConstants {
 				return data.getNumberOfGateways();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setNumberOfGateways((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setNumberOfGateways(new ProcessMetricsCalculator().getNumberOfGateways((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setNumberOfGateways(calculator(data).getNumberOfGateways((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		NUM_ROLES(ProcessMetricConstants.NUM_ROLES){
@@ -247,10 +322,15 @@ public class ProcessMetricConstants {
 				return data.getNumberOfRoles();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setNumberOfRoles((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setNumberOfRoles(new ProcessMetricsCalculator().getNumberOfRoles((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setNumberOfRoles(calculator(data).getNumberOfRoles((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		AVERAGE_CONNECTOR_DEGREE(ProcessMetricConstants.AVERAGE_CONNECTOR_DEGREE){
@@ -258,10 +338,15 @@ public class ProcessMetricConstants {
 				return data.getAverageConnectorDegree();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setAverageConnectorDegree(value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setAverageConnectorDegree(new ProcessMetricsCalculator().getAverageConnectorDegree((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setAverageConnectorDegree(calculator(data).getAverageConnectorDegree((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		COEFFICIENT_CONNECTIVITY(ProcessMetricConstants.COEFFICIENT_CONNECTIVITY){
@@ -269,10 +354,15 @@ public class ProcessMetricConstants {
 				return data.getCoefficientOfConnectivity();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setCoefficientOfConnectivity(value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setCoefficientOfConnectivity(new ProcessMetricsCalculator().getCoefficientOfConnectivity((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setCoefficientOfConnectivity(calculator(data).getCoefficientOfConnectivity((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		COEFFICIENT_NETWORK_COMPLEXITY(ProcessMetricConstants.COEFFICIENT_NETWORK_COMPLEXITY){
@@ -280,10 +370,15 @@ public class ProcessMetricConstants {
 				return data.getCoefficientOfNetworkComplexity();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setCoefficientOfNetworkComplexity(value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setCoefficientOfNetworkComplexity(new ProcessMetricsCalculator().getCoefficientOfNetworkComplexity((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setCoefficientOfNetworkComplexity(calculator(data).getCoefficientOfNetworkComplexity((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		CONTROL_FLOW_COMPLEXITY(ProcessMetricConstants.CONTROL_FLOW_COMPLEXITY){
@@ -291,10 +386,15 @@ public class ProcessMetricConstants {
 				return data.getControlFlowComplexity();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setControlFlowComplexity((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setControlFlowComplexity(new ProcessMetricsCalculator().getControlFlowComplexity((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setControlFlowComplexity(calculator(data).getControlFlowComplexity((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		CROSS_CONNECTIVITY(ProcessMetricConstants.CROSS_CONNECTIVITY){
@@ -302,10 +402,15 @@ public class ProcessMetricConstants {
 				return data.getCrossConnectivity();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setCrossConnectivity(value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setCrossConnectivity(new ProcessMetricsCalculator().getCrossConnectivity((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setCrossConnectivity(calculator(data).getCrossConnectivity((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		CYCLING(ProcessMetricConstants.CYCLING){
@@ -313,10 +418,15 @@ public class ProcessMetricConstants {
 				return data.getCycling();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setCycling(value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setCycling(new ProcessMetricsCalculator().getCycling((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setCycling(calculator(data).getCycling((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		CYCLOMATIC_NUMBER(ProcessMetricConstants.CYCLOMATIC_NUMBER){
@@ -324,10 +434,15 @@ public class ProcessMetricConstants {
 				return data.getCyclomaticNumber();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setCyclomaticNumber((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setCyclomaticNumber(new ProcessMetricsCalculator().getCyclomaticNumber((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setCyclomaticNumber(calculator(data).getCyclomaticNumber((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		SEPARABILITY(ProcessMetricConstants.SEPARABILITY){
@@ -335,10 +450,15 @@ public class ProcessMetricConstants {
 				return data.getSeparability();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setSeparability(value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setSeparability(new ProcessMetricsCalculator().getSeparability((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setSeparability(calculator(data).getSeparability((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		DENSITY(ProcessMetricConstants.DENSITY){
@@ -346,10 +466,15 @@ public class ProcessMetricConstants {
 				return data.getDensity();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setDensity(value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setDensity(new ProcessMetricsCalculator().getDensity((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setDensity(calculator(data).getDensity((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		DEPTH(ProcessMetricConstants.DEPTH){
@@ -357,10 +482,15 @@ public class ProcessMetricConstants {
 				return data.getDepth();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setDepth((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setDepth(new ProcessMetricsCalculator().getDepth((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setDepth(calculator(data).getDepth((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		DIAMETER(ProcessMetricConstants.DIAMETER){
@@ -368,10 +498,15 @@ public class ProcessMetricConstants {
 				return data.getDiameter();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setDiameter((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setDiameter(new ProcessMetricsCalculator().getDiameter((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setDiameter(calculator(data).getDiameter((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		},
 		MAX_CONNECTOR_DEGREE(ProcessMetricConstants.MAX_CONNECTOR_DEGREE){
@@ -379,10 +514,15 @@ public class ProcessMetricConstants {
 				return data.getMaxConnectorDegree();
 			}
 
+			@Override
+			public void setAttribute(IUnitDataProcessMetrics<Object> data, double value){
+				data.setMaxConnectorDegree((int) value);
+			}
+
 			@Override
 			public void calculateAttribute(IUnitDataProcessMetrics<Object> data, boolean includeSubProcesses) {
 				super.calculateAttribute(data, includeSubProcesses);
-				data.setMaxConnectorDegree(new ProcessMetricsCalculator().getMaxConnectorDegree((ProcessModel) data.getValue(), includeSubProcesses));
+				data.setMaxConnectorDegree(calculator(data).getMaxConnectorDegree((ProcessModel) data.getValue(), includeSubProcesses));
 			}
 		};
 		
@@ -397,6 +537,13 @@ public class ProcessMetricConstants {
 		}
 		
 		public abstract double getAttribute(IUnitDataProcessMetrics<?> data);
+
+		/**
+		 * Sets a previously calculated metric value in the given {@link IUnitDataProcessMetrics}.
+		 * @param data {@link IUnitDataProcessMetrics} to use for metric value saving
+		 * @param value the metric value to set
+		 */
+		public abstract void setAttribute(IUnitDataProcessMetrics<Object> data, double value);
 		
 		/**
 		 * Calculates the metric value and stores the result in the given {@link IUnitDataProcessMetrics}.
@@ -408,5 +555,14 @@ public class ProcessMetricConstants {
 				throw new IllegalArgumentException("The given UnitData value must be an instance of a jBPT ProcessModel!");
 			}
 		}
+
+		/**
+		 * @param data {@link IUnitDataProcessMetrics} containing the {@link ProcessModel} to analyze
+		 * @return a {@link ProcessMetricsCalculator} sharing the analysis results of the {@link ProcessModel}
+		 * with all other metrics calculated for the given {@link IUnitDataProcessMetrics}
+		 */
+		private static ProcessMetricsCalculator calculator(IUnitDataProcessMetrics<Object> data) {
+			return new ProcessMetricsCalculator(ModelAnalysisContext.getContext(data, (ProcessModel) data.getValue()));
+		}
 	}
 }
\ No newline at end of file
@@ -17,10 +17,13 @@
  */
 package de.uni_potsdam.hpi.bpt.promnicat.util;
 
+import java.util.Arrays;
+
 import weka.core.Attribute;
 import weka.core.EditDistance;
 import weka.core.Instance;
 import weka.core.neighboursearch.PerformanceStats;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering.LabelDistanceCache;
 import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering.ProcessInstance;
 import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering.ProcessInstances;
 
@@ -34,6 +37,33 @@ import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering.ProcessInstan
 public class WeightedEditDistance extends EditDistance {
 
 	private static final long serialVersionUID = 1L;
+	
+	/** maximum length of the shorter string to use the bit-parallel algorithm */
+	private static final int BIT_PARALLEL_LENGTH = 64;
+	
+	/** size of the hash table mapping the characters of a string to their bit vectors */
+	private static final int PEQ_SIZE = 128;
+	
+	/**
+	 * Buffers reused by the string distance calculations of a thread to avoid
+	 * allocating a new matrix for each pair of strings.
+	 */
+	private static class Buffers {
+		int[] previousRow = new int[0];
+		int[] currentRow = new int[0];
+		final char[] peqChars = new char[PEQ_SIZE];
+		final long[] peqBits = new long[PEQ_SIZE];
+	}
+	
+	private static final ThreadLocal<Buffers> buffers = new ThreadLocal<Buffers>() {
+		@Override
+		protected Buffers initialValue() {
+			return new Buffers();
+		}
+	};
+
+	/** cache of already calculated string distances, might be <code>null</code> */
+	private transient LabelDistanceCache labelDistanceCache;
 
 	public WeightedEditDistance() {
 	  }
@@ -41,6 +71,15 @@ public class WeightedEditDistance extends EditDistance {
 	  public WeightedEditDistance(ProcessInstances data) {
 	    super(data);
 	  }
+	  
+	  /**
+	   * Sets the cache to look up the distances between strings.
+	   * 
+	   * @param cache the cache to use or <code>null</code> to always calculate the distances
+	   */
+	  public void setLabelDistanceCache(LabelDistanceCache cache) {
+	    labelDistanceCache = cache;
+	  }
 
 	  /**
 	   * Calculates the distance between two instances. Offers speed up (if the 
@@ -72,9 +111,17 @@ public class WeightedEditDistance extends EditDistance {
 	    for (int i = 0; i < numAttributes; i++) {
 	      diff = 0;
 	      if (m_ActiveIndices[i]) {
-	    	  diff = difference(i, ((ProcessInstance)first).strValue(i), ((ProcessInstance)second).strValue(i));
+	    	  double weight = ((ProcessInstances)m_Data).strAttribute(i).weight();
+	    	  if (Double.isInfinite(cutOffValue) || weight <= 0) {
+	    		  diff = difference(i, ((ProcessInstance)first).strValue(i), ((ProcessInstance)second).strValue(i));
+	    	  } else {
+	    		  //only calculate the string distance up to the remaining distance
+	    		  double maxDiff = Math.sqrt(cutOffValue * cutOffValue - sqDistance) / weight;
+	    		  diff = difference(i, ((ProcessInstance)first).strValue(i), ((ProcessInstance)second).strValue(i), maxDiff);
+	    		  if (diff == Double.POSITIVE_INFINITY) return Double.POSITIVE_INFINITY;
+	    	  }
 	    	  //use weight
-	    	  diff = diff * ((ProcessInstances)m_Data).strAttribute(i).weight();
+	    	  diff = diff * weight;
 	      }
 	      sqDistance = updateDistance(sqDistance, diff);
 	      if (sqDistance > (cutOffValue * cutOffValue)) return Double.POSITIVE_INFINITY;
@@ -94,32 +141,158 @@ public class WeightedEditDistance extends EditDistance {
 	   * @return the distance between the two given strings
 	   */
 	  public double getStringDistance(String stringA, String stringB) {
+	    return getStringDistance(stringA, stringB, Integer.MAX_VALUE);
+	  }
+	  
+	  /**
+	   * Calculates the distance (Levenshtein Edit Distance) between two strings,
+	   * if it does not exceed the given maximum. Strings with a length of up to
+	   * 64 characters are compared with the bit-parallel algorithm of Myers, longer
+	   * ones with two rows of the distance matrix restricted to a band of the given
+	   * maximum distance around its diagonal (Ukkonen).
+	   *
+	   * @param stringA the first string
+	   * @param stringB the second string
+	   * @param maxDistance the maximum distance of interest
+	   * @return the distance between the two given strings or maxDistance + 1
+	   * 		if the distance is greater than maxDistance
+	   */
+	  public int getStringDistance(String stringA, String stringB, int maxDistance) {
+	    if (labelDistanceCache != null) {
+	      maxDistance = Math.max(0, maxDistance);
+	      int distance = labelDistanceCache.getDistance(stringA, stringB);
+	      return distance > maxDistance ? maxDistance + 1 : distance;
+	    }
+	    if (stringA.length() < stringB.length()) {
+	      String tmp = stringA;
+	      stringA = stringB;
+	      stringB = tmp;
+	    }
+	    // stringB is the shorter one now
 	    int lengthA = stringA.length();
 	    int lengthB = stringB.length();
-
-	    double[][] distanceMatrix = new double[lengthA + 1][lengthB + 1];
-
-	    for (int i = 0; i <= lengthA; i++) {
-	      distanceMatrix[i][0] = i;
+	    maxDistance = Math.max(0, Math.min(maxDistance, lengthA));
+	    if (lengthA - lengthB > maxDistance) {
+	      return maxDistance + 1;
 	    }
-
-	    for (int j = 1; j <= lengthB; j++) {
-	      distanceMatrix[0][j] = j;
+	    if (lengthB == 0) {
+	      return lengthA;
+	    }
+	    int distance;
+	    if (lengthB <= BIT_PARALLEL_LENGTH) {
+	      distance = getBitParallelDistance(stringA, stringB);
+	    } else {
+	      distance = getBandedDistance(stringA, stringB, maxDistance);
+	    }
+	    return Math.min(distance, maxDistance + 1);
+	  }
+	  
+	  /**
+	   * Calculates the edit distance with the bit-parallel algorithm of Myers in the
+	   * version of Hyyrö for the global edit distance.
+	   *
+	   * @param text the longer string
+	   * @param pattern the shorter string with at most 64 characters
+	   * @return the distance between the two given strings
+	   */
+	  private int getBitParallelDistance(String text, String pattern) {
+	    Buffers buffer = buffers.get();
+	    char[] peqChars = buffer.peqChars;
+	    long[] peqBits = buffer.peqBits;
+	    Arrays.fill(peqBits, 0);
+	    int m = pattern.length();
+	    for (int i = 0; i < m; i++) {
+	      char c = pattern.charAt(i);
+	      int slot = c & (PEQ_SIZE - 1);
+	      while (peqBits[slot] != 0 && peqChars[slot] != c) {
+	        slot = (slot + 1) & (PEQ_SIZE - 1);
+	      }
+	      peqChars[slot] = c;
+	      peqBits[slot] |= 1L << i;
+	    }
+	    long last = 1L << (m - 1);
+	    long pv = -1L;
+	    long mv = 0L;
+	    int score = m;
+	    for (int j = 0; j < text.length(); j++) {
+	      char c = text.charAt(j);
+	      int slot = c & (PEQ_SIZE - 1);
+	      while (peqBits[slot] != 0 && peqChars[slot] != c) {
+	        slot = (slot + 1) & (PEQ_SIZE - 1);
+	      }
+	      long eq = peqBits[slot];
+	      long xv = eq | mv;
+	      long xh = (((eq & pv) + pv) ^ pv) | eq;
+	      long ph = mv | ~(xh | pv);
+	      long mh = pv & xh;
+	      if ((ph & last) != 0) {
+	        score++;
+	      } else if ((mh & last) != 0) {
+	        score--;
+	      }
+	      ph = (ph << 1) | 1L;
+	      mh = mh << 1;
+	      pv = mh | ~(xv | ph);
+	      mv = ph & xv;
+	    }
+	    return score;
+	  }
+	  
+	  /**
+	   * Calculates the edit distance with two rows of the distance matrix. Only the
+	   * cells within the given maximum distance of the diagonal are calculated and the
+	   * calculation stops as soon as a row exceeds the maximum distance.
+	   *
+	   * @param stringA the longer string
+	   * @param stringB the shorter string
+	   * @param maxDistance the maximum distance of interest
+	   * @return the distance between the two given strings or a value greater than
+	   * 		maxDistance if the distance is greater than maxDistance
+	   */
+	  private int getBandedDistance(String stringA, String stringB, int maxDistance) {
+	    int lengthA = stringA.length();
+	    int lengthB = stringB.length();
+	    int outside = maxDistance + 1;
+	    Buffers buffer = buffers.get();
+	    if (buffer.previousRow.length < lengthB + 1) {
+	      buffer.previousRow = new int[lengthB + 1];
+	      buffer.currentRow = new int[lengthB + 1];
+	    }
+	    int[] previousRow = buffer.previousRow;
+	    int[] currentRow = buffer.currentRow;
+	    for (int j = 0; j <= lengthB; j++) {
+	      previousRow[j] = Math.min(j, outside);
 	    }
-
 	    for (int i = 1; i <= lengthA; i++) {
-	      for (int j = 1; j <= lengthB; j++) {
-	        if (stringA.charAt(i - 1) == stringB.charAt(j - 1)) {
-	          distanceMatrix[i][j] = distanceMatrix[i - 1][j - 1];
+	      int from = Math.max(1, i - maxDistance);
+	      int to = Math.min(lengthB, i + maxDistance);
+	      currentRow[from - 1] = from == 1 ? Math.min(i, outside) : outside;
+	      int rowMinimum = currentRow[from - 1];
+	      char c = stringA.charAt(i - 1);
+	      for (int j = from; j <= to; j++) {
+	        int value;
+	        if (c == stringB.charAt(j - 1)) {
+	          value = previousRow[j - 1];
+	        } else {
+	          value = 1 + Math.min(previousRow[j], Math.min(currentRow[j - 1], previousRow[j - 1]));
 	        }
-	        else {
-	          distanceMatrix[i][j] = 1 + Math.min(distanceMatrix[i - 1][j],
-	                                              Math.min(distanceMatrix[i][j - 1],
-	                                                       distanceMatrix[i - 1][j - 1]));
+	        value = Math.min(value, outside);
+	        currentRow[j] = value;
+	        if (value < rowMinimum) {
+	          rowMinimum = value;
 	        }
 	      }
+	      if (to < lengthB) {
+	        currentRow[to + 1] = outside;
+	      }
+	      if (rowMinimum > maxDistance) {
+	        return outside;
+	      }
+	      int[] tmp = previousRow;
+	      previousRow = currentRow;
+	      currentRow = tmp;
 	    }
-	    return distanceMatrix[lengthA][lengthB];
+	    return previousRow[lengthB];
 	  }
 	  
 	  /**
@@ -152,6 +325,44 @@ public class WeightedEditDistance extends EditDistance {
 	    }
 	  }
 	  
+	  /**
+	   * Computes the difference between two given attribute
+	   * values, if it does not exceed the given maximum.
+	   * 
+	   * @param index	the attribute index
+	   * @param val1	the first value
+	   * @param val2	the second value
+	   * @param maxDiff	the maximum difference of interest
+	   * @return		the difference or Double.POSITIVE_INFINITY if
+	   * 			the difference is greater than maxDiff
+	   */
+	  protected double difference(int index, String string1, String string2, double maxDiff) {
+	    switch (((ProcessInstances) m_Data).strAttribute(index).type()) {
+	    case Attribute.STRING:
+	      double length = Math.max(string1.length(), string2.length());
+	      double maxDistance = m_DontNormalize ? maxDiff : maxDiff * length;
+	      int diff;
+	      if (maxDistance >= Integer.MAX_VALUE) {
+	        diff = getStringDistance(string1, string2, Integer.MAX_VALUE);
+	      } else {
+	        int max = (int) Math.floor(maxDistance + 1e-9);
+	        diff = getStringDistance(string1, string2, max);
+	        if (diff > max) {
+	          return Double.POSITIVE_INFINITY;
+	        }
+	      }
+	      if (m_DontNormalize == true) {
+	        return diff;
+	      }
+	      else {
+	        return diff / length;
+	      }
+
+	    default:
+	      return 0;
+	    }
+	  }
+	  
 	  /**
 	   * Updates the ranges given a new instance.
 	   * 
@@ -41,6 +41,20 @@ public class WeightedEuclideanDistance extends weka.core.EuclideanDistance {
 	  /** contains the maximum values for the different attributes for normalization */
 	  private ArrayList<double[]> normFeatureValues;
 	  
+	  /** 
+	   * normalized attribute values of all instances, one row after another, as
+	   * used for the first instance of a distance calculation
+	   */
+	  private transient double[] kernelFirstValues;
+	  /** normalized attribute values of all instances as used for the second instance */
+	  private transient double[] kernelSecondValues;
+	  /** weight of each attribute */
+	  private transient double[] kernelWeights;
+	  /** sum of all attribute weights plus 1 as calculated by {@link #distance(Instance, Instance, double, PerformanceStats)} */
+	  private transient double kernelWeightSum;
+	  /** whether the distances of an instance can be calculated with the precomputed values */
+	  private transient boolean[] kernelApplicable;
+	  
 	  /**
 	   * Constructs an Euclidean Distance object, Instances must be still set.
 	   * Enables normalization.
@@ -75,6 +89,7 @@ public class WeightedEuclideanDistance extends weka.core.EuclideanDistance {
 		public void setMaximumFeatureValues(ArrayList<double[]> normFeatures){
 			normFeatureValues = normFeatures;
 			normalizeEnabled = true;
+			invalidate();
 		}
 	  
 	  /**
@@ -122,8 +137,8 @@ public class WeightedEuclideanDistance extends weka.core.EuclideanDistance {
 		
 		//normalize features by formula: (x - minimum) / (maximum - minimum)
 		if (normalizeEnabled){
-			val1 = (val1 - normFeatureValues.get(0)[index]) / (normFeatureValues.get(1)[index] - normFeatureValues.get(0)[index]);
-			val2 /= (val2 - normFeatureValues.get(0)[index]) / (normFeatureValues.get(1)[index] - normFeatureValues.get(0)[index]);
+			val1 = normalizeFirst(index, val1);
+			val2 = normalizeSecond(index, val2);
 		}
 	    switch (m_Data.attribute(index).type()) {
 	      case Attribute.NOMINAL:
@@ -177,6 +192,137 @@ public class WeightedEuclideanDistance extends weka.core.EuclideanDistance {
 	    }
 	  }
 	  
+	  /**
+	   * Normalizes the value of the first instance by the maximum feature values.
+	   */
+	  private double normalizeFirst(int index, double val) {
+		  return (val - normFeatureValues.get(0)[index]) / (normFeatureValues.get(1)[index] - normFeatureValues.get(0)[index]);
+	  }
+	  
+	  /**
+	   * Normalizes the value of the second instance by the maximum feature values.
+	   * <p>
+	   * FIXME this divides the value by its normalized value, i.e. <code>val / ((val - min) / (max - min))</code>,
+	   * instead of returning <code>(val - min) / (max - min)</code> like {@link #normalizeFirst(int, double)}.
+	   * The formula is kept to calculate the same distances as before, fixing it changes all clustering results.
+	   */
+	  private double normalizeSecond(int index, double val) {
+		  return val / ((val - normFeatureValues.get(0)[index]) / (normFeatureValues.get(1)[index] - normFeatureValues.get(0)[index]));
+	  }
+	  
+	  /**
+	   * Initializes the ranges and precomputes the normalized attribute values of all
+	   * instances, if all attributes are numeric.
+	   */
+	  @Override
+	  protected void initialize() {
+		  super.initialize();
+		  initializeKernel();
+	  }
+	  
+	  /**
+	   * Precomputes the normalized attribute values of all instances, so that the distances
+	   * between instances of the data set can be calculated on primitive arrays by
+	   * {@link #distance(int, int, double)}. Instances with missing values are excluded.
+	   */
+	  private void initializeKernel() {
+		  kernelApplicable = null;
+		  int numAttributes = m_Data.numAttributes();
+		  if (m_Data.classIndex() >= 0) {
+			  return;
+		  }
+		  double weights = 1;
+		  double[] attributeWeights = new double[numAttributes];
+		  for (int j = 0; j < numAttributes; j++) {
+			  if (!m_ActiveIndices[j] || m_Data.attribute(j).type() != Attribute.NUMERIC) {
+				  return;
+			  }
+			  attributeWeights[j] = m_Data.attribute(j).weight();
+			  weights += attributeWeights[j];
+		  }
+		  int numInstances = m_Data.numInstances();
+		  double[] firstValues = new double[numInstances * numAttributes];
+		  double[] secondValues = normalizeEnabled ? new double[numInstances * numAttributes] : firstValues;
+		  boolean[] applicable = new boolean[numInstances];
+		  for (int i = 0; i < numInstances; i++) {
+			  Instance instance = m_Data.instance(i);
+			  applicable[i] = instance.numValues() == numAttributes;
+			  for (int j = 0; j < numAttributes && applicable[i]; j++) {
+				  double val1 = instance.value(j);
+				  double val2 = val1;
+				  if (normalizeEnabled) {
+					  val1 = normalizeFirst(j, val1);
+					  val2 = normalizeSecond(j, val2);
+				  }
+				  if (Instance.isMissingValue(val1) || Instance.isMissingValue(val2)) {
+					  applicable[i] = false;
+				  } else {
+					  firstValues[i * numAttributes + j] = m_DontNormalize ? val1 : norm(val1, j);
+					  secondValues[i * numAttributes + j] = m_DontNormalize ? val2 : norm(val2, j);
+				  }
+			  }
+		  }
+		  kernelFirstValues = firstValues;
+		  kernelSecondValues = secondValues;
+		  kernelWeights = attributeWeights;
+		  kernelWeightSum = weights;
+		  kernelApplicable = applicable;
+	  }
+	  
+	  /**
+	   * Calculates the distance between two instances of the data set. If possible, the
+	   * precomputed normalized values are used instead of the instances' attribute values.
+	   * The result equals {@link #distance(Instance, Instance)}.
+	   * 
+	   * @param first 	index of the first instance
+	   * @param second 	index of the second instance
+	   * @return 		the distance between the two given instances
+	   */
+	  public double distance(int first, int second) {
+		  return Math.sqrt(distance(first, second, Double.POSITIVE_INFINITY));
+	  }
+	  
+	  /**
+	   * Calculates the distance between two instances of the data set without
+	   * post processing, see {@link #distance(Instance, Instance, double, PerformanceStats)}.
+	   * If possible, the precomputed normalized values are used instead of the
+	   * instances' attribute values.
+	   * 
+	   * @param first 	index of the first instance
+	   * @param second 	index of the second instance
+	   * @param cutOffValue If the distance being calculated becomes larger than 
+	   *                    cutOffValue then the rest of the calculation is 
+	   *                    discarded.
+	   * @return 		the distance between the two given instances or 
+	   * 			Double.POSITIVE_INFINITY if the distance being 
+	   * 			calculated becomes larger than cutOffValue. 
+	   */
+	  public double distance(int first, int second, double cutOffValue) {
+		  validate();
+		  if (kernelApplicable == null || !kernelApplicable[first] || !kernelApplicable[second]) {
+			  return distance(m_Data.instance(first), m_Data.instance(second), cutOffValue, null);
+		  }
+		  // plain loop over primitive arrays without any lookups, which the JIT compiler can optimize well
+		  double[] firstValues = kernelFirstValues;
+		  double[] secondValues = kernelSecondValues;
+		  double[] weights = kernelWeights;
+		  int numAttributes = weights.length;
+		  int firstOffset = first * numAttributes;
+		  int secondOffset = second * numAttributes;
+		  double distance = 0;
+		  for (int j = 0; j < numAttributes; j++) {
+			  double diff = weights[j] * (firstValues[firstOffset + j] - secondValues[secondOffset + j]);
+			  distance += diff * diff;
+			  if (distance > cutOffValue) {
+				  return Double.POSITIVE_INFINITY;
+			  }
+		  }
+		  if (kernelWeightSum > 1) {
+			  return distance / (kernelWeightSum - 1);
+		  }
+		  return distance / kernelWeightSum;
+	  }
+	  
 	  /**
 	   * Calculates the distance between two instances. Offers speed up (if the 
 	   * distance function class in use supports it) in nearest neighbour search by 
@@ -21,6 +21,7 @@ import java.util.Collection;
 
 import org.jbpt.pm.ProcessModel;
 
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
 import de.uni_potsdam.hpi.bpt.promnicat.util.IllegalTypeException;
 import de.uni_potsdam.hpi.bpt.promnicat.util.ProcessMetricConstants;
 
@@ -41,4 +42,35 @@ public interface IFlexibleUnitChainBuilder extends IUnitChainBuilder {
 	 * @throws IllegalTypeException if the unit's input and output value classes are not compatible.
 	 */
 	public void createProcessModelMetricsCalulatorUnit(Collection<ProcessMetricConstants.METRICS> metricsToCalculate, boolean handleSubProcesses) throws IllegalTypeException;
+
+	/**
+	 * Add a {@link IUnit} to the internal {@link IUnitChain}, that is used to calculate a
+	 * large set of process model metrics for a jBPT {@link ProcessModel}. The metrics of models
+	 * having at least the given number of nodes are calculated in parallel.
+	 * @param handleSubProcesses flag that indicates whether to include 
+	 * available sub process in metric calculation or not
+	 * @param metricsToCalculate a collection of metrics that shall be evaluated
+	 * for each process model. If empty, all available metrics are calculated.
+	 * @param parallelCalculationThreshold minimum number of nodes of a process model
+	 * to calculate its metrics in parallel
+	 * @param parallelism number of threads used for the parallel metric calculation of one process model
+	 * @throws IllegalTypeException if the unit's input and output value classes are not compatible.
+	 */
+	public void createProcessModelMetricsCalulatorUnit(Collection<ProcessMetricConstants.METRICS> metricsToCalculate, boolean handleSubProcesses,
+			int parallelCalculationThreshold, int parallelism) throws IllegalTypeException;
+
+	/**
+	 * Add a {@link IUnit} to the internal {@link IUnitChain}, that is used to calculate a
+	 * large set of process model metrics for a jBPT {@link ProcessModel}. Already calculated
+	 * metric values of unchanged process models are loaded from the given database instead of
+	 * being recalculated. Newly calculated values are saved in the given database.
+	 * @param handleSubProcesses flag that indicates whether to include 
+	 * available sub process in metric calculation or not
+	 * @param metricsToCalculate a collection of metrics that shall be evaluated
+	 * for each process model. If empty, all available metrics are calculated.
+	 * @param persistenceApi the database used to look up and save metric values
+	 * @throws IllegalTypeException if the unit's input and output value classes are not compatible.
+	 */
+	public void createProcessModelMetricsCalulatorUnit(Collection<ProcessMetricConstants.METRICS> metricsToCalculate, boolean handleSubProcesses,
+			IPersistenceApi persistenceApi) throws IllegalTypeException;
 }
@@ -24,6 +24,8 @@ import org.jbpt.hypergraph.abs.Vertex;
 import org.jbpt.petri.PetriNet;
 import org.jbpt.pm.ProcessModel;
 
+import weka.core.FastVector;
+
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.DbFilterConfig;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
 import de.uni_potsdam.hpi.bpt.promnicat.util.FeatureConfig;
@@ -208,6 +210,15 @@ public interface IUnitChainBuilder {
 	 * @throws IllegalTypeException if the unit's input and output value classes are not compatible.
 	 */
 	public void createModelStructuringUnit() throws IllegalTypeException;
+
+	/**
+	 * Add a {@link IUnit} to the internal {@link IUnitChain}, that is used to evaluate,
+	 * whether a given {@link ProcessModel} can be structured or even is structured.
+	 * @param maxNodes the maximum number of nodes of a structured model
+	 * @param timeout the maximum time in milliseconds used to structure a model
+	 * @throws IllegalTypeException if the unit's input and output value classes are not compatible.
+	 */
+	public void createModelStructuringUnit(int maxNodes, long timeout) throws IllegalTypeException;
 	
 	/**
 	 * Add a {@link IUnit} to the internal {@link IUnitChain}, that is used to filter out
@@ -240,6 +251,14 @@ public interface IUnitChainBuilder {
 	 * the results of all processed elements.
 	 */
 	public void createSimpleCollectorUnit();
+	
+	/**
+	 * Add a {@link IUnit} to the internal {@link IUnitChain}, that collects the feature vectors
+	 * of all processed elements column-wise without keeping the elements themselves.
+	 * @param attributes the numeric attributes of the feature vectors
+	 * @param strAttributes the string attributes of the feature vectors, might be <code>null</code>
+	 */
+	public void createFeatureVectorCollectorUnit(FastVector attributes, FastVector strAttributes);
 
 	/**
 	 * @return the {@link IUnitChain} created by this {@link IUnitChainBuilder}.
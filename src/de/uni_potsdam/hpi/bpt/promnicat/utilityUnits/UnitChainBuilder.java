@@ -25,13 +25,18 @@ import java.util.regex.Pattern;
 
 import org.jbpt.hypergraph.abs.Vertex;
 
+import weka.core.FastVector;
+
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.metrics.ProcessMetricsStore;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.DbFilterConfig;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.orientdbObj.PersistenceApiOrientDbObj;
 import de.uni_potsdam.hpi.bpt.promnicat.util.ConfigurationParser;
 import de.uni_potsdam.hpi.bpt.promnicat.util.Constants;
 import de.uni_potsdam.hpi.bpt.promnicat.util.FeatureConfig;
 import de.uni_potsdam.hpi.bpt.promnicat.util.IllegalTypeException;
 import de.uni_potsdam.hpi.bpt.promnicat.util.ProcessMetricConstants.METRICS;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.collector.FeatureVectorCollectorUnit;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.collector.ICollectorUnit;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.collector.SimpleCollectorUnit;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.extractor.BpmnConformanceLevelCheckerUnit;
@@ -46,8 +51,7 @@ import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.filter.DatabaseFilterUnit;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.filter.LabelFilterUnit;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.filter.MetaDataFilterUnit;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.filter.ProcessModelFilterUnit;
-import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.transformer.BpmaiJsonToDiagramUnit;
-import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.transformer.DiagramToJbptUnit;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.transformer.BpmaiJsonToJbptUnit;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.transformer.ModelToFeatureVectorUnit;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.transformer.ModelToPetriNetUnit;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitData;
@@ -136,12 +140,11 @@ public class UnitChainBuilder implements IFlexibleUnitChainBuilder {
 	@Override
 	public void createBpmaiJsonToJbptUnit(boolean strictness)
 			throws IllegalTypeException {
-		BpmaiJsonToDiagramUnit jsonToDiagram = new BpmaiJsonToDiagramUnit();
-		if (this.unitChain.getLastUnit().getOutputType() == jsonToDiagram.getInputType()) {
-			this.unitChain.register(jsonToDiagram);
-			this.unitChain.register(new DiagramToJbptUnit(strictness));			
+		BpmaiJsonToJbptUnit jsonToJbpt = new BpmaiJsonToJbptUnit(strictness);
+		if (this.unitChain.getLastUnit().getOutputType() == jsonToJbpt.getInputType()) {
+			this.unitChain.register(jsonToJbpt);
 		} else {
-			throw new IllegalTypeException(jsonToDiagram.getInputType(), this.unitChain.getLastUnit().getOutputType(), INCOMPATIBLE_OUTPUT_INPUT_TYPES_FOR_UNITS);
+			throw new IllegalTypeException(jsonToJbpt.getInputType(), this.unitChain.getLastUnit().getOutputType(), INCOMPATIBLE_OUTPUT_INPUT_TYPES_FOR_UNITS);
 		}
 		
 	}
@@ -206,6 +209,12 @@ public class UnitChainBuilder implements IFlexibleUnitChainBuilder {
 		checkForCompatibility(modelStructuringUnit);		
 	}
 
+	@Override
+	public void createModelStructuringUnit(int maxNodes, long timeout) throws IllegalTypeException {
+		ModelStructuringUnit modelStructuringUnit = new ModelStructuringUnit(maxNodes, timeout);
+		checkForCompatibility(modelStructuringUnit);
+	}
+
 	@Override
 	public void createPetriNetAnalyzerUnit() throws IllegalTypeException {
 		PetriNetAnalyzerUnit pnAnalyzerUnit = new PetriNetAnalyzerUnit();
@@ -259,6 +268,25 @@ public class UnitChainBuilder implements IFlexibleUnitChainBuilder {
 	public void createProcessModelMetricsCalulatorUnit(Collection<METRICS> metricsToCalculate, boolean handleSubProcesses) throws IllegalTypeException {		ProcessModelMetricsCalculatorUnit metricsUnit = new ProcessModelMetricsCalculatorUnit(metricsToCalculate, handleSubProcesses);
 		checkForCompatibility(metricsUnit);	
 	}
+	
+	@Override
+	public void createProcessModelMetricsCalulatorUnit(Collection<METRICS> metricsToCalculate, boolean handleSubProcesses,
+			int parallelCalculationThreshold, int parallelism) throws IllegalTypeException {
+		ProcessModelMetricsCalculatorUnit metricsUnit = new ProcessModelMetricsCalculatorUnit(metricsToCalculate, handleSubProcesses);
+		metricsUnit.setParallelCalculation(parallelCalculationThreshold, parallelism);
+		checkForCompatibility(metricsUnit);
+	}
+	
+	@Override
+	public void createProcessModelMetricsCalulatorUnit(Collection<METRICS> metricsToCalculate, boolean handleSubProcesses,
+			IPersistenceApi persistenceApi) throws IllegalTypeException {
+		if (!(persistenceApi instanceof PersistenceApiOrientDbObj)) {
+			throw new IllegalArgumentException("Metric values can only be stored in an OrientDB database!");
+		}
+		ProcessModelMetricsCalculatorUnit metricsUnit = new ProcessModelMetricsCalculatorUnit(metricsToCalculate, handleSubProcesses);
+		metricsUnit.setMetricsStore(new ProcessMetricsStore((PersistenceApiOrientDbObj) persistenceApi));
+		checkForCompatibility(metricsUnit);
+	}
 
 	@Override
 	public void createProcessModelToPetriNetUnit() throws IllegalTypeException {
@@ -282,6 +310,11 @@ public class UnitChainBuilder implements IFlexibleUnitChainBuilder {
 	public void createSimpleCollectorUnit() {
 		this.unitChain.register(new SimpleCollectorUnit());
 	}
+	
+	@Override
+	public void createFeatureVectorCollectorUnit(FastVector attributes, FastVector strAttributes) {
+		this.unitChain.register(new FeatureVectorCollectorUnit(attributes, strAttributes));
+	}
 
 	@Override
 	public IUnitChain<IUnitData<Object>, IUnitData<Object> > getChain() {
@@ -0,0 +1,114 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.collector;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import weka.core.FastVector;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering.ColumnarProcessInstances;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering.FeatureVector;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering.ProcessInstance;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitData;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.UnitDataFeatureVector;
+
+/**
+ * This class collects the {@link FeatureVector}s of all incoming results column-wise.
+ * The collected instances can be received by {@link FeatureVectorCollectorUnit#getInstances()}.
+ * In contrast to {@link SimpleCollectorUnit}, neither the results nor their process models are kept,
+ * the database id of the process model is stored as process of each instance instead. Hence, the
+ * memory needed only grows with the number of feature values.
+ * <br/><br/>
+ * The expected input type is {@link UnitDataFeatureVector}<{@link Object}>.
+ * The output type is the same as the input type.
+ * 
+ * @author Cindy Fähnrich
+ *
+ */
+public class FeatureVectorCollectorUnit implements ICollectorUnit<IUnitData<Object>, IUnitData<Object> > {
+
+	private static final int INITIAL_CAPACITY = 1024;
+	
+	private final FastVector attributes;
+	private final FastVector strAttributes;
+	private ColumnarProcessInstances instances;
+	
+	/**
+	 * Creates a collector for feature vectors with the given attributes.
+	 * @param attributes the numeric attributes of the feature vectors
+	 * @param strAttributes the string attributes of the feature vectors, might be <code>null</code>
+	 */
+	public FeatureVectorCollectorUnit(FastVector attributes, FastVector strAttributes) {
+		this.attributes = attributes;
+		this.strAttributes = strAttributes;
+		reset();
+	}
+	
+	@Override
+	public IUnitData<Object> execute(IUnitData<Object> input) {
+		if (input == null) {
+			throw new IllegalArgumentException("Got an invalid null pointer input!");
+		}
+		if (!(input instanceof UnitDataFeatureVector<?>)) {
+			throw new IllegalArgumentException("Got an input without feature vector!");
+		}
+		ProcessInstance instance = ((UnitDataFeatureVector<Object>) input).getInstance();
+		instance.process = input.getDbId();
+		synchronized (this) {
+			this.instances.add(instance);
+		}
+		return input;
+	}
+
+	/**
+	 * The results are not kept by this collector, use {@link #getInstances()} instead.
+	 * @return an empty collection
+	 */
+	@Override
+	public Collection<IUnitData<Object>> getResult() {
+		return new ArrayList<IUnitData<Object> >();
+	}
+	
+	/**
+	 * @return the collected instances, the process of each instance is the database id of its process model
+	 */
+	public synchronized ColumnarProcessInstances getInstances() {
+		return this.instances;
+	}
+
+	@Override
+	public synchronized void reset() {
+		this.instances = new ColumnarProcessInstances(this.attributes, this.strAttributes, INITIAL_CAPACITY);
+	}
+	
+	@Override
+	public String getName(){
+		return "FeatureVectorCollectorUnit";
+	}
+
+	@Override
+	public Class<?> getInputType() {
+		return Object.class;
+	}
+
+	@Override
+	public Class<?> getOutputType() {
+		return null;
+	}
+
+}
@@ -21,15 +21,20 @@ import java.util.logging.Logger;
 
 import org.jbpt.pm.ProcessModel;
 
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.classification.ModelStructurer;
 import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.classification.StructuralModelChecker;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.classification.StructuringResult;
 import de.uni_potsdam.hpi.bpt.promnicat.util.IllegalTypeException;
+import de.uni_potsdam.hpi.bpt.promnicat.util.ModelAnalysisContext;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.IUnit;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitData;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitDataClassification;
 
 /**
  * This class checks, whether a {@link ProcessModel} can be structured or 
- * is already structured.
+ * is already structured. The structured model and the expansion factor of the
+ * structuring are stored in the result. The structuring is bounded by a node and
+ * a time budget, see {@link ModelStructurer}.
  * 
  * The expected input type is {@link IUnitDataClassification}<{@link ProcessModel}>.
  * The output type is the same as the input type.
@@ -43,6 +48,23 @@ public class ModelStructuringUnit implements IUnit<IUnitData<Object>, IUnitData<
 	 * logger used by this class
 	 */
 	private Logger logger = Logger.getLogger(PetriNetAnalyzerUnit.class.getName());
+
+	private final ModelStructurer structurer;
+
+	/**
+	 * Creates a new unit structuring the models with the default budgets of the {@link ModelStructurer}.
+	 */
+	public ModelStructuringUnit() {
+		this.structurer = new ModelStructurer();
+	}
+
+	/**
+	 * @param maxNodes the maximum number of nodes of a structured model, must be at least 1
+	 * @param timeout the maximum time in milliseconds used to structure a model, must be at least 1
+	 */
+	public ModelStructuringUnit(int maxNodes, long timeout) {
+		this.structurer = new ModelStructurer(maxNodes, timeout);
+	}
 	
 	@Override
 	public IUnitData<Object> execute(IUnitData<Object> input) throws IllegalTypeException {
@@ -54,11 +76,13 @@ public class ModelStructuringUnit implements IUnit<IUnitData<Object>, IUnitData<
 			return input;
 		}
 		if (input instanceof IUnitDataClassification<?>){
-			((IUnitDataClassification<Object>) input).setStructured(StructuralModelChecker.isStructured((ProcessModel) input.getValue()));
-			ProcessModel structuredProcess = StructuralModelChecker.structure((ProcessModel) input.getValue());
-			//TODO save structured model
-			((IUnitDataClassification<Object>) input).setAsStructurable(structuredProcess != null ? true : false);
-			
+			ModelAnalysisContext context = ModelAnalysisContext.getContext(input, (ProcessModel) input.getValue());
+			IUnitDataClassification<Object> result = (IUnitDataClassification<Object>) input;
+			result.setStructured(StructuralModelChecker.isStructured(context));
+			StructuringResult structuringResult = this.structurer.structure(context);
+			result.setAsStructurable(structuringResult.getStructuredModel() != null);
+			result.setStructuredModel(structuringResult.getStructuredModel());
+			result.setExpansionFactor(structuringResult.getExpansionFactor());
 		}
 		return input;
 	}
@@ -22,10 +22,11 @@ import java.util.logging.Logger;
 import org.jbpt.petri.Flow;
 import org.jbpt.petri.NetSystem;
 import org.jbpt.petri.PetriNet;
-import org.jbpt.petri.bevahior.LolaSoundnessChecker;
 import org.jbpt.petri.structure.PetriNetPathUtils;
 import org.jbpt.petri.structure.PetriNetStructuralClassChecks;
 
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.soundness.StateSpaceSoundnessChecker;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.soundness.TieredSoundnessChecker;
 import de.uni_potsdam.hpi.bpt.promnicat.util.IllegalTypeException;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.IUnit;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitData;
@@ -33,7 +34,7 @@ import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitDataClassific
 
 /**
  * This class analysis a {@link PetriNet} according to the following criteria:
- * <li> soundness (using the {@link LolaSoundnessChecker})</li>
+ * <li> soundness (using the {@link TieredSoundnessChecker})</li>
  * <li> is cyclic </li>
  * <li> is free choice </li>
  * <li> is extended free choice </li>
@@ -54,6 +55,32 @@ public class PetriNetAnalyzerUnit implements IUnit<IUnitData<Object>, IUnitData<
 	 */
 	private Logger logger = Logger.getLogger(PetriNetAnalyzerUnit.class.getName());
 	
+	private final TieredSoundnessChecker soundnessChecker;
+	
+	/**
+	 * Creates a new {@link PetriNetAnalyzerUnit}, which explores at most
+	 * {@link StateSpaceSoundnessChecker#DEFAULT_STATE_BUDGET} markings per net.
+	 */
+	public PetriNetAnalyzerUnit() {
+		this(StateSpaceSoundnessChecker.DEFAULT_STATE_BUDGET);
+	}
+	
+	/**
+	 * Creates a new {@link PetriNetAnalyzerUnit}.
+	 * @param stateBudget the maximum number of markings to explore per net, the soundness results
+	 * are not set for nets having more markings
+	 */
+	public PetriNetAnalyzerUnit(int stateBudget) {
+		this.soundnessChecker = new TieredSoundnessChecker(stateBudget);
+	}
+	
+	/**
+	 * @return the checker used for the soundness analysis, which counts the nets decided by each of its tiers
+	 */
+	public TieredSoundnessChecker getSoundnessChecker() {
+		return this.soundnessChecker;
+	}
+	
 	@Override
 	public IUnitData<Object> execute(IUnitData<Object> input) throws IllegalTypeException {
 		if (input == null) {
@@ -78,7 +105,7 @@ public class PetriNetAnalyzerUnit implements IUnit<IUnitData<Object>, IUnitData<
 					netSystem.addFlow(edge.getSource(), edge.getTarget());
 				}
 				netSystem.loadNaturalMarking();
-				((IUnitDataClassification<?>) input).setSoundnessResults(LolaSoundnessChecker.analyzeSoundness(netSystem));
+				((IUnitDataClassification<?>) input).setSoundnessResults(this.soundnessChecker.analyzeSoundness(netSystem));
 			} catch (Exception e) {
 				logger.warning("Soundness check failed with message: " + e.getMessage());
 			}
@@ -19,12 +19,15 @@ package de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.extractor;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Logger;
 
 import org.jbpt.pm.ProcessModel;
 
 import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.metrics.ProcessMetricsCalculator;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.metrics.ProcessMetricsStore;
 import de.uni_potsdam.hpi.bpt.promnicat.util.IllegalTypeException;
+import de.uni_potsdam.hpi.bpt.promnicat.util.ModelAnalysisContext;
 import de.uni_potsdam.hpi.bpt.promnicat.util.ProcessMetricConstants;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.IUnit;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitData;
@@ -56,6 +59,22 @@ public class ProcessModelMetricsCalculatorUnit implements IUnit<IUnitData<Object
 	 */
 	private Collection<ProcessMetricConstants.METRICS> metricsToCalculate = null;
 	
+	/**
+	 * minimum number of nodes a {@link ProcessModel} must have to calculate its metrics in parallel.
+	 * A non-positive value disables parallel metric calculation.
+	 */
+	private int parallelCalculationThreshold = 0;
+	
+	/**
+	 * pool used for parallel metric calculation of large {@link ProcessModel}s
+	 */
+	private volatile ForkJoinPool forkJoinPool = null;
+	
+	/**
+	 * store used to look up already calculated metric values and to save new ones
+	 */
+	private ProcessMetricsStore metricsStore = null;
+	
 	/**
 	 * Creates a new unit which calculates all available metrics in the
 	 * {@link #execute(IUnitData)} method and includes all available sub process
@@ -108,15 +127,92 @@ public class ProcessModelMetricsCalculatorUnit implements IUnit<IUnitData<Object
 		if (!(input instanceof IUnitDataProcessMetrics<?>)){
 			throw new IllegalTypeException(IUnitDataProcessMetrics.class, input.getClass(), "Got wrong input type in " + this.getName());
 		}
-		ProcessMetricsCalculator metricsCalculator = new ProcessMetricsCalculator();
-		if (this.metricsToCalculate.isEmpty()) {
-			metricsCalculator.calculateAllProcessMetrics((IUnitDataProcessMetrics<Object>) input, this.includeSubProcesses);
+		IUnitDataProcessMetrics<Object> unitData = (IUnitDataProcessMetrics<Object>) input;
+		//look up already calculated metric values if possible, the content key has been set by the transforming unit
+		String contentKey = null;
+		if (this.metricsStore != null && input.getDbId() != null) {
+			contentKey = unitData.getContentKey();
+			if (contentKey != null && this.metricsStore.loadMetrics(input.getDbId(), contentKey, 
+					this.includeSubProcesses, this.metricsToCalculate, unitData)) {
+				return input;
+			}
+		}
+		ModelAnalysisContext analysisContext = null;
+		if (input.getValue() instanceof ProcessModel) {
+			//share the transitive closure among all metrics and with other units of the chain
+			analysisContext = ModelAnalysisContext.getContext(input, (ProcessModel) input.getValue());
+		}
+		ProcessMetricsCalculator metricsCalculator = new ProcessMetricsCalculator(analysisContext);
+		ForkJoinPool pool = this.forkJoinPool;
+		if (this.isParallelCalculationNeeded(input.getValue(), metricsCalculator, pool)) {
+			metricsCalculator.calculateProcessMetrics(this.metricsToCalculate, unitData, this.includeSubProcesses, pool);
+		} else if (this.metricsToCalculate.isEmpty()) {
+			metricsCalculator.calculateAllProcessMetrics(unitData, this.includeSubProcesses);
 		} else {
-			metricsCalculator.calculateProcessMetrics(this.metricsToCalculate, (IUnitDataProcessMetrics<Object>) input, this.includeSubProcesses);
+			metricsCalculator.calculateProcessMetrics(this.metricsToCalculate, unitData, this.includeSubProcesses);
+		}
+		//save calculated metric values for the next run
+		if (contentKey != null) {
+			this.metricsStore.saveMetrics(input.getDbId(), contentKey, this.includeSubProcesses, this.metricsToCalculate, unitData);
 		}
 		return input;
 	}
 
+	/**
+	 * Enables the parallel calculation of the metrics of one {@link ProcessModel}, if the model
+	 * has at least the given number of nodes. Smaller models are still processed sequentially,
+	 * because the task overhead would exceed the gain.
+	 * @param modelSizeThreshold minimum number of nodes a {@link ProcessModel} must have to calculate
+	 * its metrics in parallel. A non-positive value disables parallel calculation.
+	 * @param parallelism the number of threads used for parallel metric calculation. If a non-positive
+	 * value is given, the number of available processors is used.
+	 */
+	public synchronized void setParallelCalculation(int modelSizeThreshold, int parallelism) {
+		this.parallelCalculationThreshold = modelSizeThreshold;
+		if (parallelism <= 0) {
+			parallelism = Runtime.getRuntime().availableProcessors();
+		}
+		if (modelSizeThreshold <= 0) {
+			shutdownPool();
+		} else if (this.forkJoinPool == null || this.forkJoinPool.getParallelism() != parallelism) {
+			shutdownPool();
+			this.forkJoinPool = new ForkJoinPool(parallelism);
+		}
+	}
+	
+	/**
+	 * Shuts down the pool used for parallel metric calculation, if any. Running calculations are finished.
+	 */
+	private void shutdownPool() {
+		if (this.forkJoinPool != null) {
+			this.forkJoinPool.shutdown();
+			this.forkJoinPool = null;
+		}
+	}
+
+	/**
+	 * Sets the store used to look up already calculated metric values of unchanged process models.
+	 * Newly calculated metric values are saved in this store.
+	 * @param metricsStore the store to use or <code>null</code> to calculate all metrics during each execution.
+	 */
+	public void setMetricsStore(ProcessMetricsStore metricsStore) {
+		this.metricsStore = metricsStore;
+	}
+
+	/**
+	 * @param model the model to calculate the metrics for
+	 * @param metricsCalculator the calculator used to determine the model size
+	 * @param pool the pool used for parallel metric calculation, might be <code>null</code>
+	 * @return <code>true</code> if the metrics of the given model should be calculated
+	 * in parallel, <code>false</code> otherwise.
+	 */
+	private boolean isParallelCalculationNeeded(Object model, ProcessMetricsCalculator metricsCalculator, ForkJoinPool pool) {
+		if (pool == null || !(model instanceof ProcessModel)) {
+			return false;
+		}
+		return metricsCalculator.getNumberOfNodes((ProcessModel) model, this.includeSubProcesses) >= this.parallelCalculationThreshold;
+	}
+
 	@Override
 	public Class<?> getInputType() {
 		return ProcessModel.class;
@@ -24,6 +24,7 @@ import org.json.JSONException;
 
 import de.uni_potsdam.hpi.bpt.ai.diagram.Diagram;
 import de.uni_potsdam.hpi.bpt.ai.diagram.DiagramBuilder;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.metrics.ProcessMetricsStore;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Representation;
 import de.uni_potsdam.hpi.bpt.promnicat.util.IllegalTypeException;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.IUnit;
@@ -55,6 +56,7 @@ public class BpmaiJsonToDiagramUnit implements IUnit<IUnitData<Object>, IUnitDat
 		}
 		if(input instanceof IUnitDataProcessMetrics<?>){
 			((IUnitDataProcessMetrics<?>) input).setModelPath(((Representation)input.getValue()).getOriginalFilePath());
+			((IUnitDataProcessMetrics<?>) input).setContentKey(ProcessMetricsStore.getContentKey((Representation)input.getValue()));
 		} else if (input instanceof IUnitDataClassification<?>) {
 			((IUnitDataClassification<?>) input).setModelPath(((Representation)input.getValue()).getOriginalFilePath());
 		}
@@ -0,0 +1,120 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.transformer;
+
+import java.util.logging.Logger;
+
+import org.jbpt.pm.ProcessModel;
+import org.json.JSONException;
+
+import de.uni_potsdam.hpi.bpt.ai.diagram.Diagram;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.metrics.ProcessMetricsStore;
+import de.uni_potsdam.hpi.bpt.promnicat.parser.BpmaiJsonStreamParser;
+import de.uni_potsdam.hpi.bpt.promnicat.parser.ModelParser;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Representation;
+import de.uni_potsdam.hpi.bpt.promnicat.util.IllegalTypeException;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.IUnit;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitData;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitDataClassification;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitDataJbpt;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitDataProcessMetrics;
+
+/**
+ * Utility Unit to transform a process model given as BPM AI JSON directly into a jBPT {@link ProcessModel}.
+ * It replaces the {@link BpmaiJsonToDiagramUnit} and the {@link DiagramToJbptUnit}, but streams the JSON
+ * from the bytes of the {@link Representation} with a {@link BpmaiJsonStreamParser}. Hence, neither an
+ * intermediate {@link String} nor a {@link Diagram} of the model is built.
+ * 
+ * The expected input type is {@link IUnitData}<{@link Representation}>.
+ * The output type is {@link IUnitData}<{@link ProcessModel}>.
+ * 
+ * @author Tobias Hoppe, Cindy Fähnrich
+ *
+ */
+public class BpmaiJsonToJbptUnit implements IUnit<IUnitData<Object>, IUnitData<Object> > {
+	
+	private Logger logger = Logger.getLogger(BpmaiJsonToJbptUnit.class.getName());
+	
+	/**
+	 * The parser shared by all executions of this unit. It only parses "correct" process models
+	 * if the underlying {@link ModelParser} is strict or also the erroneous ones otherwise.
+	 */
+	private final BpmaiJsonStreamParser parser;
+
+	/**
+	 * Transforms BPM AI JSON into a {@link ProcessModel}.
+	 * Erroneous models will be skipped.
+	 */
+	public BpmaiJsonToJbptUnit() {
+		this(false);
+	}
+	
+	/**
+	 * Transforms BPM AI JSON into a {@link ProcessModel}.
+	 * @param strictness set to <code>true</code> if erroneous models should be skipped.
+	 */
+	public BpmaiJsonToJbptUnit(boolean strictness) {
+		this.parser = new BpmaiJsonStreamParser(new ModelParser(strictness));
+	}
+	
+	@Override
+	public IUnitData<Object> execute(IUnitData<Object> input) throws IllegalTypeException {
+		if (input == null) {
+			throw new IllegalArgumentException("Got an invalid null pointer input!");
+		}
+		if (!(input.getValue() instanceof Representation)){
+			throw new IllegalTypeException(Representation.class, input.getValue().getClass(), "Got wrong input type in" + this.getName());
+		}
+		Representation representation = (Representation) input.getValue();
+		if(input instanceof IUnitDataProcessMetrics<?>){
+			((IUnitDataProcessMetrics<?>) input).setModelPath(representation.getOriginalFilePath());
+			((IUnitDataProcessMetrics<?>) input).setContentKey(ProcessMetricsStore.getContentKey(representation));
+		} else if (input instanceof IUnitDataClassification<?>) {
+			((IUnitDataClassification<?>) input).setModelPath(representation.getOriginalFilePath());
+		}
+
+		ProcessModel processModel;
+		try {
+			processModel = this.parser.transformProcess(representation.getDataContent());
+		} catch (JSONException e) {
+			logger.severe("JSON parsing failed, got message:\n" + e.getMessage());
+			input.setValue(null);
+			return input;
+		}
+		if (input instanceof IUnitDataJbpt<?>) {
+			((IUnitDataJbpt<Object>) input).setProcessModel(processModel);
+		}
+		input.setValue(processModel);
+		return input;
+	}
+
+	@Override
+	public String getName(){
+		return "BpmaiJsonToJbptUnit";
+	}
+
+	@Override
+	public Class<?> getInputType() {
+		return Representation.class;
+	}
+
+	@Override
+	public Class<?> getOutputType() {
+		return ProcessModel.class;
+	}
+}
@@ -38,10 +38,10 @@ import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitDataJbpt;
 public class DiagramToJbptUnit implements IUnit<IUnitData<Object>, IUnitData<Object> > {
 
 	/**
-	 * Indicates whether the unit only parses "correct" process models (true) or also
-	 * the erroneous ones (false)
+	 * The parser shared by all executions of this unit. It only parses "correct" process models
+	 * if it is strict or also the erroneous ones otherwise.
 	 */
-	private boolean strictness;
+	private final ModelParser parser;
 
 	/**
 	 * Transforms a {@link Diagram} into a {@link ProcessModel}.
@@ -56,7 +56,7 @@ public class DiagramToJbptUnit implements IUnit<IUnitData<Object>, IUnitData<Obj
 	 * @param strictness set to <code>true</code> if erroneous models should be skipped.
 	 */
 	public DiagramToJbptUnit(boolean strictness) {
-		this.strictness = strictness;
+		this.parser = new ModelParser(strictness);
 	}
 	
 	@Override
@@ -67,7 +67,7 @@ public class DiagramToJbptUnit implements IUnit<IUnitData<Object>, IUnitData<Obj
 		if (!(input.getValue() instanceof Diagram)){
 			throw new IllegalTypeException(Diagram.class, input.getValue().getClass(), "Got wrong input type in" + this.getName());
 		}
-		ProcessModel processModel = new ModelParser(this.strictness).transformProcess((Diagram) input.getValue());
+		ProcessModel processModel = this.parser.transformProcess((Diagram) input.getValue());
 		if (input instanceof IUnitDataJbpt<?>) {
 			((IUnitDataJbpt<Object>) input).setProcessModel(processModel);
 		}
@@ -17,6 +17,9 @@
  */
 package de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.transformer;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import org.jbpt.petri.PetriNet;
@@ -25,6 +28,7 @@ import org.jbpt.pm.bpmn.Bpmn;
 import org.jbpt.pm.epc.Epc;
 import org.jbpt.throwable.TransformationException;
 
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.classification.BinaryPetriNetSerializer;
 import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.classification.PetriNetSerializer;
 import de.uni_potsdam.hpi.bpt.promnicat.modelConverter.ModelToPetriNetConverter;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
@@ -32,6 +36,7 @@ import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Representation;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Revision;
 import de.uni_potsdam.hpi.bpt.promnicat.util.Constants;
 import de.uni_potsdam.hpi.bpt.promnicat.util.IllegalTypeException;
+import de.uni_potsdam.hpi.bpt.promnicat.util.ModelAnalysisContext;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.IUnit;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitData;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitDataClassification;
@@ -42,13 +47,24 @@ import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitDataJbpt;
  * like {@link Bpmn} or {@link Epc} into a {@link PetriNet}.
  * The expected input type is {@link IUnitData}<{@link ProcessModel}>.
  * The output type is {@link IUnitData}<{@link PetriNet}>.
+ * <br/><br/>
+ * If a database is used, transformed {@link PetriNet}s are saved in the binary format of
+ * {@link BinaryPetriNetSerializer} and kept in an index from the database id of the transformed
+ * {@link Representation} to the serialized {@link PetriNet}. Hence, repeated transformations
+ * of the same {@link Representation} neither access the database nor parse any PNML.
  * @author Tobias Hoppe
  *
  */
 public class ModelToPetriNetUnit implements IUnit<IUnitData<Object>, IUnitData<Object> > {
 
+	/**
+	 * Default maximum number of {@link PetriNet}s kept in the index.
+	 */
+	public static final int DEFAULT_INDEX_SIZE = 10000;
+
 	private Logger logger = Logger.getLogger(ModelToPetriNetUnit.class.getName());
 	private IPersistenceApi persistenceApi = null;
+	private Map<String, byte[]> petriNetIndex = null;
 	
 	/**
 	 * Create a new instance of {@link ModelToPetriNetUnit}
@@ -65,7 +81,31 @@ public class ModelToPetriNetUnit implements IUnit<IUnitData<Object>, IUnitData<O
 	 * @param persistenceApi the database instance to use for {@link PetriNet} lookup.
 	 */
 	public ModelToPetriNetUnit(IPersistenceApi persistenceApi) {
+		this(persistenceApi, DEFAULT_INDEX_SIZE);
+	}
+
+	/**
+	 * Create a new instance of {@link ModelToPetriNetUnit}
+	 * looking up already parsed {@link PetriNet}s in the index and in the database before
+	 * trying to transform them from {@link ProcessModel} during execution.
+	 * @param persistenceApi the database instance to use for {@link PetriNet} lookup.
+	 * @param indexSize the maximum number of {@link PetriNet}s kept in the index, must be at least 1.
+	 * If the index is full, the least recently used {@link PetriNet} is removed.
+	 */
+	public ModelToPetriNetUnit(IPersistenceApi persistenceApi, final int indexSize) {
+		if (indexSize < 1) {
+			throw new IllegalArgumentException("The index size must be at least 1, but was " + indexSize + ".");
+		}
 		this.persistenceApi = persistenceApi;
+		this.petriNetIndex = Collections.synchronizedMap(new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+				return size() > indexSize;
+			}
+		});
 	}
 	
 	/* (non-Javadoc)
@@ -79,30 +119,21 @@ public class ModelToPetriNetUnit implements IUnit<IUnitData<Object>, IUnitData<O
 		}
 		//look up already parsed PetriNet if possible
 		if (this.persistenceApi != null && input.getDbId() != null) {
-			Representation pmRepresentation = this.persistenceApi.loadRepresentation(input.getDbId());
-			if(pmRepresentation != null) {
-				if (pmRepresentation.getRevision() != null) {
-					for (Representation representation : pmRepresentation.getRevision().getRepresentations()) {
-						if(representation.getNotation().equals(Constants.NOTATIONS.PETRINET)) {
-							pn = PetriNetSerializer.parsePetriNet(representation.getDataContent());
-							if(pn != null) {
-								input.setValue(pn);
-								return input;
-							} else {
-								logger.info("Petri Net could not be loaded. Try to transform current process model.");
-								break;
-							}
-						}
-					}
+			pn = lookUpPetriNet(input.getDbId());
+			if (pn != null) {
+				if (input instanceof IUnitDataClassification<?>) {
+					((IUnitDataClassification<Object>) input).setPetriNet(pn);
 				}
+				input.setValue(pn);
+				return input;
 			}
-		}		
+		}
 		//search for process model to parse. can be given as value of input or stored
 		// in special field if input is of type IUnitDataJbpt.
 		if (!(input.getValue() instanceof ProcessModel)){
 			if (input instanceof IUnitDataJbpt<?>) {
 				if (((IUnitDataJbpt<Object>) input).getProcessModel() != null) {
-					pn = transformProcessModelToPetriNet(((IUnitDataJbpt<Object>) input).getProcessModel());
+					pn = transformProcessModelToPetriNet(input, ((IUnitDataJbpt<Object>) input).getProcessModel());
 				} else {
 					logger.severe("No process model found for transformation to petri net!");
 					input.setValue(null);
@@ -112,7 +143,7 @@ public class ModelToPetriNetUnit implements IUnit<IUnitData<Object>, IUnitData<O
 				throw new IllegalTypeException(ProcessModel.class, input.getValue().getClass(), "Got wrong input type in" + this.getName());
 			}
 		} else {
-			pn = transformProcessModelToPetriNet((ProcessModel) input.getValue());
+			pn = transformProcessModelToPetriNet(input, (ProcessModel) input.getValue());
 		}
 		//save parsed petri net
 		if(pn != null) {
@@ -163,25 +194,71 @@ public class ModelToPetriNetUnit implements IUnit<IUnitData<Object>, IUnitData<O
 			logger.warning("Petri Net could not be saved, due to missing database model of current process model!");
 			return;
 		}
-		byte[] petriNetBytes = PetriNetSerializer.serialize(petriNet);
-		if(petriNetBytes == null) {
-			logger.warning("Petri Net could not be saved, due to failing serialization!");
-			return;
-		}
-		Representation representation = new Representation(Constants.FORMATS.PNML.toString(), Constants.NOTATIONS.PETRINET.toString(), petriNetBytes);
+		byte[] petriNetBytes = BinaryPetriNetSerializer.serialize(petriNet);
+		Representation representation = new Representation(Constants.FORMATS.PETRINET_BINARY.toString(), Constants.NOTATIONS.PETRINET.toString(), petriNetBytes);
 		pmRepresentation.getRevision().connectRepresentation(representation);
 		this.persistenceApi.savePojo(pmRepresentation.getModel());
+		this.petriNetIndex.put(dbId, petriNetBytes);
+	}
+
+	/**
+	 * Looks up the {@link PetriNet} transformed from the {@link Representation} with the given database id.
+	 * The index is searched first, afterwards the database is queried for a {@link PetriNet} in binary or
+	 * PNML format belonging to the {@link Revision} of the {@link Representation}. Loaded {@link Representation}s
+	 * only contain themselves in their {@link Revision}, hence the query is needed.
+	 * A found {@link PetriNet} is added to the index.
+	 * @param dbId database id of the transformed {@link ProcessModel}'s representation
+	 * @return the found {@link PetriNet} or <code>null</code> if no valid {@link PetriNet} could be found.
+	 */
+	private PetriNet lookUpPetriNet(String dbId) {
+		byte[] petriNetBytes = this.petriNetIndex.get(dbId);
+		if (petriNetBytes != null) {
+			return BinaryPetriNetSerializer.parsePetriNet(petriNetBytes);
+		}
+		Representation pmRepresentation = this.persistenceApi.loadRepresentation(dbId);
+		if (pmRepresentation == null || pmRepresentation.getRevision() == null || pmRepresentation.getRevision().getDbId() == null) {
+			return null;
+		}
+		Representation pnmlRepresentation = null;
+		for (Object result : this.persistenceApi.load("SELECT FROM " + Representation.class.getSimpleName()
+				+ " WHERE revision = " + pmRepresentation.getRevision().getDbId()
+				+ " AND notation = '" + Constants.NOTATIONS.PETRINET + "'")) {
+			Representation representation = (Representation) result;
+			if (representation.getFormat().equals(Constants.FORMATS.PETRINET_BINARY.toString())) {
+				try {
+					PetriNet petriNet = BinaryPetriNetSerializer.parsePetriNet(representation.getDataContent());
+					this.petriNetIndex.put(dbId, representation.getDataContent());
+					return petriNet;
+				} catch (IllegalArgumentException e) {
+					logger.info("Petri Net could not be loaded: " + e.getMessage());
+				}
+			} else if (representation.getFormat().equals(Constants.FORMATS.PNML.toString())) {
+				pnmlRepresentation = representation;
+			}
+		}
+		//fall back to Petri Nets saved in PNML format
+		if (pnmlRepresentation != null) {
+			try {
+				PetriNet petriNet = PetriNetSerializer.parsePetriNet(pnmlRepresentation.getDataContent());
+				this.petriNetIndex.put(dbId, BinaryPetriNetSerializer.serialize(petriNet));
+				return petriNet;
+			} catch (Exception e) {
+				logger.info("Petri Net could not be loaded: " + e.getMessage());
+			}
+		}
+		return null;
 	}
 
 	/**
 	 * Transforms a given {@link ProcessModel} into a {@link PetriNet}.
 	 * If the given {@link ProcessModel} can not be transformed, a warning is logged.
+	 * @param input the {@link IUnitData} sharing the {@link ModelAnalysisContext} of the given {@link ProcessModel}
 	 * @param processModel to transform
 	 * @return <code>null</code> if the transformation failed, otherwise the generated {@link PetriNet}.
 	 */
-	private PetriNet transformProcessModelToPetriNet(ProcessModel processModel) {
+	private PetriNet transformProcessModelToPetriNet(IUnitData<Object> input, ProcessModel processModel) {
 		try {
-			return new ModelToPetriNetConverter().convertToPetriNet(processModel);
+			return new ModelToPetriNetConverter().convertToPetriNet(processModel, ModelAnalysisContext.getContext(input, processModel));
 		} catch (TransformationException e) {
 			logger.severe("This process model can not be transformed to a petri net: " + processModel.toString()
 					+ "\nThe follwoing exception has been thrown: " + e.getMessage());
@@ -18,6 +18,7 @@
 package de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData;
 
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Representation;
+import de.uni_potsdam.hpi.bpt.promnicat.util.ModelAnalysisContext;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.IUnit;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.IUnitChain;
 
@@ -55,4 +56,16 @@ public interface IUnitData<V extends Object> {
 	 */
 	public void setDbId(String dbId);
 
+	/**
+	 * Get the analysis results of the process model shared by the {@link IUnit}s of the {@link IUnitChain}.
+	 * @return the {@link ModelAnalysisContext} of the process model or <code>null</code> if none has been set yet
+	 */
+	public ModelAnalysisContext getAnalysisContext();
+
+	/**
+	 * Set the analysis results of the process model shared by the {@link IUnit}s of the {@link IUnitChain}.
+	 * @param analysisContext the {@link ModelAnalysisContext} of the process model
+	 */
+	public void setAnalysisContext(ModelAnalysisContext analysisContext);
+
 }
@@ -195,4 +195,26 @@ public interface IUnitDataClassification<V extends Object> extends IUnitDataJbpt
 	 * @param canBeStructured the canBeStructured to set
 	 */
 	public void setAsStructurable(boolean canBeStructured);
+
+	/**
+	 * @return the structured {@link ProcessModel} or <code>null</code> if
+	 * the model could not be structured
+	 */
+	public ProcessModel getStructuredModel();
+
+	/**
+	 * @param structuredModel the structured {@link ProcessModel} to set
+	 */
+	public void setStructuredModel(ProcessModel structuredModel);
+
+	/**
+	 * @return the number of nodes of the structured model divided by the number of nodes
+	 * of the original model
+	 */
+	public double getExpansionFactor();
+
+	/**
+	 * @param expansionFactor the expansion factor of the structuring to set
+	 */
+	public void setExpansionFactor(double expansionFactor);
 }
@@ -102,6 +102,12 @@ public interface IUnitDataProcessMetrics<V extends Object> extends IUnitData<V>
 	 * @return the modelPath
 	 */
 	public String getModelPath();
+	
+	/**
+	 * @return the key identifying the content of the analyzed representation
+	 * or <code>null</code> if it is unknown
+	 */
+	public String getContentKey();
 
 	/**
 	 * @return the number of {@link Activity}s
@@ -252,6 +258,11 @@ public interface IUnitDataProcessMetrics<V extends Object> extends IUnitData<V>
 	 * @param modelPath the Model Path to set
 	 */
 	public void setModelPath(String modelPath);
+	
+	/**
+	 * @param contentKey the key identifying the content of the analyzed representation
+	 */
+	public void setContentKey(String contentKey);
 
 	/**
 	 * @param numberOfActivities the number of {@link Activity}s to set
@@ -18,6 +18,7 @@
 package de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData;
 
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Representation;
+import de.uni_potsdam.hpi.bpt.promnicat.util.ModelAnalysisContext;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.IUnit;
 import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.IUnitChain;
 
@@ -38,6 +39,11 @@ public class UnitData<V extends Object> implements IUnitData<V> {
 	 */
 	private String dbId = null;
 	
+	/**
+	 * analysis results of the used process model shared by the {@link IUnit}s
+	 */
+	private ModelAnalysisContext analysisContext = null;
+	
 	/**
 	 * An empty result with <code>null</code> elements
 	 */
@@ -89,4 +95,14 @@ public class UnitData<V extends Object> implements IUnitData<V> {
 	public void setDbId(String dbId) {
 		this.dbId = dbId;
 	}
+
+	@Override
+	public ModelAnalysisContext getAnalysisContext() {
+		return this.analysisContext;
+	}
+
+	@Override
+	public void setAnalysisContext(ModelAnalysisContext analysisContext) {
+		this.analysisContext = analysisContext;
+	}
 }
@@ -51,6 +51,8 @@ public class UnitDataClassification<V extends Object> extends UnitDataJbpt<V> im
 	private boolean isWorkflowNet = false;
 	private boolean isStructured = false;
 	private boolean canBeStructured = false;
+	private ProcessModel structuredModel = null;
+	private double expansionFactor = 1.0;
 
 	/**
 	 * Creates an empty result with <code>null</code> elements.
@@ -296,4 +298,24 @@ public class UnitDataClassification<V extends Object> extends UnitDataJbpt<V> im
 		this.canBeStructured = canBeStructured;
 	}
 
+	@Override
+	public ProcessModel getStructuredModel() {
+		return structuredModel;
+	}
+
+	@Override
+	public void setStructuredModel(ProcessModel structuredModel) {
+		this.structuredModel = structuredModel;
+	}
+
+	@Override
+	public double getExpansionFactor() {
+		return expansionFactor;
+	}
+
+	@Override
+	public void setExpansionFactor(double expansionFactor) {
+		this.expansionFactor = expansionFactor;
+	}
+
 }
@@ -35,6 +35,8 @@ public class UnitDataProcessMetrics<V extends Object> extends UnitData<V> implem
 	
 	private String modelPath = "";
 	
+	private String contentKey = null;
+	
 	private double averageConnectorDegree = 0;
 	private double coefficientOfConnectivity = 0;
 	private double coefficientOfNetworkComplexity = 0;
@@ -155,6 +157,11 @@ public class UnitDataProcessMetrics<V extends Object> extends UnitData<V> implem
 	public String getModelPath() {
 		return modelPath;
 	}
+	
+	@Override
+	public String getContentKey() {
+		return contentKey;
+	}
 
 	@Override
 	public int getNumberOfActivities() {
@@ -307,6 +314,11 @@ public class UnitDataProcessMetrics<V extends Object> extends UnitData<V> implem
 	public void setModelPath(String modelPath) {
 		this.modelPath = modelPath;
 	}
+	
+	@Override
+	public void setContentKey(String contentKey) {
+		this.contentKey = contentKey;
+	}
 
 	@Override
 	public void setNumberOfActivities(int numberOfActivities) {
@@ -337,4 +337,42 @@ public class TestModelBuilder {
 		}
 		return model;
 	}
+
+	/**
+	 * @return the following acyclic, but unstructured {@link ProcessModel}:
+	 * 
+	 * e1->xor1->t1------->xor3->t3->xor4->e2
+	 * 		|				|			|
+	 * 		|->t2->xor2---->|			|
+	 * 				|-------->t4------->|
+	 * 
+	 */
+	public static ProcessModel getUnstructuredAcyclicModel() {
+		ProcessModel model = new ProcessModel();
+		
+		StartEvent e1 = new StartEvent("e1");
+		XorGateway xor1 = new XorGateway("xor1");
+		Activity t1 = new Activity("t1");
+		Activity t2 = new Activity("t2");
+		XorGateway xor2 = new XorGateway("xor2");
+		XorGateway xor3 = new XorGateway("xor3");
+		Activity t3 = new Activity("t3");
+		Activity t4 = new Activity("t4");
+		XorGateway xor4 = new XorGateway("xor4");
+		EndEvent e2 = new EndEvent("e2");
+		
+		model.addControlFlow(e1, xor1);
+		model.addControlFlow(xor1, t1);
+		model.addControlFlow(xor1, t2);
+		model.addControlFlow(t1, xor3);
+		model.addControlFlow(t2, xor2);
+		model.addControlFlow(xor2, xor3);
+		model.addControlFlow(xor2, t4);
+		model.addControlFlow(xor3, t3);
+		model.addControlFlow(t3, xor4);
+		model.addControlFlow(t4, xor4);
+		model.addControlFlow(xor4, e2);
+		
+		return model;
+	}
 }
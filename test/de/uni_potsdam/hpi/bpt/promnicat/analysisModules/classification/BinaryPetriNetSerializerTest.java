@@ -0,0 +1,146 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.classification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.Node;
+import org.jbpt.petri.PetriNet;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.pm.bpmn.Bpmn;
+import org.junit.Test;
+
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.TestModelBuilder;
+import de.uni_potsdam.hpi.bpt.promnicat.modelConverter.ModelToPetriNetConverter;
+
+/**
+ * Test class for {@link BinaryPetriNetSerializer}.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+public class BinaryPetriNetSerializerTest {
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		PetriNet petriNet = new ModelToPetriNetConverter().convertToPetriNet(TestModelBuilder.getModelWithoutOrGateway(Bpmn.class));
+		byte[] content = BinaryPetriNetSerializer.serialize(petriNet);
+		assertTrue(BinaryPetriNetSerializer.isBinaryPetriNet(content));
+		assertTrue(content.length < PetriNetSerializer.serialize(petriNet).length);
+
+		PetriNet result = BinaryPetriNetSerializer.parsePetriNet(content);
+		assertEquals(petriNet.getId(), result.getId());
+		assertEquals(petriNet.getPlaces().size(), result.getPlaces().size());
+		assertEquals(petriNet.getTransitions().size(), result.getTransitions().size());
+		assertEquals(petriNet.getSilentTransitions().size(), result.getSilentTransitions().size());
+		assertEquals(petriNet.getFlow().size(), result.getFlow().size());
+		Map<String, Node> nodes = new HashMap<String, Node>();
+		for (Node node : result.getNodes()) {
+			nodes.put(node.getId(), node);
+		}
+		for (Node node : petriNet.getNodes()) {
+			Node resultNode = nodes.get(node.getId());
+			assertEquals(node.getClass(), resultNode.getClass());
+			assertEquals(node.getName(), resultNode.getName());
+			assertEquals(node.getDescription(), resultNode.getDescription());
+		}
+		for (Flow flow : petriNet.getFlow()) {
+			assertTrue(result.getDirectedEdge(nodes.get(flow.getSource().getId()), nodes.get(flow.getTarget().getId())) != null);
+		}
+	}
+
+	@Test
+	public void testNamesAndDescriptions() {
+		PetriNet petriNet = new PetriNet();
+		petriNet.setName("Prüfung äöü 中");
+		Place place = new Place("", "a description");
+		place.setName(null);
+		Transition transition = new Transition(repeat('x', 300));
+		petriNet.addFlow(place, transition);
+
+		PetriNet result = BinaryPetriNetSerializer.parsePetriNet(BinaryPetriNetSerializer.serialize(petriNet));
+		assertEquals(petriNet.getName(), result.getName());
+		Place resultPlace = result.getPlaces().iterator().next();
+		assertNull(resultPlace.getName());
+		assertEquals("a description", resultPlace.getDescription());
+		assertEquals(transition.getName(), result.getTransitions().iterator().next().getName());
+		assertEquals(1, result.getFlow().size());
+	}
+
+	@Test
+	public void testEmptyNet() {
+		PetriNet result = BinaryPetriNetSerializer.parsePetriNet(BinaryPetriNetSerializer.serialize(new PetriNet()));
+		assertTrue(result.getNodes().isEmpty());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testUnsupportedVersion() {
+		byte[] content = BinaryPetriNetSerializer.serialize(new PetriNet());
+		content[3] = (byte) (BinaryPetriNetSerializer.VERSION + 1);
+		BinaryPetriNetSerializer.parsePetriNet(content);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testTruncatedContent() {
+		PetriNet petriNet = new PetriNet();
+		petriNet.addFlow(new Place("p"), new Transition("t"));
+		byte[] content = BinaryPetriNetSerializer.serialize(petriNet);
+		BinaryPetriNetSerializer.parsePetriNet(Arrays.copyOf(content, content.length - 1));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testCorruptedStringLength() {
+		byte[] content = Arrays.copyOf(BinaryPetriNetSerializer.serialize(new PetriNet()), 9);
+		//the id's length is set to Integer.MAX_VALUE
+		content[4] = (byte) 0xFF;
+		content[5] = (byte) 0xFF;
+		content[6] = (byte) 0xFF;
+		content[7] = (byte) 0xFF;
+		content[8] = 0x07;
+		BinaryPetriNetSerializer.parsePetriNet(content);
+	}
+
+	@Test
+	public void testPnmlContent() {
+		PetriNet petriNet = new PetriNet();
+		petriNet.addFlow(new Place("p"), new Transition("t"));
+		assertFalse(BinaryPetriNetSerializer.isBinaryPetriNet(PetriNetSerializer.serialize(petriNet)));
+		assertFalse(BinaryPetriNetSerializer.isBinaryPetriNet(null));
+		try {
+			BinaryPetriNetSerializer.parsePetriNet(PetriNetSerializer.serialize(petriNet));
+		} catch (IllegalArgumentException e) {
+			return;
+		}
+		assertTrue("Expected an exception for PNML content!", false);
+	}
+
+	private String repeat(char character, int count) {
+		char[] characters = new char[count];
+		Arrays.fill(characters, character);
+		return new String(characters);
+	}
+}
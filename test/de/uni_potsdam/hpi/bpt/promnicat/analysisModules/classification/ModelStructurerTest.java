@@ -0,0 +1,239 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.classification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.jbpt.pm.Activity;
+import org.jbpt.pm.AndGateway;
+import org.jbpt.pm.FlowNode;
+import org.jbpt.pm.ProcessModel;
+import org.jbpt.pm.XorGateway;
+import org.jbpt.pm.bpmn.EndEvent;
+import org.jbpt.pm.bpmn.StartEvent;
+import org.jbpt.pm.epc.Epc;
+import org.junit.Test;
+
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.TestModelBuilder;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.classification.StructuringResult.Outcome;
+import de.uni_potsdam.hpi.bpt.promnicat.util.ModelAnalysisContext;
+
+/**
+ * Test class for {@link ModelStructurer}.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+public class ModelStructurerTest {
+
+	@Test
+	public void testAlreadyStructuredModel() throws Exception {
+		ProcessModel model = TestModelBuilder.getModelWithoutOrGateway(ProcessModel.class);
+		StructuringResult result = new ModelStructurer().structure(new ModelAnalysisContext(model));
+		assertEquals(Outcome.ALREADY_STRUCTURED, result.getOutcome());
+		assertSame(model, result.getStructuredModel());
+		assertEquals(1.0, result.getExpansionFactor(), 0.0);
+	}
+
+	@Test
+	public void testUnstructuredAcyclicModel() {
+		ProcessModel model = TestModelBuilder.getUnstructuredAcyclicModel();
+		assertTrue(!StructuralModelChecker.isStructured(model));
+		StructuringResult result = new ModelStructurer().structure(new ModelAnalysisContext(model));
+		assertEquals(Outcome.STRUCTURED, result.getOutcome());
+		ProcessModel structuredModel = result.getStructuredModel();
+		assertNotSame(model, structuredModel);
+		assertTrue(StructuralModelChecker.isStructured(structuredModel));
+		//t3 is duplicated, whereas the join in front of it is not needed anymore
+		assertEquals(2, countNodesLabeled(structuredModel, "t3"));
+		assertEquals(0, countNodesLabeled(structuredModel, "xor3"));
+		assertEquals((double) structuredModel.getFlowNodes().size() / model.getFlowNodes().size(), result.getExpansionFactor(), 0.0);
+		//original model must not be modified
+		assertEquals(10, model.getFlowNodes().size());
+		assertEquals(11, model.getControlFlow().size());
+		assertEquals(1, countNodesLabeled(model, "t3"));
+	}
+
+	@Test
+	public void testStructureViaChecker() throws Exception {
+		assertTrue(StructuralModelChecker.isStructured(StructuralModelChecker.structure(TestModelBuilder.getUnstructuredAcyclicModel())));
+		assertTrue(StructuralModelChecker.structure(TestModelBuilder.getSequence(5, Epc.class)) != null);
+	}
+
+	@Test
+	public void testCyclicModel() {
+		//loop with two exits and two entries
+		ProcessModel model = new ProcessModel();
+		StartEvent e1 = new StartEvent("e1");
+		XorGateway xor1 = new XorGateway("xor1");
+		Activity t1 = new Activity("t1");
+		XorGateway xor2 = new XorGateway("xor2");
+		Activity t2 = new Activity("t2");
+		XorGateway xor3 = new XorGateway("xor3");
+		Activity t3 = new Activity("t3");
+		XorGateway xor4 = new XorGateway("xor4");
+		EndEvent e2 = new EndEvent("e2");
+		model.addControlFlow(e1, xor1);
+		model.addControlFlow(xor1, t1);
+		model.addControlFlow(t1, xor2);
+		model.addControlFlow(xor2, t2);
+		model.addControlFlow(t2, xor3);
+		model.addControlFlow(xor3, xor1);
+		model.addControlFlow(xor2, t3);
+		model.addControlFlow(t3, xor1);
+		model.addControlFlow(xor3, xor4);
+		model.addControlFlow(xor2, xor4);
+		model.addControlFlow(xor4, e2);
+		assertTrue(!StructuralModelChecker.isStructured(model));
+		StructuringResult result = new ModelStructurer().structure(new ModelAnalysisContext(model));
+		assertEquals(Outcome.NOT_STRUCTURABLE, result.getOutcome());
+		assertNull(result.getStructuredModel());
+	}
+
+	@Test
+	public void testOverlappingConcurrentBranches() {
+		ProcessModel model = new ProcessModel();
+		StartEvent e1 = new StartEvent("e1");
+		AndGateway and1 = new AndGateway("and1");
+		AndGateway and2 = new AndGateway("and2");
+		AndGateway and3 = new AndGateway("and3");
+		AndGateway and4 = new AndGateway("and4");
+		AndGateway and5 = new AndGateway("and5");
+		AndGateway and6 = new AndGateway("and6");
+		EndEvent e2 = new EndEvent("e2");
+		model.addControlFlow(e1, and1);
+		model.addControlFlow(and1, and2);
+		model.addControlFlow(and1, and3);
+		model.addControlFlow(and2, and4);
+		model.addControlFlow(and2, and5);
+		model.addControlFlow(and3, and4);
+		model.addControlFlow(and3, and5);
+		model.addControlFlow(and4, and6);
+		model.addControlFlow(and5, and6);
+		model.addControlFlow(and6, e2);
+		StructuringResult result = new ModelStructurer().structure(new ModelAnalysisContext(model));
+		assertEquals(Outcome.NOT_STRUCTURABLE, result.getOutcome());
+		assertNull(result.getStructuredModel());
+	}
+
+	@Test
+	public void testBudgetExceeded() {
+		ProcessModel model = TestModelBuilder.getUnstructuredAcyclicModel();
+		StructuringResult result = new ModelStructurer(model.getFlowNodes().size(), ModelStructurer.DEFAULT_TIMEOUT)
+				.structure(new ModelAnalysisContext(model));
+		assertEquals(Outcome.BUDGET_EXCEEDED, result.getOutcome());
+		assertNull(result.getStructuredModel());
+		assertEquals(1.0, result.getExpansionFactor(), 0.0);
+	}
+
+	@Test
+	public void testNestedStructuredBlocks() {
+		for (int blocks = 1; blocks <= 6; blocks++) {
+			ProcessModel model = getModelWithNestedBlocks(blocks);
+			StructuringResult result = new ModelStructurer().structure(new ModelAnalysisContext(model));
+			assertEquals(Outcome.STRUCTURED, result.getOutcome());
+			assertTrue(StructuralModelChecker.isStructured(result.getStructuredModel()));
+			//only the part following the overlapping join is copied once
+			assertEquals(model.getFlowNodes().size() + 4 * blocks - 1, result.getStructuredModel().getFlowNodes().size());
+			assertTrue(result.getExpansionFactor() < 2.0);
+			for (int i = 1; i <= blocks; i++) {
+				assertEquals(2, countNodesLabeled(result.getStructuredModel(), "a" + i));
+			}
+		}
+	}
+
+	@Test
+	public void testTimeoutExceeded() {
+		ProcessModel model = getModelWithNestedBlocks(100);
+		StructuringResult result = new ModelStructurer(Integer.MAX_VALUE, 1).structure(new ModelAnalysisContext(model));
+		assertEquals(Outcome.BUDGET_EXCEEDED, result.getOutcome());
+		assertNull(result.getStructuredModel());
+	}
+
+	@Test
+	public void testInvalidBudgets() {
+		try {
+			new ModelStructurer(0, ModelStructurer.DEFAULT_TIMEOUT);
+			fail("A node budget of 0 must not be accepted!");
+		} catch (IllegalArgumentException e) {
+			//expected
+		}
+		try {
+			new ModelStructurer(ModelStructurer.DEFAULT_MAX_NODES, 0);
+			fail("A timeout of 0 must not be accepted!");
+		} catch (IllegalArgumentException e) {
+			//expected
+		}
+	}
+
+	/**
+	 * @return the unstructured model of {@link TestModelBuilder#getUnstructuredAcyclicModel()}, where
+	 * t3 has been replaced by the given number of well-structured exclusive blocks in sequence
+	 */
+	private ProcessModel getModelWithNestedBlocks(int blocks) {
+		ProcessModel model = new ProcessModel();
+		StartEvent e1 = new StartEvent("e1");
+		XorGateway xor1 = new XorGateway("xor1");
+		Activity t1 = new Activity("t1");
+		Activity t2 = new Activity("t2");
+		XorGateway xor2 = new XorGateway("xor2");
+		XorGateway xor3 = new XorGateway("xor3");
+		Activity t4 = new Activity("t4");
+		XorGateway xor4 = new XorGateway("xor4");
+		EndEvent e2 = new EndEvent("e2");
+		model.addControlFlow(e1, xor1);
+		model.addControlFlow(xor1, t1);
+		model.addControlFlow(xor1, t2);
+		model.addControlFlow(t1, xor3);
+		model.addControlFlow(t2, xor2);
+		model.addControlFlow(xor2, xor3);
+		model.addControlFlow(xor2, t4);
+		model.addControlFlow(t4, xor4);
+		model.addControlFlow(xor4, e2);
+		FlowNode last = xor3;
+		for (int i = 1; i <= blocks; i++) {
+			XorGateway split = new XorGateway("split" + i);
+			Activity a = new Activity("a" + i);
+			Activity b = new Activity("b" + i);
+			XorGateway join = new XorGateway("join" + i);
+			model.addControlFlow(last, split);
+			model.addControlFlow(split, a);
+			model.addControlFlow(split, b);
+			model.addControlFlow(a, join);
+			model.addControlFlow(b, join);
+			last = join;
+		}
+		model.addControlFlow(last, xor4);
+		return model;
+	}
+
+	private int countNodesLabeled(ProcessModel model, String label) {
+		int count = 0;
+		for (FlowNode node : model.getFlowNodes()) {
+			if (label.equals(node.getName())) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
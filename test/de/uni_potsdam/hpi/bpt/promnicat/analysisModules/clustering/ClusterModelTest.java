@@ -0,0 +1,208 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import weka.core.Attribute;
+import weka.core.EuclideanDistance;
+import weka.core.FastVector;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.ClusterModelStorage;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.orientdbObj.PersistenceApiOrientDbObj;
+import de.uni_potsdam.hpi.bpt.promnicat.util.Constants;
+
+/**
+ * Test class for {@link ClusterModel}.
+ */
+public class ClusterModelTest {
+
+	private static PersistenceApiOrientDbObj papi;
+	
+	private FastVector attributes;
+	private FastVector stringAttributes;
+	
+	@BeforeClass
+	public static void setUpClass() {
+		try {
+			papi = PersistenceApiOrientDbObj.getInstance(Constants.TEST_DB_CONFIG_PATH);
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail();
+		}
+	}
+	
+	private ProcessInstance createInstance(int group, Random random) {
+		ProcessInstance instance = new ProcessInstance(1, new double[] {group * 100 + random.nextDouble() * 10,
+				group * 50 + random.nextDouble() * 10}, new String[] {"label" + group});
+		instance.process = group;
+		return instance;
+	}
+	
+	private ClusterTree<ProcessInstances> cluster(Random random) throws Exception {
+		attributes = new FastVector();
+		attributes.addElement(new Attribute("x"));
+		attributes.addElement(new Attribute("y"));
+		stringAttributes = new FastVector();
+		stringAttributes.addElement(new Attribute("label", (FastVector) null));
+		ProcessInstances instances = new ProcessInstances("", attributes, stringAttributes, 60);
+		for (int i = 0; i < 60; i++) {
+			instances.add(createInstance(i % 3, random));
+		}
+		HierarchicalProcessClusterer clusterer = new HierarchicalProcessClusterer(new EuclideanDistance());
+		clusterer.setAttributes(attributes);
+		clusterer.setNumClusters(3);
+		clusterer.buildClusterer(instances);
+		return clusterer.getClusters();
+	}
+	
+	/**
+	 * @return the group of the instances of each cluster
+	 */
+	private HashMap<Object, Integer> clusterOfGroups(ClusterTree<ProcessInstances> clusters) {
+		HashMap<Object, Integer> clusterOfGroup = new HashMap<Object, Integer>();
+		ArrayList<ClusterNode<ProcessInstances>> nodes = clusters.getRootElement().getChildren();
+		for (int i = 0; i < nodes.size(); i++) {
+			for (ClusterNode<ProcessInstances> leaf : nodes.get(i).getLeafs()) {
+				clusterOfGroup.put(leaf.getData().getFirstInstance().process, i);
+			}
+		}
+		return clusterOfGroup;
+	}
+	
+	@Test
+	public void testAssignment() throws Exception {
+		Random random = new Random(3);
+		ClusterTree<ProcessInstances> clusters = cluster(random);
+		HashMap<Object, Integer> clusterOfGroup = clusterOfGroups(clusters);
+		assertEquals(3, clusterOfGroup.size());
+		ClusterModel model = new ClusterModel(clusters, attributes, stringAttributes, null);
+		assertEquals(3, model.getNumberOfClusters());
+		for (int i = 0; i < 30; i++) {
+			ProcessInstance instance = createInstance(i % 3, random);
+			assertEquals(clusterOfGroup.get(instance.process).intValue(), model.assign(instance));
+		}
+		assertEquals(30, model.getNumberOfAssignedInstances());
+		for (int i = 0; i < 3; i++) {
+			assertEquals(30, model.getClusterSize(i));
+		}
+		assertFalse(model.isReclusteringNeeded(2));
+		
+		int cluster = model.insert(createInstance(1, random));
+		assertEquals(clusterOfGroup.get(1).intValue(), cluster);
+		assertEquals(31, model.getClusterSize(cluster));
+		ClusterTree<ProcessInstances> updated = model.getClusters();
+		assertEquals(3, updated.getRootElement().getNumberOfChildren());
+		assertEquals(21, updated.getRootElement().getChildren().get(cluster).getLeafs().size());
+	}
+	
+	@Test
+	public void testDrift() throws Exception {
+		Random random = new Random(5);
+		ClusterModel model = new ClusterModel(cluster(random), attributes, stringAttributes, null);
+		assertEquals(0, model.getDrift(), 0);
+		for (int i = 0; i < 10; i++) {
+			ProcessInstance instance = new ProcessInstance(1, new double[] {1000 + random.nextDouble(), -500},
+					new String[] {"a completely different label"});
+			model.assign(instance);
+		}
+		assertTrue(model.isReclusteringNeeded(2));
+	}
+	
+	@Test
+	public void testPersistence() throws Exception {
+		Random random = new Random(11);
+		ClusterModel model = new ClusterModel(cluster(random), attributes, stringAttributes, null);
+		papi.openDb();
+		try {
+			assertNull(ClusterModel.load(papi, "clusters"));
+			String dbId = model.save(papi, "clusters");
+			ClusterModel loaded = ClusterModel.load(papi, "clusters");
+			assertEquals(model.getNumberOfClusters(), loaded.getNumberOfClusters());
+			for (int i = 0; i < 30; i++) {
+				ProcessInstance instance = createInstance(i % 3, random);
+				assertEquals(model.assign(instance), loaded.assign(instance));
+			}
+			assertEquals(model.getDrift(), loaded.getDrift(), 0);
+			
+			// saving again replaces the stored model
+			assertEquals(dbId, loaded.save(papi, "clusters"));
+			assertEquals(1, papi.countClass(ClusterModelStorage.class));
+			assertEquals(30, ClusterModel.load(papi, "clusters").getNumberOfAssignedInstances());
+		} finally {
+			papi.dropDb();
+		}
+	}
+	
+	@Test
+	public void testInsertIntoLoadedHierarchy() throws Exception {
+		Random random = new Random(13);
+		ClusterTree<ProcessInstances> clusters = cluster(random);
+		ProcessInstance neighbor = clusters.getRootElement().getChildren().get(0).getLeafs().get(0).getData()
+				.getFirstInstance();
+		papi.openDb();
+		try {
+			new ClusterModel(clusters, attributes, stringAttributes, null).save(papi, "clusters");
+			ClusterModel loaded = ClusterModel.load(papi, "clusters");
+			assertEquals(60, loaded.getClusters().getRootElement().getLeafs().size());
+			// an instance equal to an existing one is placed next to it in the hierarchy
+			ProcessInstance instance = new ProcessInstance(1, neighbor.toDoubleArray(),
+					new String[] {neighbor.strValue(0)});
+			instance.process = "new";
+			assertEquals(0, loaded.insert(instance));
+			ClusterTree<ProcessInstances> updated = loaded.getClusters();
+			assertEquals(61, updated.getRootElement().getLeafs().size());
+			ClusterNode<ProcessInstances> parent = findParent(updated.getRootElement(), "new");
+			assertEquals(2, parent.getNumberOfChildren());
+			ProcessInstance sibling = parent.getChildren().get(0).getData().getFirstInstance();
+			assertEquals(neighbor.process, sibling.process);
+			assertEquals(neighbor.value(0), sibling.value(0), 0);
+		} finally {
+			papi.dropDb();
+		}
+	}
+	
+	/**
+	 * @return the parent of the leaf with the given process
+	 */
+	private ClusterNode<ProcessInstances> findParent(ClusterNode<ProcessInstances> node, Object process) {
+		for (ClusterNode<ProcessInstances> child : node.getChildren()) {
+			if (child.getNumberOfChildren() == 0) {
+				if (process.equals(child.getData().getFirstInstance().process)) {
+					return node;
+				}
+			} else {
+				ClusterNode<ProcessInstances> parent = findParent(child, process);
+				if (parent != null) {
+					return parent;
+				}
+			}
+		}
+		return null;
+	}
+}
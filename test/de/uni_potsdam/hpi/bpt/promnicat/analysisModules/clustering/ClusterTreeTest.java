@@ -0,0 +1,127 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import weka.core.Attribute;
+import weka.core.FastVector;
+import de.uni_potsdam.hpi.bpt.promnicat.util.Range;
+
+/**
+ * Test class for the cluster naming and the subtrees of {@link ClusterTree}.
+ * @author Cindy Fähnrich
+ *
+ */
+public class ClusterTreeTest {
+
+	private final FastVector attributes = new FastVector();
+	private final FastVector stringAttributes = new FastVector();
+	
+	public ClusterTreeTest() {
+		attributes.addElement(new Attribute("x"));
+		stringAttributes.addElement(new Attribute("label", (FastVector) null));
+	}
+	
+	private ClusterNode<ProcessInstances> leaf(double x, String label) {
+		ProcessInstance instance = new ProcessInstance(1, new double[] {x}, new String[] {label});
+		return new ClusterNode<ProcessInstances>(new ProcessInstances(instance, attributes, stringAttributes, 0));
+	}
+	
+	@SafeVarargs
+	private final ClusterNode<ProcessInstances> node(ClusterNode<ProcessInstances>... children) {
+		ClusterNode<ProcessInstances> node = new ClusterNode<ProcessInstances>(
+				new ProcessInstances("", attributes, stringAttributes, 0));
+		for (ClusterNode<ProcessInstances> child : children) {
+			node.addChild(child);
+		}
+		return node;
+	}
+	
+	/**
+	 * @return a balanced tree with two clusters of four instances each
+	 */
+	private ClusterTree<ProcessInstances> createTree() {
+		ClusterTree<ProcessInstances> tree = new ClusterTree<ProcessInstances>();
+		tree.setRootElement(node(
+				node(node(leaf(1, "check order"), leaf(2, "check invoice")), node(leaf(3, "check order"), leaf(4, "ship order"))),
+				node(node(leaf(10, "pay bill"), leaf(11, "pay bill")), node(leaf(12, "send bill"), leaf(13, "pay taxes")))));
+		return tree;
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testAssignNamesToClusters() {
+		ClusterTree<ProcessInstances> tree = createTree();
+		tree.assignNamesToClusters();
+		tree.assignNamesToClusters();
+		ClusterNode<ProcessInstances> first = tree.getRootElement().getChildren().get(0);
+		Range range = (Range) first.getClusterName().get("x");
+		assertEquals(1, range.getMinValue(), 0);
+		assertEquals(4, range.getMaxValue(), 0);
+		HashMap<String, Integer> words = (HashMap<String, Integer>) first.getClusterName().get("label");
+		assertEquals(3, words.get("check").intValue());
+		assertEquals(3, words.get("order").intValue());
+		assertEquals(1, words.get("invoice").intValue());
+		assertTrue(first.name.contains("x: 1.0-4.0"));
+		
+		range = (Range) tree.getRootElement().getClusterName().get("x");
+		assertEquals(1, range.getMinValue(), 0);
+		assertEquals(13, range.getMaxValue(), 0);
+		words = (HashMap<String, Integer>) tree.getRootElement().getClusterName().get("label");
+		assertEquals(3, words.get("bill").intValue());
+	}
+	
+	@Test
+	public void testPruneLabelWords() {
+		HashMap<String, Integer> words = new HashMap<String, Integer>();
+		for (int i = 0; i < 2 * ClusterNode.MAX_LABEL_WORDS; i++) {
+			words.put("word" + i, 1);
+		}
+		words.put("frequent", 100);
+		ClusterNode.pruneLabelWords(words);
+		assertTrue(words.size() <= ClusterNode.MAX_LABEL_WORDS);
+		assertEquals(99, words.get("frequent").intValue());
+	}
+	
+	@Test
+	public void testSubtreeWithMinClusterSize() {
+		ClusterTree<ProcessInstances> tree = createTree();
+		assertEquals(tree, tree.getSubtreeWithMinClusterSize(1));
+		
+		ClusterTree<ProcessInstances> subtree = tree.getSubtreeWithMinClusterSize(2);
+		assertEquals(4, subtree.getRootElement().getLeafs().size());
+		for (ClusterNode<ProcessInstances> leaf : subtree.getRootElement().getLeafs()) {
+			assertEquals(2, leaf.getData().numInstances());
+		}
+		
+		subtree = tree.getSubtreeWithMinClusterSize(3);
+		assertEquals(2, subtree.getRootElement().getLeafs().size());
+		for (ClusterNode<ProcessInstances> leaf : subtree.getRootElement().getLeafs()) {
+			assertEquals(4, leaf.getData().numInstances());
+		}
+		
+		subtree = tree.getSubtreeWithMinClusterSize(8);
+		assertEquals(8, subtree.getRootElement().getData().numInstances());
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import weka.core.Attribute;
+import weka.core.EuclideanDistance;
+import weka.core.FastVector;
+import de.uni_potsdam.hpi.bpt.promnicat.importer.bpmai.BpmaiImporter;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
+import de.uni_potsdam.hpi.bpt.promnicat.util.ConfigurationParser;
+import de.uni_potsdam.hpi.bpt.promnicat.util.Constants;
+import de.uni_potsdam.hpi.bpt.promnicat.util.ProcessFeatureConstants;
+
+/**
+ * Test class for the assignment of newly imported models by {@link Clustering}.
+ */
+public class ClusteringTest {
+
+	private static IPersistenceApi persistenceApi = null;
+	
+	@BeforeClass
+	public static void init(){
+		try {
+			persistenceApi = new ConfigurationParser(Constants.TEST_DB_CONFIG_PATH).getDbInstance(Constants.DATABASE_TYPES.ORIENT_DB);
+		} catch (IOException e) {
+			fail("Unexpected exception occurred: " + e.getMessage());
+		}
+	}
+	
+	@After
+	public void tearDown(){
+		persistenceApi.dropDb();
+	}
+	
+	/**
+	 * @return a model of two clusters having the same attributes as used by {@link Clustering}
+	 */
+	private ClusterModel createClusterModel() throws Exception {
+		FastVector attributes = new FastVector();
+		attributes.addElement(new Attribute(ProcessFeatureConstants.METRICS.NUM_ACTIVITIES.name()));
+		FastVector stringAttributes = new FastVector();
+		stringAttributes.addElement(new Attribute(ProcessFeatureConstants.PROCESS_LABELS.FIRST_FLOWNODE_LABEL.name(), (FastVector) null));
+		ProcessInstances instances = new ProcessInstances("", attributes, stringAttributes, 6);
+		for (int i = 0; i < 6; i++) {
+			instances.add(new ProcessInstance(1, new double[] {i % 2 == 0 ? i : 50 + i}, new String[] {"label" + (i % 2)}));
+		}
+		HierarchicalProcessClusterer clusterer = new HierarchicalProcessClusterer(new EuclideanDistance());
+		clusterer.setAttributes(attributes);
+		clusterer.setNumClusters(2);
+		clusterer.buildClusterer(instances);
+		return new ClusterModel(clusterer.getClusters(), attributes, stringAttributes, null);
+	}
+	
+	@Test
+	public void assignImportedModels() throws Exception {
+		BpmaiImporter importer = new BpmaiImporter(persistenceApi);
+		importer.importModelsFrom("resources/BPMAI/model_epc0");
+		//BPMN models are not clustered
+		importer.importModelsFrom("resources/BPMAI/model_bpmn1");
+		assertEquals(2, importer.getNewModelIds().size());
+		
+		persistenceApi.openDb();
+		createClusterModel().save(persistenceApi, Clustering.CLUSTER_MODEL_NAME);
+		Clustering clustering = new Clustering();
+		List<Integer> clusters = clustering.assignModels(persistenceApi, importer.getNewModelIds());
+		assertEquals(1, clusters.size());
+		assertTrue(clusters.get(0) >= 0);
+		
+		ClusterModel loaded = new Clustering().loadClusterModel(persistenceApi);
+		assertEquals(1, loaded.getNumberOfAssignedInstances());
+	}
+	
+	@Test
+	public void assignWithoutClusterModel() throws Exception {
+		BpmaiImporter importer = new BpmaiImporter(persistenceApi);
+		importer.importModelsFrom("resources/BPMAI/model_epc0");
+		
+		persistenceApi.openDb();
+		Clustering clustering = new Clustering();
+		assertTrue(clustering.assignModels(persistenceApi, importer.getNewModelIds()).isEmpty());
+		assertNull(clustering.getClusterModel());
+	}
+}
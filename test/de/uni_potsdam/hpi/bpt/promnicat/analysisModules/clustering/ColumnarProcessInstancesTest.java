@@ -0,0 +1,72 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import weka.core.Attribute;
+import weka.core.FastVector;
+
+/**
+ * Test class for {@link ColumnarProcessInstances}.
+ * @author Cindy Fähnrich
+ *
+ */
+public class ColumnarProcessInstancesTest {
+
+	@Test
+	public void testConversion() {
+		FastVector attributes = new FastVector();
+		attributes.addElement(new Attribute("x"));
+		attributes.addElement(new Attribute("y"));
+		FastVector strAttributes = new FastVector();
+		strAttributes.addElement(new Attribute("label", (FastVector) null, 0));
+		ProcessInstances data = new ProcessInstances("", attributes, strAttributes, 3);
+		String[] labels = {"check order", "ship goods", "check order", null};
+		for (int i = 0; i < labels.length; i++) {
+			ProcessInstance instance = new ProcessInstance(i + 1, new double[] {i, i * 10}, new String[] {labels[i]});
+			instance.process = "model" + i;
+			data.add(instance);
+		}
+		
+		ColumnarProcessInstances columnar = new ColumnarProcessInstances(data, attributes, strAttributes);
+		assertEquals(4, columnar.numInstances());
+		assertEquals(2, columnar.numAttributes());
+		assertEquals(1, columnar.numStrAttributes());
+		assertEquals(2, columnar.dictionarySize());
+		assertEquals(30.0, columnar.column(1)[3], 0.0);
+		assertEquals(columnar.strColumn(0)[0], columnar.strColumn(0)[2]);
+		assertEquals(ColumnarProcessInstances.MISSING_STRING, columnar.strColumn(0)[3]);
+		assertNull(columnar.strValue(3, 0));
+		
+		ProcessInstances converted = columnar.toProcessInstances();
+		assertEquals(data.numInstances(), converted.numInstances());
+		for (int i = 0; i < data.numInstances(); i++) {
+			ProcessInstance expected = data.getInstance(i);
+			ProcessInstance actual = converted.getInstance(i);
+			assertEquals(expected.value(0), actual.value(0), 0.0);
+			assertEquals(expected.value(1), actual.value(1), 0.0);
+			assertEquals(expected.strValue(0), actual.strValue(0));
+			assertEquals(expected.weight(), actual.weight(), 0.0);
+			assertEquals(expected.process, actual.process);
+		}
+	}
+}
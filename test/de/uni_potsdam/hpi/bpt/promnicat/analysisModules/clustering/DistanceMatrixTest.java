@@ -0,0 +1,104 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.Random;
+
+import org.junit.Test;
+
+import weka.core.Attribute;
+import weka.core.EuclideanDistance;
+import weka.core.FastVector;
+
+/**
+ * Test class for {@link DistanceMatrix} and its usage in {@link HierarchicalProcessClusterer}.
+ * @author Cindy Fähnrich
+ *
+ */
+public class DistanceMatrixTest {
+
+	@Test
+	public void testDoubleDistanceMatrix() throws Exception {
+		checkMatrix(DistanceMatrix.create(5, false, null), 0.0);
+	}
+	
+	@Test
+	public void testFloatDistanceMatrix() throws Exception {
+		checkMatrix(DistanceMatrix.create(5, true, null), 0.0001);
+	}
+	
+	@Test
+	public void testMappedDistanceMatrix() throws Exception {
+		checkMatrix(DistanceMatrix.create(5, false, new File(System.getProperty("java.io.tmpdir"))), 0.0001);
+	}
+	
+	@Test
+	public void testParallelClustering() throws Exception {
+		HierarchicalProcessClusterer sequential = buildClusterer(1, false, null);
+		HierarchicalProcessClusterer parallel = buildClusterer(4, false, null);
+		HierarchicalProcessClusterer mapped = buildClusterer(4, true, new File(System.getProperty("java.io.tmpdir")));
+		assertEquals(sequential.m_nClusterNr.length, parallel.m_nClusterNr.length);
+		for (int i = 0; i < sequential.m_nClusterNr.length; i++) {
+			assertEquals(sequential.m_nClusterNr[i], parallel.m_nClusterNr[i]);
+			assertEquals(sequential.m_nClusterNr[i], mapped.m_nClusterNr[i]);
+		}
+	}
+	
+	private void checkMatrix(DistanceMatrix matrix, double delta) {
+		assertEquals(5, matrix.size());
+		for (int i = 0; i < 5; i++) {
+			for (int j = i + 1; j < 5; j++) {
+				matrix.set(j, i, i * 10 + j + 0.5);
+			}
+		}
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0.0, matrix.get(i, i), 0.0);
+			for (int j = i + 1; j < 5; j++) {
+				assertEquals(i * 10 + j + 0.5, matrix.get(i, j), delta);
+				assertEquals(i * 10 + j + 0.5, matrix.get(j, i), delta);
+			}
+		}
+		matrix.set(2, 2, 42);
+		assertEquals(0.0, matrix.get(2, 2), 0.0);
+		matrix.dispose();
+	}
+	
+	private HierarchicalProcessClusterer buildClusterer(int numExecutionSlots, boolean floatDistanceMatrix,
+			File mappedDirectory) throws Exception {
+		FastVector attributes = new FastVector();
+		attributes.addElement(new Attribute("x"));
+		attributes.addElement(new Attribute("y"));
+		ProcessInstances instances = new ProcessInstances("", attributes, null, 300);
+		Random random = new Random(42);
+		for (int i = 0; i < 300; i++) {
+			// use integer coordinates to get the same distances for float and double precision
+			instances.add(new ProcessInstance(1, new double[] {random.nextInt(1000), random.nextInt(1000)}));
+		}
+		HierarchicalProcessClusterer clusterer = new HierarchicalProcessClusterer(new EuclideanDistance());
+		clusterer.setAttributes(attributes);
+		clusterer.setNumClusters(5);
+		clusterer.setNumExecutionSlots(numExecutionSlots);
+		clusterer.setFloatDistanceMatrix(floatDistanceMatrix);
+		clusterer.setMappedDistanceMatrixDirectory(mappedDirectory);
+		clusterer.buildClusterer(instances);
+		return clusterer;
+	}
+}
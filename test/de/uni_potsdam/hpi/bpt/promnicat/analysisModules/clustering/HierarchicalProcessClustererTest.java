@@ -0,0 +1,190 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+import weka.core.Attribute;
+import weka.core.EuclideanDistance;
+import weka.core.FastVector;
+import weka.core.SelectedTag;
+
+/**
+ * Test class for the different link algorithms of {@link HierarchicalProcessClusterer}.
+ * @author Cindy Fähnrich
+ *
+ */
+public class HierarchicalProcessClustererTest {
+
+	@Test
+	public void testSingleLink() throws Exception {
+		compareWithPriorityQueue(HierarchicalProcessClusterer.SINGLE);
+	}
+	
+	@Test
+	public void testCompleteLink() throws Exception {
+		compareWithPriorityQueue(HierarchicalProcessClusterer.COMPLETE);
+	}
+	
+	@Test
+	public void testAverageLink() throws Exception {
+		compareWithPriorityQueue(HierarchicalProcessClusterer.AVERAGE);
+	}
+	
+	@Test
+	public void testDebugMode() throws Exception {
+		for (int linkType : new int[] {HierarchicalProcessClusterer.COMPLETE, HierarchicalProcessClusterer.AVERAGE}) {
+			HierarchicalProcessClusterer expected = buildClusterer(linkType, 3, false);
+			HierarchicalProcessClusterer actual = new HierarchicalProcessClusterer(new EuclideanDistance());
+			actual.m_bDebug = true;
+			actual.setAttributes(expected.attributes);
+			actual.setLinkType(new SelectedTag(linkType, HierarchicalProcessClusterer.TAGS_LINK_TYPE));
+			actual.setNumClusters(3);
+			actual.buildClusterer(expected.m_instances);
+			assertArrayEquals(expected.m_nClusterNr, actual.m_nClusterNr);
+		}
+	}
+	
+	@Test
+	public void testApproximateClustering() throws Exception {
+		FastVector attributes = new FastVector();
+		attributes.addElement(new Attribute("x"));
+		attributes.addElement(new Attribute("y"));
+		ProcessInstances instances = new ProcessInstances("", attributes, null, 3000);
+		Random random = new Random(42);
+		// three well separated groups of instances
+		for (int i = 0; i < 3000; i++) {
+			ProcessInstance instance = new ProcessInstance(1, new double[] {(i % 3) * 100 + random.nextDouble(),
+					(i % 3) * 100 + random.nextDouble()});
+			instance.process = i;
+			instances.add(instance);
+		}
+		HierarchicalProcessClusterer clusterer = new HierarchicalProcessClusterer(new EuclideanDistance());
+		clusterer.setAttributes(attributes);
+		clusterer.setNumClusters(3);
+		clusterer.setNumExecutionSlots(2);
+		clusterer.setApproximateClustering(50, 100, 20);
+		clusterer.buildClusterer(instances);
+		assertTrue(clusterer.m_instances.numInstances() <= 50);
+		ClusterNode<ProcessInstances> root = clusterer.getClusters().getRootElement();
+		assertEquals(3, root.getNumberOfChildren());
+		HashSet<Object> allProcesses = new HashSet<Object>();
+		for (ClusterNode<ProcessInstances> cluster : root.getChildren()) {
+			HashSet<Integer> groups = new HashSet<Integer>();
+			for (ClusterNode<ProcessInstances> leaf : cluster.getLeafs()) {
+				Integer process = (Integer) leaf.getData().getInstance(0).process;
+				groups.add(process % 3);
+				allProcesses.add(process);
+			}
+			assertEquals(1, groups.size());
+		}
+		assertEquals(3000, allProcesses.size());
+	}
+	
+	@Test
+	public void testApproximateClusteringOfColumns() throws Exception {
+		FastVector attributes = new FastVector();
+		attributes.addElement(new Attribute("x"));
+		attributes.addElement(new Attribute("y"));
+		ColumnarProcessInstances instances = new ColumnarProcessInstances(attributes, null, 10);
+		Random random = new Random(42);
+		for (int i = 0; i < 3000; i++) {
+			ProcessInstance instance = new ProcessInstance(1, new double[] {(i % 3) * 100 + random.nextDouble(),
+					(i % 3) * 100 + random.nextDouble()});
+			instance.process = i;
+			instances.add(instance);
+		}
+		HierarchicalProcessClusterer clusterer = new HierarchicalProcessClusterer(new EuclideanDistance());
+		clusterer.setAttributes(attributes);
+		clusterer.setNumClusters(3);
+		clusterer.setApproximateClustering(50, 100, 20);
+		clusterer.buildClusterer(instances);
+		// the columns are used as original instances without creating rows for them
+		assertSame(instances, clusterer.m_originalInstances);
+		assertTrue(clusterer.m_instances.numInstances() <= 50);
+		ClusterNode<ProcessInstances> root = clusterer.getClusters().getRootElement();
+		assertEquals(3, root.getNumberOfChildren());
+		int numLeafs = 0;
+		for (ClusterNode<ProcessInstances> cluster : root.getChildren()) {
+			HashSet<Integer> groups = new HashSet<Integer>();
+			for (ClusterNode<ProcessInstances> leaf : cluster.getLeafs()) {
+				groups.add((Integer) leaf.getData().getInstance(0).process % 3);
+				numLeafs++;
+			}
+			assertEquals(1, groups.size());
+		}
+		assertEquals(3000, numLeafs);
+	}
+	
+	private void compareWithPriorityQueue(int linkType) throws Exception {
+		for (int numClusters : new int[] {1, 3, 10}) {
+			HierarchicalProcessClusterer expected = buildClusterer(linkType, numClusters, false);
+			HierarchicalProcessClusterer actual = buildClusterer(linkType, numClusters, true);
+			assertArrayEquals(expected.m_nClusterNr, actual.m_nClusterNr);
+			assertEquals(toString(expected.getClusters().getRootElement()),
+					toString(actual.getClusters().getRootElement()));
+		}
+	}
+	
+	private HierarchicalProcessClusterer buildClusterer(int linkType, int numClusters, final boolean nearestNeighborChain)
+			throws Exception {
+		FastVector attributes = new FastVector();
+		attributes.addElement(new Attribute("x"));
+		attributes.addElement(new Attribute("y"));
+		ProcessInstances instances = new ProcessInstances("", attributes, null, 100);
+		Random random = new Random(42);
+		for (int i = 0; i < 100; i++) {
+			instances.add(new ProcessInstance(1, new double[] {random.nextDouble(), random.nextDouble()}));
+		}
+		//the priority queue is only used for reducible link types, if they are not recognized as such
+		HierarchicalProcessClusterer clusterer = new HierarchicalProcessClusterer(new EuclideanDistance()) {
+			@Override
+			boolean isReducibleLinkType() {
+				return nearestNeighborChain && super.isReducibleLinkType();
+			}
+		};
+		clusterer.setAttributes(attributes);
+		clusterer.setLinkType(new SelectedTag(linkType, HierarchicalProcessClusterer.TAGS_LINK_TYPE));
+		clusterer.setNumClusters(numClusters);
+		clusterer.buildClusterer(instances);
+		return clusterer;
+	}
+	
+	/**
+	 * @return the structure of the given cluster with the values of its leafs
+	 */
+	private String toString(ClusterNode<ProcessInstances> node) {
+		if (node.getNumberOfChildren() == 0) {
+			ProcessInstance instance = node.getData().getInstance(0);
+			return instance.value(0) + "/" + instance.value(1);
+		}
+		StringBuilder builder = new StringBuilder("(");
+		for (ClusterNode<ProcessInstances> child : node.getChildren()) {
+			builder.append(toString(child)).append(",");
+		}
+		return builder.append(")").toString();
+	}
+}
@@ -0,0 +1,102 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import weka.core.Attribute;
+import weka.core.FastVector;
+import weka.core.SelectedTag;
+import de.uni_potsdam.hpi.bpt.promnicat.util.WeightedEditDistance;
+
+/**
+ * Test class for {@link LabelDistanceCache}.
+ * @author Cindy Fähnrich
+ *
+ */
+public class LabelDistanceCacheTest {
+
+	private static final String[] LABELS = {"check order", "Check order", "ship goods", "send invoice",
+		"receive payment", "archive order", "check invoice", "ship order"};
+	
+	@Test
+	public void testDistances() {
+		WeightedEditDistance editDistance = new WeightedEditDistance();
+		ArrayList<String> labels = new ArrayList<String>(Arrays.asList(LABELS));
+		labels.add("check order");
+		LabelDistanceCache cache = new LabelDistanceCache(labels, 1000);
+		assertEquals(LABELS.length, cache.size());
+		assertTrue(cache.isCaching());
+		cache.precompute(2, 0);
+		for (String label1 : LABELS) {
+			for (String label2 : LABELS) {
+				assertEquals(editDistance.getStringDistance(label1, label2), cache.getDistance(label1, label2), 0.0);
+			}
+		}
+		assertEquals(editDistance.getStringDistance("unknown", "ship goods"),
+				cache.getDistance("unknown", "ship goods"), 0.0);
+	}
+	
+	@Test
+	public void testMaximumEntries() {
+		LabelDistanceCache cache = new LabelDistanceCache(Arrays.asList(LABELS), 10);
+		assertFalse(cache.isCaching());
+		cache.precompute(2, 0);
+		assertEquals(new WeightedEditDistance().getStringDistance("ship goods", "ship order"),
+				cache.getDistance("ship goods", "ship order"), 0.0);
+	}
+	
+	@Test
+	public void testClusteringWithCache() throws Exception {
+		HierarchicalProcessClusterer expected = buildClusterer(0);
+		HierarchicalProcessClusterer actual = buildClusterer(1000);
+		assertTrue(actual.m_labelDistanceCache.isCaching());
+		assertArrayEquals(expected.m_nClusterNr, actual.m_nClusterNr);
+	}
+	
+	private HierarchicalProcessClusterer buildClusterer(long cacheSize) throws Exception {
+		FastVector strAttributes = new FastVector();
+		strAttributes.addElement(new Attribute("label", (FastVector) null, 0));
+		FastVector attributes = new FastVector();
+		attributes.addElement(new Attribute("x"));
+		ProcessInstances instances = new ProcessInstances("", attributes, strAttributes, 40);
+		Random random = new Random(42);
+		for (int i = 0; i < 40; i++) {
+			instances.add(new ProcessInstance(1, new double[] {0}, new String[] {LABELS[random.nextInt(LABELS.length)]}));
+		}
+		HierarchicalProcessClusterer clusterer = new HierarchicalProcessClusterer();
+		clusterer.setStringDistanceFunction(new WeightedEditDistance());
+		clusterer.setStringAttributes(strAttributes);
+		clusterer.setAttributes(attributes);
+		clusterer.setLinkType(new SelectedTag(HierarchicalProcessClusterer.CENTROID, HierarchicalProcessClusterer.TAGS_LINK_TYPE));
+		clusterer.setNumClusters(3);
+		clusterer.setNumExecutionSlots(2);
+		clusterer.setLabelDistanceCache(cacheSize, 0);
+		clusterer.buildClusterer(instances);
+		return clusterer;
+	}
+}
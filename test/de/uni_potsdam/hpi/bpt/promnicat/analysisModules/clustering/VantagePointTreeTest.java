@@ -0,0 +1,82 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link VantagePointTree}.
+ * @author Cindy Fähnrich
+ *
+ */
+public class VantagePointTreeTest {
+
+	private static final VantagePointTree.Metric<double[]> EUCLIDEAN = new VantagePointTree.Metric<double[]>() {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public double distance(double[] first, double[] second) {
+			double distance = 0;
+			for (int i = 0; i < first.length; i++) {
+				distance += (first[i] - second[i]) * (first[i] - second[i]);
+			}
+			return Math.sqrt(distance);
+		}
+	};
+	
+	@Test
+	public void testNearest() {
+		Random random = new Random(7);
+		ArrayList<double[]> points = new ArrayList<double[]>();
+		for (int i = 0; i < 500; i++) {
+			points.add(new double[] {random.nextDouble(), random.nextDouble(), random.nextDouble()});
+		}
+		VantagePointTree<double[]> tree = new VantagePointTree<double[]>(points, EUCLIDEAN);
+		assertEquals(500, tree.size());
+		for (int q = 0; q < 200; q++) {
+			double[] query = new double[] {random.nextDouble(), random.nextDouble(), random.nextDouble()};
+			int expected = 0;
+			for (int i = 1; i < points.size(); i++) {
+				if (EUCLIDEAN.distance(query, points.get(i)) < EUCLIDEAN.distance(query, points.get(expected))) {
+					expected = i;
+				}
+			}
+			VantagePointTree.Neighbor nearest = tree.nearest(query);
+			assertEquals(expected, nearest.getIndex());
+			assertEquals(EUCLIDEAN.distance(query, points.get(expected)), nearest.getDistance(), 0);
+		}
+	}
+	
+	@Test
+	public void testDuplicatesAndEmptyTree() {
+		ArrayList<double[]> points = new ArrayList<double[]>();
+		assertNull(new VantagePointTree<double[]>(points, EUCLIDEAN).nearest(new double[] {0}));
+		for (int i = 0; i < 10; i++) {
+			points.add(new double[] {i / 5});
+		}
+		VantagePointTree<double[]> tree = new VantagePointTree<double[]>(points, EUCLIDEAN);
+		assertEquals(0, tree.nearest(new double[] {0.4}).getIndex());
+		assertEquals(5, tree.nearest(new double[] {0.9}).getIndex());
+	}
+}
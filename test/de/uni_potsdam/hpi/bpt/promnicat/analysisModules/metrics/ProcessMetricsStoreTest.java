@@ -0,0 +1,162 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.TestModelBuilder;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.metrics.pojos.ProcessMetricsStorage;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Representation;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.orientdb.test.RepresentationFactory;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.orientdbObj.PersistenceApiOrientDbObj;
+import de.uni_potsdam.hpi.bpt.promnicat.util.Constants;
+import de.uni_potsdam.hpi.bpt.promnicat.util.ProcessMetricConstants.METRICS;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitDataProcessMetrics;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.UnitDataProcessMetrics;
+
+/**
+ * Test class for {@link ProcessMetricsStore}.
+ * @author Tobias Hoppe
+ *
+ */
+public class ProcessMetricsStoreTest {
+
+	private static PersistenceApiOrientDbObj papi;
+	private ProcessMetricsStore store;
+	private Representation representation;
+	private String representationId;
+	
+	@BeforeClass
+	public static void setUpClass() {
+		try {
+			papi = PersistenceApiOrientDbObj.getInstance(Constants.TEST_DB_CONFIG_PATH);
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail();
+		}
+	}
+	
+	@Before
+	public void setUp(){
+		papi.openDb();
+		representation = RepresentationFactory.createLightweightRepresentation();
+		representation.setDataContent("some model content".getBytes());
+		representationId = papi.savePojo(representation);
+		store = new ProcessMetricsStore(papi);
+	}
+	
+	@After
+	public void tearDown(){
+		try{
+			papi.dropDb();
+		} catch (Exception e){
+			e.printStackTrace();
+			fail();
+		}
+	}
+	
+	@Test
+	public void testContentKey() {
+		String key = ProcessMetricsStore.getContentKey(representation);
+		assertNotNull(key);
+		assertEquals(key, ProcessMetricsStore.getContentKey(representation));
+		representation.setDataContent("other model content".getBytes());
+		assertFalse(key.equals(ProcessMetricsStore.getContentKey(representation)));
+		representation.setDataContent(new byte[0]);
+		assertNull(ProcessMetricsStore.getContentKey(representation));
+	}
+	
+	@Test
+	public void testSaveAndLoadAllMetrics() {
+		String hash = ProcessMetricsStore.getContentKey(representation);
+		Collection<METRICS> allMetrics = new ArrayList<METRICS>();
+		IUnitDataProcessMetrics<Object> unitData = new UnitDataProcessMetrics<Object>(TestModelBuilder.getConnectedProcessModel());
+		assertFalse(store.loadMetrics(representationId, hash, true, allMetrics, unitData));
+		
+		new ProcessMetricsCalculator().calculateAllProcessMetrics(unitData, true);
+		store.saveMetrics(representationId, hash, true, allMetrics, unitData);
+		
+		IUnitDataProcessMetrics<Object> loadedData = new UnitDataProcessMetrics<Object>();
+		assertTrue(store.loadMetrics(representationId, hash, true, allMetrics, loadedData));
+		for (METRICS metric : METRICS.values()) {
+			assertEquals(metric.toString(), metric.getAttribute(unitData), metric.getAttribute(loadedData), 0.0000001);
+		}
+		assertEquals(unitData.getDensityRelatedToNumberOfGateways(), loadedData.getDensityRelatedToNumberOfGateways(), 0.0000001);
+		//other content or sub process handling must not be found
+		assertFalse(store.loadMetrics(representationId, "otherHash", true, allMetrics, loadedData));
+		assertFalse(store.loadMetrics(representationId, hash, false, allMetrics, loadedData));
+	}
+	
+	@Test
+	public void testPartialMetrics() {
+		String hash = ProcessMetricsStore.getContentKey(representation);
+		Collection<METRICS> nodes = new ArrayList<METRICS>();
+		nodes.add(METRICS.NUM_NODES);
+		Collection<METRICS> nodesAndEdges = new ArrayList<METRICS>(nodes);
+		nodesAndEdges.add(METRICS.NUM_EDGES);
+		IUnitDataProcessMetrics<Object> unitData = new UnitDataProcessMetrics<Object>(TestModelBuilder.getConnectedProcessModel());
+		new ProcessMetricsCalculator().calculateProcessMetrics(nodesAndEdges, unitData, false);
+		store.saveMetrics(representationId, hash, false, nodes, unitData);
+		
+		IUnitDataProcessMetrics<Object> loadedData = new UnitDataProcessMetrics<Object>();
+		assertFalse(store.loadMetrics(representationId, hash, false, nodesAndEdges, loadedData));
+		assertTrue(store.loadMetrics(representationId, hash, false, nodes, loadedData));
+		assertEquals(17, loadedData.getNumberOfNodes());
+		
+		//missing metric is added to the existing storage
+		store.saveMetrics(representationId, hash, false, nodesAndEdges, unitData);
+		assertTrue(store.loadMetrics(representationId, hash, false, nodesAndEdges, loadedData));
+		assertEquals(19, loadedData.getNumberOfEdges());
+	}
+	
+	@Test
+	public void testOutdatedMetricsAreReplaced() {
+		String hash = ProcessMetricsStore.getContentKey(representation);
+		Collection<METRICS> nodes = new ArrayList<METRICS>();
+		nodes.add(METRICS.NUM_NODES);
+		Collection<METRICS> edges = new ArrayList<METRICS>();
+		edges.add(METRICS.NUM_EDGES);
+		IUnitDataProcessMetrics<Object> unitData = new UnitDataProcessMetrics<Object>(TestModelBuilder.getConnectedProcessModel());
+		new ProcessMetricsCalculator().calculateAllProcessMetrics(unitData, false);
+		store.saveMetrics(representationId, hash, false, nodes, unitData);
+		
+		//changed content replaces the stored values instead of adding a new storage
+		representation.setDataContent("changed model content".getBytes());
+		String newHash = ProcessMetricsStore.getContentKey(representation);
+		store.saveMetrics(representationId, newHash, false, edges, unitData);
+		IUnitDataProcessMetrics<Object> loadedData = new UnitDataProcessMetrics<Object>();
+		assertFalse(store.loadMetrics(representationId, hash, false, edges, loadedData));
+		assertFalse(store.loadMetrics(representationId, newHash, false, nodes, loadedData));
+		assertTrue(store.loadMetrics(representationId, newHash, false, edges, loadedData));
+		assertEquals(19, loadedData.getNumberOfEdges());
+		assertEquals(1, papi.countClass(ProcessMetricsStorage.class));
+	}
+}
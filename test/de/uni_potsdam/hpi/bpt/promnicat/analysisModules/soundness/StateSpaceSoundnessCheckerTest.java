@@ -0,0 +1,249 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.soundness;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.bevahior.LolaSoundnessCheckerResult;
+import org.junit.Test;
+
+/**
+ * Test class for {@link StateSpaceSoundnessChecker}.
+ * 
+ * @author Tobias Hoppe
+ */
+public class StateSpaceSoundnessCheckerTest {
+
+	private final StateSpaceSoundnessChecker checker = new StateSpaceSoundnessChecker();
+
+	@Test
+	public void testSequence() {
+		NetSystem net = new NetSystem();
+		Place i = place(net, "i");
+		Place p = place(net, "p");
+		Place o = place(net, "o");
+		Transition a = transition(net, "a");
+		Transition b = transition(net, "b");
+		net.addFlow(i, a);
+		net.addFlow(a, p);
+		net.addFlow(p, b);
+		net.addFlow(b, o);
+		net.loadNaturalMarking();
+		assertSound(checker.analyzeSoundness(net));
+	}
+
+	@Test
+	public void testParallelAndExclusiveBranches() {
+		NetSystem net = new NetSystem();
+		Place i = place(net, "i");
+		Place p1 = place(net, "p1");
+		Place p2 = place(net, "p2");
+		Place p3 = place(net, "p3");
+		Place p4 = place(net, "p4");
+		Place p5 = place(net, "p5");
+		Place o = place(net, "o");
+		Transition split = transition(net, "and-split");
+		Transition a = transition(net, "a");
+		Transition b = transition(net, "b");
+		Transition c = transition(net, "c");
+		Transition join = transition(net, "and-join");
+		net.addFlow(i, split);
+		net.addFlow(split, p1);
+		net.addFlow(split, p2);
+		//exclusive choice between a and b
+		net.addFlow(p1, a);
+		net.addFlow(p1, b);
+		net.addFlow(a, p3);
+		net.addFlow(b, p3);
+		net.addFlow(p2, c);
+		net.addFlow(c, p4);
+		net.addFlow(p3, join);
+		net.addFlow(p4, join);
+		net.addFlow(join, p5);
+		Transition end = transition(net, "end");
+		net.addFlow(p5, end);
+		net.addFlow(end, o);
+		net.loadNaturalMarking();
+		assertSound(checker.analyzeSoundness(net));
+	}
+
+	@Test
+	public void testImproperCompletion() {
+		//parallel split with exclusive join
+		NetSystem net = new NetSystem();
+		Place i = place(net, "i");
+		Place p1 = place(net, "p1");
+		Place p2 = place(net, "p2");
+		Place o = place(net, "o");
+		Transition split = transition(net, "and-split");
+		Transition b = transition(net, "b");
+		Transition c = transition(net, "c");
+		net.addFlow(i, split);
+		net.addFlow(split, p1);
+		net.addFlow(split, p2);
+		net.addFlow(p1, b);
+		net.addFlow(p2, c);
+		net.addFlow(b, o);
+		net.addFlow(c, o);
+		net.loadNaturalMarking();
+		LolaSoundnessCheckerResult result = checker.analyzeSoundness(net);
+		assertTrue(result.isBounded());
+		assertTrue(result.hasQuasiLiveness());
+		assertFalse(result.isWeakSound());
+		assertFalse(result.isClassicalSound());
+		assertFalse(result.hasLiveness());
+		//the final marking can not be reached
+		assertFalse(result.isRelaxedSound());
+		assertEquals(3, result.getUncoveredTransitions().size());
+	}
+
+	@Test
+	public void testDeadlock() {
+		//exclusive split with parallel join followed by a sequence, which is reduced
+		NetSystem net = new NetSystem();
+		Place i = place(net, "i");
+		Place p1 = place(net, "p1");
+		Place p2 = place(net, "p2");
+		Place p3 = place(net, "p3");
+		Place o = place(net, "o");
+		Transition a = transition(net, "a");
+		Transition b = transition(net, "b");
+		Transition join = transition(net, "and-join");
+		Transition c = transition(net, "c");
+		net.addFlow(i, a);
+		net.addFlow(i, b);
+		net.addFlow(a, p1);
+		net.addFlow(b, p2);
+		net.addFlow(p1, join);
+		net.addFlow(p2, join);
+		net.addFlow(join, p3);
+		net.addFlow(p3, c);
+		net.addFlow(c, o);
+		net.loadNaturalMarking();
+		LolaSoundnessCheckerResult result = checker.analyzeSoundness(net);
+		assertTrue(result.isBounded());
+		assertFalse(result.hasQuasiLiveness());
+		assertFalse(result.isWeakSound());
+		assertFalse(result.isClassicalSound());
+		assertFalse(result.isRelaxedSound());
+		assertEquals(new HashSet<Transition>(Arrays.asList(join, c)), new HashSet<Transition>(result.getDeadTransitions()));
+		assertEquals(4, result.getUncoveredTransitions().size());
+	}
+
+	@Test
+	public void testUnbounded() {
+		NetSystem net = new NetSystem();
+		Place i = place(net, "i");
+		Place q = place(net, "q");
+		Place p = place(net, "p");
+		Place o = place(net, "o");
+		Transition start = transition(net, "start");
+		Transition a = transition(net, "a");
+		Transition b = transition(net, "b");
+		Transition c = transition(net, "c");
+		net.addFlow(i, start);
+		net.addFlow(start, q);
+		//a puts a token on p each time it fires
+		net.addFlow(q, a);
+		net.addFlow(a, q);
+		net.addFlow(a, p);
+		net.addFlow(q, b);
+		net.addFlow(b, o);
+		net.addFlow(p, c);
+		net.addFlow(c, o);
+		net.loadNaturalMarking();
+		LolaSoundnessCheckerResult result = checker.analyzeSoundness(net);
+		assertFalse(result.isBounded());
+		assertFalse(result.isClassicalSound());
+		assertFalse(result.isWeakSound());
+		//p is removed by the reduction, but o is unbounded as well
+		assertEquals(1, result.getUnboundedPlaces().size());
+		assertEquals(o, result.getUnboundedPlaces().iterator().next());
+	}
+
+	@Test
+	public void testStateBudget() {
+		//ten parallel branches with an exclusive choice each have more than 2^10 reachable markings
+		NetSystem net = new NetSystem();
+		Place i = place(net, "i");
+		Place o = place(net, "o");
+		Transition split = transition(net, "and-split");
+		Transition join = transition(net, "and-join");
+		net.addFlow(i, split);
+		net.addFlow(join, o);
+		for (int k = 0; k < 10; k++) {
+			Place before = place(net, "before" + k);
+			Place after = place(net, "after" + k);
+			Transition task1 = transition(net, "task" + k + "a");
+			Transition task2 = transition(net, "task" + k + "b");
+			net.addFlow(split, before);
+			net.addFlow(before, task1);
+			net.addFlow(before, task2);
+			net.addFlow(task1, after);
+			net.addFlow(task2, after);
+			net.addFlow(after, join);
+		}
+		net.loadNaturalMarking();
+		assertSound(checker.analyzeSoundness(net));
+		try {
+			new StateSpaceSoundnessChecker(100).analyzeSoundness(net);
+			fail("Expected exception has not been thrown!");
+		} catch (IllegalStateException e) {
+			//expected
+		}
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidStateBudget() {
+		new StateSpaceSoundnessChecker(0);
+	}
+
+	private void assertSound(LolaSoundnessCheckerResult result) {
+		assertTrue(result.isBounded());
+		assertTrue(result.hasLiveness());
+		assertTrue(result.hasQuasiLiveness());
+		assertTrue(result.isWeakSound());
+		assertTrue(result.isRelaxedSound());
+		assertTrue(result.hasTransitioncover());
+		assertTrue(result.isClassicalSound());
+		assertTrue(result.getDeadTransitions().isEmpty());
+		assertTrue(result.getUncoveredTransitions().isEmpty());
+		assertTrue(result.getUnboundedPlaces().isEmpty());
+	}
+
+	private Place place(NetSystem net, String name) {
+		Place place = new Place(name);
+		net.addPlace(place);
+		return place;
+	}
+
+	private Transition transition(NetSystem net, String name) {
+		Transition transition = new Transition(name);
+		net.addTransition(transition);
+		return transition;
+	}
+}
@@ -0,0 +1,311 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.analysisModules.soundness;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.bevahior.LolaSoundnessCheckerResult;
+import org.junit.Test;
+
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.soundness.TieredSoundnessChecker.Tier;
+
+/**
+ * Test class for {@link TieredSoundnessChecker}.
+ * 
+ * @author Tobias Hoppe
+ */
+public class TieredSoundnessCheckerTest {
+
+	@Test
+	public void testSNet() {
+		//exclusive choice with a loop
+		NetSystem net = new NetSystem();
+		Place i = place(net, "i");
+		Place p = place(net, "p");
+		Place o = place(net, "o");
+		flow(net, i, transition(net, "a"), p);
+		flow(net, p, transition(net, "b"), p);
+		flow(net, p, transition(net, "c"), o);
+		flow(net, p, transition(net, "d"), o);
+		net.loadNaturalMarking();
+		assertDecidedBy(Tier.S_NET, true, net);
+	}
+
+	@Test
+	public void testTNet() {
+		NetSystem net = new NetSystem();
+		Place i = place(net, "i");
+		Place p1 = place(net, "p1");
+		Place p2 = place(net, "p2");
+		Place p3 = place(net, "p3");
+		Place p4 = place(net, "p4");
+		Place o = place(net, "o");
+		Transition split = transition(net, "and-split");
+		Transition join = transition(net, "and-join");
+		net.addFlow(i, split);
+		net.addFlow(split, p1);
+		net.addFlow(split, p2);
+		flow(net, p1, transition(net, "a"), p3);
+		flow(net, p2, transition(net, "b"), p4);
+		net.addFlow(p3, join);
+		net.addFlow(p4, join);
+		net.addFlow(join, o);
+		net.loadNaturalMarking();
+		assertDecidedBy(Tier.T_NET, true, net);
+	}
+
+	@Test
+	public void testCyclicTNet() {
+		//the join waits for a token of its own output
+		NetSystem net = new NetSystem();
+		Place i = place(net, "i");
+		Place p = place(net, "p");
+		Place q = place(net, "q");
+		Place o = place(net, "o");
+		Transition join = transition(net, "and-join");
+		Transition split = transition(net, "and-split");
+		net.addFlow(i, join);
+		net.addFlow(q, join);
+		net.addFlow(join, p);
+		net.addFlow(p, split);
+		net.addFlow(split, q);
+		net.addFlow(split, o);
+		net.loadNaturalMarking();
+		assertDecidedBy(Tier.STATE_SPACE, false, net);
+	}
+
+	@Test
+	public void testFreeChoice() {
+		//parallel branches, one of them containing an exclusive choice
+		NetSystem net = new NetSystem();
+		Place i = place(net, "i");
+		Place p1 = place(net, "p1");
+		Place p2 = place(net, "p2");
+		Place p3 = place(net, "p3");
+		Place p4 = place(net, "p4");
+		Place o = place(net, "o");
+		Transition split = transition(net, "and-split");
+		Transition join = transition(net, "and-join");
+		net.addFlow(i, split);
+		net.addFlow(split, p1);
+		net.addFlow(split, p2);
+		flow(net, p1, transition(net, "a"), p3);
+		flow(net, p1, transition(net, "b"), p3);
+		flow(net, p2, transition(net, "c"), p4);
+		net.addFlow(p3, join);
+		net.addFlow(p4, join);
+		net.addFlow(join, o);
+		net.loadNaturalMarking();
+		assertDecidedBy(Tier.FREE_CHOICE, true, net);
+	}
+
+	@Test
+	public void testUnsoundFreeChoice() {
+		//exclusive split followed by a parallel join
+		NetSystem net = new NetSystem();
+		Place i = place(net, "i");
+		Place p1 = place(net, "p1");
+		Place p2 = place(net, "p2");
+		Place o = place(net, "o");
+		flow(net, i, transition(net, "a"), p1);
+		flow(net, i, transition(net, "b"), p2);
+		Transition join = transition(net, "and-join");
+		net.addFlow(p1, join);
+		net.addFlow(p2, join);
+		net.addFlow(join, o);
+		net.loadNaturalMarking();
+		LolaSoundnessCheckerResult result = assertDecidedBy(Tier.STATE_SPACE, false, net);
+		assertEquals(1, result.getDeadTransitions().size());
+	}
+
+	@Test
+	public void testNonFreeChoice() {
+		//b needs both tokens, but a may take the token of p1 before
+		NetSystem net = new NetSystem();
+		Place i = place(net, "i");
+		Place p1 = place(net, "p1");
+		Place p2 = place(net, "p2");
+		Place p3 = place(net, "p3");
+		Place o = place(net, "o");
+		Transition split = transition(net, "and-split");
+		Transition a = transition(net, "a");
+		Transition b = transition(net, "b");
+		net.addFlow(i, split);
+		net.addFlow(split, p1);
+		net.addFlow(split, p2);
+		net.addFlow(p1, a);
+		net.addFlow(a, p3);
+		net.addFlow(p1, b);
+		net.addFlow(p2, b);
+		net.addFlow(b, o);
+		flow(net, p3, transition(net, "c"), o);
+		net.loadNaturalMarking();
+		assertDecidedBy(Tier.STATE_SPACE, false, net);
+	}
+
+	@Test
+	public void testStatistics() {
+		TieredSoundnessChecker checker = new TieredSoundnessChecker();
+		assertTrue(checker.getStatistics().contains("0 nets"));
+		NetSystem net = new NetSystem();
+		flow(net, place(net, "i"), transition(net, "a"), place(net, "o"));
+		net.loadNaturalMarking();
+		checker.analyzeSoundness(net);
+		checker.analyzeSoundness(net);
+		assertEquals(2, checker.getNumberOfAnalyzedNets());
+		assertEquals(2, checker.getHits(Tier.S_NET));
+		assertTrue(checker.getStatistics().contains("S_NET 2 (100.0%)"));
+	}
+
+	@Test
+	public void testSameVerdictsAsStateSpace() {
+		Random random = new Random(42);
+		StateSpaceSoundnessChecker stateSpaceChecker = new StateSpaceSoundnessChecker();
+		TieredSoundnessChecker checker = new TieredSoundnessChecker();
+		int sound = 0;
+		for (int n = 0; n < 300; n++) {
+			NetSystem net = createRandomNet(random);
+			boolean expected = stateSpaceChecker.analyzeSoundness(net).isClassicalSound();
+			assertEquals("net " + n, expected, checker.analyzeSoundness(net).isClassicalSound());
+			if (expected) {
+				sound++;
+			}
+		}
+		//both sound and unsound nets are created and the fast tiers decide some of them
+		assertTrue(sound > 0 && sound < 300);
+		assertTrue(checker.getHits(Tier.FREE_CHOICE) > 0);
+		assertTrue(checker.getHits(Tier.STATE_SPACE) > 0);
+	}
+
+	/**
+	 * Refines a sequence by sound refinements and adds a random arc in some cases.
+	 */
+	private NetSystem createRandomNet(Random random) {
+		NetSystem net = new NetSystem();
+		Place i = place(net, "i");
+		Place o = place(net, "o");
+		List<Place> places = new ArrayList<Place>();
+		List<Transition> transitions = new ArrayList<Transition>();
+		Place p = place(net, "p0");
+		places.add(p);
+		transitions.add(flow(net, i, transition(net, "t0"), p));
+		transitions.add(flow(net, p, transition(net, "t1"), o));
+		int steps = 2 + random.nextInt(8);
+		for (int step = 0; step < steps; step++) {
+			Transition t = transitions.get(random.nextInt(transitions.size()));
+			Place place = places.get(random.nextInt(places.size()));
+			switch (random.nextInt(4)) {
+			case 0:
+				//sequence: move the outputs of t to a new transition
+				Place between = place(net, "p" + net.getPlaces().size());
+				Transition next = transition(net, "t" + net.getTransitions().size());
+				for (Place output : new ArrayList<Place>(net.getPostset(t))) {
+					net.removeFlow(net.getDirectedEdge(t, output));
+					net.addFlow(next, output);
+				}
+				net.addFlow(t, between);
+				net.addFlow(between, next);
+				places.add(between);
+				transitions.add(next);
+				break;
+			case 1:
+				//parallel: duplicate a place
+				Place copy = place(net, "p" + net.getPlaces().size());
+				for (Transition input : net.getPreset(place)) {
+					net.addFlow(input, copy);
+				}
+				for (Transition output : net.getPostset(place)) {
+					net.addFlow(copy, output);
+				}
+				places.add(copy);
+				break;
+			case 2:
+				//choice: duplicate a transition
+				Transition alternative = transition(net, "t" + net.getTransitions().size());
+				for (Place input : net.getPreset(t)) {
+					net.addFlow(input, alternative);
+				}
+				for (Place output : net.getPostset(t)) {
+					net.addFlow(alternative, output);
+				}
+				transitions.add(alternative);
+				break;
+			default:
+				//loop: return from a place to the input place of one of its output transitions
+				Transition back = transition(net, "t" + net.getTransitions().size());
+				net.addFlow(place, back);
+				net.addFlow(back, net.getPreset(net.getPostset(place).iterator().next()).iterator().next());
+				transitions.add(back);
+			}
+		}
+		if (random.nextBoolean()) {
+			Place place = places.get(random.nextInt(places.size()));
+			Transition t = transitions.get(random.nextInt(transitions.size()));
+			if (random.nextBoolean() && !net.getPreset(t).contains(place)) {
+				net.addFlow(place, t);
+			} else if (!net.getPostset(t).contains(place)) {
+				net.addFlow(t, place);
+			}
+		}
+		net.loadNaturalMarking();
+		return net;
+	}
+
+	private LolaSoundnessCheckerResult assertDecidedBy(Tier tier, boolean sound, NetSystem net) {
+		TieredSoundnessChecker checker = new TieredSoundnessChecker();
+		LolaSoundnessCheckerResult result = checker.analyzeSoundness(net);
+		assertEquals(1, checker.getHits(tier));
+		assertEquals(sound, result.isClassicalSound());
+		assertEquals(new StateSpaceSoundnessChecker().analyzeSoundness(net).isClassicalSound(), result.isClassicalSound());
+		if (sound) {
+			assertTrue(result.isBounded());
+			assertTrue(result.hasLiveness());
+			assertTrue(result.getDeadTransitions().isEmpty());
+		} else {
+			assertFalse(result.hasLiveness());
+		}
+		return result;
+	}
+
+	private Transition flow(NetSystem net, Place input, Transition transition, Place output) {
+		net.addFlow(input, transition);
+		net.addFlow(transition, output);
+		return transition;
+	}
+
+	private Place place(NetSystem net, String name) {
+		Place place = new Place(name);
+		net.addPlace(place);
+		return place;
+	}
+
+	private Transition transition(NetSystem net, String name) {
+		Transition transition = new Transition(name);
+		net.addTransition(transition);
+		return transition;
+	}
+}
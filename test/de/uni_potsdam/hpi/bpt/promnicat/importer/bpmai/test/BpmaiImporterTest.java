@@ -17,6 +17,7 @@
  */
 package de.uni_potsdam.hpi.bpt.promnicat.importer.bpmai.test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
@@ -28,6 +29,7 @@ import org.junit.Test;
 import de.uni_potsdam.hpi.bpt.promnicat.importer.bpmai.BpmaiImporter;
 import de.uni_potsdam.hpi.bpt.promnicat.importer.test.ImporterTest;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.ImportManifestEntry;
 import de.uni_potsdam.hpi.bpt.promnicat.util.ConfigurationParser;
 import de.uni_potsdam.hpi.bpt.promnicat.util.Constants;
 
@@ -76,5 +78,34 @@ public class BpmaiImporterTest {
 		
 		persistenceApi.dropDb();
 	}
+	
+	@Test
+	public void importModelsInParallel(){
+		BpmaiImporter modelImporter = new BpmaiImporter(persistenceApi);
+		modelImporter.setNumberOfThreads(4);
+		String filePath = "resources/BPMAI/model_bpmn0";
+		ImporterTest.importModelsTwice(persistenceApi, modelImporter, filePath, 1, 2, 4);
+		filePath = "resources/BPMAI/model_bpmn1";
+		ImporterTest.importModelsTwice(persistenceApi, modelImporter, filePath, 1, 4, 8);	
+		
+		persistenceApi.dropDb();
+	}
+	
+	@Test
+	public void importModelsIncrementally(){
+		BpmaiImporter modelImporter = new BpmaiImporter(persistenceApi);
+		modelImporter.setIncremental(true);
+		String filePath = "resources/BPMAI/model_bpmn0";
+		ImporterTest.importModelsTwice(persistenceApi, modelImporter, filePath, 1, 2, 4);
+		persistenceApi.openDb();
+		assertEquals(4, persistenceApi.countClass(ImportManifestEntry.class));
+		
+		persistenceApi.dropDb();
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidNumberOfThreads(){
+		new BpmaiImporter(persistenceApi).setNumberOfThreads(0);
+	}
 
 }
@@ -0,0 +1,154 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.importer.ibm.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.jbpt.pm.ControlFlow;
+import org.jbpt.pm.FlowNode;
+import org.jbpt.pm.ProcessModel;
+import org.jbpt.pm.bpmn.BpmnEvent;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import de.uni_potsdam.hpi.bpt.ai.diagram.DiagramBuilder;
+import de.uni_potsdam.hpi.bpt.promnicat.importer.ibm.Bpmn2XmlStreamConverter;
+import de.uni_potsdam.hpi.bpt.promnicat.importer.ibm.IBMModelImporter;
+import de.uni_potsdam.hpi.bpt.promnicat.parser.ModelParser;
+
+/**
+ * test class for {@link Bpmn2XmlStreamConverter}.
+ * 
+ * @author Tobias Hoppe
+ */
+public class Bpmn2XmlStreamConverterTest {
+
+	private static final String MODEL_PATH = "resources/IBM/A/s00000016/s00000018/s00000020/s00000024/s00000777.bpmn.xml";
+
+	@Test
+	public void convertFile() throws Exception {
+		String json = new Bpmn2XmlStreamConverter().convert(new File(MODEL_PATH));
+		ProcessModel process = new ModelParser(true).transformProcess(DiagramBuilder.parseJson(json));
+		assertEquals(62, process.getFlowNodes().size());
+		assertEquals(10, process.getActivities().size());
+		assertEquals(48, process.getGateways().size());
+		assertEquals(4, process.getEvents().size());
+		//duplicate sequence flows between the same nodes are merged
+		assertEquals(72, process.getControlFlow().size());
+	}
+
+	@Test
+	public void convertFirstProcessOnly() throws Exception {
+		String xml = "<definitions xmlns=\"http://schema.omg.org/spec/BPMN/2.0\">"
+				+ "<process id=\"p1\"><startEvent id=\"s\"/><task id=\"t\" name=\"Check order\"/>"
+				+ "<sequenceFlow id=\"f\" sourceRef=\"s\" targetRef=\"t\"/><unknownElement id=\"u\"/></process>"
+				+ "<process id=\"p2\"><task id=\"t2\"/></process></definitions>";
+		JSONObject canvas = new JSONObject(new Bpmn2XmlStreamConverter().convert(new ByteArrayInputStream(xml.getBytes("UTF-8"))));
+		assertEquals(3, canvas.getJSONArray("childShapes").length());
+		JSONObject task = canvas.getJSONArray("childShapes").getJSONObject(1);
+		assertEquals("Task", task.getJSONObject("stencil").getString("id"));
+		assertEquals("Check order", task.getJSONObject("properties").getString("name"));
+		JSONObject flow = canvas.getJSONArray("childShapes").getJSONObject(2);
+		assertEquals("t", flow.getJSONObject("target").getString("resourceId"));
+		JSONObject start = canvas.getJSONArray("childShapes").getJSONObject(0);
+		assertEquals("f", start.getJSONArray("outgoing").getJSONObject(0).getString("resourceId"));
+	}
+
+	/**
+	 * Events and gateways are converted like the JAXB based conversion does, i.e. without their types.
+	 */
+	@Test
+	public void convertEventsAndGateways() throws Exception {
+		String xml = "<definitions xmlns=\"http://schema.omg.org/spec/BPMN/2.0\"><process id=\"p1\">"
+				+ "<startEvent id=\"s\"><messageEventDefinition/></startEvent>"
+				+ "<intermediateThrowEvent id=\"i1\"/>"
+				+ "<intermediateThrowEvent id=\"i2\"><signalEventDefinition/></intermediateThrowEvent>"
+				+ "<intermediateCatchEvent id=\"i3\"><timerEventDefinition/></intermediateCatchEvent>"
+				+ "<parallelGateway id=\"g\"/>"
+				+ "<endEvent id=\"e\"><terminateEventDefinition/></endEvent>"
+				+ "<sequenceFlow id=\"f1\" sourceRef=\"s\" targetRef=\"i1\"/>"
+				+ "<sequenceFlow id=\"f2\" sourceRef=\"i1\" targetRef=\"i2\"/>"
+				+ "<sequenceFlow id=\"f3\" sourceRef=\"i2\" targetRef=\"i3\"/>"
+				+ "<sequenceFlow id=\"f4\" sourceRef=\"i3\" targetRef=\"g\"/>"
+				+ "<sequenceFlow id=\"f5\" sourceRef=\"g\" targetRef=\"e\"/></process></definitions>";
+		String json = new Bpmn2XmlStreamConverter().convert(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+		ProcessModel process = new ModelParser(true).transformProcess(DiagramBuilder.parseJson(json));
+		assertEquals(Arrays.asList("CatchingEvent::Blank", "CatchingEvent::Blank", "CatchingEvent::Blank", "EndEvent::Blank",
+				"StartEvent::Blank", "XorGateway:"), describeNodes(process));
+	}
+
+	@Test
+	public void convertLikeJaxbConversion() throws Exception {
+		File file = new File(MODEL_PATH);
+		ProcessModel streamed = new ModelParser(true).transformProcess(DiagramBuilder.parseJson(
+				new Bpmn2XmlStreamConverter().convert(file)));
+		ProcessModel unmarshalled = new ModelParser(true).transformProcess(DiagramBuilder.parseJson(
+				new IBMModelImporter(null).parseIBMBPMN2Diagram(file)));
+		assertEquals(describeNodes(unmarshalled), describeNodes(streamed));
+		assertEquals(describeEdges(unmarshalled), describeEdges(streamed));
+	}
+
+	@Test
+	public void convertInvalidXml() throws Exception {
+		try {
+			new Bpmn2XmlStreamConverter().convert(new ByteArrayInputStream("<definitions><process>".getBytes("UTF-8")));
+			fail("Expected exception has not been raised!");
+		} catch (XMLStreamException e) {
+			//expected exception
+		}
+	}
+
+	/**
+	 * @return the type, the name and, for events, the event type of the given node
+	 */
+	private String describe(FlowNode node) {
+		String description = node.getClass().getSimpleName() + ":" + node.getName();
+		if (node instanceof BpmnEvent) {
+			description += ":" + ((BpmnEvent) node).getEventType();
+		}
+		return description;
+	}
+
+	private List<String> describeNodes(ProcessModel process) {
+		List<String> nodes = new ArrayList<String>();
+		for (FlowNode node : process.getFlowNodes()) {
+			nodes.add(describe(node));
+		}
+		Collections.sort(nodes);
+		return nodes;
+	}
+
+	private List<String> describeEdges(ProcessModel process) {
+		List<String> edges = new ArrayList<String>();
+		for (ControlFlow<FlowNode> edge : process.getControlFlow()) {
+			edges.add(describe(edge.getSource()) + "->" + describe(edge.getTarget()));
+		}
+		Collections.sort(edges);
+		return edges;
+	}
+}
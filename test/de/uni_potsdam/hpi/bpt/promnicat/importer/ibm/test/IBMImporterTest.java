@@ -106,6 +106,18 @@ public class IBMImporterTest {
 		
 		persistenceApi.dropDb();
 	}
+	
+	@Test
+	public void importModelsStreamingInParallel(){
+	    IBMModelImporter modelImporter = new IBMModelImporter(persistenceApi);
+	    modelImporter.setNumberOfThreads(2);
+	    modelImporter.setStreamingThreshold(0);
+		String filePath = "resources/IBM";
+		//with the streaming converter, each model has a XML and a JSON representation
+		ImporterTest.importModelsTwice(persistenceApi, modelImporter, filePath, 2, 2, 4);
+		
+		persistenceApi.dropDb();
+	}
 	@Test
 	public void parse() throws JAXBException, JSONException{
 		File xml = new File("resources\\IBM\\A\\s00000016\\s00000018\\s00000020\\s00000024\\s00000777.bpmn.xml");
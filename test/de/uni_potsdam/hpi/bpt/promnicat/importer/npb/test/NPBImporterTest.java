@@ -73,4 +73,25 @@ public class NPBImporterTest {
 		ImporterTest.importModelsTwice(persistenceApi, modelImporter, filePath, 2, 2, 1);
 	}
 	
+	@Test
+	public void importModelsIncrementally(){
+		NPBImporter modelImporter = new NPBImporter(persistenceApi);
+		modelImporter.setIncremental(true);
+		String filePath = "resources/NPB";
+		ImporterTest.importModelsTwice(persistenceApi, modelImporter, filePath, 2, 2, 1);
+	}
+	
+	@Test
+	public void importModelsInParallel(){
+		NPBImporter modelImporter = new NPBImporter(persistenceApi);
+		modelImporter.setNumberOfThreads(2);
+		String filePath = "resources/NPB";
+		ImporterTest.importModelsTwice(persistenceApi, modelImporter, filePath, 2, 2, 1);
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidNumberOfThreads(){
+		new NPBImporter(persistenceApi).setNumberOfThreads(0);
+	}
+	
 }
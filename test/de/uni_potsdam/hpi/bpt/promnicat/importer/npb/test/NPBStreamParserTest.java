@@ -0,0 +1,108 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.importer.npb.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Test;
+
+import de.uni_potsdam.hpi.bpt.promnicat.importer.npb.NPBStreamParser;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Model;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Representation;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Revision;
+import de.uni_potsdam.hpi.bpt.promnicat.util.Constants;
+
+/**
+ * test class for {@link NPBStreamParser}.
+ * 
+ * @author Tobias Hoppe
+ */
+public class NPBStreamParserTest {
+
+	@Test
+	public void parseFile() throws Exception {
+		List<Model> models = new NPBStreamParser().parse(new File("resources/NPB/Begruenden.xml"));
+		assertEquals(1, models.size());
+		Model model = models.get(0);
+		assertEquals("2d14a7d7954d3406afac2d434f01fc86", model.getImportedId());
+		assertEquals(Constants.ORIGIN_NPB, model.getOrigin());
+		//the last 'processName' wins
+		assertEquals("Begründetheit prüfen", model.getTitle());
+
+		assertEquals(1, model.getRevisions().size());
+		Revision revision = model.getLatestRevision();
+		assertEquals(Integer.valueOf(3), revision.getRevisionNumber());
+		assertArrayEquals(new String[]{"begründetheit", "antrag", "prüfung"}, revision.getMetadataAtKey("tags"));
+		assertArrayEquals(new String[]{"info@prozessbibliothek.de"}, revision.getMetadataAtKey("contact"));
+
+		assertEquals(1, revision.getRepresentations().size());
+		Representation representation = revision.getRepresentations().iterator().next();
+		assertEquals("png", representation.getFormat());
+		assertEquals(Constants.NOTATION_EPC, representation.getNotation());
+	}
+
+	@Test
+	public void parseExport() throws Exception {
+		String xml = "<xpr:export xmlns:xpr=\"" + Constants.NPB_XML_NAMESPACE + "\">"
+				+ createModel("1", "2-abc", "First")
+				+ "<xpr:modell revision=\"1-abc\"/>"
+				+ createModel("3", "1-abc", "Third")
+				+ "</xpr:export>";
+		List<Model> models = new NPBStreamParser().parse(new ByteArrayInputStream(xml.getBytes("UTF-8")), "export");
+		//the model without identifier is skipped
+		assertEquals(2, models.size());
+		assertEquals("1", models.get(0).getImportedId());
+		assertEquals("First", models.get(0).getTitle());
+		assertEquals(Integer.valueOf(2), models.get(0).getLatestRevision().getRevisionNumber());
+		assertEquals("3", models.get(1).getImportedId());
+		assertEquals("Third", models.get(1).getTitle());
+		assertTrue(models.get(1).getLatestRevision().getRepresentations().isEmpty());
+	}
+
+	@Test
+	public void parseUnknownFormat() throws Exception {
+		String xml = "<definitions xmlns=\"http://schema.omg.org/spec/BPMN/2.0\"><process id=\"p1\"/></definitions>";
+		assertTrue(new NPBStreamParser().parse(new ByteArrayInputStream(xml.getBytes("UTF-8")), "bpmn").isEmpty());
+	}
+
+	@Test
+	public void parseInvalidXml() {
+		try {
+			new NPBStreamParser().parse(new ByteArrayInputStream("<xpr:export".getBytes()), "invalid");
+			fail("Expected exception has not been thrown!");
+		} catch (XMLStreamException e) {
+			//expected
+		}
+	}
+
+	private String createModel(String id, String revision, String name) {
+		return "<xpr:modell revision=\"" + revision + "\" schluessel=\"" + id + "\">"
+				+ "<xpr:metaInformation><xpr:schluessel><code>processName</code></xpr:schluessel>"
+				+ "<xpr:wert><xpr:text>" + name + "</xpr:text></xpr:wert></xpr:metaInformation>"
+				+ "</xpr:modell>";
+	}
+}
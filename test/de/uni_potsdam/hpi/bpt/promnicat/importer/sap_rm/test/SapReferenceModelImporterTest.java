@@ -85,6 +85,21 @@ public class SapReferenceModelImporterTest {
 		persistenceApi.dropDb();
 	}
 
+	@Test
+	public void importModelsInParallel(){
+		SapReferenceModelImporter modelImporter = new SapReferenceModelImporter(persistenceApi);
+		modelImporter.setNumberOfThreads(4);
+		String filePath = "resources/SAP_RM";
+		ImporterTest.importModelsTwice(persistenceApi, modelImporter, filePath, 1, 1, 1);
+
+		persistenceApi.dropDb();
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidNumberOfThreads(){
+		new SapReferenceModelImporter(persistenceApi).setNumberOfThreads(0);
+	}
+
 	@Test
 	public void parseModels() throws IllegalTypeException, IOException, JSONException{
 		SapReferenceModelImporter modelImporter = new SapReferenceModelImporter(persistenceApi);
@@ -0,0 +1,134 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.importer.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.uni_potsdam.hpi.bpt.promnicat.importer.ImportManifest;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.ImportManifestEntry;
+import de.uni_potsdam.hpi.bpt.promnicat.util.ConfigurationParser;
+import de.uni_potsdam.hpi.bpt.promnicat.util.Constants;
+
+/**
+ * test class for {@link ImportManifest}.
+ * 
+ * @author Tobias Hoppe
+ */
+public class ImportManifestTest {
+
+	private static IPersistenceApi persistenceApi = null;
+	private File file = null;
+
+	@BeforeClass
+	public static void init(){
+		try {
+			persistenceApi = new ConfigurationParser(Constants.TEST_DB_CONFIG_PATH).getDbInstance(Constants.DATABASE_TYPES.ORIENT_DB);
+		} catch (IOException e) {
+			fail("Unexpected exception occurred: " + e.getMessage());
+		}
+	}
+
+	@AfterClass
+	public static void tearDown(){
+		persistenceApi.dropDb();
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		this.file = File.createTempFile("manifest", ".json");
+		write(this.file, "{\"a\" : 1}");
+		persistenceApi.openDb();
+	}
+
+	@After
+	public void cleanUp() {
+		this.file.delete();
+		persistenceApi.dropDb();
+	}
+
+	@Test
+	public void testUnknownFile() throws IOException {
+		ImportManifest manifest = new ImportManifest(persistenceApi, Constants.ORIGIN_BPMAI);
+		assertEquals(0, manifest.size());
+		assertFalse(manifest.isUnchanged(this.file));
+		assertNull(manifest.getEntry(this.file));
+	}
+
+	@Test
+	public void testUpdate() throws IOException {
+		ImportManifest manifest = new ImportManifest(persistenceApi, Constants.ORIGIN_BPMAI);
+		manifest.update(this.file, Arrays.asList("#1:1"));
+		assertTrue(manifest.isUnchanged(this.file));
+		ImportManifestEntry entry = manifest.getEntry(this.file);
+		assertEquals(this.file.length(), entry.getSize());
+		assertEquals(1, entry.getModelDbIds().size());
+
+		//the manifest is persisted per origin
+		manifest = new ImportManifest(persistenceApi, Constants.ORIGIN_BPMAI);
+		assertEquals(1, manifest.size());
+		assertTrue(manifest.isUnchanged(this.file));
+		manifest = new ImportManifest(persistenceApi, Constants.ORIGIN_NPB);
+		assertEquals(0, manifest.size());
+	}
+
+	@Test
+	public void testTouchedFile() throws IOException {
+		ImportManifest manifest = new ImportManifest(persistenceApi, Constants.ORIGIN_BPMAI);
+		manifest.update(this.file, Arrays.asList("#1:1"));
+		//same content, but new time stamp
+		assertTrue(this.file.setLastModified(this.file.lastModified() - 10000));
+		assertTrue(manifest.isUnchanged(this.file));
+		assertEquals(this.file.lastModified(), manifest.getEntry(this.file).getLastModified());
+	}
+
+	@Test
+	public void testChangedFile() throws IOException {
+		ImportManifest manifest = new ImportManifest(persistenceApi, Constants.ORIGIN_BPMAI);
+		manifest.update(this.file, Arrays.asList("#1:1"));
+		long lastModified = this.file.lastModified();
+		//same size, but different content
+		write(this.file, "{\"a\" : 2}");
+		assertTrue(this.file.setLastModified(lastModified - 10000));
+		assertFalse(manifest.isUnchanged(this.file));
+		//different size
+		write(this.file, "{\"a\" : 20}");
+		assertFalse(manifest.isUnchanged(this.file));
+	}
+
+	private void write(File target, String content) throws IOException {
+		FileWriter writer = new FileWriter(target);
+		writer.write(content);
+		writer.close();
+	}
+}
@@ -0,0 +1,128 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.importer.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.uni_potsdam.hpi.bpt.promnicat.importer.ImportedModelLookup;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Model;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Revision;
+import de.uni_potsdam.hpi.bpt.promnicat.util.ConfigurationParser;
+import de.uni_potsdam.hpi.bpt.promnicat.util.Constants;
+
+/**
+ * test class for {@link ImportedModelLookup}.
+ * 
+ * @author Tobias Hoppe
+ */
+public class ImportedModelLookupTest {
+
+	private static IPersistenceApi persistenceApi = null;
+
+	@BeforeClass
+	public static void init(){
+		try {
+			persistenceApi = new ConfigurationParser(Constants.TEST_DB_CONFIG_PATH).getDbInstance(Constants.DATABASE_TYPES.ORIENT_DB);
+		} catch (IOException e) {
+			fail("Unexpected exception occurred: " + e.getMessage());
+		}
+	}
+
+	@AfterClass
+	public static void tearDown(){
+		persistenceApi.dropDb();
+	}
+
+	@Before
+	public void setUp() {
+		persistenceApi.openDb();
+	}
+
+	@After
+	public void cleanUp() {
+		persistenceApi.dropDb();
+	}
+
+	@Test
+	public void testEmptyDatabase() {
+		ImportedModelLookup lookup = new ImportedModelLookup(persistenceApi, Constants.ORIGIN_NPB);
+		assertEquals(0, lookup.size());
+		assertFalse(lookup.contains("1"));
+		assertNull(lookup.getDbId("1"));
+		assertNull(lookup.getLatestRevisionNumber("1"));
+		assertNull(lookup.loadModel("1"));
+	}
+
+	@Test
+	public void testLoadExistingModels() {
+		String dbId = persistenceApi.savePojo(createModel("1", Constants.ORIGIN_NPB, 3));
+		persistenceApi.savePojo(createModel("2", Constants.ORIGIN_NPB, 1));
+		persistenceApi.savePojo(createModel("1", Constants.ORIGIN_BPMAI, 5));
+
+		ImportedModelLookup lookup = new ImportedModelLookup(persistenceApi, Constants.ORIGIN_NPB);
+		assertEquals(2, lookup.size());
+		assertTrue(lookup.contains("1"));
+		assertTrue(lookup.contains("2"));
+		assertEquals(dbId, lookup.getDbId("1"));
+		assertEquals(Integer.valueOf(3), lookup.getLatestRevisionNumber("1"));
+		assertEquals(Integer.valueOf(1), lookup.getLatestRevisionNumber("2"));
+
+		Model model = lookup.loadModel("1");
+		assertNotNull(model);
+		assertEquals(dbId, model.getDbId());
+		assertEquals(Constants.ORIGIN_NPB, model.getOrigin());
+		assertEquals(1, model.getRevisions().size());
+	}
+
+	@Test
+	public void testAdd() {
+		ImportedModelLookup lookup = new ImportedModelLookup(persistenceApi, Constants.ORIGIN_NPB);
+		Model model = createModel("1", Constants.ORIGIN_NPB, 2);
+		lookup.add(model, null);
+		assertFalse(lookup.contains("1"));
+
+		String dbId = persistenceApi.savePojo(model);
+		lookup.add(model, dbId);
+		assertEquals(1, lookup.size());
+		assertEquals(dbId, lookup.getDbId("1"));
+		assertEquals(Integer.valueOf(2), lookup.getLatestRevisionNumber("1"));
+		assertEquals(dbId, lookup.loadModel("1").getDbId());
+	}
+
+	private Model createModel(String importedId, String origin, int revisionNumber) {
+		Model model = new Model("model " + importedId, origin, importedId);
+		Revision revision = new Revision(revisionNumber);
+		revision.connectModel(model);
+		model.connectLatestRevision(revision);
+		return model;
+	}
+}
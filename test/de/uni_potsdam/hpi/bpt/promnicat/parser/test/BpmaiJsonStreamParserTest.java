@@ -0,0 +1,179 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.parser.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jbpt.pm.ControlFlow;
+import org.jbpt.pm.FlowNode;
+import org.jbpt.pm.ProcessModel;
+import org.jbpt.pm.bpmn.Subprocess;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import de.uni_potsdam.hpi.bpt.ai.diagram.DiagramBuilder;
+import de.uni_potsdam.hpi.bpt.promnicat.parser.BpmaiJsonStreamParser;
+import de.uni_potsdam.hpi.bpt.promnicat.parser.ModelParser;
+
+/**
+ * Test class for {@link BpmaiJsonStreamParser}. The streamed process models are compared with the ones
+ * created from the {@link DiagramBuilder}'s diagram.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+public class BpmaiJsonStreamParserTest {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final String EPC_NAMESPACE = "http://b3mn.org/stencilset/epc#";
+	private static final String BPMN_NAMESPACE = "http://b3mn.org/stencilset/bpmn2.0#";
+
+	private final ModelParser modelParser = new ModelParser();
+	private final BpmaiJsonStreamParser parser = new BpmaiJsonStreamParser(modelParser);
+
+	@Test
+	public void transformLikeDiagram() throws IOException, JSONException {
+		List<File> files = new ArrayList<File>();
+		collectJsonFiles(new File("resources/BPMAI"), files);
+		assertEquals(8, files.size());
+		for (File file : files) {
+			byte[] json = Files.readAllBytes(file.toPath());
+			ProcessModel expected = modelParser.transformProcess(DiagramBuilder.parseJson(new JSONObject(new String(json, UTF8))));
+			ProcessModel streamed = parser.transformProcess(json);
+			assertNotNull(file.getPath(), expected);
+			assertNotNull(file.getPath(), streamed);
+			assertEquals(file.getPath(), expected.getName(), streamed.getName());
+			assertEquals(file.getPath(), describe(expected), describe(streamed));
+		}
+	}
+
+	@Test
+	public void findCanvasStencilSet() throws JSONException {
+		//only the namespace of the canvas' stencil set may be used, unknown ones result in null
+		String unknown = "http://b3mn.org/stencilset/unknown#";
+		String json = "{\"resourceId\":\"canvas\",\"properties\":{\"title\":\"t\",\"stencilset\":\"" + unknown + "\"},"
+				+ "\"childShapes\":[" + epcShape("f1", "Function", "f", null).replace("{\"resourceId", "{\"stencilset\":{\"namespace\":\"" + unknown + "\"},\"resourceId") + "],"
+				+ "\"stencilset\":{\"url\":\"{[\\\"namespace\\\"]}\",\"extensions\":[{\"namespace\":\"" + unknown + "\"}],"
+				+ "\"namespace\" : \"http:\\/\\/b3mn.org\\/stencilset\\/epc#\"}}";
+		ProcessModel process = parser.transformProcess(json.getBytes(UTF8));
+		assertNotNull(process);
+		assertEquals("t", process.getName());
+	}
+
+	@Test
+	public void transformStencilSetFirst() throws JSONException {
+		String json = "{\"resourceId\":\"canvas\",\"stencilset\":{\"namespace\":\"" + EPC_NAMESPACE + "\"},"
+				+ "\"properties\":{\"title\":\"Ärger\"},"
+				+ "\"childShapes\":["
+				+ epcShape("f1", "Function", "glossary://4711/Prüfen;;", "e1")
+				+ "," + epcShape("e1", "ControlFlow", "", "e2")
+				+ "," + epcShape("e2", "Event", "Geprüft", null)
+				+ "]}";
+		byte[] bytes = json.getBytes(UTF8);
+		ProcessModel expected = modelParser.transformProcess(DiagramBuilder.parseJson(new JSONObject(json)));
+		ProcessModel streamed = parser.transformProcess(bytes);
+		assertEquals("Ärger", streamed.getName());
+		assertEquals(describe(expected), describe(streamed));
+		//glossary link removed and decoded as UTF-8
+		assertTrue(describe(streamed).contains("Function:Prüfen@0,0,0,0"));
+		assertEquals(1, streamed.getControlFlow().size());
+	}
+
+	@Test
+	public void transformWithoutNamespace() throws JSONException {
+		//the diagram builder requires a stencil set
+		try {
+			parser.transformProcess("{\"resourceId\":\"canvas\",\"childShapes\":[]}".getBytes(UTF8));
+			fail("Expected a missing stencil set to be reported.");
+		} catch (RuntimeException e) {
+			//expected
+		}
+		assertNull(parser.transformProcess(("{\"resourceId\":\"canvas\",\"childShapes\":[],"
+				+ "\"stencilset\":{\"namespace\":\"http://b3mn.org/stencilset/unknown#\"}}").getBytes(UTF8)));
+	}
+
+	@Test
+	public void transformInvalidJson() {
+		String[] invalid = new String[] {
+				"{\"resourceId\":\"canvas\",\"childShapes\":[{\"resourceId\":\"t1\",\"childShapes\":[]",
+				"{\"resourceId\":\"canvas\",\"childShapes\":[{\"childShapes\":[]}],\"stencilset\":{\"namespace\":\"" + BPMN_NAMESPACE + "\"}}",
+				"{\"resourceId\":\"canvas\",\"childShapes\":[\"t1\"],\"stencilset\":{\"namespace\":\"" + BPMN_NAMESPACE + "\"}}",
+				"{\"childShapes\":[],\"stencilset\":{\"namespace\":\"" + BPMN_NAMESPACE + "\"}}"
+		};
+		for (String json : invalid) {
+			try {
+				parser.transformProcess(json.getBytes(UTF8));
+				fail("Expected a JSONException for " + json);
+			} catch (JSONException e) {
+				//expected
+			}
+		}
+	}
+
+	private String epcShape(String id, String stencil, String title, String outgoing) {
+		return "{\"resourceId\":\"" + id + "\",\"properties\":{\"title\":\"" + title + "\"},"
+				+ "\"stencil\":{\"id\":\"" + stencil + "\"},\"childShapes\":[],"
+				+ "\"outgoing\":[" + (outgoing == null ? "" : "{\"resourceId\":\"" + outgoing + "\"}") + "],"
+				+ "\"bounds\":{\"lowerRight\":{\"x\":100,\"y\":80},\"upperLeft\":{\"x\":20,\"y\":40}}}";
+	}
+
+	private void collectJsonFiles(File directory, List<File> files) {
+		for (File file : directory.listFiles()) {
+			if (file.isDirectory()) {
+				collectJsonFiles(file, files);
+			} else if (file.getName().endsWith(".json")) {
+				files.add(file);
+			}
+		}
+	}
+
+	/**
+	 * @return a sorted description of the nodes including their layout and subprocesses and
+	 * of the control flow of the given process model
+	 */
+	private List<String> describe(ProcessModel process) {
+		List<String> description = new ArrayList<String>();
+		for (FlowNode node : process.getFlowNodes()) {
+			String entry = node.getClass().getSimpleName() + ":" + node.getName() + "@" + node.getX() + ","
+					+ node.getY() + "," + node.getWidth() + "," + node.getHeight();
+			if (node instanceof Subprocess) {
+				entry += describe(((Subprocess) node).getSubProcess());
+			}
+			description.add(entry);
+		}
+		for (ControlFlow<FlowNode> flow : process.getControlFlow()) {
+			description.add(flow.getClass().getSimpleName() + ":" + flow.getSource().getName() + "->" + flow.getTarget().getName());
+		}
+		Collections.sort(description);
+		return description;
+	}
+}
@@ -25,6 +25,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jbpt.pm.Activity;
 import org.jbpt.pm.AndGateway;
@@ -41,6 +42,10 @@ import org.junit.Test;
 import de.uni_potsdam.hpi.bpt.ai.collection.BPMAIExport;
 import de.uni_potsdam.hpi.bpt.ai.collection.BPMAIExportBuilder;
 import de.uni_potsdam.hpi.bpt.ai.diagram.Diagram;
+import de.uni_potsdam.hpi.bpt.promnicat.parser.Bpmn1_1Constants;
+import de.uni_potsdam.hpi.bpt.promnicat.parser.Bpmn2_0Constants;
+import de.uni_potsdam.hpi.bpt.promnicat.parser.BpmnParser;
+import de.uni_potsdam.hpi.bpt.promnicat.parser.BpmnParser.StencilKind;
 import de.uni_potsdam.hpi.bpt.promnicat.parser.ModelParser;
 
 /**
@@ -112,6 +117,42 @@ public class BpmnParserTest {
 		assertEquals(2, process.filter(Event.class).size());
 	}
 	
+	/**
+	 * Tests that one parser can be shared by several threads and reused for many models.
+	 */
+	@Test
+	public void testSharedParser() throws Exception {
+		final ArrayList<Integer> expected = new ArrayList<Integer>();
+		for (Diagram d : BpmnParserTest.diagrams){
+			expected.add(new ModelParser().transformProcess(d).getVertices().size());
+		}
+		final ModelParser parser = new ModelParser();
+		final AtomicInteger mismatches = new AtomicInteger();
+		ArrayList<Thread> threads = new ArrayList<Thread>();
+		for (int t = 0; t < 4; t++) {
+			threads.add(new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < 50; i++) {
+						for (int j = 0; j < BpmnParserTest.diagrams.size(); j++) {
+							ProcessModel model = parser.transformProcess(BpmnParserTest.diagrams.get(j));
+							if (model.getVertices().size() != expected.get(j)) {
+								mismatches.incrementAndGet();
+							}
+						}
+					}
+				}
+			});
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(0, mismatches.get());
+	}
+	
 	@Test
 	public void messageFlowTest() {
 		Resource pool1 = new Resource();
@@ -131,4 +172,24 @@ public class BpmnParserTest {
 		assertTrue(model.getVertices().iterator().next() instanceof FlowNode);
 	}
 
+	@Test
+	public void stencilKindTest() {
+		BpmnParser bpmn2 = new BpmnParser(new Bpmn2_0Constants(), false);
+		assertEquals(StencilKind.TASK, bpmn2.getStencilKind("Task"));
+		assertEquals(StencilKind.SUBPROCESS, bpmn2.getStencilKind("CollapsedEventSubprocess"));
+		assertEquals(StencilKind.AND_GATEWAY, bpmn2.getStencilKind("ParallelGateway"));
+		assertEquals(StencilKind.START_EVENT, bpmn2.getStencilKind("StartMessageEvent"));
+		assertEquals(StencilKind.THROWING_EVENT, bpmn2.getStencilKind("IntermediateMessageEventThrowing"));
+		assertEquals(StencilKind.CATCHING_EVENT, bpmn2.getStencilKind("IntermediateTimerEvent"));
+		assertEquals(StencilKind.MESSAGE_FLOW, bpmn2.getStencilKind("MessageFlow"));
+		assertEquals(StencilKind.SEQUENCE_FLOW, bpmn2.getStencilKind("SequenceFlow"));
+		assertEquals(StencilKind.ASSOCIATION, bpmn2.getStencilKind("Association_Undirected"));
+		assertEquals(StencilKind.NONE, bpmn2.getStencilKind("TextAnnotation"));
+		//the registry is shared by all parsers of the same constants, but not across constants
+		assertEquals(StencilKind.AND_GATEWAY, new BpmnParser(new Bpmn2_0Constants(), true).getStencilKind("ParallelGateway"));
+		BpmnParser bpmn1 = new BpmnParser(new Bpmn1_1Constants(), false);
+		assertEquals(StencilKind.NONE, bpmn1.getStencilKind("ParallelGateway"));
+		assertEquals(StencilKind.AND_GATEWAY, bpmn1.getStencilKind("AND_Gateway"));
+	}
+
 }
@@ -0,0 +1,119 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.jbpt.pm.FlowNode;
+import org.jbpt.pm.ProcessModel;
+import org.jbpt.pm.epc.Epc;
+import org.junit.Test;
+
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.TestModelBuilder;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.classification.StructuralModelChecker;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.metrics.ProcessMetricsCalculator;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitData;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.UnitData;
+
+/**
+ * Test class for {@link ModelAnalysisContext}.
+ * 
+ * @author Tobias Hoppe
+ *
+ */
+public class ModelAnalysisContextTest {
+
+	@Test
+	public void testMemoization() {
+		ModelAnalysisContext context = new ModelAnalysisContext(TestModelBuilder.getConnectedProcessModel());
+		assertSame(context.getRPST(), context.getRPST());
+		assertSame(context.getNormalizedModel(), context.getNormalizedModel());
+		assertSame(context.getNormalizedRPST(), context.getNormalizedRPST());
+		assertSame(context.getTransitiveClosure(), context.getTransitiveClosure());
+	}
+
+	@Test
+	public void testNormalizedModelWithSingleSourceAndSink() throws Exception {
+		ProcessModel model = TestModelBuilder.getSequence(5, Epc.class);
+		ModelAnalysisContext context = new ModelAnalysisContext(model);
+		assertSame(model, context.getNormalizedModel());
+		assertSame(context.getRPST(), context.getNormalizedRPST());
+		assertTrue(StructuralModelChecker.isStructured(context));
+	}
+
+	@Test
+	public void testNormalizedModelWithMultipleSinks() {
+		ProcessModel model = TestModelBuilder.getConnectedProcessModel();
+		int numberOfNodes = model.getVertices().size();
+		ModelAnalysisContext context = new ModelAnalysisContext(model);
+		ProcessModel normalizedModel = context.getNormalizedModel();
+		assertNotSame(model, normalizedModel);
+		assertEquals(numberOfNodes, model.getVertices().size());
+		int sources = 0;
+		int sinks = 0;
+		for (FlowNode node : normalizedModel.getFlowNodes()) {
+			if (normalizedModel.getIncomingEdges(node).isEmpty()) {
+				sources++;
+			}
+			if (normalizedModel.getOutgoingEdges(node).isEmpty()) {
+				sinks++;
+			}
+		}
+		assertEquals(1, sources);
+		assertEquals(1, sinks);
+		assertEquals(StructuralModelChecker.isStructured(model), StructuralModelChecker.isStructured(context));
+	}
+
+	@Test
+	public void testGetContext() {
+		ProcessModel model = TestModelBuilder.getConnectedProcessModel();
+		IUnitData<Object> unitData = new UnitData<Object>(model);
+		ModelAnalysisContext context = ModelAnalysisContext.getContext(unitData, model);
+		assertSame(model, context.getProcessModel());
+		assertSame(context, unitData.getAnalysisContext());
+		assertSame(context, ModelAnalysisContext.getContext(unitData, model));
+
+		//a context of another model is replaced
+		ProcessModel otherModel = TestModelBuilder.getModelWithLoops();
+		ModelAnalysisContext otherContext = ModelAnalysisContext.getContext(unitData, otherModel);
+		assertNotSame(context, otherContext);
+		assertSame(otherModel, otherContext.getProcessModel());
+		assertSame(otherContext, unitData.getAnalysisContext());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testNullModel() {
+		new ModelAnalysisContext(null);
+	}
+
+	@Test
+	public void testMetricsWithContext() {
+		ProcessModel model = TestModelBuilder.getModelWithLoops();
+		ProcessMetricsCalculator calculator = new ProcessMetricsCalculator();
+		ProcessMetricsCalculator sharingCalculator = new ProcessMetricsCalculator(new ModelAnalysisContext(model));
+		assertEquals(calculator.getCycling(model, false), sharingCalculator.getCycling(model, false), 0.0);
+		assertEquals(calculator.getDepth(model, false), sharingCalculator.getDepth(model, false));
+		assertEquals(calculator.getCrossConnectivity(model, false), sharingCalculator.getCrossConnectivity(model, false), 0.0);
+		//a context of another model is ignored
+		ProcessModel otherModel = TestModelBuilder.getConnectedProcessModel();
+		assertEquals(calculator.getCycling(otherModel, false), sharingCalculator.getCycling(otherModel, false), 0.0);
+	}
+}
@@ -0,0 +1,87 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link WeightedEditDistance}.
+ * @author Cindy Fähnrich
+ *
+ */
+public class WeightedEditDistanceTest {
+
+	private final WeightedEditDistance distance = new WeightedEditDistance();
+	
+	@Test
+	public void testStringDistance() {
+		assertEquals(0.0, distance.getStringDistance("", ""), 0.0);
+		assertEquals(4.0, distance.getStringDistance("", "task"), 0.0);
+		assertEquals(3.0, distance.getStringDistance("kitten", "sitting"), 0.0);
+		assertEquals(3.0, distance.getStringDistance("sitting", "kitten"), 0.0);
+		assertEquals(2.0, distance.getStringDistance("Check order", "check Order"), 0.0);
+	}
+	
+	@Test
+	public void testRandomStrings() {
+		Random random = new Random(42);
+		for (int k = 0; k < 2000; k++) {
+			String stringA = randomString(random, random.nextInt(150));
+			String stringB = randomString(random, random.nextInt(150));
+			int expected = referenceDistance(stringA, stringB);
+			assertEquals(expected, distance.getStringDistance(stringA, stringB), 0.0);
+			int max = random.nextInt(100);
+			assertEquals(Math.min(expected, max + 1), distance.getStringDistance(stringA, stringB, max));
+		}
+	}
+	
+	/**
+	 * @return a string of the given length, mostly from a small alphabet to get similar strings
+	 */
+	private String randomString(Random random, int length) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			builder.append(random.nextInt(10) == 0 ? (char) random.nextInt(0x3000) : (char) ('a' + random.nextInt(4)));
+		}
+		return builder.toString();
+	}
+	
+	/**
+	 * Calculates the Levenshtein distance with the complete distance matrix.
+	 */
+	private int referenceDistance(String stringA, String stringB) {
+		int[][] matrix = new int[stringA.length() + 1][stringB.length() + 1];
+		for (int i = 0; i <= stringA.length(); i++) {
+			matrix[i][0] = i;
+		}
+		for (int j = 0; j <= stringB.length(); j++) {
+			matrix[0][j] = j;
+		}
+		for (int i = 1; i <= stringA.length(); i++) {
+			for (int j = 1; j <= stringB.length(); j++) {
+				int cost = stringA.charAt(i - 1) == stringB.charAt(j - 1) ? 0 : 1;
+				matrix[i][j] = Math.min(matrix[i - 1][j - 1] + cost, Math.min(matrix[i - 1][j], matrix[i][j - 1]) + 1);
+			}
+		}
+		return matrix[stringA.length()][stringB.length()];
+	}
+}
@@ -0,0 +1,96 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import weka.core.Attribute;
+import weka.core.FastVector;
+import weka.core.Instance;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering.ProcessInstance;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering.ProcessInstances;
+
+/**
+ * Test class for {@link WeightedEuclideanDistance}.
+ * @author Cindy Fähnrich
+ *
+ */
+public class WeightedEuclideanDistanceTest {
+
+	@Test
+	public void testPrecomputedDistances() {
+		ProcessInstances data = createData();
+		WeightedEuclideanDistance distance = new WeightedEuclideanDistance(data);
+		compareDistances(distance, data);
+	}
+	
+	@Test
+	public void testPrecomputedDistancesWithMaximumFeatureValues() {
+		ProcessInstances data = createData();
+		ArrayList<double[]> normValues = new ArrayList<double[]>();
+		normValues.add(new double[] {100, 10, 1000});
+		normValues.add(new double[] {0, 0, 0});
+		WeightedEuclideanDistance distance = new WeightedEuclideanDistance(normValues);
+		distance.setInstances(data);
+		compareDistances(distance, data);
+	}
+	
+	@Test
+	public void testCutOff() {
+		ProcessInstances data = createData();
+		WeightedEuclideanDistance distance = new WeightedEuclideanDistance(data);
+		assertEquals(Double.POSITIVE_INFINITY, distance.distance(1, 2, 0.0), 0.0);
+		for (double cutOff = 0.5; cutOff < 100; cutOff *= 2) {
+			assertEquals(distance.distance(data.instance(1), data.instance(2), cutOff),
+					distance.distance(1, 2, cutOff), 0.0);
+		}
+	}
+	
+	private void compareDistances(WeightedEuclideanDistance distance, ProcessInstances data) {
+		for (int i = 0; i < data.numInstances(); i++) {
+			for (int j = 0; j < data.numInstances(); j++) {
+				double expected = distance.distance(data.instance(i), data.instance(j));
+				assertEquals(expected, distance.distance(i, j), 0.0);
+			}
+		}
+	}
+	
+	private ProcessInstances createData() {
+		FastVector attributes = new FastVector();
+		for (int j = 0; j < 3; j++) {
+			Attribute attribute = new Attribute("attribute" + j);
+			attribute.setWeight(j + 1);
+			attributes.addElement(attribute);
+		}
+		ProcessInstances data = new ProcessInstances("", attributes, null, 50);
+		Random random = new Random(42);
+		for (int i = 0; i < 50; i++) {
+			double[] values = {random.nextInt(100), random.nextDouble() * 10, random.nextInt(1000)};
+			if (i % 10 == 0) {
+				values[1] = Instance.missingValue();
+			}
+			data.add(new ProcessInstance(1, values));
+		}
+		return data;
+	}
+}
@@ -0,0 +1,90 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.collector.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.jbpt.pm.ProcessModel;
+import org.junit.Test;
+
+import weka.core.Attribute;
+import weka.core.FastVector;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering.ColumnarProcessInstances;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.clustering.FeatureVector;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.collector.FeatureVectorCollectorUnit;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.UnitData;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.UnitDataFeatureVector;
+
+/**
+ * Test class for {@link FeatureVectorCollectorUnit}.
+ * @author Cindy Fähnrich
+ *
+ */
+public class FeatureVectorCollectorUnitTest {
+
+	private FeatureVectorCollectorUnit unit = createUnit();
+	
+	private static FeatureVectorCollectorUnit createUnit() {
+		FastVector attributes = new FastVector();
+		attributes.addElement(new Attribute("activities"));
+		FastVector strAttributes = new FastVector();
+		strAttributes.addElement(new Attribute("label", (FastVector) null));
+		return new FeatureVectorCollectorUnit(attributes, strAttributes);
+	}
+	
+	private static UnitDataFeatureVector<Object> createInput(double activities, String label, String dbId) {
+		UnitDataFeatureVector<Object> input = new UnitDataFeatureVector<Object>(new ProcessModel(), dbId);
+		FeatureVector features = new FeatureVector();
+		features.addNumericFeature(activities);
+		features.addStringFeature(label);
+		input.setFeatureVector(features);
+		return input;
+	}
+	
+	@Test
+	public void testGetName(){
+		assertTrue(unit.getName().equals("FeatureVectorCollectorUnit"));
+	}
+	
+	@Test
+	public void testExecute(){
+		UnitDataFeatureVector<Object> input = createInput(3, "start", "#1");
+		assertEquals(input, unit.execute(input));
+		unit.execute(createInput(5, "end", "#2"));
+		ColumnarProcessInstances instances = unit.getInstances();
+		assertEquals(2, instances.numInstances());
+		assertEquals(5, instances.value(1, 0), 0);
+		assertEquals("start", instances.strValue(0, 0));
+		assertEquals("#2", instances.process(1));
+		// the results themselves are not kept
+		assertTrue(unit.getResult().isEmpty());
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testExecuteWithoutFeatureVector(){
+		unit.execute(new UnitData<Object>("test"));
+	}
+	
+	@Test
+	public void testReset(){
+		unit.execute(createInput(3, "start", "#1"));
+		unit.reset();
+		assertEquals(0, unit.getInstances().numInstances());
+	}
+}
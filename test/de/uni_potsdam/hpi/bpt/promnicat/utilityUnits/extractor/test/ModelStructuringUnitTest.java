@@ -0,0 +1,78 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.extractor.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.jbpt.pm.ProcessModel;
+import org.junit.Test;
+
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.TestModelBuilder;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.classification.StructuralModelChecker;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.extractor.ModelStructuringUnit;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitDataClassification;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.UnitDataClassification;
+
+/**
+ * Test class for {@link ModelStructuringUnit}.
+ * 
+ * @author Tobias Hoppe
+ */
+public class ModelStructuringUnitTest {
+
+	private static final ModelStructuringUnit unit = new ModelStructuringUnit();
+	
+	@Test
+	public void testGetName(){
+		assertTrue(unit.getName().equals("ModelStructuringUnit"));
+	}
+	
+	@Test
+	public void testGetInputType(){
+		assertEquals(ProcessModel.class, unit.getInputType());
+	}
+	
+	@Test
+	public void testGetOutputType(){
+		assertEquals(ProcessModel.class, unit.getOutputType());
+	}
+	
+	@Test
+	public void testExecute() throws Exception {
+		IUnitDataClassification<Object> unitData = new UnitDataClassification<Object>(TestModelBuilder.getUnstructuredAcyclicModel());
+		unit.execute(unitData);
+		assertFalse(unitData.isStructured());
+		assertTrue(unitData.canBeStructured());
+		assertNotNull(unitData.getStructuredModel());
+		assertTrue(StructuralModelChecker.isStructured(unitData.getStructuredModel()));
+		assertTrue(unitData.getExpansionFactor() >= 1.0);
+	}
+	
+	@Test
+	public void testExecuteWithExceededBudget() throws Exception {
+		IUnitDataClassification<Object> unitData = new UnitDataClassification<Object>(TestModelBuilder.getUnstructuredAcyclicModel());
+		new ModelStructuringUnit(1, 1000).execute(unitData);
+		assertFalse(unitData.isStructured());
+		assertFalse(unitData.canBeStructured());
+		assertNull(unitData.getStructuredModel());
+	}
+}
@@ -67,8 +67,10 @@ public class PetriNetAnalyzerUnitTest {
 		} catch (Exception e) {
 			fail("Model to PetriNet convertion failed with: " + e.getMessage());
 		}
-		//TODO check all attributes coming from LoLA Soundness checker
 		assertTrue(unitData.getSoundnessResults().isClassicalSound());
+		assertTrue(unitData.getSoundnessResults().isBounded());
+		assertTrue(unitData.getSoundnessResults().hasLiveness());
+		assertTrue(unitData.getSoundnessResults().getDeadTransitions().isEmpty());
 		assertFalse(unitData.isCyclic());
 		assertTrue(unitData.isFreeChoice());
 		assertTrue(unitData.isExtendedFreeChoice());
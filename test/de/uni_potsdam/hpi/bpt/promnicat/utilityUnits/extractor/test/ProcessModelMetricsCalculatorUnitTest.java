@@ -112,4 +112,32 @@ public class ProcessModelMetricsCalculatorUnitTest {
 			fail("got unexpected error with message: " + e.getMessage() + "\n" + e.getStackTrace().toString());
 		}
 	}
+
+	@Test
+	public void testParallelCalculation() {
+		IUnitDataProcessMetrics<Object> sequentialResult = new UnitDataProcessMetrics<Object>(TestModelBuilder.getConnectedProcessModel());
+		try{
+			ProcessModelMetricsCalculatorUnit parallelUnit = new ProcessModelMetricsCalculatorUnit();
+			parallelUnit.setParallelCalculation(1, 4);
+			unit.execute(sequentialResult);
+			//repeat the calculation to detect nondeterministic results of concurrently calculated metrics
+			for (int i = 0; i < 20; i++) {
+				IUnitDataProcessMetrics<Object> parallelResult = new UnitDataProcessMetrics<Object>(TestModelBuilder.getConnectedProcessModel());
+				parallelUnit.execute(parallelResult);
+				for (ProcessMetricConstants.METRICS metric : ProcessMetricConstants.METRICS.values()) {
+					assertEquals(metric.toString(), metric.getAttribute(sequentialResult), metric.getAttribute(parallelResult), 0.0000001);
+				}
+				assertEquals(sequentialResult.getDensityRelatedToNumberOfGateways(), parallelResult.getDensityRelatedToNumberOfGateways(), 0.0000001);
+			}
+			//the pool is reused for the same parallelism and replaced otherwise
+			parallelUnit.setParallelCalculation(1, 4);
+			parallelUnit.setParallelCalculation(1, 2);
+			IUnitDataProcessMetrics<Object> parallelResult = new UnitDataProcessMetrics<Object>(TestModelBuilder.getConnectedProcessModel());
+			parallelUnit.execute(parallelResult);
+			assertEquals(sequentialResult.getDiameter(), parallelResult.getDiameter());
+			parallelUnit.setParallelCalculation(0, 0);
+		} catch (IllegalTypeException e) {
+			fail("got unexpected error with message: " + e.getMessage() + "\n" + e.getStackTrace().toString());
+		}
+	}
 }
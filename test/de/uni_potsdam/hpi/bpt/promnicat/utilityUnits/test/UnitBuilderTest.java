@@ -132,7 +132,7 @@ public class UnitBuilderTest {
 			builder.createProcessModelLabelExtractorUnit();
 			builder.createLabelFilterUnit("");
 			
-			assertTrue(builder.getChain().getUnits().size() == 10);
+			assertTrue(builder.getChain().getUnits().size() == 9);
 			assertTrue(builder.getChain().getLastUnit() instanceof ICollectorUnit<?,?>);
 			assertTrue(builder.getChain().getFirstUnit() instanceof DatabaseFilterUnit);
 		} catch (Exception e) {
@@ -152,7 +152,7 @@ public class UnitBuilderTest {
 			
 			fail("An expected error has not been thrown!");
 		} catch (IllegalTypeException e) {
-			assertTrue(builder.getChain().getUnits().size() == 4);
+			assertTrue(builder.getChain().getUnits().size() == 3);
 			assertTrue(builder.getChain().getLastUnit() instanceof ICollectorUnit<?,?>);
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -225,7 +225,7 @@ public class UnitBuilderTest {
 			
 			fail("An expected error has not been thrown!");
 		} catch (IllegalTypeException e) {
-			assertTrue(builder.getChain().getUnits().size() == 4);
+			assertTrue(builder.getChain().getUnits().size() == 3);
 			assertTrue(builder.getChain().getLastUnit() instanceof ICollectorUnit<?,?>);
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -245,7 +245,7 @@ public class UnitBuilderTest {
 			
 			fail("An expected error has not been thrown!");
 		} catch (IllegalTypeException e) {
-			assertTrue(builder.getChain().getUnits().size() == 5);
+			assertTrue(builder.getChain().getUnits().size() == 4);
 			assertTrue(builder.getChain().getLastUnit() instanceof ICollectorUnit<?,?>);
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -0,0 +1,107 @@
+/**
+ * PromniCAT - Collection and Analysis of Business Process Models
+ * Copyright (C) 2012 Cindy Fähnrich, Tobias Hoppe, Andrina Mascher
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.transformer.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.jbpt.pm.FlowNode;
+import org.jbpt.pm.ProcessModel;
+import org.jbpt.pm.epc.Epc;
+import org.junit.Test;
+
+import de.uni_potsdam.hpi.bpt.ai.diagram.DiagramBuilder;
+import de.uni_potsdam.hpi.bpt.promnicat.parser.ModelParser;
+import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Representation;
+import de.uni_potsdam.hpi.bpt.promnicat.util.IllegalTypeException;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.transformer.BpmaiJsonToJbptUnit;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.IUnitData;
+import de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.unitData.UnitDataJbpt;
+
+/**
+ * Test class for {@link BpmaiJsonToJbptUnit}
+ * @author Tobias Hoppe
+ *
+ */
+public class BpmaiJsonToJbptUnitTest {
+
+	private BpmaiJsonToJbptUnit unit = new BpmaiJsonToJbptUnit(false);
+
+	private Representation createRepresentation(String path) throws Exception {
+		Representation representation = new Representation();
+		representation.importFile(new File(path));
+		return representation;
+	}
+	
+	private ArrayList<String> getLabels(ProcessModel model) {
+		ArrayList<String> labels = new ArrayList<String>();
+		for (FlowNode node : model.getFlowNodes()) {
+			labels.add(node.getName());
+		}
+		Collections.sort(labels);
+		return labels;
+	}
+	
+	@Test
+	public void testGetName(){
+		assertTrue(unit.getName().equals("BpmaiJsonToJbptUnit"));
+	}
+	
+	@Test
+	public void testExecute() throws Exception {
+		String[] paths = new String[] {"resources/BPMAI/model_epc1/model_1_.json", "resources/BPMAI/model_epc1/model_2_.json",
+				"resources/BPMAI/model_bpmn0/1234/BPMN/2012-01-01_Test Model/model_rev1.json"};
+		for (String path : paths) {
+			UnitDataJbpt<Object> input = new UnitDataJbpt<Object>(createRepresentation(path));
+			IUnitData<Object> result = unit.execute(input);
+			ProcessModel model = (ProcessModel) result.getValue();
+			assertEquals(model, input.getProcessModel());
+			
+			String json = new String(createRepresentation(path).getDataContent(), "UTF-8");
+			ProcessModel expected = new ModelParser(false).transformProcess(DiagramBuilder.parseJson(json));
+			assertEquals(expected.getClass(), model.getClass());
+			assertEquals(expected.getFlowNodes().size(), model.getFlowNodes().size());
+			assertEquals(expected.getControlFlow().size(), model.getControlFlow().size());
+			assertEquals(getLabels(expected), getLabels(model));
+		}
+	}
+	
+	@Test
+	public void testExecuteEpc() throws Exception {
+		IUnitData<Object> result = unit.execute(new UnitDataJbpt<Object>(createRepresentation("resources/BPMAI/model_epc1/model_2_.json")));
+		assertTrue(result.getValue() instanceof Epc);
+	}
+	
+	@Test
+	public void testExecuteUtf8() throws Exception {
+		IUnitData<Object> result = unit.execute(new UnitDataJbpt<Object>(createRepresentation("resources/BPMAI/model_bpmn0/1234/BPMN/2012-01-01_Test Model/model_rev1.json")));
+		assertTrue(getLabels((ProcessModel) result.getValue()).contains("Flughäfen ausgeben"));
+	}
+	
+	@Test
+	public void testInvalidJson() throws IllegalTypeException {
+		Representation representation = new Representation();
+		representation.setDataContent("{\"resourceId\": ".getBytes());
+		assertNull(unit.execute(new UnitDataJbpt<Object>(representation)).getValue());
+	}
+}
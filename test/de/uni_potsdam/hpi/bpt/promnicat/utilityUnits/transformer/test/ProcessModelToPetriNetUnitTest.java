@@ -19,6 +19,7 @@ package de.uni_potsdam.hpi.bpt.promnicat.utilityUnits.transformer.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
@@ -28,6 +29,7 @@ import org.jbpt.pm.bpmn.Bpmn;
 import org.junit.Test;
 
 import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.TestModelBuilder;
+import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.classification.BinaryPetriNetSerializer;
 import de.uni_potsdam.hpi.bpt.promnicat.analysisModules.classification.PetriNetSerializer;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.IPersistenceApi;
 import de.uni_potsdam.hpi.bpt.promnicat.persistenceApi.Model;
@@ -85,6 +87,8 @@ public class ProcessModelToPetriNetUnitTest {
 		assertEquals(12, pn.getPlaces().size());
 		assertEquals(11, pn.getTransitions().size());
 		assertEquals(2, pn.getSilentTransitions().size());
+		//analysis results of the model are shared with subsequent units
+		assertSame(this.model, unitData.getAnalysisContext().getProcessModel());
 	}
 	
 	@Test
@@ -105,14 +109,63 @@ public class ProcessModelToPetriNetUnitTest {
 		Model model = persistenceApi.loadCompleteModelWithDbId(repr.getModel().getDbId());
 		boolean found = false;
 		for(Representation representation : model.getLatestRevision().getRepresentations()) {
-			if(representation.getFormat().equals(Constants.FORMATS.PNML.toString()) && representation.getNotation().equals(Constants.NOTATIONS.PETRINET.toString())) {
+			if(representation.getFormat().equals(Constants.FORMATS.PETRINET_BINARY.toString()) && representation.getNotation().equals(Constants.NOTATIONS.PETRINET.toString())) {
 				found = true;
 				assertNotNull(representation.getDataContent());
-				PetriNet petriNet = PetriNetSerializer.parsePetriNet(representation.getDataContent());
+				PetriNet petriNet = BinaryPetriNetSerializer.parsePetriNet(representation.getDataContent());
 				assertEquals(pn.getNodes().size(), petriNet.getNodes().size());
 				assertEquals(pn.getEdges().size(), petriNet.getEdges().size());
 			}
 		}
 		assertTrue("Petri Net has not been saved as expected!", found);
 	}
+
+	@Test
+	public void testLookUpWithDbAccess() throws IllegalTypeException {
+		Representation repr = RepresentationFactory.createLightweightRepresentation();
+		persistenceApi.savePojo(repr.getModel());
+		IUnitDataClassification<Object> unitData = new UnitDataClassification<Object>(this.model);
+		unitData.setDbId(repr.getDbId());
+		ModelToPetriNetUnit unitPm2Pn = new ModelToPetriNetUnit(this.persistenceApi);
+		PetriNet pn = (PetriNet) unitPm2Pn.execute(unitData).getValue();
+
+		//look up in index without any process model to transform
+		IUnitDataClassification<Object> indexedData = new UnitDataClassification<Object>();
+		indexedData.setDbId(repr.getDbId());
+		PetriNet indexedPn = (PetriNet) unitPm2Pn.execute(indexedData).getValue();
+		assertNotNull(indexedPn);
+		assertNotSame(pn, indexedPn);
+		assertSame(indexedPn, indexedData.getPetriNet());
+		assertEquals(pn.getNodes().size(), indexedPn.getNodes().size());
+		assertEquals(pn.getFlow().size(), indexedPn.getFlow().size());
+
+		//look up in database by a new unit having an empty index
+		IUnitDataClassification<Object> savedData = new UnitDataClassification<Object>();
+		savedData.setDbId(repr.getDbId());
+		PetriNet savedPn = (PetriNet) new ModelToPetriNetUnit(this.persistenceApi).execute(savedData).getValue();
+		assertNotNull(savedPn);
+		assertEquals(pn.getNodes().size(), savedPn.getNodes().size());
+		assertEquals(pn.getFlow().size(), savedPn.getFlow().size());
+	}
+
+	@Test
+	public void testLookUpOfPnml() throws IllegalTypeException {
+		Representation repr = RepresentationFactory.createLightweightRepresentation();
+		PetriNet pn = (PetriNet) unit.execute(new UnitDataClassification<Object>(this.model)).getValue();
+		repr.getRevision().connectRepresentation(new Representation(Constants.FORMATS.PNML.toString(),
+				Constants.NOTATIONS.PETRINET.toString(), PetriNetSerializer.serialize(pn)));
+		persistenceApi.savePojo(repr.getModel());
+
+		IUnitDataClassification<Object> unitData = new UnitDataClassification<Object>();
+		unitData.setDbId(repr.getDbId());
+		PetriNet savedPn = (PetriNet) new ModelToPetriNetUnit(this.persistenceApi).execute(unitData).getValue();
+		assertNotNull(savedPn);
+		assertEquals(pn.getNodes().size(), savedPn.getNodes().size());
+		assertEquals(pn.getFlow().size(), savedPn.getFlow().size());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidIndexSize() {
+		new ModelToPetriNetUnit(this.persistenceApi, 0);
+	}
 }